@@ -1,12 +1,20 @@
 package org.jjavaglue.math;
 
 import org.dflib.*;
+import org.jjavaglue.dflib.Columns;
+
+import java.util.stream.IntStream;
 
 /**
  * Utility class for converting between DFLib and Commons Math data structures.
  */
 public class DataConverter {
 
+  // Frames below this many cells are converted on the calling thread
+  private static final int PARALLEL_CELLS = 1 << 16;
+  // Rows per task of a row-major conversion, so that threads never write to the same cache lines
+  private static final int BLOCK_ROWS = 4096;
+
   /**
    * Converts a DFLib DataFrame to a 2D double array.
    * Handles numeric columns only. Categorical columns should be one-hot encoded first.
@@ -19,10 +27,11 @@ public class DataConverter {
     int cols = df.width();
     double[][] result = new double[rows][cols];
 
-    for (int i = 0; i < rows; i++) {
-      for (int j = 0; j < cols; j++) {
-        Object value = df.get(j, i);
-        result[i][j] = convertToDouble(value);
+    // Convert one column at a time so typed columns are copied without boxing
+    for (int j = 0; j < cols; j++) {
+      double[] column = seriesToDoubleArray(df.getColumn(j));
+      for (int i = 0; i < rows; i++) {
+        result[i][j] = column[i];
       }
     }
 
@@ -30,40 +39,55 @@ public class DataConverter {
   }
 
   /**
-   * Converts a DFLib Series to a double array.
+   * Converts a DFLib DataFrame to a matrix of doubles in one flat array, row by row or column by column, converting
+   * values as {@link #seriesToDoubleArray(Series)} does. Columns are copied straight into the array, in parallel:
+   * one task per column for a column-major matrix, and one task per block of rows, column by column, for a
+   * row-major one.
+   *
+   * @param df       the input DataFrame
+   * @param rowMajor whether to store the matrix row by row rather than column by column
+   * @return a view of a new array of df.height() x df.width() values
+   */
+  public static MatrixView dataFrameToMatrix(DataFrame df, boolean rowMajor) {
+    int rows = df.height();
+    int cols = df.width();
+    long cells = (long) rows * cols;
+    if (cells > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("A " + rows + "x" + cols + " frame is too large for one array");
+    }
+    double[] data = new double[(int) cells];
+    Series<?>[] columns = new Series<?>[cols];
+    for (int j = 0; j < cols; j++) {
+      columns[j] = df.getColumn(j);
+    }
+
+    if (rowMajor) {
+      IntStream blocks = IntStream.range(0, (rows + BLOCK_ROWS - 1) / BLOCK_ROWS);
+      (cells < PARALLEL_CELLS ? blocks : blocks.parallel()).forEach(b -> {
+        int from = b * BLOCK_ROWS;
+        int to = Math.min(rows, from + BLOCK_ROWS);
+        for (int j = 0; j < cols; j++) {
+          Columns.copyDoubles(columns[j], from, to, data, from * cols + j, cols);
+        }
+      });
+      return MatrixView.rowMajor(data, rows, cols);
+    }
+
+    IntStream byColumn = IntStream.range(0, cols);
+    (cells < PARALLEL_CELLS ? byColumn : byColumn.parallel())
+        .forEach(j -> Columns.copyDoubles(columns[j], 0, rows, data, j * rows, 1));
+    return MatrixView.columnMajor(data, rows, cols);
+  }
+
+  /**
+   * Converts a DFLib Series to a double array. Primitive series are copied directly, so columns loaded with
+   * DS.read are never parsed again.
    *
    * @param series the input Series
    * @return a double array containing the numeric values of the Series
    */
   public static double[] seriesToDoubleArray(Series<?> series) {
-    // Optimize for common series types
-    if (series instanceof DoubleSeries) {
-      return ((DoubleSeries) series).toDoubleArray();
-    } else if (series instanceof IntSeries) {
-      int[] intArray = ((IntSeries) series).toIntArray();
-      double[] result = new double[intArray.length];
-      for (int i = 0; i < intArray.length; i++) {
-        result[i] = intArray[i];
-      }
-      return result;
-    } else if (series instanceof LongSeries) {
-      long[] longArray = ((LongSeries) series).toLongArray();
-      double[] result = new double[longArray.length];
-      for (int i = 0; i < longArray.length; i++) {
-        result[i] = longArray[i];
-      }
-      return result;
-    } else {
-      // Generic path for other series types
-      int size = series.size();
-      double[] result = new double[size];
-
-      for (int i = 0; i < size; i++) {
-        result[i] = convertToDouble(series.get(i));
-      }
-
-      return result;
-    }
+    return Columns.toDoubleArray(series);
   }
 
   /**
@@ -101,28 +125,4 @@ public class DataConverter {
     }
   }
 
-  /**
-   * Converts various types to double.
-   *
-   * @param value the input value
-   * @return the value converted to double
-   */
-  private static double convertToDouble(Object value) {
-    if (value == null) {
-      return Double.NaN;
-    } else if (value instanceof Number) {
-      return ((Number) value).doubleValue();
-    } else if (value instanceof String) {
-      try {
-        return Double.parseDouble((String) value);
-      } catch (NumberFormatException e) {
-        // Handle categorical values - could use one-hot encoding
-        // For now, just return NaN for non-numeric strings
-        return Double.NaN;
-      }
-    } else {
-      // For other types, just return NaN
-      return Double.NaN;
-    }
-  }
-}
\ No newline at end of file
+}
@@ -1,15 +1,23 @@
 package org.jjavaglue.math;
 
-import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.QRDecomposition;
+import org.apache.commons.math3.linear.SingularMatrixException;
 import org.dflib.DataFrame;
 import org.dflib.Series;
 
+import java.util.Arrays;
+import java.util.stream.Stream;
+
 /**
  * Linear Regression model implementation using Apache Commons Math.
  */
 public class LinearRegression implements Model {
 
-  private OLSMultipleLinearRegression regression;
+  // Columns with less than this fraction of their magnitude left in the decomposition are linearly dependent
+  private static final double SINGULAR = 1e-12;
+
   private double[] coefficients;
   private double intercept;
   private String[] featureNames;
@@ -25,44 +33,243 @@ public class LinearRegression implements Model {
 
   @Override
   public Model fit(DataFrame X, Series<?> y) {
-    // Convert DFLib DataFrame to double[][]
-    double[][] xData = DataConverter.dataFrameToArray(X);
-    double[] yData = DataConverter.seriesToDoubleArray(y);
+    // Convert DFLib DataFrame to a flat column-major matrix
+    fit(DataConverter.dataFrameToMatrix(X, false), DataConverter.seriesToDoubleArray(y));
 
     // Store feature names
     featureNames = X.getColumnsIndex().toArray();
+    return this;
+  }
+
+  /**
+   * Trains the model on a matrix of features, one row per observation, such as one made by
+   * {@link DataConverter#dataFrameToMatrix(DataFrame, boolean)}. Features are named x0, x1, ... The matrix is read
+   * in either layout into one column-major working copy of the centred features, which is solved by a Householder
+   * QR decomposition, so that nearly collinear features lose no more precision than with a QR of X itself.
+   *
+   * @param X the feature matrix
+   * @param y the target value of every row of X
+   * @return the trained model (for method chaining)
+   */
+  public Model fit(MatrixView X, double[] y) {
+    if (y.length != X.rows()) {
+      throw new IllegalArgumentException("Target has " + y.length + " values for " + X.rows() + " rows");
+    }
+    if (X.rows() <= X.cols() + 1) {
+      throw new IllegalArgumentException("Cannot fit " + X.cols() + " features and an intercept on " + X.rows()
+          + " rows");
+    }
+
+    leastSquares(X, y);
 
-    // Create and train Commons Math regression model
-    regression = new OLSMultipleLinearRegression();
-    regression.newSampleData(yData, xData);
+    featureNames = new String[X.cols()];
+    for (int j = 0; j < featureNames.length; j++) {
+      featureNames[j] = "x" + j;
+    }
+    return this;
+  }
 
-    // Extract model parameters
-    double[] fullCoefficients = regression.estimateRegressionParameters();
-    intercept = fullCoefficients[0];
-    coefficients = new double[fullCoefficients.length - 1];
-    System.arraycopy(fullCoefficients, 1, coefficients, 0, coefficients.length);
+  /**
+   * Trains the model on a stream of DataFrame chunks (e.g. from DS.stream()), so the dataset never has to fit in
+   * memory. Only the means and the sums of cross products around them are kept between chunks, merged chunk by
+   * chunk as in Chan's parallel variance, and solved at the end.
+   *
+   * @param chunks       chunks containing the feature columns and the target column
+   * @param targetColumn the name of the target column
+   * @return the trained model (for method chaining)
+   */
+  public Model fit(Stream<DataFrame> chunks, String targetColumn) {
+    CentredSums sums = new CentredSums();
+    chunks.forEach(chunk -> {
+      Object[] split = ML.splitTarget(chunk, targetColumn);
+      sums.add((DataFrame) split[0], (Series<?>) split[1]);
+    });
 
-    // Store regression statistics
-    rSquared = regression.calculateRSquared();
-    adjustedRSquared = regression.calculateAdjustedRSquared();
-    meanSquareError = regression.estimateErrorVariance();
+    if (sums.n == 0) {
+      throw new IllegalArgumentException("Cannot fit a model on an empty stream");
+    }
+
+    int p = sums.means.length;
+    coefficients = p == 0
+        ? new double[0]
+        : new QRDecomposition(new Array2DRowRealMatrix(sums.cxx, false))
+            .getSolver()
+            .solve(new ArrayRealVector(sums.cxy, false))
+            .toArray();
+    intercept = sums.yMean;
+    for (int j = 0; j < p; j++) {
+      intercept -= coefficients[j] * sums.means[j];
+    }
 
+    // Residual sum of squares around the means: Syy - 2βᵀSxy + βᵀSxxβ
+    double ssRes = sums.cyy;
+    for (int i = 0; i < p; i++) {
+      ssRes -= 2 * coefficients[i] * sums.cxy[i];
+      for (int j = 0; j < p; j++) {
+        ssRes += coefficients[i] * sums.cxx[i][j] * coefficients[j];
+      }
+    }
+    statistics(sums.n, p, Math.max(ssRes, 0), sums.cyy);
+    featureNames = sums.featureNames;
     return this;
   }
 
+  /**
+   * Least squares with an intercept, by a Householder QR decomposition of the centred features. Each reflection is
+   * applied to the remaining columns and to the centred target; the residual sum of squares is then what is left of
+   * the target below the first p rows.
+   */
+  private void leastSquares(MatrixView X, double[] y) {
+    int n = X.rows();
+    int p = X.cols();
+    double[] data = X.data();
+    int stride = X.stride();
+
+    double[] a = new double[Math.multiplyExact(n, p)];
+    if (X.isRowMajor()) {
+      for (int i = 0; i < n; i++) {
+        for (int j = 0, k = i * stride; j < p; j++, k++) {
+          a[j * n + i] = data[k];
+        }
+      }
+    } else {
+      for (int j = 0; j < p; j++) {
+        System.arraycopy(data, j * stride, a, j * n, n);
+      }
+    }
+
+    // A column is singular when centring leaves nothing of its magnitude, e.g. a constant one
+    double[] means = new double[p];
+    double[] scales = new double[p];
+    for (int j = 0, c = 0; j < p; j++, c += n) {
+      double sum = 0;
+      double squares = 0;
+      for (int i = c; i < c + n; i++) {
+        sum += a[i];
+        squares += a[i] * a[i];
+      }
+      means[j] = sum / n;
+      scales[j] = Math.sqrt(squares);
+      for (int i = c; i < c + n; i++) {
+        a[i] -= means[j];
+      }
+    }
+
+    double yMean = 0;
+    for (double v : y) {
+      yMean += v;
+    }
+    yMean /= n;
+    double[] b = new double[n];
+    double ssTot = 0;
+    for (int i = 0; i < n; i++) {
+      b[i] = y[i] - yMean;
+      ssTot += b[i] * b[i];
+    }
+
+    double[] diagonal = new double[p];
+    for (int k = 0, kc = 0; k < p; k++, kc += n) {
+      double norm = 0;
+      for (int i = kc + k; i < kc + n; i++) {
+        norm += a[i] * a[i];
+      }
+      norm = Math.sqrt(norm);
+      if (norm <= SINGULAR * scales[k]) {
+        throw new SingularMatrixException();
+      }
+
+      // The reflection vector v replaces column k from the diagonal down; vᵀv = 2 norm (norm + |a_kk|)
+      double akk = a[kc + k];
+      double alpha = akk > 0 ? -norm : norm;
+      a[kc + k] = akk - alpha;
+      double vv = 2 * norm * (norm + Math.abs(akk));
+      for (int j = k + 1, jc = kc + n; j < p; j++, jc += n) {
+        reflect(a, kc, a, jc, k, n, vv);
+      }
+      reflect(a, kc, b, 0, k, n, vv);
+      diagonal[k] = alpha;
+    }
+
+    coefficients = new double[p];
+    for (int k = p - 1; k >= 0; k--) {
+      double sum = b[k];
+      for (int j = k + 1; j < p; j++) {
+        sum -= a[j * n + k] * coefficients[j];
+      }
+      coefficients[k] = sum / diagonal[k];
+    }
+    intercept = yMean;
+    for (int j = 0; j < p; j++) {
+      intercept -= coefficients[j] * means[j];
+    }
+
+    double ssRes = 0;
+    for (int i = p; i < n; i++) {
+      ssRes += b[i] * b[i];
+    }
+    statistics(n, p, ssRes, ssTot);
+  }
+
+  /**
+   * Reflect rows k to n - 1 of a column by the vector v in rows k to n - 1 of another one
+   */
+  private static void reflect(double[] v, int vc, double[] column, int c, int k, int n, double vv) {
+    double dot = 0;
+    for (int i = k; i < n; i++) {
+      dot += v[vc + i] * column[c + i];
+    }
+    double factor = 2 * dot / vv;
+    for (int i = k; i < n; i++) {
+      column[c + i] -= factor * v[vc + i];
+    }
+  }
+
+  private void statistics(long n, int p, double ssRes, double ssTot) {
+    rSquared = 1 - ssRes / ssTot;
+    adjustedRSquared = 1 - (1 - rSquared) * (n - 1) / (n - p - 1);
+    meanSquareError = ssRes / (n - p - 1);
+  }
+
   @Override
   public double[] predict(DataFrame X) {
-    if (regression == null) {
+    if (coefficients == null) {
       throw new IllegalStateException("Model must be trained with fit() before making predictions");
     }
+    return predict(DataConverter.dataFrameToMatrix(X, false));
+  }
 
-    double[][] xData = DataConverter.dataFrameToArray(X);
-    double[] predictions = new double[xData.length];
+  /**
+   * Makes predictions for the rows of a feature matrix. A column-major matrix is read one column at a time.
+   *
+   * @param X the feature matrix, with the features in the order they were fitted
+   * @return the predicted value of every row
+   */
+  public double[] predict(MatrixView X) {
+    if (coefficients == null) {
+      throw new IllegalStateException("Model must be trained with fit() before making predictions");
+    }
+
+    double[] data = X.data();
+    int rows = X.rows();
+    int stride = X.stride();
+    int p = Math.min(X.cols(), coefficients.length);
+    double[] predictions = new double[rows];
 
-    for (int i = 0; i < xData.length; i++) {
-      predictions[i] = intercept;
-      for (int j = 0; j < xData[i].length && j < coefficients.length; j++) {
-        predictions[i] += coefficients[j] * xData[i][j];
+    if (X.isRowMajor()) {
+      for (int i = 0; i < rows; i++) {
+        double prediction = intercept;
+        for (int j = 0, k = i * stride; j < p; j++, k++) {
+          prediction += coefficients[j] * data[k];
+        }
+        predictions[i] = prediction;
+      }
+    } else {
+      Arrays.fill(predictions, intercept);
+      for (int j = 0; j < p; j++) {
+        double coefficient = coefficients[j];
+        for (int i = 0, k = j * stride; i < rows; i++, k++) {
+          predictions[i] += coefficient * data[k];
+        }
       }
     }
 
@@ -71,7 +278,7 @@ public class LinearRegression implements Model {
 
   @Override
   public String summary() {
-    if (regression == null) {
+    if (coefficients == null) {
       return "Untrained Linear Regression Model";
     }
 
@@ -159,4 +366,92 @@ public class LinearRegression implements Model {
   public double getMeanSquareError() {
     return meanSquareError;
   }
-}
\ No newline at end of file
+
+  /**
+   * Means of the features and the target, and sums of cross products of their deviations from the means, for an
+   * ordinary least squares fit with an intercept. Each chunk is centred on its own means, and then merged.
+   */
+  private static class CentredSums {
+    private String[] featureNames;
+    private double[] means;
+    private double yMean;
+    private double[][] cxx;
+    private double[] cxy;
+    private double cyy;
+    private long n;
+
+    void add(DataFrame X, Series<?> y) {
+      if (featureNames == null) {
+        featureNames = X.getColumnsIndex().toArray();
+        means = new double[featureNames.length];
+        cxx = new double[featureNames.length][featureNames.length];
+        cxy = new double[featureNames.length];
+      } else if (X.width() != featureNames.length) {
+        throw new IllegalArgumentException("Chunk has " + X.width() + " features, expected " + featureNames.length);
+      }
+      int rows = X.height();
+      if (rows == 0) {
+        return;
+      }
+
+      // A column-major copy of the chunk, centred in place
+      MatrixView matrix = DataConverter.dataFrameToMatrix(X, false);
+      double[] data = matrix.data();
+      int stride = matrix.stride();
+      double[] yData = DataConverter.seriesToDoubleArray(y);
+      int p = means.length;
+
+      double[] chunkMeans = new double[p];
+      for (int j = 0; j < p; j++) {
+        chunkMeans[j] = centre(data, j * stride, rows);
+      }
+      double chunkYMean = centre(yData, 0, rows);
+
+      // Merge the chunk: the sums of the two parts, plus the cross products of the differences of their means
+      double total = n + rows;
+      double weight = n * (double) rows / total;
+      double[] delta = new double[p];
+      for (int j = 0; j < p; j++) {
+        delta[j] = chunkMeans[j] - means[j];
+      }
+      double yDelta = chunkYMean - yMean;
+      for (int i = 0; i < p; i++) {
+        int ci = i * stride;
+        cxy[i] += dot(data, ci, yData, 0, rows) + delta[i] * yDelta * weight;
+        for (int j = i; j < p; j++) {
+          cxx[i][j] += dot(data, ci, data, j * stride, rows) + delta[i] * delta[j] * weight;
+          cxx[j][i] = cxx[i][j];
+        }
+      }
+      cyy += dot(yData, 0, yData, 0, rows) + yDelta * yDelta * weight;
+      for (int j = 0; j < p; j++) {
+        means[j] += delta[j] * rows / total;
+      }
+      yMean += yDelta * rows / total;
+      n += rows;
+    }
+
+    /**
+     * Subtract the mean of n values from each of them, and return it
+     */
+    private static double centre(double[] values, int from, int n) {
+      double sum = 0;
+      for (int i = from; i < from + n; i++) {
+        sum += values[i];
+      }
+      double mean = sum / n;
+      for (int i = from; i < from + n; i++) {
+        values[i] -= mean;
+      }
+      return mean;
+    }
+
+    private static double dot(double[] a, int aFrom, double[] b, int bFrom, int n) {
+      double sum = 0;
+      for (int i = 0; i < n; i++) {
+        sum += a[aFrom + i] * b[bFrom + i];
+      }
+      return sum;
+    }
+  }
+}
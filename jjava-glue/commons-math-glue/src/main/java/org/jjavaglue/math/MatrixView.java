@@ -0,0 +1,120 @@
+package org.jjavaglue.math;
+
+/**
+ * A matrix of doubles stored in a single flat array, row by row (row-major) or column by column (column-major).
+ * The stride is the distance in the array between the starts of two consecutive rows (row-major) or columns
+ * (column-major), so that a view can also cover the leading rows or columns of a larger matrix. The array is
+ * shared, not copied.
+ */
+public class MatrixView {
+
+  private final double[] data;
+  private final int rows;
+  private final int cols;
+  private final int stride;
+  private final boolean rowMajor;
+
+  private MatrixView(double[] data, int rows, int cols, int stride, boolean rowMajor) {
+    if (rows < 0 || cols < 0) {
+      throw new IllegalArgumentException("Matrix size must not be negative: " + rows + "x" + cols);
+    }
+    int inner = rowMajor ? cols : rows;
+    int outer = rowMajor ? rows : cols;
+    if (stride < inner) {
+      throw new IllegalArgumentException("Stride " + stride + " is less than the " + (rowMajor ? "row" : "column")
+          + " length " + inner);
+    }
+    if (outer > 0 && inner > 0 && (long) (outer - 1) * stride + inner > data.length) {
+      throw new IllegalArgumentException("A " + rows + "x" + cols + " matrix with stride " + stride
+          + " does not fit in an array of " + data.length);
+    }
+    this.data = data;
+    this.rows = rows;
+    this.cols = cols;
+    this.stride = stride;
+    this.rowMajor = rowMajor;
+  }
+
+  /**
+   * A view of rows x cols values stored row by row, with no gap between rows
+   */
+  public static MatrixView rowMajor(double[] data, int rows, int cols) {
+    return new MatrixView(data, rows, cols, cols, true);
+  }
+
+  /**
+   * A view of rows x cols values stored row by row, each row starting "stride" values after the previous one
+   */
+  public static MatrixView rowMajor(double[] data, int rows, int cols, int stride) {
+    return new MatrixView(data, rows, cols, stride, true);
+  }
+
+  /**
+   * A view of rows x cols values stored column by column, with no gap between columns
+   */
+  public static MatrixView columnMajor(double[] data, int rows, int cols) {
+    return new MatrixView(data, rows, cols, rows, false);
+  }
+
+  /**
+   * A view of rows x cols values stored column by column, each column starting "stride" values after the
+   * previous one
+   */
+  public static MatrixView columnMajor(double[] data, int rows, int cols, int stride) {
+    return new MatrixView(data, rows, cols, stride, false);
+  }
+
+  public double[] data() {
+    return data;
+  }
+
+  public int rows() {
+    return rows;
+  }
+
+  public int cols() {
+    return cols;
+  }
+
+  public int stride() {
+    return stride;
+  }
+
+  public boolean isRowMajor() {
+    return rowMajor;
+  }
+
+  /**
+   * Position in {@link #data()} of the value at a row and column
+   */
+  public int index(int row, int col) {
+    if (row < 0 || row >= rows || col < 0 || col >= cols) {
+      throw new IndexOutOfBoundsException("(" + row + ", " + col + ") is outside a " + rows + "x" + cols
+          + " matrix");
+    }
+    return rowMajor ? row * stride + col : col * stride + row;
+  }
+
+  public double get(int row, int col) {
+    return data[index(row, col)];
+  }
+
+  /**
+   * Copy the matrix into an array of rows
+   */
+  public double[][] toArray() {
+    double[][] result = new double[rows][cols];
+    if (rowMajor) {
+      for (int i = 0; i < rows; i++) {
+        System.arraycopy(data, i * stride, result[i], 0, cols);
+      }
+    } else {
+      for (int j = 0; j < cols; j++) {
+        for (int i = 0, k = j * stride; i < rows; i++, k++) {
+          result[i][j] = data[k];
+        }
+      }
+    }
+    return result;
+  }
+}
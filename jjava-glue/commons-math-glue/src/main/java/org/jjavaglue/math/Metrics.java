@@ -1,7 +1,10 @@
 package org.jjavaglue.math;
 
+import org.dflib.DataFrame;
 import org.dflib.Series;
 
+import java.util.stream.Stream;
+
 /**
  * Utility class for calculating model evaluation metrics.
  */
@@ -84,4 +87,88 @@ public class Metrics {
     // R² = 1 - (SSres / SStot)
     return 1 - (ssRes / ssTot);
   }
-}
\ No newline at end of file
+
+  /**
+   * Creates an accumulator that computes MAE, MSE, RMSE and R² incrementally,
+   * one chunk of (truth, predictions) at a time.
+   *
+   * @return a new, empty accumulator
+   */
+  public static Accumulator accumulator() {
+    return new Accumulator();
+  }
+
+  /**
+   * Evaluates a model over a stream of DataFrame chunks without materializing the whole dataset.
+   *
+   * @param model        the trained model
+   * @param chunks       chunks containing the feature columns and the target column
+   * @param targetColumn the name of the target column
+   * @return an accumulator holding the metrics over all chunks
+   */
+  public static Accumulator evaluate(Model model, Stream<DataFrame> chunks, String targetColumn) {
+    Accumulator accumulator = new Accumulator();
+    chunks.forEach(chunk -> {
+      Object[] split = ML.splitTarget(chunk, targetColumn);
+      accumulator.update((Series<?>) split[1], model.predict((DataFrame) split[0]));
+    });
+    return accumulator;
+  }
+
+  /**
+   * Running regression metrics. The truth variance needed for R² is tracked with
+   * Welford's algorithm so the result matches {@link #r2(Series, double[])} over
+   * the concatenated chunks.
+   */
+  public static class Accumulator {
+    private long count;
+    private double absErrorSum;
+    private double squaredErrorSum;
+    private double truthMean;
+    private double truthM2;
+
+    /**
+     * Adds one chunk of true values and the matching predictions.
+     *
+     * @param truth       the true values
+     * @param predictions the predicted values
+     * @return this accumulator
+     */
+    public Accumulator update(Series<?> truth, double[] predictions) {
+      double[] truthArray = DataConverter.seriesToDoubleArray(truth);
+
+      for (int i = 0; i < truthArray.length; i++) {
+        double diff = truthArray[i] - predictions[i];
+        absErrorSum += Math.abs(diff);
+        squaredErrorSum += diff * diff;
+
+        count++;
+        double delta = truthArray[i] - truthMean;
+        truthMean += delta / count;
+        truthM2 += delta * (truthArray[i] - truthMean);
+      }
+
+      return this;
+    }
+
+    public long count() {
+      return count;
+    }
+
+    public double mae() {
+      return absErrorSum / count;
+    }
+
+    public double mse() {
+      return squaredErrorSum / count;
+    }
+
+    public double rmse() {
+      return Math.sqrt(mse());
+    }
+
+    public double r2() {
+      return 1 - (squaredErrorSum / truthM2);
+    }
+  }
+}
@@ -2,6 +2,8 @@ package org.jjavaglue.math;
 
 import org.assertj.core.api.Assertions;
 import org.assertj.core.data.Offset;
+import org.apache.commons.math3.linear.SingularMatrixException;
+import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
 import org.dflib.DataFrame;
 import org.dflib.Series;
 import org.dflib.series.ArraySeries;
@@ -9,6 +11,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -130,4 +136,152 @@ public class LinearRegressionTest {
     assertThat(summary).contains("x1");
     assertThat(summary).contains("x2");
   }
-}
\ No newline at end of file
+
+  @Test
+  @DisplayName("LinearRegression fitted on chunks should match the in-memory fit")
+  public void testFitStream() {
+    Series<Double> x1 = new ArraySeries<>(1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0, 10.0);
+    Series<Double> x2 = new ArraySeries<>(5.0, 4.0, 6.0, 3.0, 7.0, 2.0, 8.0, 1.0, 9.0, 0.0);
+    Series<Double> y = new ArraySeries<>(10.1, 10.2, 15.3, 14.9, 20.0, 17.1, 25.0, 19.8, 30.2, 22.9);
+    DataFrame df = DataFrame.byColumn("x1", "x2", "y").of(x1, x2, y);
+
+    LinearRegression expected = new LinearRegression();
+    expected.fit(df.cols("x1", "x2").select(), y);
+
+    model.fit(Stream.of(df.rows(0, 1, 2, 3).select(), df.rows(4, 5, 6, 7, 8, 9).select()), "y");
+
+    assertThat(model.getFeatureNames()).containsExactly("x1", "x2");
+    assertThat(model.getIntercept()).isCloseTo(expected.getIntercept(), Offset.offset(1e-9));
+    assertThat(model.getCoefficients()[0]).isCloseTo(expected.getCoefficients()[0], Offset.offset(1e-9));
+    assertThat(model.getCoefficients()[1]).isCloseTo(expected.getCoefficients()[1], Offset.offset(1e-9));
+    assertThat(model.getRSquared()).isCloseTo(expected.getRSquared(), Offset.offset(1e-9));
+    assertThat(model.getAdjustedRSquared()).isCloseTo(expected.getAdjustedRSquared(), Offset.offset(1e-9));
+    assertThat(model.getMeanSquareError()).isCloseTo(expected.getMeanSquareError(), Offset.offset(1e-9));
+    assertThat(model.summary()).contains("x2");
+  }
+
+  @Test
+  @DisplayName("DataFrames should convert to flat row-major and column-major matrices")
+  public void testDataFrameToMatrix() {
+    DataFrame df = DataFrame.byColumn("i", "d", "o").of(Series.ofInt(1, 2, 3), Series.ofDouble(0.5, 1.5, 2.5),
+        new ArraySeries<>(7L, 8, "9"));
+
+    MatrixView rowMajor = DataConverter.dataFrameToMatrix(df, true);
+    assertThat(rowMajor.isRowMajor()).isTrue();
+    assertThat(rowMajor.stride()).isEqualTo(3);
+    assertThat(rowMajor.data()).containsExactly(1, 0.5, 7, 2, 1.5, 8, 3, 2.5, 9);
+
+    MatrixView columnMajor = DataConverter.dataFrameToMatrix(df, false);
+    assertThat(columnMajor.stride()).isEqualTo(3);
+    assertThat(columnMajor.data()).containsExactly(1, 2, 3, 0.5, 1.5, 2.5, 7, 8, 9);
+    assertThat(columnMajor.get(2, 1)).isEqualTo(2.5);
+    assertThat(columnMajor.toArray()).isDeepEqualTo(rowMajor.toArray());
+
+    // A view with a stride covers the leading rows of a larger matrix
+    MatrixView firstColumns = MatrixView.columnMajor(columnMajor.data(), 2, 3, 3);
+    assertThat(firstColumns.toArray()).isDeepEqualTo(new double[][]{{1, 0.5, 7}, {2, 1.5, 8}});
+    Assertions.assertThatThrownBy(() -> MatrixView.rowMajor(new double[5], 2, 3))
+        .isInstanceOf(IllegalArgumentException.class);
+    Assertions.assertThatThrownBy(() -> rowMajor.get(3, 0)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  @DisplayName("LinearRegression should fit and predict flat matrices in either layout")
+  public void testFitMatrix() {
+    // Large enough to be converted in parallel
+    int rows = 50_000;
+    Random random = new Random(1);
+    int[] x1 = new int[rows];
+    double[] x2 = new double[rows];
+    double[] y = new double[rows];
+    for (int i = 0; i < rows; i++) {
+      x1[i] = random.nextInt(100);
+      x2[i] = random.nextGaussian();
+      y[i] = 3 + 2 * x1[i] - 4 * x2[i] + random.nextGaussian() * 0.1;
+    }
+    DataFrame df = DataFrame.byColumn("x1", "x2").of(Series.ofInt(x1), Series.ofDouble(x2));
+
+    model.fit(df, Series.ofDouble(y));
+    double[] expected = model.predict(df);
+
+    LinearRegression flat = new LinearRegression();
+    flat.fit(DataConverter.dataFrameToMatrix(df, true), y);
+    assertThat(flat.getFeatureNames()).containsExactly("x0", "x1");
+    assertThat(flat.getIntercept()).isCloseTo(model.getIntercept(), Offset.offset(1e-9));
+    assertThat(flat.getCoefficients()[0]).isCloseTo(2.0, Offset.offset(1e-3));
+    assertThat(flat.getCoefficients()[1]).isCloseTo(-4.0, Offset.offset(1e-2));
+    assertThat(flat.getRSquared()).isCloseTo(model.getRSquared(), Offset.offset(1e-12));
+
+    double[] byRow = flat.predict(DataConverter.dataFrameToMatrix(df, true));
+    double[] byColumn = flat.predict(DataConverter.dataFrameToMatrix(df, false));
+    for (int i = 0; i < rows; i += 997) {
+      assertThat(byRow[i]).isCloseTo(expected[i], Offset.offset(1e-9));
+      assertThat(byColumn[i]).isCloseTo(expected[i], Offset.offset(1e-9));
+    }
+
+    // Column-major views, with a stride over a larger matrix, fit the same
+    MatrixView columns = DataConverter.dataFrameToMatrix(df, false);
+    LinearRegression byColumns = new LinearRegression();
+    byColumns.fit(columns, y);
+    assertThat(byColumns.getCoefficients()).containsExactly(flat.getCoefficients(), Offset.offset(1e-9));
+    double[] padded = new double[2 * (rows + 1)];
+    System.arraycopy(columns.data(), 0, padded, 0, rows);
+    System.arraycopy(columns.data(), rows, padded, rows + 1, rows);
+    LinearRegression strided = new LinearRegression();
+    strided.fit(MatrixView.columnMajor(padded, rows, 2, rows + 1), y);
+    assertThat(strided.getIntercept()).isCloseTo(flat.getIntercept(), Offset.offset(1e-9));
+    assertThat(strided.getMeanSquareError()).isCloseTo(flat.getMeanSquareError(), Offset.offset(1e-12));
+
+    Assertions.assertThatThrownBy(() -> flat.fit(MatrixView.rowMajor(new double[4], 2, 2), new double[3]))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("LinearRegression should fit nearly collinear features as precisely as a QR of X")
+  public void testFitIllConditioned() {
+    int rows = 1000;
+    Random random = new Random(7);
+    double[] x1 = new double[rows];
+    double[] x2 = new double[rows];
+    double[] y = new double[rows];
+    double[][] x = new double[rows][];
+    for (int i = 0; i < rows; i++) {
+      // A large offset next to a small spread: the intercept column is nearly collinear with x1
+      x1[i] = 1e6 + 0.01 * i;
+      x2[i] = random.nextDouble();
+      y[i] = 3 + 2 * x1[i] + 5 * x2[i] + random.nextGaussian() * 1e-3;
+      x[i] = new double[]{x1[i], x2[i]};
+    }
+    OLSMultipleLinearRegression baseline = new OLSMultipleLinearRegression();
+    baseline.newSampleData(y, x);
+    double[] expected = baseline.estimateRegressionParameters();
+
+    DataFrame df = DataFrame.byColumn("x1", "x2", "y").of(Series.ofDouble(x1), Series.ofDouble(x2),
+        Series.ofDouble(y));
+    model.fit(df.cols("x1", "x2").select(), df.getColumn("y"));
+    assertThat(model.getIntercept()).isCloseTo(expected[0], Offset.offset(1e-2));
+    assertThat(model.getCoefficients()[0]).isCloseTo(expected[1], Offset.offset(1e-8));
+    assertThat(model.getCoefficients()[1]).isCloseTo(expected[2], Offset.offset(1e-6));
+    assertThat(model.getRSquared()).isCloseTo(baseline.calculateRSquared(), Offset.offset(1e-9));
+    assertThat(model.getMeanSquareError())
+        .isCloseTo(baseline.estimateErrorVariance(), Offset.offset(baseline.estimateErrorVariance() * 1e-3));
+
+    LinearRegression flat = new LinearRegression();
+    flat.fit(DataConverter.dataFrameToMatrix(df.cols("x1", "x2").select(), true), y);
+    assertThat(flat.getIntercept()).isCloseTo(expected[0], Offset.offset(1e-2));
+    assertThat(flat.getCoefficients()[0]).isCloseTo(expected[1], Offset.offset(1e-8));
+
+    // Chunks are merged as sums around the means, which keeps the same fit
+    LinearRegression streamed = new LinearRegression();
+    streamed.fit(Stream.of(df.rowsRange(0, 300).select(), df.rowsRange(300, rows).select()), "y");
+    assertThat(streamed.getIntercept()).isCloseTo(expected[0], Offset.offset(1e-1));
+    assertThat(streamed.getCoefficients()[0]).isCloseTo(expected[1], Offset.offset(1e-7));
+    assertThat(streamed.getCoefficients()[1]).isCloseTo(expected[2], Offset.offset(1e-5));
+
+    // A constant feature is linearly dependent on the intercept
+    double[] constant = new double[rows];
+    Arrays.fill(constant, 1e6);
+    Assertions.assertThatThrownBy(() -> new LinearRegression().fit(MatrixView.columnMajor(constant, rows, 1), y))
+        .isInstanceOf(SingularMatrixException.class);
+  }
+}
@@ -112,4 +112,21 @@ public class MetricsTest {
     // Using predictions that are worse than just using the mean gives negative R²
     assertThat(r2).isLessThan(0.0);
   }
-}
\ No newline at end of file
+
+  @Test
+  @DisplayName("Accumulated metrics over chunks should match the one-shot metrics")
+  public void testAccumulator() {
+    Series<Double> truth = new ArraySeries<>(10.0, 20.0, 30.0, 40.0, 50.0);
+    double[] predictions = { 12.0, 18.0, 28.0, 45.0, 55.0 };
+
+    Metrics.Accumulator accumulator = Metrics.accumulator()
+        .update(new ArraySeries<>(10.0, 20.0), new double[] { 12.0, 18.0 })
+        .update(new ArraySeries<>(30.0, 40.0, 50.0), new double[] { 28.0, 45.0, 55.0 });
+
+    assertThat(accumulator.count()).isEqualTo(5);
+    assertThat(accumulator.mae()).isCloseTo(Metrics.mae(truth, predictions), Offset.offset(0.0001));
+    assertThat(accumulator.mse()).isCloseTo(Metrics.mse(truth, predictions), Offset.offset(0.0001));
+    assertThat(accumulator.rmse()).isCloseTo(Metrics.rmse(truth, predictions), Offset.offset(0.0001));
+    assertThat(accumulator.r2()).isCloseTo(Metrics.r2(truth, predictions), Offset.offset(0.0001));
+  }
+}
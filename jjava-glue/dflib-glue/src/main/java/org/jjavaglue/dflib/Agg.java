@@ -0,0 +1,114 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+
+import java.math.BigDecimal;
+
+/**
+ * An aggregation computed per group by {@link DS#aggregate(DataFrame, String[], Agg...)}. Nulls and NaNs are
+ * skipped by every aggregation except {@link #count()}, which counts rows.
+ */
+public class Agg {
+
+  enum Kind {
+    COUNT, SUM, MEAN, MIN, MAX, VARIANCE, DISTINCT, QUANTILE, TOP
+  }
+
+  final Kind kind;
+  final String column;
+  final String name;
+  final double quantile;
+
+  private Agg(Kind kind, String column, String name) {
+    this(kind, column, name, Double.NaN);
+  }
+
+  private Agg(Kind kind, String column, String name, double quantile) {
+    this.kind = kind;
+    this.column = column;
+    this.name = name;
+    this.quantile = quantile;
+  }
+
+  private static Agg of(Kind kind, String column) {
+    return new Agg(kind, column, kind.name().toLowerCase() + "(" + column + ")");
+  }
+
+  /**
+   * Number of rows in each group
+   */
+  public static Agg count() {
+    return new Agg(Kind.COUNT, null, "count");
+  }
+
+  /**
+   * Number of non-null values of a column in each group
+   */
+  public static Agg count(String column) {
+    return of(Kind.COUNT, column);
+  }
+
+  public static Agg sum(String column) {
+    return of(Kind.SUM, column);
+  }
+
+  public static Agg mean(String column) {
+    return of(Kind.MEAN, column);
+  }
+
+  public static Agg min(String column) {
+    return of(Kind.MIN, column);
+  }
+
+  public static Agg max(String column) {
+    return of(Kind.MAX, column);
+  }
+
+  /**
+   * Sample variance of a column in each group
+   */
+  public static Agg variance(String column) {
+    return of(Kind.VARIANCE, column);
+  }
+
+  /**
+   * Approximate number of distinct non-null values of a column in each group, from a {@link HyperLogLog} sketch
+   * with a standard error of about 3%
+   */
+  public static Agg approxDistinct(String column) {
+    return new Agg(Kind.DISTINCT, column, "distinct(" + column + ")");
+  }
+
+  /**
+   * Approximately the most frequent non-null value of a column in each group, from a small
+   * {@link FrequencySketch} per group. Values occurring in well over 1% of a group's rows are found reliably.
+   */
+  public static Agg approxTop(String column) {
+    return new Agg(Kind.TOP, column, "top(" + column + ")");
+  }
+
+  /**
+   * Approximate quantile q (0 to 1) of a column in each group, e.g. {@code Agg.quantile("latency", 0.99)} named
+   * "p99(latency)", from a {@link TDigest} of compression 100. The result is the exact quantile at some q' with
+   * |q' - q| &lt;= 2π·√(q(1 - q)) / 100, i.e. within 3% of ranks at the median and 0.6% at p99; typical errors are
+   * ten times smaller. Use {@link DS#quantiles(DataFrame, String, double...)} for exact quantiles of a column.
+   */
+  public static Agg quantile(String column, double q) {
+    if (!(q >= 0 && q <= 1)) {
+      throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+    }
+    String percent = BigDecimal.valueOf(q).movePointRight(2).stripTrailingZeros().toPlainString();
+    return new Agg(Kind.QUANTILE, column, "p" + percent + "(" + column + ")", q);
+  }
+
+  /**
+   * The same aggregation with a different result column name
+   */
+  public Agg as(String name) {
+    return new Agg(kind, column, name, quantile);
+  }
+
+  public String getName() {
+    return name;
+  }
+}
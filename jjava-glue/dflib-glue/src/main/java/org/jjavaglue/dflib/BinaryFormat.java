@@ -0,0 +1,781 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.BooleanSeries;
+import org.dflib.DataFrame;
+import org.dflib.DoubleSeries;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Columnar binary snapshot of a DataFrame. Loading memory-maps the file and wraps the int, long and double columns
+ * in place, so nothing is parsed or copied up front.
+ * <p>
+ * Layout (all numbers little-endian):
+ * <pre>
+ * "DSBF" int:version int:columns int:rows
+ * per column:  int:nameLength name(UTF-8) byte:type long:offset long:length
+ * column data, each starting at a multiple of 8 bytes:
+ *   INT, LONG, DOUBLE  raw values
+ *   NULLABLE_INT,      raw values, 0 for null, padding to 8 bytes,
+ *   NULLABLE_LONG      then one byte per row: 1 null, 0 a value
+ *   BOOLEAN            one byte per row: 0 false, 1 true, 2 null
+ *   DATE               long epoch day per row, Long.MIN_VALUE for null
+ *   STRING             int:dictionarySize, per entry int:length bytes(UTF-8), padding to 4 bytes,
+ *                      then one int code per row (-1 for null)
+ * </pre>
+ */
+final class BinaryFormat {
+
+  private static final byte[] MAGIC = { 'D', 'S', 'B', 'F' };
+  // Version 2 added the nullable int and long types, and still reads version 1 files
+  private static final int VERSION = 2;
+
+  private static final byte INT = 1;
+  private static final byte LONG = 2;
+  private static final byte DOUBLE = 3;
+  private static final byte BOOLEAN = 4;
+  private static final byte DATE = 5;
+  private static final byte STRING = 6;
+  private static final byte NULLABLE_INT = 7;
+  private static final byte NULLABLE_LONG = 8;
+
+  private static final int BUFFER_BYTES = 1 << 20;
+  // Rows whose filters are tested together
+  private static final int FILTER_BLOCK_ROWS = 1 << 14;
+
+  // Columns above this size are read into the heap as a mapped buffer is limited to 2 GB
+  private static final long MAX_MAPPED_BYTES = Integer.MAX_VALUE;
+
+  private BinaryFormat() {
+  }
+
+  static void save(DataFrame df, Path path) throws IOException {
+    String[] names = df.getColumnsIndex().toArray();
+    int rows = df.height();
+
+    byte[] types = new byte[names.length];
+    for (int i = 0; i < names.length; i++) {
+      types[i] = typeOf(names[i], df.getColumn(i));
+    }
+
+    // Write a new file and rename it over the old one, which frames loaded from it may still map: they keep
+    // reading the old file, and readers never see a partial one. The new file is created with the default
+    // permissions, and takes those of the file it replaces
+    Path dir = path.toAbsolutePath().getParent();
+    Path temp = null;
+    FileChannel channel = null;
+    while (channel == null) {
+      temp = dir.resolve(path.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+      try {
+        channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+      } catch (FileAlreadyExistsException e) {
+        // another temp file has that name, pick another
+      }
+    }
+    try {
+      try (FileChannel out = channel) {
+        write(df, names, types, rows, out);
+      }
+      if (Files.exists(path) && Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+        Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(path));
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static void write(DataFrame df, String[] names, byte[] types, int rows, FileChannel channel)
+      throws IOException {
+    ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    // The header is written last, once the column offsets are known; reserve space for it first
+    byte[][] encodedNames = new byte[names.length][];
+    long headerBytes = 16;
+    for (int i = 0; i < names.length; i++) {
+      encodedNames[i] = names[i].getBytes(StandardCharsets.UTF_8);
+      headerBytes += 4 + encodedNames[i].length + 1 + 16;
+    }
+
+    long[] offsets = new long[names.length];
+    long[] lengths = new long[names.length];
+    long position = align(headerBytes);
+    for (int i = 0; i < names.length; i++) {
+      channel.position(position);
+      offsets[i] = position;
+      lengths[i] = writeColumn(channel, buf, types[i], df.getColumn(i), rows);
+      position = align(position + lengths[i]);
+    }
+
+    buf.clear();
+    buf.put(MAGIC).putInt(VERSION).putInt(names.length).putInt(rows);
+    channel.position(0);
+    for (int i = 0; i < names.length; i++) {
+      ensure(channel, buf, 4 + encodedNames[i].length + 17);
+      buf.putInt(encodedNames[i].length).put(encodedNames[i]).put(types[i]).putLong(offsets[i]).putLong(lengths[i]);
+    }
+    flush(channel, buf);
+  }
+
+  /**
+   * Whether the file starts with the signature of this format
+   */
+  static boolean isBinary(Path path) {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer buf = ByteBuffer.allocate(MAGIC.length);
+      while (buf.hasRemaining() && channel.read(buf) >= 0) {
+        // keep reading until the signature is complete or the file ends
+      }
+      return !buf.hasRemaining() && Arrays.equals(buf.array(), MAGIC);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading " + path, e);
+    }
+  }
+
+  static DataFrame load(Path path) {
+    return load(path, null);
+  }
+
+  /**
+   * Load the given columns in the given order, or all columns if "columns" is null. Unselected columns are never
+   * read.
+   */
+  static DataFrame load(Path path, String[] columns) {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      Header header = readHeader(channel, path);
+
+      String[] names = columns != null ? columns : header.names;
+      Series<?>[] series = new Series<?>[names.length];
+      for (int i = 0; i < names.length; i++) {
+        int c = CsvLoader.indexOf(header.names, names[i]);
+        series[i] = readColumn(channel, header.types[c], header.offsets[c], header.lengths[c], header.rows, null);
+      }
+      return DataFrame.byColumn(names).of(series);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading binary DataFrame " + path, e);
+    }
+  }
+
+  /**
+   * Load the given columns (or all if null) of the rows that pass all filters, up to "limit" rows (-1 for all).
+   * Filters are tested on the values in the mapped file, a block of rows at a time, without loading their columns;
+   * text filters are tested once per dictionary entry. Only the rows that pass are then read from the selected
+   * columns.
+   */
+  static DataFrame load(Path path, String[] columns, List<Filter> filters, int limit) {
+    if (filters.isEmpty() && limit < 0) {
+      return load(path, columns);
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      Header header = readHeader(channel, path);
+      MappedTest[] tests = new MappedTest[filters.size()];
+      for (int i = 0; i < tests.length; i++) {
+        int c = CsvLoader.indexOf(header.names, filters.get(i).getColumn());
+        tests[i] = new MappedTest(filters.get(i), channel, header.types[c], header.offsets[c], header.lengths[c],
+            header.rows);
+      }
+      int[] index = select(tests, header.rows, limit);
+
+      String[] names = columns != null ? columns : header.names;
+      Series<?>[] series = new Series<?>[names.length];
+      for (int i = 0; i < names.length; i++) {
+        int c = CsvLoader.indexOf(header.names, names[i]);
+        series[i] = readColumn(channel, header.types[c], header.offsets[c], header.lengths[c], header.rows, index);
+      }
+      return DataFrame.byColumn(names).of(series);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading binary DataFrame " + path, e);
+    }
+  }
+
+  /**
+   * Positions of the first "limit" rows (all if -1) that pass all tests. Each block of rows is narrowed down by one
+   * test after the other, so later tests only look at the rows that passed the earlier ones.
+   */
+  private static int[] select(MappedTest[] tests, int rows, int limit) {
+    int max = limit < 0 ? rows : Math.min(limit, rows);
+    int[] index = new int[Math.min(max, FILTER_BLOCK_ROWS)];
+    int[] block = new int[Math.min(rows, FILTER_BLOCK_ROWS)];
+    int size = 0;
+    for (int from = 0; from < rows && size < max; from += block.length) {
+      int n = Math.min(block.length, rows - from);
+      for (int i = 0; i < n; i++) {
+        block[i] = from + i;
+      }
+      for (MappedTest test : tests) {
+        n = test.retain(block, n);
+      }
+      n = Math.min(n, max - size);
+      if (size + n > index.length) {
+        index = Arrays.copyOf(index, Math.min(max, Math.max(size + n, index.length * 2)));
+      }
+      System.arraycopy(block, 0, index, size, n);
+      size += n;
+    }
+    return size == index.length ? index : Arrays.copyOf(index, size);
+  }
+
+  /**
+   * A filter bound to the stored values of its column
+   */
+  private static final class MappedTest {
+
+    private final Filter filter;
+    private final byte type;
+    private final ByteBuffer buf;
+    // Column read into the heap, when it is too large to map
+    private final Series<?> loaded;
+    // Text columns: whether each dictionary entry passes, and the code of every row
+    private final boolean[] passing;
+    private final IntBuffer codes;
+    // Nullable int and long columns: the position of the null mask
+    private final int mask;
+
+    MappedTest(Filter filter, FileChannel channel, byte type, long offset, long length, int rows)
+        throws IOException {
+      this.filter = filter;
+      this.type = type;
+      if (length > MAX_MAPPED_BYTES) {
+        this.buf = null;
+        this.loaded = readLargeColumn(channel, type, offset, rows);
+        this.passing = null;
+        this.codes = null;
+        this.mask = 0;
+        return;
+      }
+
+      this.buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+      this.loaded = null;
+      this.mask = type == NULLABLE_INT || type == NULLABLE_LONG
+          ? (int) align((long) rows * (type == NULLABLE_INT ? 4 : 8))
+          : 0;
+      if (type == STRING) {
+        Strings strings = readStrings(buf, rows);
+        this.passing = new boolean[strings.dictionary.length];
+        for (int code = 0; code < passing.length; code++) {
+          passing[code] = filter.test(strings.dictionary[code]);
+        }
+        this.codes = strings.codes;
+      } else {
+        this.passing = null;
+        this.codes = null;
+      }
+    }
+
+    /**
+     * Keep the rows of rows[0, n) that pass, in order, and return how many there are
+     */
+    int retain(int[] rows, int n) {
+      int kept = 0;
+      for (int i = 0; i < n; i++) {
+        int row = rows[i];
+        if (test(row)) {
+          rows[kept++] = row;
+        }
+      }
+      return kept;
+    }
+
+    private boolean test(int row) {
+      if (loaded != null) {
+        return filter.test(loaded, row);
+      }
+      switch (type) {
+        case INT:
+          return filter.testDouble(buf.getInt(row * 4));
+        case LONG:
+          return filter.testDouble(buf.getLong(row * 8));
+        case DOUBLE:
+          return filter.testDouble(buf.getDouble(row * 8));
+        case NULLABLE_INT:
+          return buf.get(mask + row) == 0 && filter.testDouble(buf.getInt(row * 4));
+        case NULLABLE_LONG:
+          return buf.get(mask + row) == 0 && filter.testDouble(buf.getLong(row * 8));
+        case BOOLEAN: {
+          byte b = buf.get(row);
+          return b != 2 && filter.test(b == 1);
+        }
+        case DATE: {
+          long day = buf.getLong(row * 8);
+          return day != Long.MIN_VALUE && filter.testEpochDay(day);
+        }
+        case STRING: {
+          int code = codes.get(row);
+          return code >= 0 && passing[code];
+        }
+        default:
+          throw new IllegalArgumentException("Unknown column type in binary DataFrame: " + type);
+      }
+    }
+  }
+
+  private record Header(String[] names, byte[] types, long[] offsets, long[] lengths, int rows) {
+  }
+
+  private static Header readHeader(FileChannel channel, Path path) throws IOException {
+    long size = channel.size();
+    ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_MAPPED_BYTES))
+        .order(ByteOrder.LITTLE_ENDIAN);
+    if (size < 16 || buf.get(0) != MAGIC[0] || buf.get(1) != MAGIC[1] || buf.get(2) != MAGIC[2]
+        || buf.get(3) != MAGIC[3]) {
+      throw new IllegalArgumentException("Not a binary DataFrame file: " + path);
+    }
+    buf.position(4);
+    int version = buf.getInt();
+    if (version < 1 || version > VERSION) {
+      throw new IllegalArgumentException("Unsupported binary DataFrame version " + version + ": " + path);
+    }
+
+    int columns = buf.getInt();
+    int rows = buf.getInt();
+    String[] names = new String[columns];
+    byte[] types = new byte[columns];
+    long[] offsets = new long[columns];
+    long[] lengths = new long[columns];
+    for (int i = 0; i < columns; i++) {
+      byte[] name = new byte[buf.getInt()];
+      buf.get(name);
+      names[i] = new String(name, StandardCharsets.UTF_8);
+      types[i] = buf.get();
+      offsets[i] = buf.getLong();
+      lengths[i] = buf.getLong();
+    }
+    return new Header(names, types, offsets, lengths, rows);
+  }
+
+  private static byte typeOf(String name, Series<?> series) {
+    if (series instanceof DoubleSeries) {
+      return DOUBLE;
+    } else if (series instanceof IntSeries) {
+      return INT;
+    } else if (series instanceof LongSeries) {
+      return LONG;
+    } else if (series instanceof BooleanSeries) {
+      return BOOLEAN;
+    }
+
+    // Object columns are stored by the type of their non-null values. Boxed integers stay integers, as ints if
+    // they all fit, with a mask for nulls; other numbers become doubles
+    byte type = 0;
+    boolean nulls = false;
+    for (int i = 0; i < series.size(); i++) {
+      Object value = series.get(i);
+      byte valueType;
+      if (value == null) {
+        nulls = true;
+        continue;
+      } else if (value instanceof String) {
+        valueType = STRING;
+      } else if (value instanceof Boolean) {
+        valueType = BOOLEAN;
+      } else if (value instanceof LocalDate) {
+        valueType = DATE;
+      } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+        valueType = INT;
+      } else if (value instanceof Long) {
+        valueType = LONG;
+      } else if (value instanceof Number) {
+        valueType = DOUBLE;
+      } else {
+        throw new IllegalArgumentException(
+            "Column '" + name + "' holds values of unsupported type " + value.getClass().getName());
+      }
+
+      if (type != 0 && type != valueType) {
+        if (!isNumber(type) || !isNumber(valueType)) {
+          throw new IllegalArgumentException("Column '" + name + "' holds values of mixed types");
+        }
+        // INT < LONG < DOUBLE
+        valueType = (byte) Math.max(type, valueType);
+      }
+      type = valueType;
+    }
+    if (nulls && type == INT) {
+      return NULLABLE_INT;
+    } else if (nulls && type == LONG) {
+      return NULLABLE_LONG;
+    }
+    return type == 0 ? STRING : type;
+  }
+
+  private static boolean isNumber(byte type) {
+    return type == INT || type == LONG || type == DOUBLE;
+  }
+
+  private static long writeColumn(FileChannel channel, ByteBuffer buf, byte type, Series<?> series, int rows)
+      throws IOException {
+    buf.clear();
+    long written = channel.position();
+
+    switch (type) {
+      case INT, NULLABLE_INT -> {
+        if (!(series instanceof IntSeries s)) {
+          writeBoxed(channel, buf, type, series, rows);
+          break;
+        }
+        int[] block = new int[BUFFER_BYTES / 4];
+        for (int i = 0; i < rows; i += block.length) {
+          int n = Math.min(block.length, rows - i);
+          s.copyToInt(block, i, 0, n);
+          flush(channel, buf);
+          buf.asIntBuffer().put(block, 0, n);
+          buf.position(n * 4);
+        }
+      }
+      case LONG, NULLABLE_LONG -> {
+        if (!(series instanceof LongSeries s)) {
+          writeBoxed(channel, buf, type, series, rows);
+          break;
+        }
+        long[] block = new long[BUFFER_BYTES / 8];
+        for (int i = 0; i < rows; i += block.length) {
+          int n = Math.min(block.length, rows - i);
+          s.copyToLong(block, i, 0, n);
+          flush(channel, buf);
+          buf.asLongBuffer().put(block, 0, n);
+          buf.position(n * 8);
+        }
+      }
+      case DOUBLE -> {
+        if (series instanceof DoubleSeries s) {
+          double[] block = new double[BUFFER_BYTES / 8];
+          for (int i = 0; i < rows; i += block.length) {
+            int n = Math.min(block.length, rows - i);
+            s.copyToDouble(block, i, 0, n);
+            flush(channel, buf);
+            buf.asDoubleBuffer().put(block, 0, n);
+            buf.position(n * 8);
+          }
+        } else {
+          for (int i = 0; i < rows; i++) {
+            ensure(channel, buf, 8);
+            Object value = series.get(i);
+            buf.putDouble(value == null ? Double.NaN : ((Number) value).doubleValue());
+          }
+        }
+      }
+      case BOOLEAN -> {
+        for (int i = 0; i < rows; i++) {
+          ensure(channel, buf, 1);
+          Object value = series.get(i);
+          buf.put((byte) (value == null ? 2 : (Boolean) value ? 1 : 0));
+        }
+      }
+      case DATE -> {
+        for (int i = 0; i < rows; i++) {
+          ensure(channel, buf, 8);
+          Object value = series.get(i);
+          buf.putLong(value == null ? Long.MIN_VALUE : ((LocalDate) value).toEpochDay());
+        }
+      }
+      default -> writeStrings(channel, buf, series, rows);
+    }
+
+    flush(channel, buf);
+    return channel.position() - written;
+  }
+
+  /**
+   * Write boxed integers as ints or longs, followed for nullable types by the null mask
+   */
+  private static void writeBoxed(FileChannel channel, ByteBuffer buf, byte type, Series<?> series, int rows)
+      throws IOException {
+    boolean ints = type == INT || type == NULLABLE_INT;
+    for (int i = 0; i < rows; i++) {
+      ensure(channel, buf, 8);
+      Number value = (Number) series.get(i);
+      if (ints) {
+        buf.putInt(value == null ? 0 : value.intValue());
+      } else {
+        buf.putLong(value == null ? 0 : value.longValue());
+      }
+    }
+    if (type == NULLABLE_INT || type == NULLABLE_LONG) {
+      long values = (long) rows * (ints ? 4 : 8);
+      for (long b = values; b < align(values); b++) {
+        ensure(channel, buf, 1);
+        buf.put((byte) 0);
+      }
+      for (int i = 0; i < rows; i++) {
+        ensure(channel, buf, 1);
+        buf.put((byte) (series.get(i) == null ? 1 : 0));
+      }
+    }
+  }
+
+  private static void writeStrings(FileChannel channel, ByteBuffer buf, Series<?> series, int rows)
+      throws IOException {
+    List<Object> dictionary = new ArrayList<>();
+    int[] rowCodes = new int[rows];
+    if (series instanceof CategorySeries<?> categories) {
+      // Already encoded
+      for (int c = 0; c < categories.getCategoryCount(); c++) {
+        dictionary.add(categories.getCategory(c));
+      }
+      for (int i = 0; i < rows; i++) {
+        rowCodes[i] = categories.getCode(i);
+      }
+    } else {
+      Map<Object, Integer> codes = new HashMap<>();
+      for (int i = 0; i < rows; i++) {
+        Object value = series.get(i);
+        rowCodes[i] = value == null ? -1 : codes.computeIfAbsent(value, v -> {
+          dictionary.add(v);
+          return dictionary.size() - 1;
+        });
+      }
+    }
+
+    ensure(channel, buf, 4);
+    buf.putInt(dictionary.size());
+    long bytes = 4;
+    for (Object value : dictionary) {
+      byte[] encoded = value.toString().getBytes(StandardCharsets.UTF_8);
+      ensure(channel, buf, 4);
+      buf.putInt(encoded.length);
+      for (int off = 0; off < encoded.length; ) {
+        ensure(channel, buf, 1);
+        int n = Math.min(buf.remaining(), encoded.length - off);
+        buf.put(encoded, off, n);
+        off += n;
+      }
+      bytes += 4 + encoded.length;
+    }
+
+    // Align the codes so they can be read as an IntBuffer
+    for (; bytes % 4 != 0; bytes++) {
+      ensure(channel, buf, 1);
+      buf.put((byte) 0);
+    }
+
+    for (int code : rowCodes) {
+      ensure(channel, buf, 4);
+      buf.putInt(code);
+    }
+  }
+
+  /**
+   * Read the rows at the positions of "index" of a column, or all rows if it is null. All rows of int, long and
+   * double columns are wrapped in place.
+   */
+  private static Series<?> readColumn(FileChannel channel, byte type, long offset, long length, int rows,
+      int[] index) throws IOException {
+    if (length > MAX_MAPPED_BYTES) {
+      Series<?> column = readLargeColumn(channel, type, offset, rows);
+      return index != null ? Sorter.select(column, index) : column;
+    }
+
+    ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    int n = index != null ? index.length : rows;
+    switch (type) {
+      case INT: {
+        if (index == null) {
+          return new MappedIntSeries(buf.asIntBuffer());
+        }
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+          values[i] = buf.getInt(index[i] * 4);
+        }
+        return Series.ofInt(values);
+      }
+      case LONG: {
+        if (index == null) {
+          return new MappedLongSeries(buf.asLongBuffer());
+        }
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+          values[i] = buf.getLong(index[i] * 8);
+        }
+        return Series.ofLong(values);
+      }
+      case DOUBLE: {
+        if (index == null) {
+          return new MappedDoubleSeries(buf.asDoubleBuffer());
+        }
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+          values[i] = buf.getDouble(index[i] * 8);
+        }
+        return Series.ofDouble(values);
+      }
+      case BOOLEAN: {
+        boolean[] values = new boolean[n];
+        boolean nulls = false;
+        for (int i = 0; i < n; i++) {
+          byte b = buf.get(index != null ? index[i] : i);
+          values[i] = b == 1;
+          nulls |= b == 2;
+        }
+        if (!nulls) {
+          return Series.ofBool(values);
+        }
+        Boolean[] boxed = new Boolean[n];
+        for (int i = 0; i < n; i++) {
+          boxed[i] = buf.get(index != null ? index[i] : i) == 2 ? null : values[i];
+        }
+        return Series.of(boxed);
+      }
+      case NULLABLE_INT:
+      case NULLABLE_LONG: {
+        int mask = (int) align((long) rows * (type == NULLABLE_INT ? 4 : 8));
+        Object[] values = new Object[n];
+        for (int i = 0; i < n; i++) {
+          int row = index != null ? index[i] : i;
+          if (buf.get(mask + row) == 0) {
+            values[i] = type == NULLABLE_INT ? (Object) buf.getInt(row * 4) : (Object) buf.getLong(row * 8);
+          }
+        }
+        return Series.of(values);
+      }
+      case DATE: {
+        LocalDate[] values = new LocalDate[n];
+        for (int i = 0; i < n; i++) {
+          long day = buf.getLong((index != null ? index[i] : i) * 8);
+          values[i] = day == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(day);
+        }
+        return Series.of(values);
+      }
+      case STRING: {
+        Strings strings = readStrings(buf, rows);
+        String[] dictionary = strings.dictionary;
+        IntBuffer codes = strings.codes;
+
+        // Columns whose values repeat on average stay encoded
+        if (dictionary.length * 2 <= n) {
+          CategorySeries<String> categories = new CategorySeries<>(dictionary, n);
+          for (int i = 0; i < n; i++) {
+            categories.setCode(i, codes.get(index != null ? index[i] : i));
+          }
+          return categories;
+        }
+
+        String[] values = new String[n];
+        for (int i = 0; i < n; i++) {
+          int code = codes.get(index != null ? index[i] : i);
+          values[i] = code < 0 ? null : dictionary[code];
+        }
+        return Series.of(values);
+      }
+      default:
+        throw new IllegalArgumentException("Unknown column type in binary DataFrame: " + type);
+    }
+  }
+
+  private record Strings(String[] dictionary, IntBuffer codes) {
+  }
+
+  /**
+   * Decode the dictionary of a text column, and wrap its codes in place
+   */
+  private static Strings readStrings(ByteBuffer buf, int rows) {
+    String[] dictionary = new String[buf.getInt(0)];
+    int pos = 4;
+    for (int i = 0; i < dictionary.length; i++) {
+      byte[] bytes = new byte[buf.getInt(pos)];
+      buf.get(pos + 4, bytes);
+      dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+      pos += 4 + bytes.length;
+    }
+    pos = (pos + 3) & ~3;
+    return new Strings(dictionary, buf.slice(pos, rows * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer());
+  }
+
+  /**
+   * Primitive columns larger than a single mapping are read into heap arrays one window at a time
+   */
+  private static Series<?> readLargeColumn(FileChannel channel, byte type, long offset, int rows)
+      throws IOException {
+    if (type == NULLABLE_INT || type == NULLABLE_LONG) {
+      return readLargeNullable(channel, type, offset, rows);
+    }
+    int width = type == INT ? 4 : 8;
+    int perWindow = (int) (MAX_MAPPED_BYTES / 8);
+
+    double[] doubles = type == DOUBLE ? new double[rows] : null;
+    long[] longs = type == LONG ? new long[rows] : null;
+    int[] ints = type == INT ? new int[rows] : null;
+    if (doubles == null && longs == null && ints == null) {
+      throw new IllegalArgumentException("Column too large for a binary DataFrame");
+    }
+
+    for (int from = 0; from < rows; from += perWindow) {
+      int count = Math.min(perWindow, rows - from);
+      MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset + (long) from * width,
+          (long) count * width);
+      window.order(ByteOrder.LITTLE_ENDIAN);
+      if (doubles != null) {
+        window.asDoubleBuffer().get(doubles, from, count);
+      } else if (longs != null) {
+        window.asLongBuffer().get(longs, from, count);
+      } else {
+        window.asIntBuffer().get(ints, from, count);
+      }
+    }
+
+    return doubles != null ? Series.ofDouble(doubles) : longs != null ? Series.ofLong(longs) : Series.ofInt(ints);
+  }
+
+  /**
+   * The values of a large nullable column, read as ints or longs, boxed where the mask has no null
+   */
+  private static Series<?> readLargeNullable(FileChannel channel, byte type, long offset, int rows)
+      throws IOException {
+    boolean ints = type == NULLABLE_INT;
+    Series<?> values = readLargeColumn(channel, ints ? INT : LONG, offset, rows);
+    long mask = offset + align((long) rows * (ints ? 4 : 8));
+    Object[] boxed = new Object[rows];
+    int perWindow = (int) MAX_MAPPED_BYTES;
+    for (int from = 0; from < rows; from += perWindow) {
+      int count = Math.min(perWindow, rows - from);
+      MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, mask + from, count);
+      for (int i = 0; i < count; i++) {
+        if (window.get(i) == 0) {
+          boxed[from + i] = values.get(from + i);
+        }
+      }
+    }
+    return Series.of(boxed);
+  }
+
+  private static void ensure(FileChannel channel, ByteBuffer buf, int bytes) throws IOException {
+    if (buf.remaining() < bytes) {
+      flush(channel, buf);
+    }
+  }
+
+  private static void flush(FileChannel channel, ByteBuffer buf) throws IOException {
+    buf.flip();
+    while (buf.hasRemaining()) {
+      channel.write(buf);
+    }
+    buf.clear();
+  }
+
+  private static long align(long position) {
+    return (position + 7) & ~7L;
+  }
+}
@@ -0,0 +1,286 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.IntSeries;
+import org.dflib.Series;
+import org.dflib.series.ArraySeries;
+import org.dflib.series.ObjectSeries;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary-encoded series for columns with few distinct values (categories). Every distinct value is stored once,
+ * and each row only holds the code of its category in a byte, short or int array, whichever is the narrowest that
+ * fits. Codes number the categories from 0 in order of first appearance; nulls have code -1.
+ * <p>
+ * {@link DS#read(String)} and {@link DS#loadBinary(String)} return low-cardinality text columns as CategorySeries.
+ * Aggregation, joins, sorting, {@link DS#oneHot(org.dflib.DataFrame, String...)} and hue plots then work on the
+ * codes instead of hashing or comparing the values of every row.
+ */
+public final class CategorySeries<T> extends ObjectSeries<T> {
+
+  private final T[] categories;
+  private final int size;
+
+  // Exactly one of these holds the codes
+  private final byte[] bytes;
+  private final short[] shorts;
+  private final int[] ints;
+
+  CategorySeries(T[] categories, int[] codes) {
+    this(categories, codes.length);
+    for (int i = 0; i < codes.length; i++) {
+      setCode(i, codes[i]);
+    }
+  }
+
+  /**
+   * A series of nulls, to be filled with {@link #setCode(int, int)}
+   */
+  CategorySeries(T[] categories, int size) {
+    super(categories.getClass().getComponentType());
+    this.categories = categories;
+    this.size = size;
+    this.bytes = categories.length <= Byte.MAX_VALUE + 1 ? new byte[size] : null;
+    this.shorts = bytes == null && categories.length <= Short.MAX_VALUE + 1 ? new short[size] : null;
+    this.ints = bytes == null && shorts == null ? new int[size] : null;
+    if (bytes != null) {
+      Arrays.fill(bytes, (byte) -1);
+    } else if (shorts != null) {
+      Arrays.fill(shorts, (short) -1);
+    } else {
+      Arrays.fill(ints, -1);
+    }
+  }
+
+  /**
+   * Set the code of a row. Only for loaders filling a new series, before it is shared.
+   */
+  void setCode(int row, int code) {
+    if (bytes != null) {
+      bytes[row] = (byte) code;
+    } else if (shorts != null) {
+      shorts[row] = (short) code;
+    } else {
+      ints[row] = code;
+    }
+  }
+
+  /**
+   * Encode the values of a series
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> CategorySeries<T> of(Series<T> values) {
+    if (values instanceof CategorySeries<T> cs) {
+      return cs;
+    }
+
+    int size = values.size();
+    int[] codes = new int[size];
+    Map<Object, Integer> index = new HashMap<>();
+    Object[] categories = new Object[16];
+    for (int i = 0; i < size; i++) {
+      Object value = values.get(i);
+      if (value == null) {
+        codes[i] = -1;
+        continue;
+      }
+      Integer code = index.get(value);
+      if (code == null) {
+        code = index.size();
+        index.put(value, code);
+        if (code == categories.length) {
+          categories = Arrays.copyOf(categories, code * 2);
+        }
+        categories[code] = value;
+      }
+      codes[i] = code;
+    }
+    return new CategorySeries<>((T[]) Arrays.copyOf(categories, index.size()), codes);
+  }
+
+  /**
+   * Code of the category of a row, or -1 for null
+   */
+  public int getCode(int row) {
+    return bytes != null ? bytes[row] : shorts != null ? shorts[row] : ints[row];
+  }
+
+  /**
+   * Codes of all rows, -1 for nulls
+   */
+  public IntSeries getCodes() {
+    int[] codes = new int[size];
+    for (int i = 0; i < size; i++) {
+      codes[i] = getCode(i);
+    }
+    return Series.ofInt(codes);
+  }
+
+  /**
+   * Value of a category code
+   */
+  public T getCategory(int code) {
+    return categories[code];
+  }
+
+  /**
+   * Distinct values, by code. Categories may include values no row refers to any more, e.g. after filtering.
+   */
+  public Series<T> getCategories() {
+    return new ArraySeries<>(categories.clone());
+  }
+
+  public int getCategoryCount() {
+    return categories.length;
+  }
+
+  /**
+   * Bytes per row code: 1, 2 or 4
+   */
+  int codeBytes() {
+    return bytes != null ? 1 : shorts != null ? 2 : 4;
+  }
+
+  /**
+   * Whether another series shares the dictionary of this one, e.g. after filtering or grouping
+   */
+  boolean sharesCategories(CategorySeries<?> other) {
+    return categories == other.categories;
+  }
+
+  /**
+   * A series with the same categories and the given codes
+   */
+  CategorySeries<T> withCodes(int[] codes) {
+    return new CategorySeries<>(categories, codes);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public T get(int index) {
+    int code = getCode(index);
+    return code < 0 ? null : categories[code];
+  }
+
+  @Override
+  public void copyTo(Object[] to, int fromOffset, int toOffset, int len) {
+    for (int i = 0; i < len; i++) {
+      to[toOffset + i] = get(fromOffset + i);
+    }
+  }
+
+  @Override
+  public Series<T> materialize() {
+    return this;
+  }
+
+  @Override
+  public Series<T> selectRange(int fromInclusive, int toExclusive) {
+    int[] codes = new int[toExclusive - fromInclusive];
+    for (int i = 0; i < codes.length; i++) {
+      codes[i] = getCode(fromInclusive + i);
+    }
+    return new CategorySeries<>(categories, codes);
+  }
+
+  /**
+   * Rows at the given positions, keeping the dictionary. Position -1 gives a null.
+   */
+  @Override
+  public Series<T> select(IntSeries positions) {
+    int[] codes = new int[positions.size()];
+    for (int i = 0; i < codes.length; i++) {
+      int row = positions.getInt(i);
+      codes[i] = row < 0 ? -1 : getCode(row);
+    }
+    return new CategorySeries<>(categories, codes);
+  }
+
+  /**
+   * Categories that occur in the series, in order of first appearance
+   */
+  @Override
+  public Series<T> unique() {
+    boolean[] seen = new boolean[categories.length];
+    T[] values = categories.clone();
+    int count = 0;
+    for (int i = 0; i < size && count < categories.length; i++) {
+      int code = getCode(i);
+      if (code >= 0 && !seen[code]) {
+        seen[code] = true;
+        values[count++] = categories[code];
+      }
+    }
+    return new ArraySeries<>(Arrays.copyOf(values, count));
+  }
+
+  @Override
+  public Series<T> fillNulls(T value) {
+    if (value == null) {
+      return this;
+    }
+    int code = Arrays.asList(categories).indexOf(value);
+    T[] withValue = categories;
+    if (code < 0) {
+      code = categories.length;
+      // The value may not fit the array type of the categories, e.g. a number filled into text
+      @SuppressWarnings("unchecked")
+      T[] wider = (T[]) Arrays.copyOf(categories, code + 1,
+          categories.getClass().getComponentType().isInstance(value) ? categories.getClass() : Object[].class);
+      withValue = wider;
+      withValue[code] = value;
+    }
+    int[] codes = new int[size];
+    for (int i = 0; i < size; i++) {
+      int c = getCode(i);
+      codes[i] = c < 0 ? code : c;
+    }
+    return new CategorySeries<>(withValue, codes);
+  }
+
+  @Override
+  public Series<T> fillNullsFromSeries(Series<? extends T> values) {
+    return values().fillNullsFromSeries(values);
+  }
+
+  @Override
+  public Series<T> fillNullsBackwards() {
+    int[] codes = new int[size];
+    int next = -1;
+    for (int i = size - 1; i >= 0; i--) {
+      int c = getCode(i);
+      codes[i] = c < 0 ? next : c;
+      next = codes[i];
+    }
+    return new CategorySeries<>(categories, codes);
+  }
+
+  @Override
+  public Series<T> fillNullsForward() {
+    int[] codes = new int[size];
+    int previous = -1;
+    for (int i = 0; i < size; i++) {
+      int c = getCode(i);
+      codes[i] = c < 0 ? previous : c;
+      previous = codes[i];
+    }
+    return new CategorySeries<>(categories, codes);
+  }
+
+  /**
+   * The decoded values as a plain series
+   */
+  @SuppressWarnings("unchecked")
+  private Series<T> values() {
+    T[] values = (T[]) Array.newInstance(categories.getClass().getComponentType(), size);
+    copyTo(values, 0, 0, size);
+    return new ArraySeries<>(values);
+  }
+}
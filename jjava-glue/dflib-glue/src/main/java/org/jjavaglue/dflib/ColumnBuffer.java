@@ -0,0 +1,800 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.Series;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Growable, single-threaded buffer that parses CSV field bytes straight into a primitive array of one
+ * {@link ColumnType}. A value that does not fit the buffer type is not stored; instead the buffer remembers the
+ * wider type the column needs so the loader can re-parse it.
+ */
+abstract class ColumnBuffer {
+
+  private static final double[] POW10 = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  final ColumnType type;
+  int size;
+
+  // The type this column has to be re-parsed as, or null if every value so far fit
+  ColumnType widened;
+
+  // Row in this buffer and text of the first field that did not fit (null for a missing field), to report it
+  int failedRow = -1;
+  String failedValue;
+
+  ColumnBuffer(ColumnType type) {
+    this.type = type;
+  }
+
+  static ColumnBuffer of(ColumnType type, int capacity) {
+    return switch (type) {
+      case INT -> new IntColumn(capacity);
+      case LONG -> new LongColumn(capacity);
+      case DOUBLE -> new DoubleColumn(capacity);
+      case BOOLEAN -> new BooleanColumn(capacity);
+      case DATE -> new DateColumn(capacity);
+      case CATEGORY -> new CategoryColumn(capacity);
+      case STRING -> new StringColumn(capacity);
+    };
+  }
+
+  /**
+   * Append the field stored in bytes [start, end) of the buffer. "escaped" is set for quoted fields that
+   * contain doubled quotes.
+   */
+  final void append(ByteBuffer buf, int start, int end, boolean escaped) {
+    if (widened != null) {
+      widened = start == end ? widened.widenForEmpty() : widened.widen(typeOf(buf, start, end));
+      return;
+    }
+
+    try {
+      add(buf, start, end, escaped);
+    } catch (ParseFailure e) {
+      widened = start == end ? type.widenForEmpty() : type.widen(typeOf(buf, start, end));
+      failedRow = size;
+      failedValue = text(buf, start, end, escaped);
+    }
+  }
+
+  /**
+   * Append a value for a field that is absent from a short row
+   */
+  final void appendMissing() {
+    if (widened != null) {
+      widened = widened.widenForEmpty();
+    } else if (!addMissing()) {
+      widened = type.widenForEmpty();
+      failedRow = size;
+    }
+  }
+
+  abstract void add(ByteBuffer buf, int start, int end, boolean escaped);
+
+  abstract boolean addMissing();
+
+  /**
+   * Concatenate per-chunk buffers of the same type into a single Series
+   */
+  static Series<?> concat(ColumnType type, List<ColumnBuffer> parts) {
+    int total = 0;
+    for (ColumnBuffer part : parts) {
+      total += part.size;
+    }
+
+    int offset = 0;
+    switch (type) {
+      case INT -> {
+        int[] values = new int[total];
+        for (ColumnBuffer part : parts) {
+          System.arraycopy(((IntColumn) part).data, 0, values, offset, part.size);
+          offset += part.size;
+        }
+        return Series.ofInt(values);
+      }
+      case LONG -> {
+        long[] values = new long[total];
+        for (ColumnBuffer part : parts) {
+          System.arraycopy(((LongColumn) part).data, 0, values, offset, part.size);
+          offset += part.size;
+        }
+        return Series.ofLong(values);
+      }
+      case DOUBLE -> {
+        double[] values = new double[total];
+        for (ColumnBuffer part : parts) {
+          System.arraycopy(((DoubleColumn) part).data, 0, values, offset, part.size);
+          offset += part.size;
+        }
+        return Series.ofDouble(values);
+      }
+      case BOOLEAN -> {
+        boolean[] values = new boolean[total];
+        boolean[] nulls = null;
+        for (ColumnBuffer part : parts) {
+          BooleanColumn column = (BooleanColumn) part;
+          System.arraycopy(column.data, 0, values, offset, part.size);
+          if (column.nulls != null) {
+            nulls = nulls != null ? nulls : new boolean[total];
+            System.arraycopy(column.nulls, 0, nulls, offset, part.size);
+          }
+          offset += part.size;
+        }
+        if (nulls == null) {
+          return Series.ofBool(values);
+        }
+        Boolean[] boxed = new Boolean[total];
+        for (int i = 0; i < total; i++) {
+          boxed[i] = nulls[i] ? null : values[i];
+        }
+        return Series.of(boxed);
+      }
+      case DATE -> {
+        LocalDate[] values = new LocalDate[total];
+        for (ColumnBuffer part : parts) {
+          System.arraycopy(((DateColumn) part).data, 0, values, offset, part.size);
+          offset += part.size;
+        }
+        return Series.of(values);
+      }
+      case CATEGORY -> {
+        return CategoryColumn.concat(parts, total);
+      }
+      default -> {
+        String[] values = new String[total];
+        for (ColumnBuffer part : parts) {
+          System.arraycopy(((StringColumn) part).data, 0, values, offset, part.size);
+          offset += part.size;
+        }
+        return Series.of(values);
+      }
+    }
+  }
+
+  /**
+   * The narrowest type that can hold the non-empty field stored in bytes [start, end). CATEGORY is never returned,
+   * as it depends on the values of the whole column.
+   */
+  static ColumnType typeOf(ByteBuffer buf, int start, int end) {
+    try {
+      long value = parseLong(buf, start, end);
+      return value == (int) value ? ColumnType.INT : ColumnType.LONG;
+    } catch (ParseFailure e) {
+      // not an integer
+    }
+
+    try {
+      parseDouble(buf, start, end);
+      return ColumnType.DOUBLE;
+    } catch (ParseFailure e) {
+      // not a number
+    }
+
+    try {
+      parseBoolean(buf, start, end);
+      return ColumnType.BOOLEAN;
+    } catch (ParseFailure e) {
+      // not a boolean
+    }
+
+    try {
+      parseDate(buf, start, end);
+      return ColumnType.DATE;
+    } catch (ParseFailure e) {
+      return ColumnType.STRING;
+    }
+  }
+
+  static boolean parseBoolean(ByteBuffer buf, int start, int end) {
+    int length = end - start;
+    if (length == 4 && matches(buf, start, "true")) {
+      return true;
+    } else if (length == 5 && matches(buf, start, "false")) {
+      return false;
+    }
+    throw ParseFailure.INSTANCE;
+  }
+
+  private static boolean matches(ByteBuffer buf, int start, String lowerCase) {
+    for (int i = 0; i < lowerCase.length(); i++) {
+      // ASCII letters only differ in bit 0x20 between cases
+      if ((buf.get(start + i) | 0x20) != lowerCase.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parse an ISO-8601 local date (yyyy-MM-dd)
+   */
+  static LocalDate parseDate(ByteBuffer buf, int start, int end) {
+    if (end - start != 10 || buf.get(start + 4) != '-' || buf.get(start + 7) != '-') {
+      throw ParseFailure.INSTANCE;
+    }
+    int year = digits(buf, start, 4);
+    int month = digits(buf, start + 5, 2);
+    int day = digits(buf, start + 8, 2);
+    try {
+      return LocalDate.of(year, month, day);
+    } catch (DateTimeException e) {
+      throw ParseFailure.INSTANCE;
+    }
+  }
+
+  private static int digits(ByteBuffer buf, int start, int count) {
+    int value = 0;
+    for (int i = start; i < start + count; i++) {
+      int digit = buf.get(i) - '0';
+      if (digit < 0 || digit > 9) {
+        throw ParseFailure.INSTANCE;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  static long parseLong(ByteBuffer buf, int start, int end) {
+    int i = start;
+    boolean negative = false;
+    if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+      negative = buf.get(i) == '-';
+      i++;
+    }
+    if (i == end) {
+      throw ParseFailure.INSTANCE;
+    }
+
+    // Accumulate negatively so that Long.MIN_VALUE parses without overflow
+    long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long result = 0;
+    for (; i < end; i++) {
+      int digit = buf.get(i) - '0';
+      if (digit < 0 || digit > 9 || result < (limit + digit) / 10) {
+        throw ParseFailure.INSTANCE;
+      }
+      result = result * 10 - digit;
+    }
+    return negative ? result : -result;
+  }
+
+  /**
+   * Parse a decimal number. Values whose digits fit in 53 bits and whose exponent is small are computed
+   * exactly with one multiplication or division (Clinger's fast path); everything else goes through
+   * {@link Double#parseDouble(String)}.
+   */
+  static double parseDouble(ByteBuffer buf, int start, int end) {
+    int i = start;
+    boolean negative = false;
+    if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+      negative = buf.get(i) == '-';
+      i++;
+    }
+
+    long mantissa = 0;
+    int exponent = 0;
+    int significant = 0;
+    boolean digits = false;
+    boolean truncated = false;
+
+    for (; i < end; i++) {
+      int digit = buf.get(i) - '0';
+      if (digit < 0 || digit > 9) {
+        break;
+      }
+      digits = true;
+      if (significant < 18) {
+        mantissa = mantissa * 10 + digit;
+        if (mantissa != 0) {
+          significant++;
+        }
+      } else {
+        exponent++;
+        truncated |= digit != 0;
+      }
+    }
+
+    if (i < end && buf.get(i) == '.') {
+      for (i++; i < end; i++) {
+        int digit = buf.get(i) - '0';
+        if (digit < 0 || digit > 9) {
+          break;
+        }
+        digits = true;
+        if (significant < 18) {
+          mantissa = mantissa * 10 + digit;
+          if (mantissa != 0) {
+            significant++;
+          }
+          exponent--;
+        } else {
+          truncated |= digit != 0;
+        }
+      }
+    }
+
+    if (!digits) {
+      return parseDoubleSlow(buf, start, end);
+    }
+
+    if (i < end && (buf.get(i) == 'e' || buf.get(i) == 'E')) {
+      i++;
+      boolean negativeExp = false;
+      if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+        negativeExp = buf.get(i) == '-';
+        i++;
+      }
+      if (i == end) {
+        throw ParseFailure.INSTANCE;
+      }
+      int exp = 0;
+      for (; i < end; i++) {
+        int digit = buf.get(i) - '0';
+        if (digit < 0 || digit > 9) {
+          throw ParseFailure.INSTANCE;
+        }
+        if (exp < 100_000) {
+          exp = exp * 10 + digit;
+        }
+      }
+      exponent += negativeExp ? -exp : exp;
+    }
+
+    if (i != end) {
+      throw ParseFailure.INSTANCE;
+    }
+
+    if (!truncated && mantissa <= (1L << 53) && exponent >= -22 && exponent <= 22) {
+      double value = exponent < 0 ? mantissa / POW10[-exponent] : mantissa * POW10[exponent];
+      return negative ? -value : value;
+    }
+
+    return parseDoubleSlow(buf, start, end);
+  }
+
+  private static double parseDoubleSlow(ByteBuffer buf, int start, int end) {
+    String text = ascii(buf, start, end);
+    switch (text) {
+      case "NaN", "Infinity", "+Infinity", "-Infinity":
+        return Double.parseDouble(text);
+      default:
+        // Double.parseDouble also accepts hex floats, type suffixes and padding; CSV numbers are plain decimals
+        for (int i = 0; i < text.length(); i++) {
+          char c = text.charAt(i);
+          if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+            throw ParseFailure.INSTANCE;
+          }
+        }
+        try {
+          return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+          throw ParseFailure.INSTANCE;
+        }
+    }
+  }
+
+  private static String ascii(ByteBuffer buf, int start, int end) {
+    byte[] bytes = new byte[end - start];
+    buf.get(start, bytes);
+    return new String(bytes, StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Decode a text field, collapsing the doubled quotes of an escaped field
+   */
+  static String text(ByteBuffer buf, int start, int end, boolean escaped) {
+    byte[] bytes = new byte[end - start];
+    buf.get(start, bytes);
+    int length = bytes.length;
+    if (escaped) {
+      int out = 0;
+      for (int i = 0; i < length; i++) {
+        bytes[out++] = bytes[i];
+        if (bytes[i] == '"' && i + 1 < length && bytes[i + 1] == '"') {
+          i++;
+        }
+      }
+      length = out;
+    }
+    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Stackless signal that a field does not parse as the buffer type; only thrown on the widening path
+   */
+  static final class ParseFailure extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    static final ParseFailure INSTANCE = new ParseFailure();
+
+    private ParseFailure() {
+      super(null, null, false, false);
+    }
+  }
+
+  static final class IntColumn extends ColumnBuffer {
+    int[] data;
+
+    IntColumn(int capacity) {
+      super(ColumnType.INT);
+      data = new int[Math.max(capacity, 16)];
+    }
+
+    @Override
+    void add(ByteBuffer buf, int start, int end, boolean escaped) {
+      long value = parseLong(buf, start, end);
+      if (value != (int) value) {
+        throw ParseFailure.INSTANCE;
+      }
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      data[size++] = (int) value;
+    }
+
+    @Override
+    boolean addMissing() {
+      return false;
+    }
+  }
+
+  static final class LongColumn extends ColumnBuffer {
+    long[] data;
+
+    LongColumn(int capacity) {
+      super(ColumnType.LONG);
+      data = new long[Math.max(capacity, 16)];
+    }
+
+    @Override
+    void add(ByteBuffer buf, int start, int end, boolean escaped) {
+      long value = parseLong(buf, start, end);
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      data[size++] = value;
+    }
+
+    @Override
+    boolean addMissing() {
+      return false;
+    }
+  }
+
+  static final class DoubleColumn extends ColumnBuffer {
+    double[] data;
+
+    DoubleColumn(int capacity) {
+      super(ColumnType.DOUBLE);
+      data = new double[Math.max(capacity, 16)];
+    }
+
+    @Override
+    void add(ByteBuffer buf, int start, int end, boolean escaped) {
+      double value = start == end ? Double.NaN : parseDouble(buf, start, end);
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      data[size++] = value;
+    }
+
+    @Override
+    boolean addMissing() {
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      data[size++] = Double.NaN;
+      return true;
+    }
+  }
+
+  static final class BooleanColumn extends ColumnBuffer {
+    boolean[] data;
+
+    // Allocated on the first empty cell
+    boolean[] nulls;
+
+    BooleanColumn(int capacity) {
+      super(ColumnType.BOOLEAN);
+      data = new boolean[Math.max(capacity, 16)];
+    }
+
+    @Override
+    void add(ByteBuffer buf, int start, int end, boolean escaped) {
+      if (start == end) {
+        addMissing();
+        return;
+      }
+      boolean value = parseBoolean(buf, start, end);
+      grow();
+      data[size++] = value;
+    }
+
+    @Override
+    boolean addMissing() {
+      grow();
+      if (nulls == null) {
+        nulls = new boolean[data.length];
+      }
+      nulls[size++] = true;
+      return true;
+    }
+
+    private void grow() {
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+        if (nulls != null) {
+          nulls = Arrays.copyOf(nulls, size * 2);
+        }
+      }
+    }
+  }
+
+  static final class DateColumn extends ColumnBuffer {
+    LocalDate[] data;
+
+    DateColumn(int capacity) {
+      super(ColumnType.DATE);
+      data = new LocalDate[Math.max(capacity, 16)];
+    }
+
+    @Override
+    void add(ByteBuffer buf, int start, int end, boolean escaped) {
+      LocalDate value = start == end ? null : parseDate(buf, start, end);
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      data[size++] = value;
+    }
+
+    @Override
+    boolean addMissing() {
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      data[size++] = null;
+      return true;
+    }
+  }
+
+  static class StringColumn extends ColumnBuffer {
+    String[] data;
+    private byte[] scratch = new byte[64];
+
+    StringColumn(int capacity) {
+      this(ColumnType.STRING, capacity);
+    }
+
+    StringColumn(ColumnType type, int capacity) {
+      super(type);
+      data = new String[Math.max(capacity, 16)];
+    }
+
+    @Override
+    void add(ByteBuffer buf, int start, int end, boolean escaped) {
+      int length = end - start;
+      if (scratch.length < length) {
+        scratch = new byte[Math.max(length, scratch.length * 2)];
+      }
+      buf.get(start, scratch, 0, length);
+
+      // Collapse doubled quotes inside quoted fields
+      if (escaped) {
+        int out = 0;
+        for (int i = 0; i < length; i++) {
+          scratch[out++] = scratch[i];
+          if (scratch[i] == '"' && i + 1 < length && scratch[i + 1] == '"') {
+            i++;
+          }
+        }
+        length = out;
+      }
+
+      addText(scratch, length);
+    }
+
+    void addText(byte[] bytes, int length) {
+      push(new String(bytes, 0, length, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    boolean addMissing() {
+      push(null);
+      return true;
+    }
+
+    private void push(String value) {
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      data[size++] = value;
+    }
+  }
+
+  /**
+   * Text column with few distinct values, stored as int codes into a dictionary of the distinct values. Values are
+   * looked up by their bytes in a small open-addressing table, so each distinct value is decoded once. Columns that
+   * turn out to have too many distinct values fall back to plain strings.
+   */
+  static final class CategoryColumn extends StringColumn {
+
+    // Past this many distinct values the column is no longer worth encoding
+    private static final int MAX_DISTINCT = 1 << 16;
+
+    private byte[][] keys = new byte[64][];
+    private int[] slotCodes = new int[64];
+    private String[] categories = new String[32];
+    private int distinct;
+
+    // Code of every row, or null once the column fell back to plain strings
+    private int[] codes;
+
+    CategoryColumn(int capacity) {
+      super(ColumnType.CATEGORY, 0);
+      codes = new int[Math.max(capacity, 16)];
+    }
+
+    @Override
+    void addText(byte[] bytes, int length) {
+      int code = codes != null ? code(bytes, length) : -1;
+      if (code >= 0) {
+        pushCode(code);
+        return;
+      }
+      if (codes != null) {
+        decodeAll();
+      }
+      super.addText(bytes, length);
+    }
+
+    @Override
+    boolean addMissing() {
+      if (codes == null) {
+        return super.addMissing();
+      }
+      pushCode(-1);
+      return true;
+    }
+
+    private void pushCode(int code) {
+      if (size == codes.length) {
+        codes = Arrays.copyOf(codes, size * 2);
+      }
+      codes[size++] = code;
+    }
+
+    /**
+     * Code of a value, adding it to the dictionary if it is new, or -1 if the dictionary is full
+     */
+    private int code(byte[] bytes, int length) {
+      int mask = keys.length - 1;
+      for (int slot = hash(bytes, length) & mask; ; slot = (slot + 1) & mask) {
+        byte[] key = keys[slot];
+        if (key == null) {
+          if (distinct == MAX_DISTINCT) {
+            return -1;
+          }
+          int code = distinct++;
+          if (code == categories.length) {
+            categories = Arrays.copyOf(categories, code * 2);
+          }
+          categories[code] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+          keys[slot] = Arrays.copyOf(bytes, length);
+          slotCodes[slot] = code;
+          if (distinct * 2 > keys.length) {
+            rehash();
+          }
+          return code;
+        }
+        if (Arrays.equals(key, 0, key.length, bytes, 0, length)) {
+          return slotCodes[slot];
+        }
+      }
+    }
+
+    private static int hash(byte[] bytes, int length) {
+      int hash = 1;
+      for (int i = 0; i < length; i++) {
+        hash = 31 * hash + bytes[i];
+      }
+      return hash ^ (hash >>> 16);
+    }
+
+    private void rehash() {
+      byte[][] oldKeys = keys;
+      int[] oldCodes = slotCodes;
+      keys = new byte[oldKeys.length * 2][];
+      slotCodes = new int[oldKeys.length * 2];
+
+      int mask = keys.length - 1;
+      for (int i = 0; i < oldKeys.length; i++) {
+        byte[] key = oldKeys[i];
+        if (key == null) {
+          continue;
+        }
+        int slot = hash(key, key.length) & mask;
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        slotCodes[slot] = oldCodes[i];
+      }
+    }
+
+    /**
+     * Switch to plain strings, once there are too many distinct values
+     */
+    private void decodeAll() {
+      data = new String[Math.max(16, size * 2)];
+      for (int i = 0; i < size; i++) {
+        data[i] = codes[i] < 0 ? null : categories[codes[i]];
+      }
+      codes = null;
+      keys = null;
+      slotCodes = null;
+    }
+
+    /**
+     * Join per-chunk columns into a {@link CategorySeries} with one dictionary, or into plain strings if any chunk
+     * had too many distinct values
+     */
+    static Series<?> concat(List<ColumnBuffer> parts, int total) {
+      for (ColumnBuffer part : parts) {
+        if (((CategoryColumn) part).codes == null) {
+          String[] values = new String[total];
+          int offset = 0;
+          for (ColumnBuffer p : parts) {
+            CategoryColumn column = (CategoryColumn) p;
+            if (column.codes != null) {
+              column.decodeAll();
+            }
+            System.arraycopy(column.data, 0, values, offset, column.size);
+            offset += column.size;
+          }
+          return Series.of(values);
+        }
+      }
+
+      // Translate the codes of every chunk into those of a merged dictionary
+      Map<String, Integer> index = new HashMap<>();
+      List<String> categories = new ArrayList<>();
+      int[][] translate = new int[parts.size()][];
+      for (int k = 0; k < translate.length; k++) {
+        CategoryColumn column = (CategoryColumn) parts.get(k);
+        translate[k] = new int[column.distinct];
+        for (int c = 0; c < column.distinct; c++) {
+          translate[k][c] = index.computeIfAbsent(column.categories[c], v -> {
+            categories.add(v);
+            return categories.size() - 1;
+          });
+        }
+      }
+
+      CategorySeries<String> series = new CategorySeries<>(categories.toArray(new String[0]), total);
+      int offset = 0;
+      for (int k = 0; k < translate.length; k++) {
+        CategoryColumn column = (CategoryColumn) parts.get(k);
+        for (int i = 0; i < column.size; i++) {
+          int code = column.codes[i];
+          if (code >= 0) {
+            series.setCode(offset + i, translate[k][code]);
+          }
+        }
+        offset += column.size;
+      }
+      return series;
+    }
+  }
+}
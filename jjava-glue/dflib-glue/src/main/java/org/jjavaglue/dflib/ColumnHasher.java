@@ -0,0 +1,157 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DoubleSeries;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.util.Objects;
+
+/**
+ * 64-bit hashes of the values of a column, as by {@link Hashing}, read without boxing from primitive columns and
+ * from the codes of categorical columns, whose categories are hashed once. Also combines values into hashes of rows
+ * across columns, and compares the values of two rows.
+ */
+final class ColumnHasher {
+
+  // Hash of a null or NaN in a row, for which nulls are values like any other
+  private static final long NULL_HASH = 0x7FB5D329728EA185L;
+
+  private final Series<?> column;
+  private final long[] categoryHashes;
+
+  ColumnHasher(Series<?> column) {
+    this.column = column;
+    if (column instanceof CategorySeries<?> cs) {
+      categoryHashes = new long[cs.getCategoryCount()];
+      for (int c = 0; c < categoryHashes.length; c++) {
+        categoryHashes[c] = Hashing.hash(cs.getCategory(c));
+      }
+    } else {
+      categoryHashes = null;
+    }
+  }
+
+  Series<?> column() {
+    return column;
+  }
+
+  /**
+   * Hash the non-null values of rows [from, to), skipping nulls and NaNs. Writes the hashes to the start of
+   * "hashes" and the positions of their rows relative to "from" to the start of "rows", and returns their number.
+   */
+  int hash(int from, int to, long[] hashes, int[] rows) {
+    int n = 0;
+    if (column instanceof DoubleSeries ds) {
+      for (int i = from; i < to; i++) {
+        double x = ds.getDouble(i);
+        if (!Double.isNaN(x)) {
+          hashes[n] = Hashing.hash(x);
+          rows[n++] = i - from;
+        }
+      }
+    } else if (column instanceof IntSeries is) {
+      for (int i = from; i < to; i++) {
+        hashes[n] = Hashing.hash(is.getInt(i));
+        rows[n++] = i - from;
+      }
+    } else if (column instanceof LongSeries ls) {
+      for (int i = from; i < to; i++) {
+        hashes[n] = Hashing.hash(ls.getLong(i));
+        rows[n++] = i - from;
+      }
+    } else if (column instanceof CategorySeries<?> cs) {
+      for (int i = from; i < to; i++) {
+        int code = cs.getCode(i);
+        if (code >= 0) {
+          hashes[n] = categoryHashes[code];
+          rows[n++] = i - from;
+        }
+      }
+    } else {
+      for (int i = from; i < to; i++) {
+        Object value = column.get(i);
+        if (value != null) {
+          hashes[n] = Hashing.hash(value);
+          rows[n++] = i - from;
+        }
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Mix the values of rows [from, to) into row hashes, e.g. to hash rows across several columns. Nulls and NaNs
+   * are hashed alike.
+   */
+  void combine(int from, int to, long[] hashes) {
+    if (column instanceof DoubleSeries ds) {
+      for (int i = from; i < to; i++) {
+        double x = ds.getDouble(i);
+        hashes[i - from] = combine(hashes[i - from], Double.isNaN(x) ? NULL_HASH : Hashing.hash(x));
+      }
+    } else if (column instanceof IntSeries is) {
+      for (int i = from; i < to; i++) {
+        hashes[i - from] = combine(hashes[i - from], Hashing.hash(is.getInt(i)));
+      }
+    } else if (column instanceof LongSeries ls) {
+      for (int i = from; i < to; i++) {
+        hashes[i - from] = combine(hashes[i - from], Hashing.hash(ls.getLong(i)));
+      }
+    } else if (column instanceof CategorySeries<?> cs) {
+      for (int i = from; i < to; i++) {
+        int code = cs.getCode(i);
+        hashes[i - from] = combine(hashes[i - from], code >= 0 ? categoryHashes[code] : NULL_HASH);
+      }
+    } else {
+      for (int i = from; i < to; i++) {
+        Object value = column.get(i);
+        hashes[i - from] = combine(hashes[i - from], value != null ? Hashing.hash(value) : NULL_HASH);
+      }
+    }
+  }
+
+  private static long combine(long hash, long value) {
+    return Hashing.mix(hash * 0x9E3779B97F4A7C15L + value);
+  }
+
+  /**
+   * Whether the values of the column are primitive or categorical, and so can be compared by {@link #keys}
+   */
+  boolean hasKeys() {
+    return column instanceof DoubleSeries || column instanceof IntSeries || column instanceof LongSeries
+        || column instanceof CategorySeries;
+  }
+
+  /**
+   * Write to "keys" a long per given row, equal for rows of equal values: the bits of a double, with all NaNs
+   * alike, an int or long, or a category code. Only for columns that {@link #hasKeys()}.
+   */
+  void keys(int[] rows, int from, int to, long[] keys) {
+    if (column instanceof DoubleSeries ds) {
+      for (int i = from; i < to; i++) {
+        keys[i - from] = Hashing.bits(ds.getDouble(rows[i]));
+      }
+    } else if (column instanceof IntSeries is) {
+      for (int i = from; i < to; i++) {
+        keys[i - from] = is.getInt(rows[i]);
+      }
+    } else if (column instanceof LongSeries ls) {
+      for (int i = from; i < to; i++) {
+        keys[i - from] = ls.getLong(rows[i]);
+      }
+    } else {
+      CategorySeries<?> cs = (CategorySeries<?>) column;
+      for (int i = from; i < to; i++) {
+        keys[i - from] = cs.getCode(rows[i]);
+      }
+    }
+  }
+
+  /**
+   * Whether two rows hold equal values, for columns without {@link #keys}. Nulls equal nulls, as when hashing rows.
+   */
+  boolean equal(int a, int b) {
+    return Objects.equals(column.get(a), column.get(b));
+  }
+}
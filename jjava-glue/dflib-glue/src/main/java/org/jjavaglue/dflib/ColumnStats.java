@@ -0,0 +1,374 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DoubleSeries;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Running summary statistics of one column that can be updated one chunk at a time and merged across chunks.
+ * Each chunk is summarized in a single pass over blocks of {@value #BLOCK_ROWS} rows: a block is hashed for the
+ * sketches, then summed while it is still in cache. Mean and variance come from sums shifted by the first value of
+ * the block, and blocks and chunks are combined with Chan's parallel merge, so they stay accurate over many chunks.
+ * <p>
+ * Quantiles are approximate: chunks of up to {@value #QUANTILE_SAMPLE} values go into a {@link TDigest} whole,
+ * larger chunks through a random sample of that size weighted by the chunk size. The most frequent value comes from
+ * a {@link FrequencySketch} fed the same way, and the number of distinct values from a {@link HyperLogLog} of all
+ * values. Both are kept for every column, numeric or not.
+ */
+public class ColumnStats {
+
+  static final int QUANTILE_SAMPLE = 1 << 14;
+  private static final int BLOCK_ROWS = 4096;
+
+  private long count;
+  private long nulls;
+  private long numericCount;
+  private boolean numeric = true;
+  private double mean;
+  private double m2;
+  private double sum;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+  private final TDigest digest = new TDigest();
+  private final HyperLogLog distinct = new HyperLogLog();
+  private final FrequencySketch frequencies = new FrequencySketch(1024, 8);
+
+  /**
+   * Add all values of a series. Nulls and NaNs are counted separately; a column with any non-numeric value is
+   * treated as non-numeric and only counts are kept.
+   */
+  public ColumnStats add(Series<?> series) {
+    return add(series, 0, series.size());
+  }
+
+  /**
+   * Add the values of a series in positions [from, to)
+   */
+  public ColumnStats add(Series<?> series, int from, int to) {
+    ColumnHasher hasher = new ColumnHasher(series);
+    long[] hashes = new long[BLOCK_ROWS];
+    int[] rows = new int[BLOCK_ROWS];
+    boolean primitive = series instanceof DoubleSeries || series instanceof IntSeries || series instanceof LongSeries;
+    boolean sampled = to - from > QUANTILE_SAMPLE;
+    long n = 0;
+
+    // Hash each block, then take its moments while it is still in cache
+    for (int start = from; start < to; start += BLOCK_ROWS) {
+      int end = Math.min(to, start + BLOCK_ROWS);
+      int hashed = hasher.hash(start, end, hashes, rows);
+      for (int i = 0; i < hashed; i++) {
+        distinct.addHash(hashes[i]);
+        if (!sampled) {
+          if (frequencies.increment(hashes[i])) {
+            frequencies.offer(hashes[i], series.get(start + rows[i]));
+          }
+          if (primitive) {
+            digest.add(valueAt(series, start + rows[i]));
+          }
+        }
+      }
+
+      if (series instanceof DoubleSeries ds) {
+        n += addDoubles(ds, start, end);
+      } else if (series instanceof IntSeries is) {
+        n += addInts(is, start, end);
+      } else if (series instanceof LongSeries ls) {
+        n += addLongs(ls, start, end);
+      } else {
+        addObjects(series, start, end);
+      }
+    }
+
+    if (sampled) {
+      addSample(hasher, from, to, n, primitive);
+    }
+    return this;
+  }
+
+  public ColumnStats add(double value) {
+    if (!Double.isNaN(value)) {
+      long hash = Hashing.hash(value);
+      distinct.addHash(hash);
+      if (frequencies.increment(hash)) {
+        frequencies.offer(hash, value);
+      }
+    }
+    return addMoments(value);
+  }
+
+  private ColumnStats addMoments(double value) {
+    count++;
+    if (Double.isNaN(value)) {
+      nulls++;
+      return this;
+    }
+
+    numericCount++;
+    double delta = value - mean;
+    mean += delta / numericCount;
+    m2 += delta * (value - mean);
+    sum += value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+    digest.add(value);
+    return this;
+  }
+
+  private long addDoubles(DoubleSeries series, int from, int to) {
+    long n = 0;
+    double shift = Double.NaN;
+    double s = 0;
+    double s2 = 0;
+    double total = 0;
+    double lo = Double.POSITIVE_INFINITY;
+    double hi = Double.NEGATIVE_INFINITY;
+
+    for (int i = from; i < to; i++) {
+      double x = series.getDouble(i);
+      if (Double.isNaN(x)) {
+        continue;
+      }
+      if (n == 0) {
+        shift = x;
+      }
+      double d = x - shift;
+      s += d;
+      s2 += d * d;
+      total += x;
+      lo = Math.min(lo, x);
+      hi = Math.max(hi, x);
+      n++;
+    }
+
+    count += to - from;
+    nulls += (to - from) - n;
+    combine(n, shift, s, s2, total, lo, hi);
+    return n;
+  }
+
+  private long addInts(IntSeries series, int from, int to) {
+    int n = to - from;
+    double shift = n > 0 ? series.getInt(from) : 0;
+    double s = 0;
+    double s2 = 0;
+    long total = 0;
+    int lo = Integer.MAX_VALUE;
+    int hi = Integer.MIN_VALUE;
+
+    for (int i = from; i < to; i++) {
+      int x = series.getInt(i);
+      double d = x - shift;
+      s += d;
+      s2 += d * d;
+      total += x;
+      lo = Math.min(lo, x);
+      hi = Math.max(hi, x);
+    }
+
+    count += n;
+    combine(n, shift, s, s2, total, lo, hi);
+    return n;
+  }
+
+  private long addLongs(LongSeries series, int from, int to) {
+    int n = to - from;
+    double shift = n > 0 ? series.getLong(from) : 0;
+    double s = 0;
+    double s2 = 0;
+    double total = 0;
+    long lo = Long.MAX_VALUE;
+    long hi = Long.MIN_VALUE;
+
+    for (int i = from; i < to; i++) {
+      long x = series.getLong(i);
+      double d = x - shift;
+      s += d;
+      s2 += d * d;
+      total += x;
+      lo = Math.min(lo, x);
+      hi = Math.max(hi, x);
+    }
+
+    count += n;
+    combine(n, shift, s, s2, total, lo, hi);
+    return n;
+  }
+
+  /**
+   * Merge the moments of n values whose differences from "shift" sum to s, and whose squared differences sum to s2
+   */
+  private void combine(long n, double shift, double s, double s2, double total, double lo, double hi) {
+    if (n == 0) {
+      return;
+    }
+    double chunkMean = shift + s / n;
+    double chunkM2 = Math.max(0, s2 - s * s / n);
+    mergeMoments(n, chunkMean, chunkM2, total, lo, hi);
+  }
+
+  private void mergeMoments(long n, double otherMean, double otherM2, double otherSum, double otherMin,
+      double otherMax) {
+    long total = numericCount + n;
+    double delta = otherMean - mean;
+    mean += delta * n / total;
+    m2 += otherM2 + delta * delta * ((double) numericCount * n / total);
+    numericCount = total;
+    sum += otherSum;
+    min = Math.min(min, otherMin);
+    max = Math.max(max, otherMax);
+  }
+
+  private void addObjects(Series<?> series, int from, int to) {
+    for (int i = from; i < to; i++) {
+      Object value = series.get(i);
+      if (value instanceof Number number) {
+        addMoments(number.doubleValue());
+      } else if (value == null) {
+        count++;
+        nulls++;
+      } else {
+        count++;
+        numeric = false;
+      }
+    }
+  }
+
+  /**
+   * Add a random sample of the range to the frequencies and, for primitive columns, to the digest, each value
+   * weighted so that the sample stands for the whole range and its n non-null values
+   */
+  private void addSample(ColumnHasher hasher, int from, int to, long n, boolean primitive) {
+    Series<?> series = hasher.column();
+    long[] hash = new long[1];
+    int[] row = new int[1];
+
+    // Sample with a seed derived from the range, so that the same data always gives the same result
+    SplittableRandom random = new SplittableRandom(31L * from + to);
+    long weight = Math.round((double) (to - from) / QUANTILE_SAMPLE);
+    TDigest sample = new TDigest();
+    for (int i = 0; i < QUANTILE_SAMPLE; i++) {
+      int at = from + random.nextInt(to - from);
+      if (hasher.hash(at, at + 1, hash, row) == 0) {
+        continue;
+      }
+      if (frequencies.increment(hash[0], weight)) {
+        frequencies.offer(hash[0], series.get(at));
+      }
+      if (primitive) {
+        sample.add(valueAt(series, at));
+      }
+    }
+    if (sample.size() > 0) {
+      digest.merge(sample.scale((double) n / sample.size()));
+    }
+  }
+
+  private static double valueAt(Series<?> series, int i) {
+    if (series instanceof DoubleSeries ds) {
+      return ds.getDouble(i);
+    } else if (series instanceof IntSeries is) {
+      return is.getInt(i);
+    }
+    return ((LongSeries) series).getLong(i);
+  }
+
+  /**
+   * Combine the statistics of another part of the same column into this one
+   */
+  public ColumnStats merge(ColumnStats other) {
+    if (other.numericCount > 0) {
+      mergeMoments(other.numericCount, other.mean, other.m2, other.sum, other.min, other.max);
+      digest.merge(other.digest);
+    }
+    distinct.merge(other.distinct);
+    frequencies.merge(other.frequencies);
+    count += other.count;
+    nulls += other.nulls;
+    numeric &= other.numeric;
+    return this;
+  }
+
+  /**
+   * Number of values, including nulls and NaNs
+   */
+  public long count() {
+    return count;
+  }
+
+  /**
+   * Number of nulls and NaNs
+   */
+  public long nulls() {
+    return nulls;
+  }
+
+  /**
+   * Whether every non-null value seen was a number
+   */
+  public boolean isNumeric() {
+    return numeric && numericCount > 0;
+  }
+
+  /**
+   * Approximate number of distinct non-null values
+   */
+  public long distinct() {
+    return distinct.estimate();
+  }
+
+  /**
+   * Approximately the most frequent non-null value, or null if there are none. Values occurring in well over 1% of
+   * the rows are found reliably.
+   */
+  public Object top() {
+    List<Object> top = frequencies.top(1);
+    return top.isEmpty() ? null : top.get(0);
+  }
+
+  /**
+   * Estimated number of occurrences of {@link #top()}. Chunks larger than {@value #QUANTILE_SAMPLE} values are
+   * sampled, so the estimate may be lower or higher than the true number.
+   */
+  public long topCount() {
+    Object top = top();
+    return top != null ? frequencies.estimate(top) : 0;
+  }
+
+  public double mean() {
+    return isNumeric() ? mean : Double.NaN;
+  }
+
+  /**
+   * Sample variance of the non-null values
+   */
+  public double variance() {
+    return isNumeric() && numericCount > 1 ? m2 / (numericCount - 1) : Double.NaN;
+  }
+
+  public double std() {
+    return Math.sqrt(variance());
+  }
+
+  public double sum() {
+    return isNumeric() ? sum : Double.NaN;
+  }
+
+  public double min() {
+    return isNumeric() ? min : Double.NaN;
+  }
+
+  public double max() {
+    return isNumeric() ? max : Double.NaN;
+  }
+
+  /**
+   * Approximate value at quantile q (0 to 1) of the non-null values
+   */
+  public double quantile(double q) {
+    return isNumeric() ? digest.quantile(q) : Double.NaN;
+  }
+}
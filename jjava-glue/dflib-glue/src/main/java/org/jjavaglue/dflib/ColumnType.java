@@ -0,0 +1,39 @@
+package org.jjavaglue.dflib;
+
+/**
+ * Storage type of a loaded column. Numeric types widen INT -> LONG -> DOUBLE; anything that does not fit a
+ * common type is kept as STRING.
+ * <ul>
+ * <li>INT, LONG, DOUBLE - primitive series; empty DOUBLE cells are NaN</li>
+ * <li>BOOLEAN - "true" / "false" in any case; a BooleanSeries unless the column has empty cells</li>
+ * <li>DATE - ISO-8601 local dates (yyyy-MM-dd) loaded as {@link java.time.LocalDate}</li>
+ * <li>CATEGORY - text with few distinct values; every distinct value is stored only once</li>
+ * <li>STRING - any other text</li>
+ * </ul>
+ */
+public enum ColumnType {
+  INT, LONG, DOUBLE, BOOLEAN, DATE, CATEGORY, STRING;
+
+  /**
+   * The narrowest type that can hold values of both this type and the other one
+   */
+  public ColumnType widen(ColumnType other) {
+    if (this == other) {
+      return this;
+    } else if (isNumeric() && other.isNumeric()) {
+      return ordinal() > other.ordinal() ? this : other;
+    }
+    return STRING;
+  }
+
+  /**
+   * The narrowest type that can hold values of this type as well as empty cells
+   */
+  public ColumnType widenForEmpty() {
+    return this == INT || this == LONG ? DOUBLE : this;
+  }
+
+  public boolean isNumeric() {
+    return this == INT || this == LONG || this == DOUBLE;
+  }
+}
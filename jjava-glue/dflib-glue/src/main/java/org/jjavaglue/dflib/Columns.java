@@ -0,0 +1,235 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DoubleSeries;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar construction helpers that turn lists and arrays into typed DFLib series in a single pass
+ */
+public class Columns {
+
+  /**
+   * Convert a column of data into a Series. Supported inputs are {@link Series} (returned as-is), primitive
+   * {@code double[]}, {@code int[]}, {@code long[]} and {@code boolean[]} arrays (wrapped without boxing),
+   * object arrays and {@link List}s.
+   */
+  public static Series<?> toSeries(Object data) {
+    if (data instanceof Series<?> s) {
+      return s;
+    } else if (data instanceof double[] a) {
+      return Series.ofDouble(a);
+    } else if (data instanceof int[] a) {
+      return Series.ofInt(a);
+    } else if (data instanceof long[] a) {
+      return Series.ofLong(a);
+    } else if (data instanceof boolean[] a) {
+      return Series.ofBool(a);
+    } else if (data instanceof Object[] a) {
+      return fromList(Arrays.asList(a));
+    } else if (data instanceof List<?> l) {
+      return fromList(l);
+    }
+
+    throw new IllegalArgumentException("Unsupported column type: " + (data == null ? "null" : data.getClass().getName()));
+  }
+
+  /**
+   * Convert a list into a Series. Lists made entirely of non-null Double, Integer, Long or Boolean values become
+   * primitive series; anything else (mixed types, nulls) becomes an object series.
+   */
+  public static Series<?> fromList(List<?> list) {
+    int size = list.size();
+    Object first = size > 0 ? list.iterator().next() : null;
+
+    // The type of the first element picks the primitive array we try to fill. A mismatch anywhere falls back to
+    // an object series, so the common all-same-type case is a single pass over the list.
+    if (first instanceof Double) {
+      double[] values = new double[size];
+      int i = 0;
+      for (Object value : list) {
+        if (!(value instanceof Double d)) {
+          return Series.ofIterable(list);
+        }
+        values[i++] = d;
+      }
+      return Series.ofDouble(values);
+    } else if (first instanceof Integer) {
+      int[] values = new int[size];
+      int i = 0;
+      for (Object value : list) {
+        if (!(value instanceof Integer n)) {
+          return Series.ofIterable(list);
+        }
+        values[i++] = n;
+      }
+      return Series.ofInt(values);
+    } else if (first instanceof Long) {
+      long[] values = new long[size];
+      int i = 0;
+      for (Object value : list) {
+        if (!(value instanceof Long n)) {
+          return Series.ofIterable(list);
+        }
+        values[i++] = n;
+      }
+      return Series.ofLong(values);
+    } else if (first instanceof Boolean) {
+      boolean[] values = new boolean[size];
+      int i = 0;
+      for (Object value : list) {
+        if (!(value instanceof Boolean b)) {
+          return Series.ofIterable(list);
+        }
+        values[i++] = b;
+      }
+      return Series.ofBool(values);
+    }
+
+    return Series.ofIterable(list);
+  }
+
+  /**
+   * Copy a column into a double array. Primitive series are copied directly; object series are unboxed, with
+   * nulls and non-numeric values as NaN. Text is parsed as a last resort, for frames that were not loaded with
+   * typed columns.
+   */
+  public static double[] toDoubleArray(Series<?> series) {
+    if (series instanceof DoubleSeries ds) {
+      return ds.toDoubleArray();
+    }
+    return toDoubleArray(series, 0, series.size());
+  }
+
+  /**
+   * Copy the positions [from, to) of a column into a double array, converting values as
+   * {@link #toDoubleArray(Series)} does
+   */
+  public static double[] toDoubleArray(Series<?> series, int from, int to) {
+    double[] values = new double[to - from];
+    if (series instanceof DoubleSeries ds) {
+      for (int i = from; i < to; i++) {
+        values[i - from] = ds.getDouble(i);
+      }
+    } else if (series instanceof IntSeries is) {
+      for (int i = from; i < to; i++) {
+        values[i - from] = is.getInt(i);
+      }
+    } else if (series instanceof LongSeries ls) {
+      for (int i = from; i < to; i++) {
+        values[i - from] = ls.getLong(i);
+      }
+    } else {
+      for (int i = from; i < to; i++) {
+        values[i - from] = toDouble(series.get(i));
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Copy the positions [from, to) of a column into an existing double array, converting values as
+   * {@link #toDoubleArray(Series)} does: position from + i is written at offset + i * step, so that a column can be
+   * placed in a row-major (step = width) or column-major (step = 1) matrix without an intermediate array
+   */
+  public static void copyDoubles(Series<?> series, int from, int to, double[] dest, int offset, int step) {
+    if (from < 0 || to > series.size() || from > to) {
+      throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") of a column of " + series.size());
+    }
+    int n = to - from;
+    if (n > 0 && (offset < 0 || step < 1 || offset + (long) (n - 1) * step >= dest.length)) {
+      throw new IllegalArgumentException(n + " values do not fit at offset " + offset + " and step " + step
+          + " in an array of " + dest.length);
+    }
+    if (series instanceof DoubleSeries ds) {
+      for (int i = from, k = offset; i < to; i++, k += step) {
+        dest[k] = ds.getDouble(i);
+      }
+    } else if (series instanceof IntSeries is) {
+      for (int i = from, k = offset; i < to; i++, k += step) {
+        dest[k] = is.getInt(i);
+      }
+    } else if (series instanceof LongSeries ls) {
+      for (int i = from, k = offset; i < to; i++, k += step) {
+        dest[k] = ls.getLong(i);
+      }
+    } else {
+      for (int i = from, k = offset; i < to; i++, k += step) {
+        dest[k] = toDouble(series.get(i));
+      }
+    }
+  }
+
+  /**
+   * Row positions of every distinct non-null value of a column, in order of first appearance. Categorical columns
+   * are grouped by their codes; other columns are encoded first, hashing each value once.
+   */
+  public static Map<Object, int[]> groupRows(Series<?> keys) {
+    CategorySeries<?> categories = CategorySeries.of(keys);
+    int categoryCount = categories.getCategoryCount();
+    int[] counts = new int[categoryCount];
+    int[] byFirstRow = new int[categoryCount];
+    int seen = 0;
+    for (int row = 0; row < categories.size(); row++) {
+      int code = categories.getCode(row);
+      if (code >= 0 && counts[code]++ == 0) {
+        byFirstRow[seen++] = code;
+      }
+    }
+
+    int[][] rows = new int[categoryCount][];
+    for (int c = 0; c < categoryCount; c++) {
+      rows[c] = new int[counts[c]];
+    }
+    int[] filled = new int[categoryCount];
+    for (int row = 0; row < categories.size(); row++) {
+      int code = categories.getCode(row);
+      if (code >= 0) {
+        rows[code][filled[code]++] = row;
+      }
+    }
+
+    Map<Object, int[]> groups = new LinkedHashMap<>();
+    for (int i = 0; i < seen; i++) {
+      groups.put(categories.getCategory(byFirstRow[i]), rows[byFirstRow[i]]);
+    }
+    return groups;
+  }
+
+  /**
+   * Whether a column holds numbers. Typed series are decided by their type; for object series the first non-null
+   * value decides.
+   */
+  public static boolean isNumeric(Series<?> series) {
+    if (series instanceof DoubleSeries || series instanceof IntSeries || series instanceof LongSeries) {
+      return series.size() > 0;
+    }
+
+    for (int i = 0; i < series.size(); i++) {
+      Object value = series.get(i);
+      if (value != null) {
+        return value instanceof Number || !Double.isNaN(toDouble(value));
+      }
+    }
+    return false;
+  }
+
+  private static double toDouble(Object value) {
+    if (value instanceof Number n) {
+      return n.doubleValue();
+    } else if (value instanceof String text) {
+      try {
+        return Double.parseDouble(text);
+      } catch (NumberFormatException e) {
+        return Double.NaN;
+      }
+    }
+    return Double.NaN;
+  }
+}
@@ -0,0 +1,200 @@
+package org.jjavaglue.dflib;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+
+/**
+ * A grid of thumbnails of the image files of a directory, with their names. Thumbnails are made in parallel on the
+ * common pool, whose size bounds the images being decoded at once. Each file is read with source subsampling, so
+ * that a full resolution image is never held, to about twice the thumbnail size, then resized, both by
+ * {@link ImageResizer}. Thumbnails may be cached on disk as PNGs named by a hash of the path, modification time,
+ * size of the file and the thumbnail size.
+ */
+final class ContactSheet {
+
+  private static final int PADDING = 4;
+  private static final int LABEL_HEIGHT = 14;
+  // Sheets are encoded as JPEG, which allows up to 65535 pixels a side; the pixel limit bounds memory to 256 MB
+  private static final int MAX_SIDE = 65535;
+  private static final long MAX_PIXELS = 1L << 26;
+
+  private ContactSheet() {
+  }
+
+  static BufferedImage render(Path dir, String glob, int thumbSize, int columns, Path cacheDir) throws IOException {
+    if (thumbSize < 8) {
+      throw new IllegalArgumentException("Thumbnail size must be at least 8: " + thumbSize);
+    }
+    if (columns < 1) {
+      throw new IllegalArgumentException("Columns must be positive: " + columns);
+    }
+    List<Path> files = files(dir, glob);
+    int cellWidth = thumbSize + 2 * PADDING;
+    int cellHeight = thumbSize + 2 * PADDING + LABEL_HEIGHT;
+    int cols = Math.max(1, Math.min(columns, files.size()));
+    int rows = Math.max(1, (files.size() + cols - 1) / cols);
+    long width = (long) cols * cellWidth;
+    long height = (long) rows * cellHeight;
+    if (width > MAX_SIDE || height > MAX_SIDE || width * height > MAX_PIXELS) {
+      throw new IllegalArgumentException("A contact sheet of " + files.size() + " images would be " + width + "x"
+          + height + " pixels; use a narrower glob, more columns or smaller thumbnails");
+    }
+    if (cacheDir != null) {
+      Files.createDirectories(cacheDir);
+    }
+
+    List<Callable<BufferedImage>> tasks = new ArrayList<>(files.size());
+    for (Path file : files) {
+      tasks.add(() -> thumbnail(file, thumbSize, cacheDir));
+    }
+    List<BufferedImage> thumbnails = invokeAll(tasks);
+
+    BufferedImage sheet = new BufferedImage((int) width, (int) height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = sheet.createGraphics();
+    try {
+      g.setColor(Color.WHITE);
+      g.fillRect(0, 0, sheet.getWidth(), sheet.getHeight());
+      g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+      g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, LABEL_HEIGHT - 3));
+      FontMetrics metrics = g.getFontMetrics();
+      for (int i = 0; i < files.size(); i++) {
+        int x = (i % cols) * cellWidth + PADDING;
+        int y = (i / cols) * cellHeight + PADDING;
+        BufferedImage thumbnail = thumbnails.get(i);
+        if (thumbnail != null) {
+          // Center thumbnails of other aspect ratios in their cell
+          g.drawImage(thumbnail, x + (thumbSize - thumbnail.getWidth()) / 2,
+              y + (thumbSize - thumbnail.getHeight()) / 2, null);
+        } else {
+          g.setColor(Color.LIGHT_GRAY);
+          g.fillRect(x, y, thumbSize, thumbSize);
+        }
+        g.setColor(Color.DARK_GRAY);
+        g.drawString(label(files.get(i).getFileName().toString(), metrics, thumbSize), x,
+            y + thumbSize + LABEL_HEIGHT - 2);
+      }
+    } finally {
+      g.dispose();
+    }
+    return sheet;
+  }
+
+  /**
+   * Regular files of a directory whose names match a glob, by name
+   */
+  static List<Path> files(Path dir, String glob) throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+      for (Path file : stream) {
+        if (Files.isRegularFile(file)) {
+          files.add(file);
+        }
+      }
+    }
+    files.sort(null);
+    return files;
+  }
+
+  /**
+   * A thumbnail of an image file fitting in size x size pixels, or null if the file is not a readable image
+   */
+  static BufferedImage thumbnail(Path file, int size, Path cacheDir) throws IOException {
+    Path cached = null;
+    if (cacheDir != null) {
+      BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      long key = Hashing.hash(file.toAbsolutePath() + "|" + attributes.lastModifiedTime().toMillis() + "|"
+          + attributes.size() + "|" + size);
+      cached = cacheDir.resolve(String.format("%016x.png", key));
+      if (Files.exists(cached)) {
+        BufferedImage thumbnail = ImageIO.read(cached.toFile());
+        if (thumbnail != null) {
+          return thumbnail;
+        }
+      }
+    }
+
+    BufferedImage thumbnail = read(file, size);
+    if (thumbnail != null && cached != null) {
+      // Write and then rename, so that concurrent sheets never read a partial file
+      Path temp = Files.createTempFile(cacheDir, "thumbnail", ".tmp");
+      try {
+        ImageIO.write(thumbnail, "png", temp.toFile());
+        Files.move(temp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    }
+    return thumbnail;
+  }
+
+  /**
+   * Read every n-th pixel of every n-th row of an image, for about twice the thumbnail size, and resize that
+   */
+  private static BufferedImage read(Path file, int size) {
+    BufferedImage image;
+    try {
+      image = ImageResizer.read(file, (w, h) -> Math.max(w, h) / (2 * size));
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Failed to read image: " + file + ": " + e.getMessage());
+      return null;
+    }
+    if (image == null) {
+      return null;
+    }
+    double scale = Math.min(1, size / (double) Math.max(image.getWidth(), image.getHeight()));
+    int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+    int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+    return ImageResizer.resize(image, width, height);
+  }
+
+  /**
+   * A file name, shortened with an ellipsis in the middle to fit a width
+   */
+  private static String label(String name, FontMetrics metrics, int width) {
+    if (metrics.stringWidth(name) <= width) {
+      return name;
+    }
+    for (int keep = name.length() - 1; keep > 1; keep--) {
+      String label = name.substring(0, (keep + 1) / 2) + "…" + name.substring(name.length() - keep / 2);
+      if (metrics.stringWidth(label) <= width) {
+        return label;
+      }
+    }
+    return "…";
+  }
+
+  private static <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+    List<T> results = new ArrayList<>(tasks.size());
+    for (Future<T> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+      try {
+        results.add(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while making thumbnails", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException io) {
+          throw io;
+        }
+        throw new IllegalStateException("Error making thumbnails", e.getCause());
+      }
+    }
+    return results;
+  }
+}
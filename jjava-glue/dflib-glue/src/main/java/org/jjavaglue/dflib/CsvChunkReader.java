@@ -0,0 +1,166 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Sequential CSV reader that returns the file as DataFrames of a fixed number of rows. Only a sliding window of
+ * the file is mapped at a time, so memory use is bounded by the chunk size rather than the file size.
+ */
+final class CsvChunkReader implements Iterator<DataFrame>, AutoCloseable {
+
+  private static final int WINDOW_BYTES = 16 << 20;
+
+  private final FileChannel channel;
+  private final CsvLoader loader;
+  private final long size;
+  private final String[] names;
+  private final int[] positions;
+  private final ColumnType[] types;
+  private final CsvLoader.RowFilter filter;
+  private final int maxFields;
+  private final int chunkRows;
+
+  private long pos;
+  private long remaining;
+  private long rowsRead;
+  private int windowBytes = WINDOW_BYTES;
+  private DataFrame next;
+
+  CsvChunkReader(FileChannel channel, CsvLoader loader, int chunkRows) throws IOException {
+    this.channel = channel;
+    this.loader = loader;
+    this.size = channel.size();
+    this.chunkRows = chunkRows;
+    this.remaining = loader.limit() < 0 ? Long.MAX_VALUE : loader.limit();
+
+    try {
+      CsvLoader.Header header = CsvLoader.readHeader(channel, size);
+      this.names = loader.names(header);
+      this.positions = CsvLoader.positions(header, names);
+      this.types = loader.types(channel, header, size, names, positions);
+      this.filter = loader.rowFilter(channel, header, size, names, types);
+      this.maxFields = Math.max(CsvLoader.maxPosition(positions), filter.maxPosition()) + 1;
+      this.pos = header.dataStart();
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null && remaining > 0 && pos < size) {
+      try {
+        next = read();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Error reading CSV chunk", e);
+      }
+    }
+    return next != null;
+  }
+
+  @Override
+  public DataFrame next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    DataFrame chunk = next;
+    next = null;
+    return chunk;
+  }
+
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private DataFrame read() throws IOException {
+    int maxRows = (int) Math.min(chunkRows, remaining);
+    long start = pos;
+
+    while (true) {
+      ColumnBuffer[] buffers = new ColumnBuffer[positions.length];
+      for (int i = 0; i < buffers.length; i++) {
+        buffers[i] = ColumnBuffer.of(types[i], Math.min(maxRows, 1 << 16));
+      }
+
+      pos = start;
+      int rows = readRows(buffers, maxRows);
+      if (rows == 0) {
+        return null;
+      }
+
+      // A value that does not fit the current type widens the column for this and all later chunks
+      boolean widened = false;
+      for (int i = 0; i < buffers.length; i++) {
+        if (buffers[i].widened != null) {
+          loader.checkWidening(names[i], types[i], buffers[i], rowsRead);
+          types[i] = types[i].widen(buffers[i].widened);
+          widened = true;
+        }
+      }
+
+      if (!widened) {
+        remaining -= rows;
+        rowsRead += rows;
+        return CsvLoader.assemble(names, types.clone(), List.<ColumnBuffer[]>of(buffers));
+      }
+    }
+  }
+
+  private int readRows(ColumnBuffer[] buffers, int maxRows) throws IOException {
+    int rows = 0;
+    while (rows < maxRows && pos < size) {
+      int window = (int) Math.min(size - pos, windowBytes);
+      boolean last = pos + window == size;
+      MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, window);
+      CsvTokenizer tokenizer = new CsvTokenizer(buf, 0, window, maxFields);
+
+      int consumed = 0;
+      boolean partial = false;
+      while (rows < maxRows) {
+        if (!tokenizer.next()) {
+          consumed = window;
+          break;
+        }
+        // A row cut off by the end of the window is re-read from the next window
+        if (!tokenizer.terminated && !last) {
+          partial = true;
+          break;
+        }
+        consumed = tokenizer.position();
+        if (!filter.accept(tokenizer, buf)) {
+          continue;
+        }
+        for (int i = 0; i < positions.length; i++) {
+          int p = positions[i];
+          if (p < tokenizer.fields) {
+            buffers[i].append(buf, tokenizer.starts[p], tokenizer.ends[p], tokenizer.escaped[p]);
+          } else {
+            buffers[i].appendMissing();
+          }
+        }
+        rows++;
+      }
+
+      if (partial && consumed == 0) {
+        // A single row is larger than the window
+        windowBytes *= 2;
+      }
+      pos += consumed;
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,637 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+import org.dflib.Series;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Parallel CSV loader. The file is memory-mapped and split into chunks at record boundaries (line breaks inside
+ * quoted values are respected); the chunks are parsed on a ForkJoin pool straight into primitive column buffers,
+ * which are then stitched into a DataFrame.
+ * <p>
+ * Column types are inferred from the first rows of the file (see {@link ColumnType}): columns whose values all
+ * parse as integers become IntSeries or LongSeries, decimal columns become DoubleSeries (empty cells are NaN),
+ * true/false columns become BooleanSeries and ISO dates become LocalDate. Text columns with few distinct values
+ * are loaded as categories, everything else as String. Types can also be declared per column with
+ * {@link #columnType(String, ColumnType)}, which skips inference for that column.
+ */
+public class CsvLoader {
+
+  private static final int SAMPLE_ROWS = 1000;
+  private static final int SAMPLE_BYTES = 1 << 20;
+  private static final int MAX_CATEGORIES = 1024;
+  private static final long MIN_CHUNK_BYTES = 1 << 20;
+  private static final long MAX_CHUNK_BYTES = 64 << 20;
+
+  private String[] columns;
+  private int limit = -1;
+  private int parallelism = ForkJoinPool.getCommonPoolParallelism();
+  private int prefetch = 1;
+  private int sampleRows = SAMPLE_ROWS;
+  private final Map<String, ColumnType> schema = new HashMap<>();
+  private final List<Filter> filters = new ArrayList<>();
+
+  /**
+   * Only load the given columns, in the given order. Other columns are skipped without being parsed.
+   */
+  public CsvLoader select(String... columns) {
+    this.columns = columns;
+    return this;
+  }
+
+  /**
+   * Stop after loading the given number of rows
+   */
+  public CsvLoader limit(int rows) {
+    this.limit = rows;
+    return this;
+  }
+
+  /**
+   * Only load the rows that pass all the given filters. Filters are tested on the raw fields of each row, so
+   * rejected rows are never loaded, and filter columns that are not selected are never loaded either. A field is
+   * compared as a value of the type of its column, as it would be once loaded.
+   */
+  public CsvLoader filter(Filter... filters) {
+    this.filters.addAll(Arrays.asList(filters));
+    return this;
+  }
+
+  /**
+   * Number of threads used to parse the file (defaults to the common pool parallelism)
+   */
+  public CsvLoader parallelism(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + threads);
+    }
+    this.parallelism = threads;
+    return this;
+  }
+
+  /**
+   * Number of rows used to infer column types (defaults to 1000). Values further down the file that do not fit
+   * the inferred type still widen the column, at the cost of parsing it again.
+   */
+  public CsvLoader sampleRows(int rows) {
+    if (rows < 1) {
+      throw new IllegalArgumentException("Sample size must be positive: " + rows);
+    }
+    this.sampleRows = rows;
+    return this;
+  }
+
+  /**
+   * Load the column as the given type instead of inferring it. Loading fails if a value does not parse as that
+   * type.
+   */
+  public CsvLoader columnType(String column, ColumnType type) {
+    schema.put(column, type);
+    return this;
+  }
+
+  /**
+   * Declare the types of several columns at once, see {@link #columnType(String, ColumnType)}
+   */
+  public CsvLoader schema(Map<String, ColumnType> types) {
+    schema.putAll(types);
+    return this;
+  }
+
+  /**
+   * Number of chunks a {@link #stream(Path, int) stream} reads ahead on a background thread. 0 reads chunks on the
+   * consuming thread.
+   */
+  public CsvLoader prefetch(int chunks) {
+    if (chunks < 0) {
+      throw new IllegalArgumentException("Prefetch must not be negative: " + chunks);
+    }
+    this.prefetch = chunks;
+    return this;
+  }
+
+  public DataFrame load(String path) {
+    return load(Path.of(path));
+  }
+
+  public DataFrame load(Path path) {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return load(channel);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading CSV " + path, e);
+    }
+  }
+
+  public Stream<DataFrame> stream(String path, int chunkRows) {
+    return stream(Path.of(path), chunkRows);
+  }
+
+  /**
+   * Read the file lazily as a sequence of DataFrames of at most chunkRows rows each, so that only a few chunks are
+   * in memory at any time. Column types are inferred from the first rows; if a later chunk holds a value that does
+   * not fit, that chunk and all following ones use the wider type. The stream holds the file open and should be
+   * closed, e.g. with try-with-resources.
+   */
+  public Stream<DataFrame> stream(Path path, int chunkRows) {
+    if (chunkRows < 1) {
+      throw new IllegalArgumentException("Chunk size must be positive: " + chunkRows);
+    }
+
+    CsvChunkReader reader;
+    try {
+      reader = new CsvChunkReader(FileChannel.open(path, StandardOpenOption.READ), this, chunkRows);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading CSV " + path, e);
+    }
+
+    Iterator<DataFrame> chunks = reader;
+    Runnable close = reader::close;
+    if (prefetch > 0) {
+      Prefetcher<DataFrame> prefetcher = new Prefetcher<>(reader, prefetch, reader);
+      chunks = prefetcher;
+      close = prefetcher::close;
+    }
+
+    return StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(close);
+  }
+
+  private DataFrame load(FileChannel channel) throws IOException {
+    long size = channel.size();
+    Header header = readHeader(channel, size);
+
+    String[] names = names(header);
+    int[] positions = positions(header, names);
+    ColumnType[] types = types(channel, header, size, names, positions);
+    RowFilter filter = rowFilter(channel, header, size, names, types);
+    if (limit == 0 || header.dataStart >= size) {
+      return assemble(names, types, new ArrayList<>());
+    }
+
+    ForkJoinPool pool = parallelism == ForkJoinPool.getCommonPoolParallelism()
+        ? ForkJoinPool.commonPool()
+        : new ForkJoinPool(parallelism);
+    try {
+      long[] bounds = split(channel, pool, header.dataStart, size);
+      List<ColumnBuffer[]> chunks = parse(channel, pool, bounds, names, positions, types, filter);
+      return assemble(names, types, chunks);
+    } finally {
+      if (pool != ForkJoinPool.commonPool()) {
+        pool.shutdown();
+      }
+    }
+  }
+
+  record Header(String[] names, long dataStart) {
+  }
+
+  /**
+   * Filters bound to the positions and types of their columns in the file
+   */
+  record RowFilter(Filter[] filters, int[] positions, ColumnType[] types) {
+
+    /**
+     * Whether the current row of the tokenizer passes all filters. Missing fields count as nulls.
+     */
+    boolean accept(CsvTokenizer tokenizer, ByteBuffer buf) {
+      for (int i = 0; i < filters.length; i++) {
+        int p = positions[i];
+        if (p >= tokenizer.fields
+            || !filters[i].test(types[i], buf, tokenizer.starts[p], tokenizer.ends[p], tokenizer.escaped[p])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    int maxPosition() {
+      return CsvLoader.maxPosition(positions);
+    }
+  }
+
+  static Header readHeader(FileChannel channel, long size) throws IOException {
+    // Grow the mapped window until it holds the whole header line
+    int window = (int) Math.min(size, 64 * 1024);
+    while (true) {
+      MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, window);
+      int start = hasBom(buf, window) ? 3 : 0;
+      CsvTokenizer tokenizer = new CsvTokenizer(buf, start, window, 4096);
+      if (!tokenizer.next()) {
+        throw new IllegalArgumentException("CSV file has no header");
+      }
+      if (tokenizer.terminated || window == size) {
+        if (tokenizer.fields > tokenizer.starts.length) {
+          throw new IllegalArgumentException("CSV header has too many columns: " + tokenizer.fields);
+        }
+        String[] names = new String[tokenizer.fields];
+        ColumnBuffer.StringColumn text = new ColumnBuffer.StringColumn(names.length);
+        for (int i = 0; i < names.length; i++) {
+          text.add(buf, tokenizer.starts[i], tokenizer.ends[i], tokenizer.escaped[i]);
+          names[i] = text.data[i];
+        }
+        return new Header(names, tokenizer.position());
+      }
+      window = (int) Math.min(size, window * 2L);
+    }
+  }
+
+  private static boolean hasBom(ByteBuffer buf, int length) {
+    return length >= 3 && buf.get(0) == (byte) 0xEF && buf.get(1) == (byte) 0xBB && buf.get(2) == (byte) 0xBF;
+  }
+
+  String[] names(Header header) {
+    return columns != null ? columns : header.names;
+  }
+
+  int limit() {
+    return limit;
+  }
+
+  /**
+   * Bind the filters to their columns, with the types the columns are loaded as: those of the selected columns, and
+   * declared or sampled types for the others, so that a filter passes the same rows as on the loaded column
+   */
+  RowFilter rowFilter(FileChannel channel, Header header, long size, String[] names, ColumnType[] types)
+      throws IOException {
+    Filter[] all = filters.toArray(new Filter[0]);
+    int[] filterPositions = new int[all.length];
+    ColumnType[] filterTypes = new ColumnType[all.length];
+    List<Integer> unselected = new ArrayList<>();
+    for (int i = 0; i < all.length; i++) {
+      String column = all[i].getColumn();
+      filterPositions[i] = indexOf(header.names, column);
+      int selected = Arrays.asList(names).indexOf(column);
+      if (selected >= 0) {
+        filterTypes[i] = types[selected];
+      } else if (schema.containsKey(column)) {
+        filterTypes[i] = schema.get(column);
+      } else {
+        unselected.add(i);
+      }
+    }
+
+    if (!unselected.isEmpty()) {
+      int[] positions = unselected.stream().mapToInt(i -> filterPositions[i]).toArray();
+      ColumnType[] sampled = sampleTypes(channel, header.dataStart, size, positions, sampleRows);
+      for (int u = 0; u < positions.length; u++) {
+        filterTypes[unselected.get(u)] = sampled[u];
+      }
+    }
+    return new RowFilter(all, filterPositions, filterTypes);
+  }
+
+  /**
+   * Declared column types, with inferred types for the other columns
+   */
+  ColumnType[] types(FileChannel channel, Header header, long size, String[] names, int[] positions)
+      throws IOException {
+    ColumnType[] types = sampleTypes(channel, header.dataStart, size, positions, sampleRows);
+    for (int i = 0; i < names.length; i++) {
+      ColumnType declared = schema.get(names[i]);
+      if (declared != null) {
+        types[i] = declared;
+      }
+    }
+    return types;
+  }
+
+  /**
+   * Fail if a value of a column with a declared type did not parse as that type. "firstRow" is the number of rows
+   * loaded before those of the buffer.
+   */
+  void checkWidening(String name, ColumnType type, ColumnBuffer buffer, long firstRow) {
+    if (schema.containsKey(name)) {
+      String value = buffer.failedValue;
+      throw new IllegalArgumentException("Column '" + name + "' is declared as " + type + " but row "
+          + (firstRow + buffer.failedRow + 1) + (value == null ? " has no value for it"
+          : value.isEmpty() ? " is empty" : " holds '" + value + "'"));
+    }
+  }
+
+  /**
+   * Map selected columns to their position in the file
+   */
+  static int[] positions(Header header, String[] names) {
+    int[] positions = new int[names.length];
+    for (int i = 0; i < names.length; i++) {
+      positions[i] = indexOf(header.names, names[i]);
+    }
+    return positions;
+  }
+
+  static int indexOf(String[] names, String name) {
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].equals(name)) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("No such column in CSV: " + name);
+  }
+
+  /**
+   * Infer column types from the first rows of the file. Empty cells do not count towards the type, except that
+   * integer columns with empty cells become DOUBLE so the cells can be NaN. Text columns become CATEGORY when
+   * the sample has few distinct values that each repeat on average.
+   */
+  static ColumnType[] sampleTypes(FileChannel channel, long dataStart, long size, int[] positions, int sampleRows)
+      throws IOException {
+    ColumnType[] types = new ColumnType[positions.length];
+    boolean[] empty = new boolean[positions.length];
+    List<Set<String>> distinct = new ArrayList<>(positions.length);
+    for (int i = 0; i < positions.length; i++) {
+      distinct.add(new HashSet<>());
+    }
+
+    int window = (int) Math.min(size - dataStart, Math.max(SAMPLE_BYTES, Math.min(sampleRows * 256L, 1 << 30)));
+    MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, dataStart, window);
+    boolean wholeFile = dataStart + window == size;
+
+    CsvTokenizer tokenizer = new CsvTokenizer(buf, 0, window, maxPosition(positions) + 1);
+    ColumnBuffer.StringColumn text = new ColumnBuffer.StringColumn(1);
+    int rows = 0;
+    for (; rows < sampleRows && tokenizer.next(); rows++) {
+      // The last row of a partial window may be cut off
+      if (!tokenizer.terminated && !wholeFile) {
+        break;
+      }
+      for (int i = 0; i < positions.length; i++) {
+        int p = positions[i];
+        if (p >= tokenizer.fields || tokenizer.starts[p] == tokenizer.ends[p]) {
+          empty[i] = true;
+          continue;
+        }
+
+        ColumnType type = ColumnBuffer.typeOf(buf, tokenizer.starts[p], tokenizer.ends[p]);
+        types[i] = types[i] == null ? type : types[i].widen(type);
+
+        Set<String> values = distinct.get(i);
+        if (types[i] == ColumnType.STRING && values.size() <= MAX_CATEGORIES) {
+          text.size = 0;
+          text.add(buf, tokenizer.starts[p], tokenizer.ends[p], tokenizer.escaped[p]);
+          values.add(text.data[0]);
+        }
+      }
+    }
+
+    for (int i = 0; i < types.length; i++) {
+      if (types[i] == null) {
+        // No rows, or only empty cells
+        types[i] = rows == 0 ? ColumnType.STRING : ColumnType.DOUBLE;
+      } else if (empty[i]) {
+        types[i] = types[i].widenForEmpty();
+      }
+
+      int categories = distinct.get(i).size();
+      if (types[i] == ColumnType.STRING && categories <= MAX_CATEGORIES && categories * 2 <= rows) {
+        types[i] = ColumnType.CATEGORY;
+      }
+    }
+    return types;
+  }
+
+  static int maxPosition(int[] positions) {
+    int max = 0;
+    for (int p : positions) {
+      max = Math.max(max, p);
+    }
+    return max;
+  }
+
+  /**
+   * Split the data region into chunks that start and end on record boundaries. Each nominal segment is scanned in
+   * parallel for its quote parity and for its first line break at either parity; a sequential prefix pass over
+   * the parities then picks, for every segment, the line break that lies outside quotes.
+   *
+   * @return chunk boundaries; chunk i spans [bounds[i], bounds[i + 1])
+   */
+  private long[] split(FileChannel channel, ForkJoinPool pool, long dataStart, long size) throws IOException {
+    long length = size - dataStart;
+    long chunkBytes = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, length / (parallelism * 4L)));
+    int segments = (int) Math.max(1, (length + chunkBytes - 1) / chunkBytes);
+
+    List<Callable<long[]>> scans = new ArrayList<>(segments);
+    for (int i = 0; i < segments; i++) {
+      long from = dataStart + i * chunkBytes;
+      long to = Math.min(size, from + chunkBytes);
+      scans.add(() -> scan(channel, from, to));
+    }
+    List<long[]> results = invokeAll(pool, scans);
+
+    long[] bounds = new long[segments + 1];
+    int count = 0;
+    bounds[count++] = dataStart;
+    int parity = 0;
+    for (int i = 1; i < segments; i++) {
+      // Quote parity at the start of segment i decides which of its line breaks ends a record
+      parity ^= (int) results.get(i - 1)[0];
+      long boundary = results.get(i)[1 + parity];
+      if (boundary >= 0 && boundary > bounds[count - 1] && boundary < size) {
+        bounds[count++] = boundary;
+      }
+    }
+    bounds[count++] = size;
+    return Arrays.copyOf(bounds, count);
+  }
+
+  /**
+   * @return {quote parity, offset after the first line break at even parity, ... at odd parity}
+   */
+  private static long[] scan(FileChannel channel, long from, long to) throws IOException {
+    MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+    long[] result = { 0, -1, -1 };
+    int parity = 0;
+    int length = (int) (to - from);
+    for (int i = 0; i < length; i++) {
+      byte b = buf.get(i);
+      if (b == '"') {
+        parity ^= 1;
+      } else if (b == '\n' && result[1 + parity] < 0) {
+        result[1 + parity] = from + i + 1;
+      }
+    }
+    result[0] = parity;
+    return result;
+  }
+
+  /**
+   * Parse all chunks, re-parsing columns whose sampled type turned out to be too narrow
+   */
+  private List<ColumnBuffer[]> parse(FileChannel channel, ForkJoinPool pool, long[] bounds, String[] names,
+      int[] positions, ColumnType[] types, RowFilter filter) throws IOException {
+    List<ColumnBuffer[]> chunks = parseChunks(channel, pool, bounds, positions, types, filter);
+
+    while (true) {
+      // Find the columns that some chunk could not hold at the inferred type
+      int[] widen = new int[positions.length];
+      int widenCount = 0;
+      for (int c = 0; c < positions.length; c++) {
+        ColumnType type = types[c];
+        ColumnBuffer failed = null;
+        long firstRow = 0;
+        for (ColumnBuffer[] chunk : chunks) {
+          if (chunk[c].widened != null) {
+            type = type.widen(chunk[c].widened);
+            failed = failed != null ? failed : chunk[c];
+          } else if (failed == null) {
+            firstRow += chunk[c].size;
+          }
+        }
+        if (type != types[c]) {
+          checkWidening(names[c], types[c], failed, firstRow);
+          types[c] = type;
+          widen[widenCount++] = c;
+        }
+      }
+      if (widenCount == 0) {
+        break;
+      }
+
+      // Re-parse only those columns, over exactly the chunks kept the first time
+      int[] columns = Arrays.copyOf(widen, widenCount);
+      int[] subPositions = new int[widenCount];
+      ColumnType[] subTypes = new ColumnType[widenCount];
+      for (int i = 0; i < widenCount; i++) {
+        subPositions[i] = positions[columns[i]];
+        subTypes[i] = types[columns[i]];
+      }
+      long[] parsedBounds = Arrays.copyOf(bounds, chunks.size() + 1);
+      List<ColumnBuffer[]> reparsed = parseChunks(channel, pool, parsedBounds, subPositions, subTypes, filter);
+      for (int k = 0; k < chunks.size(); k++) {
+        for (int i = 0; i < widenCount; i++) {
+          chunks.get(k)[columns[i]] = reparsed.get(k)[i];
+        }
+      }
+    }
+
+    // The last chunk may run past the row limit
+    if (limit >= 0 && !chunks.isEmpty()) {
+      long rows = 0;
+      for (ColumnBuffer[] chunk : chunks) {
+        rows += chunk.length > 0 ? chunk[0].size : 0;
+      }
+      if (rows > limit) {
+        int excess = (int) (rows - limit);
+        for (ColumnBuffer buffer : chunks.get(chunks.size() - 1)) {
+          buffer.size -= excess;
+        }
+      }
+    }
+    return chunks;
+  }
+
+  /**
+   * Parse chunks in parallel. With a row limit the chunks are parsed in waves of "parallelism" chunks, stopping as
+   * soon as enough rows were read.
+   */
+  private List<ColumnBuffer[]> parseChunks(FileChannel channel, ForkJoinPool pool, long[] bounds,
+      int[] positions, ColumnType[] types, RowFilter filter) throws IOException {
+    int chunkCount = bounds.length - 1;
+    int wave = limit < 0 ? chunkCount : parallelism;
+    int maxFields = Math.max(maxPosition(positions), filter.maxPosition()) + 1;
+
+    List<ColumnBuffer[]> chunks = new ArrayList<>(chunkCount);
+    long rows = 0;
+    for (int first = 0; first < chunkCount && (limit < 0 || rows < limit); first += wave) {
+      int maxRows = limit < 0 ? Integer.MAX_VALUE : limit;
+      List<Callable<ColumnBuffer[]>> tasks = new ArrayList<>();
+      for (int i = first; i < Math.min(chunkCount, first + wave); i++) {
+        long from = bounds[i];
+        long to = bounds[i + 1];
+        tasks.add(() -> parseChunk(channel, from, to, positions, types, filter, maxFields, maxRows));
+      }
+
+      for (ColumnBuffer[] chunk : invokeAll(pool, tasks)) {
+        if (limit >= 0 && rows >= limit) {
+          break;
+        }
+        chunks.add(chunk);
+        rows += chunk.length > 0 ? chunk[0].size : 0;
+      }
+    }
+    return chunks;
+  }
+
+  private static ColumnBuffer[] parseChunk(FileChannel channel, long from, long to, int[] positions,
+      ColumnType[] types, RowFilter filter, int maxFields, int maxRows) throws IOException {
+    MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+    int length = (int) (to - from);
+
+    // Buffers start small and grow with the rows actually read: every chunk is kept until all are assembled, and
+    // sizing them for the shortest possible rows would over-allocate files of long rows many times over
+    int capacity = Math.min(maxRows, Math.min(length / 32, 1 << 16));
+    ColumnBuffer[] buffers = new ColumnBuffer[positions.length];
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = ColumnBuffer.of(types[i], capacity);
+    }
+
+    CsvTokenizer tokenizer = new CsvTokenizer(buf, 0, length, maxFields);
+    for (int row = 0; row < maxRows && tokenizer.next(); ) {
+      if (!filter.accept(tokenizer, buf)) {
+        continue;
+      }
+      row++;
+      for (int i = 0; i < positions.length; i++) {
+        int p = positions[i];
+        if (p < tokenizer.fields) {
+          buffers[i].append(buf, tokenizer.starts[p], tokenizer.ends[p], tokenizer.escaped[p]);
+        } else {
+          buffers[i].appendMissing();
+        }
+      }
+    }
+    return buffers;
+  }
+
+  static DataFrame assemble(String[] names, ColumnType[] types, List<ColumnBuffer[]> chunks) {
+    Series<?>[] series = new Series<?>[names.length];
+    Arrays.parallelSetAll(series, c -> {
+      List<ColumnBuffer> parts = new ArrayList<>(chunks.size());
+      for (ColumnBuffer[] chunk : chunks) {
+        parts.add(chunk[c]);
+      }
+      return ColumnBuffer.concat(types[c], parts);
+    });
+    return DataFrame.byColumn(names).of(series);
+  }
+
+  private static <T> List<T> invokeAll(ForkJoinPool pool, List<Callable<T>> tasks) throws IOException {
+    List<T> results = new ArrayList<>(tasks.size());
+    for (Future<T> future : pool.invokeAll(tasks)) {
+      try {
+        results.add(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while loading CSV", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException io) {
+          throw io;
+        }
+        throw new IllegalStateException("Error loading CSV", e.getCause());
+      }
+    }
+    return results;
+  }
+}
@@ -0,0 +1,112 @@
+package org.jjavaglue.dflib;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Zero-copy RFC 4180 record reader over a byte region. Each call to {@link #next()} records the field boundaries
+ * of one row; callers then read the bytes they need straight out of the buffer.
+ */
+final class CsvTokenizer {
+
+  private final ByteBuffer buf;
+  private final int end;
+  private int pos;
+
+  // Boundaries of the fields of the current row (quotes excluded)
+  final int[] starts;
+  final int[] ends;
+  final boolean[] escaped;
+  int fields;
+
+  // Whether the current row was terminated by a line break (as opposed to the end of the region)
+  boolean terminated;
+
+  CsvTokenizer(ByteBuffer buf, int start, int end, int maxFields) {
+    this.buf = buf;
+    this.pos = start;
+    this.end = end;
+    this.starts = new int[maxFields];
+    this.ends = new int[maxFields];
+    this.escaped = new boolean[maxFields];
+  }
+
+  /**
+   * Offset just past the last row read
+   */
+  int position() {
+    return pos;
+  }
+
+  /**
+   * Read the next non-blank row. Fields beyond the tokenizer capacity are skipped.
+   *
+   * @return false if the end of the region was reached
+   */
+  boolean next() {
+    // Skip blank lines
+    while (pos < end && (buf.get(pos) == '\n' || buf.get(pos) == '\r')) {
+      pos++;
+    }
+    if (pos >= end) {
+      return false;
+    }
+
+    fields = 0;
+    terminated = false;
+
+    while (true) {
+      int start;
+      int stop;
+      boolean hasEscapes = false;
+
+      if (pos < end && buf.get(pos) == '"') {
+        // Quoted field: runs to the next quote that is not doubled
+        start = ++pos;
+        while (true) {
+          if (pos >= end) {
+            stop = end;
+            break;
+          }
+          if (buf.get(pos) == '"') {
+            if (pos + 1 < end && buf.get(pos + 1) == '"') {
+              hasEscapes = true;
+              pos += 2;
+              continue;
+            }
+            stop = pos++;
+            break;
+          }
+          pos++;
+        }
+        // Ignore anything between the closing quote and the delimiter
+        while (pos < end && buf.get(pos) != ',' && buf.get(pos) != '\n') {
+          pos++;
+        }
+      } else {
+        start = pos;
+        while (pos < end && buf.get(pos) != ',' && buf.get(pos) != '\n') {
+          pos++;
+        }
+        stop = pos;
+        if (stop > start && buf.get(stop - 1) == '\r') {
+          stop--;
+        }
+      }
+
+      if (fields < starts.length) {
+        starts[fields] = start;
+        ends[fields] = stop;
+        escaped[fields] = hasEscapes;
+      }
+      fields++;
+
+      if (pos >= end) {
+        return true;
+      }
+      if (buf.get(pos++) == '\n') {
+        terminated = true;
+        return true;
+      }
+    }
+  }
+}
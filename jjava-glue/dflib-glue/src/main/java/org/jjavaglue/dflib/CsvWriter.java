@@ -0,0 +1,440 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.BooleanSeries;
+import org.dflib.DataFrame;
+import org.dflib.DoubleSeries;
+import org.dflib.Index;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Parallel CSV writer. Rows are split into chunks that are formatted on a ForkJoin pool straight from the typed
+ * columns into pooled byte buffers, and the buffers are written in order through a FileChannel. Only a few chunks
+ * are in flight at any time, so a stream of DataFrames (e.g. from {@link CsvLoader#stream(Path, int)}) can be
+ * written without ever holding all rows in memory.
+ * <p>
+ * The output matches DFLib's {@code Csv.save}: a header line, values as by {@code toString()}, empty fields for
+ * nulls, and quotes only around values that contain a comma, a quote or a line break. With {@link #gzip(boolean)}
+ * every chunk is compressed in parallel into its own gzip member; a file of concatenated members is a valid gzip
+ * file that any gzip reader decompresses as a whole.
+ */
+public class CsvWriter {
+
+  static final int CHUNK_ROWS = 64 * 1024;
+
+  private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] NAN = "NaN".getBytes(StandardCharsets.US_ASCII);
+
+  private int parallelism = ForkJoinPool.getCommonPoolParallelism();
+  private int chunkRows = CHUNK_ROWS;
+  private boolean gzip;
+
+  /**
+   * Number of threads used to format (and compress) chunks (defaults to the common pool parallelism)
+   */
+  public CsvWriter parallelism(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + threads);
+    }
+    this.parallelism = threads;
+    return this;
+  }
+
+  /**
+   * Number of rows formatted as one unit of work
+   */
+  public CsvWriter chunkRows(int rows) {
+    if (rows < 1) {
+      throw new IllegalArgumentException("Chunk size must be positive: " + rows);
+    }
+    this.chunkRows = rows;
+    return this;
+  }
+
+  /**
+   * Compress the output with gzip
+   */
+  public CsvWriter gzip(boolean gzip) {
+    this.gzip = gzip;
+    return this;
+  }
+
+  public void write(DataFrame df, String path) throws IOException {
+    write(df, Path.of(path));
+  }
+
+  public void write(DataFrame df, Path path) throws IOException {
+    write(Stream.of(df), path);
+  }
+
+  public void write(Stream<DataFrame> frames, String path) throws IOException {
+    write(frames, Path.of(path));
+  }
+
+  /**
+   * Write a sequence of DataFrames with the same columns as one CSV file, with the header of the first one. Frames
+   * are consumed one at a time.
+   */
+  public void write(Stream<DataFrame> frames, Path path) throws IOException {
+    ForkJoinPool pool = parallelism == ForkJoinPool.getCommonPoolParallelism()
+        ? ForkJoinPool.commonPool()
+        : new ForkJoinPool(parallelism);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      new Output(channel, pool).write(frames.iterator());
+    } finally {
+      if (pool != ForkJoinPool.commonPool()) {
+        pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * One write: chunks are formatted in parallel, with at most two per thread in flight, and written in order
+   */
+  private final class Output {
+
+    private final FileChannel channel;
+    private final ForkJoinPool pool;
+    private final Deque<Future<Chunk>> pending = new ArrayDeque<>();
+    private final ConcurrentLinkedQueue<Chunk> free = new ConcurrentLinkedQueue<>();
+
+    Output(FileChannel channel, ForkJoinPool pool) {
+      this.channel = channel;
+      this.pool = pool;
+    }
+
+    void write(Iterator<DataFrame> frames) throws IOException {
+      try {
+        Index header = null;
+        while (frames.hasNext()) {
+          DataFrame df = frames.next();
+          if (header == null) {
+            header = df.getColumnsIndex();
+            submitHeader(header);
+          } else if (!header.equals(df.getColumnsIndex())) {
+            throw new IllegalArgumentException("All DataFrames must have the columns " + header
+                + ", got " + df.getColumnsIndex());
+          }
+
+          ColumnFormat[] formats = new ColumnFormat[df.width()];
+          for (int c = 0; c < formats.length; c++) {
+            formats[c] = ColumnFormat.of(df.getColumn(c));
+          }
+
+          int rows = df.height();
+          for (int from = 0; from < rows; from += chunkRows) {
+            int start = from;
+            int end = Math.min(rows, from + chunkRows);
+            submit(() -> format(chunk(), formats, start, end));
+          }
+        }
+        while (!pending.isEmpty()) {
+          writeNext();
+        }
+      } finally {
+        for (Future<Chunk> future : pending) {
+          future.cancel(true);
+        }
+        for (Chunk chunk : free) {
+          chunk.close();
+        }
+      }
+    }
+
+    private void submitHeader(Index header) throws IOException {
+      submit(() -> {
+        Chunk chunk = chunk();
+        for (int c = 0; c < header.size(); c++) {
+          if (c > 0) {
+            chunk.put((byte) ',');
+          }
+          chunk.putText(header.get(c));
+        }
+        chunk.put((byte) '\n');
+        return finish(chunk);
+      });
+    }
+
+    private Chunk format(Chunk chunk, ColumnFormat[] formats, int from, int to) {
+      int last = formats.length - 1;
+      for (int row = from; row < to; row++) {
+        for (int c = 0; c <= last; c++) {
+          formats[c].write(chunk, row);
+          chunk.put((byte) (c < last ? ',' : '\n'));
+        }
+      }
+      return finish(chunk);
+    }
+
+    private Chunk finish(Chunk chunk) {
+      if (gzip) {
+        chunk.compress();
+      }
+      return chunk;
+    }
+
+    private Chunk chunk() {
+      Chunk chunk = free.poll();
+      return chunk != null ? chunk : new Chunk();
+    }
+
+    private void submit(Callable<Chunk> task) throws IOException {
+      if (pending.size() >= parallelism * 2) {
+        writeNext();
+      }
+      pending.add(pool.submit(task));
+    }
+
+    private void writeNext() throws IOException {
+      Chunk chunk;
+      try {
+        chunk = pending.removeFirst().get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while writing CSV", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException re) {
+          throw re;
+        }
+        throw new IllegalStateException("Error writing CSV", e.getCause());
+      }
+
+      ByteBuffer buf = chunk.output();
+      while (buf.hasRemaining()) {
+        channel.write(buf);
+      }
+      chunk.clear();
+      free.add(chunk);
+    }
+  }
+
+  /**
+   * Writes the value of one column at a row, with the type dispatch done once per column
+   */
+  @FunctionalInterface
+  private interface ColumnFormat {
+
+    void write(Chunk chunk, int row);
+
+    static ColumnFormat of(Series<?> series) {
+      if (series instanceof IntSeries is) {
+        return (chunk, row) -> chunk.putLong(is.getInt(row));
+      } else if (series instanceof LongSeries ls) {
+        return (chunk, row) -> chunk.putLong(ls.getLong(row));
+      } else if (series instanceof DoubleSeries ds) {
+        return (chunk, row) -> chunk.putDouble(ds.getDouble(row));
+      } else if (series instanceof BooleanSeries bs) {
+        return (chunk, row) -> chunk.put(bs.getBool(row) ? TRUE : FALSE);
+      } else if (series instanceof CategorySeries<?> cs) {
+        // Every category is encoded and escaped once
+        byte[][] encoded = new byte[cs.getCategoryCount()][];
+        for (int c = 0; c < encoded.length; c++) {
+          Chunk text = new Chunk(16);
+          text.putValue(cs.getCategory(c));
+          encoded[c] = Arrays.copyOf(text.data, text.size);
+        }
+        return (chunk, row) -> {
+          int code = cs.getCode(row);
+          if (code >= 0) {
+            chunk.put(encoded[code]);
+          }
+        };
+      }
+      return (chunk, row) -> chunk.putValue(series.get(row));
+    }
+  }
+
+  /**
+   * Growable byte buffer for the text of a chunk, reused across chunks, with its gzip member once compressed
+   */
+  private static final class Chunk {
+
+    byte[] data;
+    int size;
+
+    private byte[] compressed;
+    private int compressedSize;
+    private Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] digits = new byte[20];
+
+    Chunk() {
+      this(1 << 16);
+    }
+
+    Chunk(int capacity) {
+      data = new byte[capacity];
+    }
+
+    void put(byte b) {
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      data[size++] = b;
+    }
+
+    void put(byte[] bytes) {
+      ensure(bytes.length);
+      System.arraycopy(bytes, 0, data, size, bytes.length);
+      size += bytes.length;
+    }
+
+    private void ensure(int extra) {
+      if (size + extra > data.length) {
+        data = Arrays.copyOf(data, Math.max(size + extra, data.length * 2));
+      }
+    }
+
+    void putLong(long value) {
+      if (value == Long.MIN_VALUE) {
+        put(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+        return;
+      }
+      if (value < 0) {
+        put((byte) '-');
+        value = -value;
+      }
+      int pos = digits.length;
+      do {
+        digits[--pos] = (byte) ('0' + value % 10);
+        value /= 10;
+      } while (value != 0);
+      ensure(digits.length - pos);
+      System.arraycopy(digits, pos, data, size, digits.length - pos);
+      size += digits.length - pos;
+    }
+
+    /**
+     * Same text as Double.toString, with a shortcut for whole numbers that it prints without an exponent
+     */
+    void putDouble(double value) {
+      if (Double.isNaN(value)) {
+        put(NAN);
+      } else if (value == (long) value && Math.abs(value) < 1e7 && (value != 0 || 1 / value > 0)) {
+        putLong((long) value);
+        put((byte) '.');
+        put((byte) '0');
+      } else {
+        String text = Double.toString(value);
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+          data[size++] = (byte) text.charAt(i);
+        }
+      }
+    }
+
+    void putValue(Object value) {
+      if (value == null) {
+        return;
+      } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+          || value instanceof Byte) {
+        putLong(((Number) value).longValue());
+      } else if (value instanceof Double d) {
+        putDouble(d);
+      } else {
+        putText(value.toString());
+      }
+    }
+
+    /**
+     * Text as UTF-8, quoted if it contains a comma, a quote or a line break
+     */
+    void putText(String text) {
+      int length = text.length();
+      boolean ascii = true;
+      boolean quote = false;
+      for (int i = 0; i < length; i++) {
+        char ch = text.charAt(i);
+        ascii &= ch < 0x80;
+        quote |= ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+      }
+
+      if (ascii && !quote) {
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+          data[size++] = (byte) text.charAt(i);
+        }
+        return;
+      }
+      if (quote) {
+        text = '"' + text.replace("\"", "\"\"") + '"';
+      }
+      put(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Compress the text into a gzip member (RFC 1952)
+     */
+    void compress() {
+      if (deflater == null) {
+        deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        compressed = new byte[data.length / 2 + 64];
+      }
+      crc.reset();
+      crc.update(data, 0, size);
+
+      compressedSize = 0;
+      byte[] header = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+      System.arraycopy(header, 0, compressed, 0, header.length);
+      compressedSize = header.length;
+
+      deflater.setInput(data, 0, size);
+      deflater.finish();
+      while (!deflater.finished()) {
+        if (compressedSize == compressed.length) {
+          compressed = Arrays.copyOf(compressed, compressed.length * 2);
+        }
+        compressedSize += deflater.deflate(compressed, compressedSize, compressed.length - compressedSize);
+      }
+      deflater.reset();
+
+      if (compressedSize + 8 > compressed.length) {
+        compressed = Arrays.copyOf(compressed, compressedSize + 8);
+      }
+      ByteBuffer.wrap(compressed, compressedSize, 8).order(ByteOrder.LITTLE_ENDIAN)
+          .putInt((int) crc.getValue())
+          .putInt(size);
+      compressedSize += 8;
+    }
+
+    ByteBuffer output() {
+      return compressed != null && compressedSize > 0
+          ? ByteBuffer.wrap(compressed, 0, compressedSize)
+          : ByteBuffer.wrap(data, 0, size);
+    }
+
+    void clear() {
+      size = 0;
+      compressedSize = 0;
+    }
+
+    void close() {
+      if (deflater != null) {
+        deflater.end();
+      }
+    }
+  }
+}
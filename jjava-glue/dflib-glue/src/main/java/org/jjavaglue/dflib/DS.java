@@ -1,24 +1,61 @@
 package org.jjavaglue.dflib;
 
 import org.dflib.*;
-import org.dflib.csv.Csv;
 import org.dflib.print.TabularPrinter;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Simplified API for DFLib that provides pandas-like convenience methods
  */
 public class DS {
   /**
-   * Load a CSV file with smart defaults
+   * Load a CSV file with smart defaults. The file is parsed in parallel and
+   * column types (int, long, double, boolean, ISO date, category or string)
+   * are inferred from the first rows, so numbers are parsed once at load time.
    */
   public static DataFrame read(String path) {
-    return Csv.load(path);
+    return csvLoader().load(path);
+  }
+
+  /**
+   * Load a CSV file, using the given types for the listed columns instead of
+   * inferring them. Other columns are still inferred.
+   */
+  public static DataFrame read(String path, Map<String, ColumnType> schema) {
+    return csvLoader().schema(schema).load(path);
+  }
+
+  /**
+   * Read a CSV file lazily as a stream of DataFrames of at most chunkRows rows each.
+   * The next chunk is read ahead on a background thread while the current one is
+   * processed. Close the stream when done, e.g. with try-with-resources.
+   */
+  public static Stream<DataFrame> stream(String path, int chunkRows) {
+    return csvLoader().stream(path, chunkRows);
+  }
+
+  /**
+   * Start a lazy query over a CSV or binary file, e.g.
+   * {@code DS.scan("sales.csv").filter(Filter.gt("amount", 100)).groupBy("country", Agg.sum("amount")).collect()}.
+   * Filters and column selections are pushed down into the reader, see {@link LazyFrame}.
+   */
+  public static LazyFrame scan(String path) {
+    return new LazyFrame(Path.of(path));
+  }
+
+  /**
+   * Create a parallel CSV loader with options for column selection and row limits
+   */
+  public static CsvLoader csvLoader() {
+    return new CsvLoader();
   }
 
   /**
@@ -26,37 +63,34 @@ public class DS {
    * Each list becomes a column in the DataFrame
    */
   public static DataFrame create(String[] columns, List<?>... data) {
-    // First, verify that all lists have the same length
-    int rowCount = data[0].size();
-    for (List<?> col : data) {
-      if (col.size() != rowCount) {
-        throw new IllegalArgumentException("All lists must have the same length");
-      }
-    }
-
-    // Create row data
-    List<Map<String, Object>> rows = new ArrayList<>();
-
-    // For each row index
-    for (int i = 0; i < rowCount; i++) {
-      // Create a new row
-      Map<String, Object> row = new HashMap<>();
+    return fromColumns(columns, (Object[]) data);
+  }
 
-      // Add values from each column
-      for (int j = 0; j < columns.length; j++) {
-        row.put(columns[j], data[j].get(i));
-      }
+  /**
+   * Create a DataFrame from column data in a single pass per column.
+   * Each element of data may be a List, an object array, a Series, or a primitive
+   * double[], int[], long[] or boolean[] array; primitive arrays become primitive
+   * series without boxing.
+   */
+  public static DataFrame fromColumns(String[] columns, Object... data) {
+    if (columns.length != data.length) {
+      throw new IllegalArgumentException(
+          "Expected " + columns.length + " columns of data, got " + data.length);
+    }
 
-      rows.add(row);
+    Series<?>[] series = new Series<?>[data.length];
+    for (int i = 0; i < data.length; i++) {
+      series[i] = Columns.toSeries(data[i]);
     }
 
-    // Create DataFrame from rows
-    DataFrame df = DataFrame.empty(columns);
-    for (Map<String, Object> row : rows) {
-      df = df.addRow(row);
+    // Verify that all columns have the same length
+    for (Series<?> s : series) {
+      if (s.size() != series[0].size()) {
+        throw new IllegalArgumentException("All lists must have the same length");
+      }
     }
 
-    return df;
+    return DataFrame.byColumn(columns).of(series);
   }
 
   /**
@@ -64,13 +98,13 @@ public class DS {
    */
   public static DataFrame fromMap(Map<String, List<?>> data) {
     String[] columns = data.keySet().toArray(new String[0]);
-    List<?>[] columnData = new List[columns.length];
+    Object[] columnData = new Object[columns.length];
 
     for (int i = 0; i < columns.length; i++) {
       columnData[i] = data.get(columns[i]);
     }
 
-    return create(columns, columnData);
+    return fromColumns(columns, columnData);
   }
 
   /**
@@ -96,9 +130,22 @@ public class DS {
   }
 
   /**
-   * Provide a summary of the DataFrame structure and contents
+   * Compute summary statistics of every column in a single parallel pass: one
+   * row per column with its type, count of non-null values, nulls (and NaNs),
+   * approximate number of distinct values, most frequent value ("top") and its
+   * count ("freq"), mean, std, min, max and approximate 25th, 50th and 75th
+   * percentiles. Numeric statistics of non-numeric columns are NaN.
+   */
+  public static DataFrame stats(DataFrame df) {
+    return Describe.stats(df);
+  }
+
+  /**
+   * Provide a summary of the DataFrame structure and contents. Prints the
+   * columns, the first rows and the statistics of {@link #stats(DataFrame)},
+   * and returns the statistics.
    */
-  public static void describe(DataFrame df) {
+  public static DataFrame describe(DataFrame df) {
     System.out.println("DataFrame: " + df.width() + " columns × " + df.height() + " rows");
     System.out.println("\nColumns:");
 
@@ -120,47 +167,453 @@ public class DS {
     System.out.println("\nFirst 5 rows:");
     show(df.head(5));
 
-    // Show numeric summaries for numeric columns
-    System.out.println("\nNumeric Summaries:");
-    for (String col : df.getColumnsIndex()) {
-      Series<?> series = df.getColumn(col);
+    DataFrame stats = stats(df);
+    System.out.println("\nSummary:");
+    show(stats, stats.height());
+    return stats;
+  }
+
+  /**
+   * Provide a summary of a stream of DataFrame chunks, e.g. from {@link #stream(String, int)}.
+   * Statistics are accumulated one chunk at a time, so the data never has to fit in memory.
+   * Prints and returns the same statistics as {@link #stats(DataFrame)}.
+   */
+  public static DataFrame describe(Stream<DataFrame> chunks) {
+    DataFrame stats = Describe.stats(chunks);
+    System.out.println("DataFrame stream: " + stats.height() + " columns");
+    System.out.println("\nSummary:");
+    show(stats, stats.height());
+    return stats;
+  }
+
+  /**
+   * Exact quantiles (0 to 1) of a numeric column, e.g.
+   * {@code DS.quantiles(df, "latency", 0.5, 0.95, 0.99)}, interpolating
+   * linearly between the closest ranks like pandas and numpy. Nulls and NaNs
+   * are skipped; the quantiles of a column without values are NaN. Large
+   * columns are neither sorted nor copied: ranges of rows are scanned in
+   * parallel for the values near each quantile, found from a sample.
+   */
+  public static double[] quantiles(DataFrame df, String column, double... qs) {
+    return Quantiles.exact(df, column, qs);
+  }
+
+  /**
+   * Approximate quantiles of a numeric column of a stream of DataFrames, e.g.
+   * from {@link #stream(String, int)}, from a {@link TDigest} of compression
+   * 100 per chunk, merged. Each result is the exact quantile at some q' with
+   * |q' - q| &lt;= 2π·√(q(1 - q)) / 100: within 3% of ranks at the median and
+   * 0.6% at p99, and typically ten times closer. Use
+   * {@link Agg#quantile(String, double)} for quantiles per group.
+   */
+  public static double[] quantiles(Stream<DataFrame> chunks, String column, double... qs) {
+    return Quantiles.approximate(chunks, column, qs);
+  }
+
+  /**
+   * Approximate number of distinct non-null values of a column, from a
+   * {@link HyperLogLog} sketch with a standard error of 1.6%. Uses 4 KB per
+   * core however many values there are, where an exact count would hold them
+   * all in a set.
+   */
+  public static long approxDistinct(DataFrame df, String column) {
+    return Sketches.approxDistinct(df, column);
+  }
+
+  /**
+   * Approximate number of distinct non-null values of a column of a stream of
+   * DataFrames, merging a sketch per chunk
+   */
+  public static long approxDistinct(Stream<DataFrame> chunks, String column) {
+    return Sketches.approxDistinct(chunks, column);
+  }
+
+  /**
+   * The k most frequent non-null values of a column, e.g.
+   * {@code DS.topK(df, "user_id", 10)}: a DataFrame with the values and their
+   * estimated counts, most frequent first. Counts come from a
+   * {@link FrequencySketch} and are never below the true counts, exceeding
+   * them by at most 0.13% of all values with high probability. Values
+   * occurring in well over 1 / max(64, 4k) of the rows are reliably found.
+   */
+  public static DataFrame topK(DataFrame df, String column, int k) {
+    return Sketches.topK(df, column, k);
+  }
+
+  /**
+   * The k most frequent non-null values of a column of a stream of DataFrames,
+   * merging a sketch per chunk
+   */
+  public static DataFrame topK(Stream<DataFrame> chunks, String column, int k) {
+    return Sketches.topK(chunks, column, k);
+  }
+
+  /**
+   * Group rows by a key column and compute aggregations per group, e.g.
+   * {@code DS.aggregate(df, "Species", Agg.count(), Agg.mean("SepalLengthCm"))}.
+   * See {@link #aggregate(DataFrame, String[], Agg...)}.
+   */
+  public static DataFrame aggregate(DataFrame df, String key, Agg... aggs) {
+    return aggregate(df, new String[] { key }, aggs);
+  }
+
+  /**
+   * Group rows by one or more key columns and compute aggregations per group.
+   * Returns one row per group, in order of first appearance, with the key
+   * columns followed by one column per aggregation. Groups are built with
+   * primitive hash tables on all cores, without a DataFrame per group.
+   */
+  public static DataFrame aggregate(DataFrame df, String[] keys, Agg... aggs) {
+    return HashAggregator.aggregate(df, keys, aggs);
+  }
+
+  /**
+   * Reshape long data into a wide pivot table, e.g.
+   * {@code DS.pivot(sales, "region", "month", Agg.sum("amount"))}. Returns one
+   * row per row key value, followed by one double column per column key value,
+   * both sorted when comparable. Each cell aggregates the rows with its pair
+   * of keys: NaN if there are no values, or 0 for counts. Unlike in
+   * {@link #aggregate(DataFrame, String[], Agg...)}, where a group without
+   * values sums to 0, an empty sum cell is NaN, so that missing pairs of keys
+   * stand out.
+   */
+  public static DataFrame pivot(DataFrame df, String rowKey, String columnKey, Agg agg) {
+    return Pivot.pivot(df, rowKey, columnKey, agg);
+  }
+
+  /**
+   * Join two DataFrames on a key column present in both, e.g.
+   * {@code DS.join(events, users, "user_id", JoinKind.LEFT)}.
+   * See {@link #join(DataFrame, DataFrame, String[], JoinKind)}.
+   */
+  public static DataFrame join(DataFrame left, DataFrame right, String on, JoinKind how) {
+    return join(left, right, new String[] { on }, how);
+  }
+
+  /**
+   * Join two DataFrames on key columns present in both. The result has all
+   * left columns followed by the right columns other than the keys (suffixed
+   * with "_" if their names clash), with rows in left order. A hash table is
+   * built on the smaller side and probed in parallel; a large build side is
+   * partitioned by key hash first.
+   */
+  public static DataFrame join(DataFrame left, DataFrame right, String[] on, JoinKind how) {
+    return HashJoin.join(left, right, on, how);
+  }
+
+  /**
+   * Aggregations over a sliding window of the last rows, e.g.
+   * {@code DS.rolling(df, 60, Agg.mean("temp"), Agg.max("temp"))}. Returns the
+   * DataFrame with one double column per aggregation, named as in
+   * {@link #aggregate(DataFrame, String, Agg...)}. Rows before the window is
+   * full are NaN; nulls and NaNs are skipped within a window. Each window is
+   * updated in constant time per row, so the window size does not matter.
+   */
+  public static DataFrame rolling(DataFrame df, int window, Agg... aggs) {
+    return Rolling.rolling(df, null, window, aggs);
+  }
+
+  /**
+   * Rolling aggregations, as by {@link #rolling(DataFrame, int, Agg...)}, with
+   * a separate window for every value of a column, e.g. one per sensor. Rows
+   * are expected in time order within each partition; partitions are computed
+   * in parallel.
+   */
+  public static DataFrame rolling(DataFrame df, String partitionBy, int window, Agg... aggs) {
+    return Rolling.rolling(df, partitionBy, window, aggs);
+  }
+
+  /**
+   * Rolling aggregations of a stream of DataFrames, e.g. from
+   * {@link #stream(String, int)}. Every chunk is returned with the aggregate
+   * columns added, and windows continue across chunk boundaries.
+   */
+  public static Stream<DataFrame> rolling(Stream<DataFrame> chunks, int window, Agg... aggs) {
+    return Rolling.rolling(chunks, null, window, aggs);
+  }
+
+  /**
+   * Rolling aggregations of a stream of DataFrames with a separate window for
+   * every value of a column, continuing across chunk boundaries
+   */
+  public static Stream<DataFrame> rolling(Stream<DataFrame> chunks, String partitionBy, int window, Agg... aggs) {
+    return Rolling.rolling(chunks, partitionBy, window, aggs);
+  }
+
+  /**
+   * Aggregate rows per time bucket, e.g.
+   * {@code DS.resample(df, "timestamp", Duration.ofMinutes(5), Agg.mean("temp"))}.
+   * Returns one row per non-empty bucket in time order, with the bucket start
+   * followed by one column per aggregation. Times may be dates, date-times,
+   * instants or epoch milliseconds; buckets are counted from the epoch in UTC.
+   */
+  public static DataFrame resample(DataFrame df, String timeColumn, Duration bucket, Agg... aggs) {
+    return Resample.resample(Stream.of(df), timeColumn, bucket, aggs);
+  }
+
+  /**
+   * Aggregate a stream of DataFrames per time bucket, as by
+   * {@link #resample(DataFrame, String, Duration, Agg...)}. Buckets may span
+   * chunks, and only the buckets are held in memory.
+   */
+  public static DataFrame resample(Stream<DataFrame> chunks, String timeColumn, Duration bucket, Agg... aggs) {
+    return Resample.resample(chunks, timeColumn, bucket, aggs);
+  }
+
+  /**
+   * Add or replace columns computed from an expression, e.g.
+   * {@code DS.eval(df, "petal_area = PetalLengthCm * PetalWidthCm")}. See
+   * {@link Expression} for the syntax; use {@link Expression#compile(String)}
+   * to parse an expression once and apply it to many DataFrames.
+   */
+  public static DataFrame eval(DataFrame df, String expression) {
+    return Expression.compile(expression).apply(df);
+  }
+
+  /**
+   * Add or replace columns computed from an expression in each DataFrame of
+   * a stream, parsing the expression once.
+   */
+  public static Stream<DataFrame> eval(Stream<DataFrame> chunks, String expression) {
+    return chunks.map(Expression.compile(expression)::apply);
+  }
+
+  /**
+   * Dictionary-encode columns as {@link CategorySeries}, storing each distinct
+   * value once and a small code per row. DS.read already does this for text
+   * columns with few distinct values.
+   */
+  public static DataFrame categorize(DataFrame df, String... columns) {
+    Set<String> encode = columnSet(df, columns);
+    Index index = df.getColumnsIndex();
+    Series<?>[] series = new Series<?>[index.size()];
+    for (int i = 0; i < series.length; i++) {
+      Series<?> column = df.getColumn(i);
+      series[i] = encode.contains(index.get(i)) ? CategorySeries.of(column) : column;
+    }
+    return DataFrame.byColumn(index).of(series);
+  }
+
+  /**
+   * Estimated heap bytes retained by each column, with its value type,
+   * storage (primitive, boxed, objects or dictionary) and notes on shared
+   * series, dictionaries and views that may keep larger arrays alive.
+   */
+  public static DataFrame memoryReport(DataFrame df) {
+    return Footprint.report(df);
+  }
+
+  /**
+   * Rewrite columns into cheaper types: boxed numbers and numeric text become
+   * primitive, longs that fit become ints, repetitive values are dictionary
+   * encoded and views are copied.
+   */
+  public static DataFrame compact(DataFrame df) {
+    return Footprint.compact(df, null);
+  }
 
-      // Check if this series can be converted to double
-      try {
-        if (series instanceof DoubleSeries ds) {
-          System.out.printf("  %-20s min: %10.2f  max: %10.2f  mean: %10.2f  sum: %10.2f\n", col, ds.min(), ds.max(),
-              ds.avg(), ds.sum());
-        } else if (series instanceof IntSeries is) {
-          System.out.printf("  %-20s min: %10d  max: %10d  mean: %10.2f  sum: %10d\n", col, is.min(), is.max(),
-              is.avg(), is.sum());
-        } else if (series instanceof LongSeries ls) {
-          System.out.printf("  %-20s min: %10d  max: %10d  mean: %10.2f  sum: %10d\n", col, ls.min(), ls.max(),
-              ls.avg(), ls.sum());
+  /**
+   * Compact a DataFrame like {@link #compact(DataFrame)}, and print the
+   * bytes saved in all and per changed column if "print" is true.
+   */
+  public static DataFrame compact(DataFrame df, boolean print) {
+    StringBuilder report = print ? new StringBuilder() : null;
+    DataFrame compacted = Footprint.compact(df, report);
+    if (print) {
+      System.out.print(report);
+    }
+    return compacted;
+  }
+
+  /**
+   * One-hot encode columns: each is replaced by one 0/1 int column per
+   * distinct value, named "column_value", in order of first appearance.
+   * Null values are 0 in every column.
+   */
+  public static DataFrame oneHot(DataFrame df, String... columns) {
+    Set<String> encode = columnSet(df, columns);
+    List<String> names = new ArrayList<>();
+    List<Series<?>> series = new ArrayList<>();
+    for (String name : df.getColumnsIndex()) {
+      if (!encode.contains(name)) {
+        names.add(name);
+        series.add(df.getColumn(name));
+        continue;
+      }
+      for (Map.Entry<Object, int[]> group : Columns.groupRows(df.getColumn(name)).entrySet()) {
+        int[] indicator = new int[df.height()];
+        for (int row : group.getValue()) {
+          indicator[row] = 1;
         }
-      } catch (Exception e) {
-        // Skip non-numeric columns or ones that can't be summarized
+        names.add(name + "_" + group.getKey());
+        series.add(Series.ofInt(indicator));
       }
     }
+    return DataFrame.byColumn(names.toArray(new String[0])).of(series.toArray(new Series<?>[0]));
+  }
+
+  private static Set<String> columnSet(DataFrame df, String[] columns) {
+    for (String column : columns) {
+      if (!df.getColumnsIndex().contains(column)) {
+        throw new IllegalArgumentException("No such column: " + column);
+      }
+    }
+    return Set.of(columns);
+  }
+
+  /**
+   * A random sample of n rows (all rows if there are fewer), in their original
+   * order. The same seed always gives the same sample, independent of the
+   * number of threads. See {@link #sample(Stream, int, long)} for a sample of
+   * a file that does not fit in memory.
+   */
+  public static DataFrame sample(DataFrame df, int n, long seed) {
+    return Sampler.sample(df, n, seed);
+  }
+
+  /**
+   * A random sample of n rows of a stream of DataFrames, e.g. from
+   * {@link #stream(String, int)}, taken in one pass while holding about n rows
+   * in memory. Gives the same rows as {@link #sample(DataFrame, int, long)} of
+   * all chunks together.
+   */
+  public static DataFrame sample(Stream<DataFrame> chunks, int n, long seed) {
+    return Sampler.sample(chunks, n, seed);
+  }
+
+  /**
+   * A random sample of each group of rows with the same value of a column,
+   * e.g. {@code DS.sampleStratified(df, "country", 0.01, 42)}: the given
+   * fraction of each group (rounded, but at least one row), so that small
+   * groups are represented as in the full data. Nulls form a group of their own.
+   */
+  public static DataFrame sampleStratified(DataFrame df, String column, double fraction, long seed) {
+    return Sampler.stratified(df, column, fraction, seed);
+  }
+
+  /**
+   * A stratified sample, as by {@link #sampleStratified(DataFrame, String, double, long)},
+   * of a stream of DataFrames, taken in one pass while holding little more than
+   * the sample in memory
+   */
+  public static DataFrame sampleStratified(Stream<DataFrame> chunks, String column, double fraction, long seed) {
+    return Sampler.stratified(chunks, column, fraction, seed);
+  }
+
+  /**
+   * Drop duplicate rows, keeping the first occurrence of each combination of
+   * values of the given columns (of all columns if none are given), e.g.
+   * {@code DS.distinct(events, "user", "day")}. Rows stay in their order. Rows
+   * are hashed in parallel and only compared when their 64-bit hashes are
+   * equal, without a key object per row. Nulls equal nulls and NaNs equal NaNs.
+   */
+  public static DataFrame distinct(DataFrame df, String... columns) {
+    return Dedup.distinct(df, columns, false);
+  }
+
+  /**
+   * Drop duplicate rows as by {@link #distinct(DataFrame, String...)}, keeping
+   * the last occurrence of each combination of values if keepLast is true
+   */
+  public static DataFrame distinct(DataFrame df, boolean keepLast, String... columns) {
+    return Dedup.distinct(df, columns, keepLast);
+  }
+
+  /**
+   * The rows that {@link #distinct(DataFrame, String...)} drops: those with the
+   * same values of the given columns as an earlier row
+   */
+  public static DataFrame duplicates(DataFrame df, String... columns) {
+    return Dedup.duplicates(df, columns, false);
+  }
+
+  /**
+   * Positions of the rows kept by {@link #distinct(DataFrame, boolean, String...)},
+   * in ascending order, e.g. to select the same rows of other DataFrames
+   */
+  public static int[] distinctRows(DataFrame df, boolean keepLast, String... columns) {
+    return Dedup.rows(df, columns, keepLast, false);
   }
 
   /**
    * Sort DataFrame by a column
    */
   public static DataFrame sort(DataFrame df, String column) {
-    return df.sort(column, true);
+    return sort(df, column, true);
   }
 
   /**
    * Sort DataFrame by a column with direction
    */
   public static DataFrame sort(DataFrame df, String column, boolean ascending) {
-    return df.sort(column, ascending);
+    return sort(df, new String[] { column }, new boolean[] { ascending });
+  }
+
+  /**
+   * Sort DataFrame by several columns, each with its own direction, e.g.
+   * {@code DS.sort(df, new String[]{"customer", "timestamp"}, new boolean[]{true, false})}.
+   * The sort is a stable radix sort of the row order, which is then applied
+   * to all columns in parallel. Nulls and NaNs sort last.
+   */
+  public static DataFrame sort(DataFrame df, String[] columns, boolean[] ascending) {
+    return Sorter.sort(df, columns, ascending);
   }
 
   /**
-   * Save DataFrame to CSV
+   * The first n rows of the DataFrame sorted by a column, without sorting
+   * all rows
+   */
+  public static DataFrame top(DataFrame df, int n, String column, boolean ascending) {
+    return top(df, n, new String[] { column }, new boolean[] { ascending });
+  }
+
+  /**
+   * The first n rows of the DataFrame sorted as by
+   * {@link #sort(DataFrame, String[], boolean[])}, keeping only the best n
+   * rows in a bounded heap instead of sorting all rows
+   */
+  public static DataFrame top(DataFrame df, int n, String[] columns, boolean[] ascending) {
+    return Sorter.top(df, n, columns, ascending);
+  }
+
+  /**
+   * Save DataFrame to CSV. Rows are formatted in parallel; a path ending in
+   * ".gz" is written gzip-compressed. See {@link CsvWriter} for more options.
    */
   public static void toCsv(DataFrame df, String path) throws IOException {
-    Csv.save(df, path);
+    csvWriter().gzip(path.endsWith(".gz")).write(df, path);
+  }
+
+  /**
+   * Save a stream of DataFrames with the same columns, e.g. processed chunks
+   * of {@link #stream(String, int)}, as one CSV file, without holding all of
+   * them in memory. A path ending in ".gz" is written gzip-compressed.
+   */
+  public static void toCsv(Stream<DataFrame> chunks, String path) throws IOException {
+    csvWriter().gzip(path.endsWith(".gz")).write(chunks, path);
+  }
+
+  /**
+   * Create a parallel CSV writer with options for compression and parallelism
+   */
+  public static CsvWriter csvWriter() {
+    return new CsvWriter();
+  }
+
+  /**
+   * Save a DataFrame in a columnar binary format that {@link #loadBinary(String)}
+   * reads back without parsing. Numeric columns are stored raw, strings are
+   * dictionary-encoded.
+   */
+  public static void saveBinary(DataFrame df, String path) throws IOException {
+    BinaryFormat.save(df, Path.of(path));
+  }
+
+  /**
+   * Load a DataFrame saved with {@link #saveBinary(DataFrame, String)}. The file
+   * is memory-mapped and numeric columns are read from the mapping in place.
+   */
+  public static DataFrame loadBinary(String path) {
+    return BinaryFormat.load(Path.of(path));
   }
 }
\ No newline at end of file
@@ -0,0 +1,184 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+
+import java.util.stream.IntStream;
+
+/**
+ * Duplicate rows by the values of some columns, without sorting and without a key object per row. Every row is
+ * hashed across the columns, in parallel ranges. Rows are then partitioned by the top bits of their hash, keeping
+ * row order within each partition, and each partition is deduplicated in parallel with an open addressing table
+ * of the rows kept so far, over a copy of its hashes and primitive values. Values are only compared for rows with
+ * equal 64-bit hashes, so a 64-bit collision never merges different rows.
+ * <p>
+ * A partition is scanned from its first row to keep first occurrences, or from its last row to keep last ones.
+ * Nulls equal nulls and NaNs equal NaNs.
+ */
+final class Dedup {
+
+  private static final int RANGE_ROWS = 1 << 16;
+  private static final int PARTITION_BITS = 8;
+
+  private Dedup() {
+  }
+
+  static DataFrame distinct(DataFrame df, String[] columns, boolean keepLast) {
+    return Sorter.select(df, rows(df, columns, keepLast, false));
+  }
+
+  static DataFrame duplicates(DataFrame df, String[] columns, boolean keepLast) {
+    return Sorter.select(df, rows(df, columns, keepLast, true));
+  }
+
+  /**
+   * Positions, in ascending order, of the rows kept by deduplication, or of the others
+   */
+  static int[] rows(DataFrame df, String[] columns, boolean keepLast, boolean duplicates) {
+    boolean[] duplicate = isDuplicate(df, columns, keepLast);
+    int n = 0;
+    for (boolean d : duplicate) {
+      n += d == duplicates ? 1 : 0;
+    }
+    int[] rows = new int[n];
+    for (int i = 0, j = 0; j < n; i++) {
+      rows[j] = i;
+      j += duplicate[i] == duplicates ? 1 : 0;
+    }
+    return rows;
+  }
+
+  /**
+   * For every row, whether an earlier row (or a later row, when keeping last occurrences) has the same values
+   */
+  static boolean[] isDuplicate(DataFrame df, String[] columns, boolean keepLast) {
+    ColumnHasher[] hashers = hashers(df, columns);
+    int n = df.height();
+    int ranges = Math.max(1, (n + RANGE_ROWS - 1) / RANGE_ROWS);
+    int partitions = 1 << PARTITION_BITS;
+
+    // Row hashes, and the number of rows of every range in every partition
+    long[] hashes = new long[n];
+    int[][] counts = new int[ranges][];
+    IntStream.range(0, ranges).parallel().forEach(r -> {
+      int from = r * RANGE_ROWS;
+      int to = Math.min(n, from + RANGE_ROWS);
+      long[] block = new long[to - from];
+      for (ColumnHasher hasher : hashers) {
+        hasher.combine(from, to, block);
+      }
+      System.arraycopy(block, 0, hashes, from, block.length);
+      int[] histogram = new int[partitions];
+      for (long hash : block) {
+        histogram[partition(hash)]++;
+      }
+      counts[r] = histogram;
+    });
+
+    // Rows grouped by partition, in row order: range r writes its rows of partition p from offsets[r][p]
+    int[] starts = new int[partitions + 1];
+    int[][] offsets = new int[ranges][partitions];
+    int position = 0;
+    for (int p = 0; p < partitions; p++) {
+      starts[p] = position;
+      for (int r = 0; r < ranges; r++) {
+        offsets[r][p] = position;
+        position += counts[r][p];
+      }
+    }
+    starts[partitions] = position;
+    int[] rows = new int[n];
+    IntStream.range(0, ranges).parallel().forEach(r -> {
+      int[] next = offsets[r];
+      for (int i = r * RANGE_ROWS, to = Math.min(n, i + RANGE_ROWS); i < to; i++) {
+        rows[next[partition(hashes[i])]++] = i;
+      }
+    });
+
+    boolean[] duplicate = new boolean[n];
+    IntStream.range(0, partitions).parallel()
+        .forEach(p -> dedup(rows, starts[p], starts[p + 1], hashes, hashers, keepLast, duplicate));
+    return duplicate;
+  }
+
+  private static int partition(long hash) {
+    return (int) (hash >>> (64 - PARTITION_BITS));
+  }
+
+  /**
+   * Mark the duplicates among rows[from, to), which are in row order, in a table of the distinct rows seen so far.
+   * The hashes and primitive values of the partition are gathered first, so that probing compares values in
+   * cache rather than at random rows of the columns.
+   */
+  private static void dedup(int[] rows, int from, int to, long[] hashes, ColumnHasher[] hashers, boolean keepLast,
+      boolean[] duplicate) {
+    int n = to - from;
+    long[] local = new long[n];
+    for (int k = 0; k < n; k++) {
+      local[k] = hashes[rows[from + k]];
+    }
+    int keyed = 0;
+    for (ColumnHasher hasher : hashers) {
+      keyed += hasher.hasKeys() ? 1 : 0;
+    }
+    long[][] keys = new long[keyed][];
+    ColumnHasher[] others = new ColumnHasher[hashers.length - keyed];
+    for (int c = 0, kc = 0, oc = 0; c < hashers.length; c++) {
+      if (hashers[c].hasKeys()) {
+        keys[kc] = new long[n];
+        hashers[c].keys(rows, from, to, keys[kc++]);
+      } else {
+        others[oc++] = hashers[c];
+      }
+    }
+
+    int capacity = Integer.highestOneBit(Math.max(16, n) * 2 - 1) * 2;
+    int mask = capacity - 1;
+    // Position + 1 within the partition of every distinct row, by its hash
+    int[] slots = new int[capacity];
+    for (int i = 0; i < n; i++) {
+      int k = keepLast ? n - 1 - i : i;
+      long hash = local[k];
+      int slot = (int) hash & mask;
+      while (true) {
+        int kept = slots[slot] - 1;
+        if (kept < 0) {
+          slots[slot] = k + 1;
+          break;
+        } else if (local[kept] == hash && equal(keys, others, rows, from, kept, k)) {
+          duplicate[rows[from + k]] = true;
+          break;
+        }
+        slot = (slot + 1) & mask;
+      }
+    }
+  }
+
+  private static boolean equal(long[][] keys, ColumnHasher[] others, int[] rows, int from, int a, int b) {
+    for (long[] column : keys) {
+      if (column[a] != column[b]) {
+        return false;
+      }
+    }
+    for (ColumnHasher hasher : others) {
+      if (!hasher.equal(rows[from + a], rows[from + b])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Hashers of the given columns, or of all columns if none are given
+   */
+  private static ColumnHasher[] hashers(DataFrame df, String[] columns) {
+    String[] names = columns.length > 0 ? columns : df.getColumnsIndex().toArray();
+    ColumnHasher[] hashers = new ColumnHasher[names.length];
+    for (int c = 0; c < names.length; c++) {
+      if (!df.getColumnsIndex().contains(names[c])) {
+        throw new IllegalArgumentException("No such column: " + names[c]);
+      }
+      hashers[c] = new ColumnHasher(df.getColumn(names[c]));
+    }
+    return hashers;
+  }
+}
@@ -0,0 +1,128 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+import org.dflib.Series;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Summary statistics of DataFrame columns as a DataFrame with one row per column. Every column is split into
+ * ranges that are summarized in parallel, in a single pass each, and then merged.
+ */
+final class Describe {
+
+  static final String[] COLUMNS = { "column", "type", "count", "nulls", "distinct", "top", "freq", "mean", "std",
+      "min", "max", "p25", "p50", "p75" };
+
+  private static final int RANGE_ROWS = 1 << 20;
+
+  private Describe() {
+  }
+
+  static DataFrame stats(DataFrame df) {
+    String[] names = df.getColumnsIndex().toArray();
+    int height = df.height();
+    int ranges = Math.max(1, (height + RANGE_ROWS - 1) / RANGE_ROWS);
+
+    Series<?>[] columns = new Series<?>[names.length];
+    for (int c = 0; c < names.length; c++) {
+      columns[c] = df.getColumn(c);
+    }
+
+    ColumnStats[] partial = new ColumnStats[names.length * ranges];
+    Arrays.parallelSetAll(partial, t -> {
+      int from = (t % ranges) * RANGE_ROWS;
+      int to = Math.min(height, from + RANGE_ROWS);
+      return new ColumnStats().add(columns[t / ranges], from, to);
+    });
+
+    ColumnStats[] stats = new ColumnStats[names.length];
+    String[] types = new String[names.length];
+    for (int c = 0; c < names.length; c++) {
+      stats[c] = partial[c * ranges];
+      for (int r = 1; r < ranges; r++) {
+        stats[c].merge(partial[c * ranges + r]);
+      }
+      types[c] = typeName(columns[c]);
+    }
+    return frame(names, types, stats);
+  }
+
+  static DataFrame stats(Stream<DataFrame> chunks) {
+    Map<String, ColumnStats> stats = new LinkedHashMap<>();
+    Map<String, String> types = new LinkedHashMap<>();
+
+    chunks.forEach(chunk -> {
+      for (String col : chunk.getColumnsIndex()) {
+        Series<?> series = chunk.getColumn(col);
+        stats.computeIfAbsent(col, c -> new ColumnStats()).add(series);
+        types.putIfAbsent(col, typeName(series));
+      }
+    });
+
+    return frame(
+        stats.keySet().toArray(new String[0]),
+        types.values().toArray(new String[0]),
+        stats.values().toArray(new ColumnStats[0]));
+  }
+
+  private static DataFrame frame(String[] names, String[] types, ColumnStats[] stats) {
+    int n = names.length;
+    long[] count = new long[n];
+    long[] nulls = new long[n];
+    long[] distinct = new long[n];
+    Object[] top = new Object[n];
+    long[] freq = new long[n];
+    double[][] values = new double[7][n];
+    for (int i = 0; i < n; i++) {
+      ColumnStats s = stats[i];
+      count[i] = s.count() - s.nulls();
+      nulls[i] = s.nulls();
+      distinct[i] = s.distinct();
+      top[i] = s.top();
+      freq[i] = s.topCount();
+      values[0][i] = s.mean();
+      values[1][i] = s.std();
+      values[2][i] = s.min();
+      values[3][i] = s.max();
+      values[4][i] = s.quantile(0.25);
+      values[5][i] = s.quantile(0.5);
+      values[6][i] = s.quantile(0.75);
+    }
+
+    return DataFrame.byColumn(COLUMNS).of(
+        Series.of(names),
+        Series.of(types),
+        Series.ofLong(count),
+        Series.ofLong(nulls),
+        Series.ofLong(distinct),
+        Series.of(top),
+        Series.ofLong(freq),
+        Series.ofDouble(values[0]),
+        Series.ofDouble(values[1]),
+        Series.ofDouble(values[2]),
+        Series.ofDouble(values[3]),
+        Series.ofDouble(values[4]),
+        Series.ofDouble(values[5]),
+        Series.ofDouble(values[6]));
+  }
+
+  /**
+   * Element type of a column. Object series are named after their first non-null value.
+   */
+  static String typeName(Series<?> series) {
+    Class<?> type = series.getNominalType();
+    if (type == Object.class) {
+      for (int i = 0; i < series.size(); i++) {
+        Object value = series.get(i);
+        if (value != null) {
+          return value.getClass().getSimpleName();
+        }
+      }
+    }
+    return type.getSimpleName();
+  }
+}
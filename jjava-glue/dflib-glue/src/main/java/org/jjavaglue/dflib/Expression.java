@@ -0,0 +1,1146 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.BooleanSeries;
+import org.dflib.DataFrame;
+import org.dflib.DoubleSeries;
+import org.dflib.Index;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Derived columns computed from an expression over the columns of a DataFrame, e.g.
+ * {@code Expression.compile("petal_area = PetalLengthCm * PetalWidthCm")}. The text is parsed once, and the
+ * expression can then be applied to any number of DataFrames.
+ * <p>
+ * An expression may assign several columns, separated by semicolons or new lines; each may use the columns
+ * assigned before it. Expressions are made of
+ * <ul>
+ * <li>numbers, 'text', true, false and null, and column names, in backticks if they are not identifiers;</li>
+ * <li>arithmetic {@code + - * / %} and {@code ^} (power), comparisons {@code < <= > >= == !=}, and logical
+ * {@code and or not} (or {@code && || !});</li>
+ * <li>the functions abs, sqrt, exp, log, log10, sin, cos, tan, floor, ceil, round, min, max, pow,
+ * {@code if(condition, then, else)}, isnull(x) and coalesce(x, otherwise).</li>
+ * </ul>
+ * Numbers are computed as doubles. A null number is NaN, and nulls and NaNs propagate: arithmetic or a comparison
+ * with a null is null, {@code and} and {@code or} follow SQL's three-valued logic, and {@code if} with a null
+ * condition is null. Text columns can only be compared with {@code ==} and {@code !=}, or tested with isnull.
+ * <p>
+ * Evaluation is vectorized: rows are processed in blocks of {@value #BLOCK_ROWS}, in parallel, and each operator is
+ * a single loop over the primitive values of its operands in the block, which the JIT compiles to SIMD
+ * instructions where it can.
+ */
+public final class Expression {
+
+  static final int BLOCK_ROWS = 4096;
+
+  private enum Type {
+    NUMBER, BOOLEAN
+  }
+
+  private static final long TRUE = Double.doubleToRawLongBits(1);
+  private static final long NULL = Double.doubleToRawLongBits(Double.NaN);
+  private static final int TRUE_BIT = 61;
+  private static final int NULL_BIT = 62;
+
+  private final String text;
+  private final String[] targets;
+  private final Ast[] statements;
+
+  private Expression(String text, String[] targets, Ast[] statements) {
+    this.text = text;
+    this.targets = targets;
+    this.statements = statements;
+  }
+
+  /**
+   * Parse an expression, throwing an IllegalArgumentException with the position of the first syntax error
+   */
+  public static Expression compile(String text) {
+    return new Parser(Objects.requireNonNull(text)).parse();
+  }
+
+  /**
+   * The DataFrame with the assigned columns added, or replaced if they exist
+   */
+  public DataFrame apply(DataFrame df) {
+    for (int s = 0; s < statements.length; s++) {
+      if (targets[s] == null) {
+        throw new IllegalArgumentException("Expression assigns no column: " + text);
+      }
+      df = withColumn(df, targets[s], evaluate(statements[s], df));
+    }
+    return df;
+  }
+
+  /**
+   * The value of the (last) expression for each row: a DoubleSeries for numbers, and a BooleanSeries for
+   * conditions, or a Series of Booleans if some are null
+   */
+  public Series<?> evaluate(DataFrame df) {
+    int last = statements.length - 1;
+    for (int s = 0; s < last; s++) {
+      if (targets[s] != null) {
+        df = withColumn(df, targets[s], evaluate(statements[s], df));
+      }
+    }
+    return evaluate(statements[last], df);
+  }
+
+  @Override
+  public String toString() {
+    return text;
+  }
+
+  private static DataFrame withColumn(DataFrame df, String name, Series<?> column) {
+    Index index = df.getColumnsIndex();
+    int position = index.contains(name) ? index.position(name) : index.size();
+    String[] names = Arrays.copyOf(index.toArray(), Math.max(index.size(), position + 1));
+    Series<?>[] columns = new Series<?>[names.length];
+    for (int c = 0; c < columns.length; c++) {
+      columns[c] = c == position ? column : df.getColumn(c);
+    }
+    names[position] = name;
+    return DataFrame.byColumn(names).of(columns);
+  }
+
+  private static Series<?> evaluate(Ast statement, DataFrame df) {
+    Binder binder = new Binder(df);
+    if (!(binder.bind(statement) instanceof Node root)) {
+      throw new IllegalArgumentException("Text values can only be compared: " + statement);
+    }
+
+    int height = df.height();
+    double[] values = new double[height];
+    int blocks = (height + BLOCK_ROWS - 1) / BLOCK_ROWS;
+    int cores = Runtime.getRuntime().availableProcessors();
+    int ranges = Math.max(1, Math.min(cores, blocks / 16));
+    int step = (blocks + ranges - 1) / ranges;
+    IntStream.range(0, ranges).parallel().forEach(r -> {
+      double[][] scratch = new double[binder.slots][BLOCK_ROWS];
+      for (int b = r * step, end = Math.min(blocks, b + step); b < end; b++) {
+        int from = b * BLOCK_ROWS;
+        int count = Math.min(BLOCK_ROWS, height - from);
+        System.arraycopy(root.eval(scratch, from, count), 0, values, from, count);
+      }
+    });
+
+    if (root.type == Type.NUMBER) {
+      return Series.ofDouble(values);
+    }
+    boolean[] flags = new boolean[height];
+    long nulls = 0;
+    for (int i = 0; i < height; i++) {
+      long bits = Double.doubleToRawLongBits(values[i]);
+      flags[i] = ((bits >>> TRUE_BIT) & 1) != 0;
+      nulls |= bits >>> NULL_BIT;
+    }
+    if ((nulls & 1) == 0) {
+      return Series.ofBool(flags);
+    }
+    Boolean[] objects = new Boolean[height];
+    for (int i = 0; i < height; i++) {
+      objects[i] = values[i] != values[i] ? null : flags[i];
+    }
+    return Series.of(objects);
+  }
+
+  // Syntax tree
+
+  private sealed interface Ast permits Literal, Column, Call {
+  }
+
+  private record Literal(Object value) implements Ast {
+    @Override
+    public String toString() {
+      return value instanceof String s ? "'" + s + "'" : String.valueOf(value);
+    }
+  }
+
+  private record Column(String name) implements Ast {
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  /**
+   * An operator or function: operators are named by their symbol, with "neg" for unary minus
+   */
+  private record Call(String name, Ast... args) implements Ast {
+    @Override
+    public String toString() {
+      StringBuilder out = new StringBuilder(name).append('(');
+      for (int i = 0; i < args.length; i++) {
+        out.append(i > 0 ? ", " : "").append(args[i]);
+      }
+      return out.append(')').toString();
+    }
+  }
+
+  private static final class Parser {
+
+    private final String text;
+    private int pos;
+
+    Parser(String text) {
+      this.text = text;
+    }
+
+    Expression parse() {
+      List<String> targets = new ArrayList<>();
+      List<Ast> statements = new ArrayList<>();
+      while (true) {
+        while (skipSpace() < text.length() && (peek() == ';' || peek() == '\n')) {
+          pos++;
+        }
+        if (pos == text.length()) {
+          break;
+        }
+        int start = pos;
+        String target = name();
+        if (target != null && skipSpace() < text.length() && peek() == '=' && !text.startsWith("==", pos)) {
+          pos++;
+        } else {
+          target = null;
+          pos = start;
+        }
+        targets.add(target);
+        statements.add(or());
+        if (skipSpace() < text.length() && peek() != ';' && peek() != '\n') {
+          throw error("Unexpected '" + peek() + "'");
+        }
+      }
+      if (statements.isEmpty()) {
+        throw new IllegalArgumentException("Empty expression");
+      }
+      return new Expression(text, targets.toArray(new String[0]), statements.toArray(new Ast[0]));
+    }
+
+    private Ast or() {
+      Ast left = and();
+      while (accept("||") || acceptWord("or")) {
+        left = new Call("or", left, and());
+      }
+      return left;
+    }
+
+    private Ast and() {
+      Ast left = not();
+      while (accept("&&") || acceptWord("and")) {
+        left = new Call("and", left, not());
+      }
+      return left;
+    }
+
+    private Ast not() {
+      if (acceptWord("not") || (!text.startsWith("!=", skipSpace()) && accept("!"))) {
+        return new Call("not", not());
+      }
+      return comparison();
+    }
+
+    private Ast comparison() {
+      Ast left = additive();
+      for (String op : new String[] { "<=", ">=", "==", "!=", "<", ">" }) {
+        if (accept(op)) {
+          return new Call(op, left, additive());
+        }
+      }
+      return left;
+    }
+
+    private Ast additive() {
+      Ast left = multiplicative();
+      while (true) {
+        if (accept("+")) {
+          left = new Call("+", left, multiplicative());
+        } else if (accept("-")) {
+          left = new Call("-", left, multiplicative());
+        } else {
+          return left;
+        }
+      }
+    }
+
+    private Ast multiplicative() {
+      Ast left = unary();
+      while (true) {
+        if (text.startsWith("**", skipSpace())) {
+          return left;
+        } else if (accept("*")) {
+          left = new Call("*", left, unary());
+        } else if (accept("/")) {
+          left = new Call("/", left, unary());
+        } else if (accept("%")) {
+          left = new Call("%", left, unary());
+        } else {
+          return left;
+        }
+      }
+    }
+
+    private Ast unary() {
+      if (accept("-")) {
+        return new Call("neg", unary());
+      } else if (accept("+")) {
+        return unary();
+      }
+      Ast base = primary();
+      // Right associative, and binding tighter than unary minus on its left: -2^2 is -4
+      if (accept("^") || accept("**")) {
+        return new Call("pow", base, unary());
+      }
+      return base;
+    }
+
+    private Ast primary() {
+      int start = skipSpace();
+      if (pos == text.length()) {
+        throw error("Unexpected end");
+      }
+      char c = peek();
+      if (c == '(') {
+        pos++;
+        Ast inner = or();
+        expect(")");
+        return inner;
+      } else if (c == '\'' || c == '"') {
+        int end = text.indexOf(c, pos + 1);
+        if (end < 0) {
+          throw error("Unterminated text");
+        }
+        pos = end + 1;
+        return new Literal(text.substring(start + 1, end));
+      } else if (Character.isDigit(c) || c == '.') {
+        return number();
+      }
+
+      boolean quoted = c == '`';
+      String name = name();
+      if (name == null) {
+        throw error("Unexpected '" + c + "'");
+      }
+      if (!quoted) {
+        switch (name.toLowerCase()) {
+          case "true":
+            return new Literal(true);
+          case "false":
+            return new Literal(false);
+          case "null":
+            return new Literal(null);
+          default:
+        }
+        if (accept("(")) {
+          List<Ast> args = new ArrayList<>();
+          if (!accept(")")) {
+            do {
+              args.add(or());
+            } while (accept(","));
+            expect(")");
+          }
+          return new Call(name.toLowerCase(), args.toArray(new Ast[0]));
+        }
+      }
+      return new Column(name);
+    }
+
+    private Ast number() {
+      int start = pos;
+      while (pos < text.length() && (Character.isDigit(peek()) || peek() == '.')) {
+        pos++;
+      }
+      if (pos < text.length() && (peek() == 'e' || peek() == 'E')) {
+        pos++;
+        if (pos < text.length() && (peek() == '+' || peek() == '-')) {
+          pos++;
+        }
+        while (pos < text.length() && Character.isDigit(peek())) {
+          pos++;
+        }
+      }
+      try {
+        return new Literal(Double.parseDouble(text.substring(start, pos)));
+      } catch (NumberFormatException e) {
+        pos = start;
+        throw error("Bad number");
+      }
+    }
+
+    /**
+     * An identifier or a name in backticks, or null
+     */
+    private String name() {
+      int start = skipSpace();
+      if (pos == text.length()) {
+        return null;
+      }
+      if (peek() == '`') {
+        int end = text.indexOf('`', pos + 1);
+        if (end < 0) {
+          throw error("Unterminated name");
+        }
+        pos = end + 1;
+        return text.substring(start + 1, end);
+      }
+      if (!Character.isJavaIdentifierStart(peek())) {
+        return null;
+      }
+      while (pos < text.length() && Character.isJavaIdentifierPart(peek())) {
+        pos++;
+      }
+      return text.substring(start, pos);
+    }
+
+    private boolean accept(String symbol) {
+      if (text.startsWith(symbol, skipSpace())) {
+        pos += symbol.length();
+        return true;
+      }
+      return false;
+    }
+
+    private boolean acceptWord(String word) {
+      int start = skipSpace();
+      int end = start + word.length();
+      if (text.regionMatches(true, start, word, 0, word.length())
+          && (end == text.length() || !Character.isJavaIdentifierPart(text.charAt(end)))) {
+        pos = end;
+        return true;
+      }
+      return false;
+    }
+
+    private void expect(String symbol) {
+      if (!accept(symbol)) {
+        throw error("Expected '" + symbol + "'");
+      }
+    }
+
+    private char peek() {
+      return text.charAt(pos);
+    }
+
+    /**
+     * Skip spaces but not new lines, which end statements, and return the position
+     */
+    private int skipSpace() {
+      while (pos < text.length() && peek() != '\n' && Character.isWhitespace(peek())) {
+        pos++;
+      }
+      return pos;
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException(message + " at position " + pos + " in: " + text);
+    }
+  }
+
+  // Evaluation
+
+  /**
+   * Binds a syntax tree to the columns of a DataFrame, checking types, folding constants and giving every node that
+   * reads a column its own scratch block
+   */
+  private static final class Binder {
+
+    private final DataFrame df;
+    int slots;
+
+    Binder(DataFrame df) {
+      this.df = df;
+    }
+
+    Operand bind(Ast ast) {
+      if (ast instanceof Literal literal) {
+        Object value = literal.value;
+        if (value instanceof String s) {
+          return new Text(null, s);
+        }
+        return value instanceof Boolean b ? new Constant(Type.BOOLEAN, b ? 1 : 0) : new Constant(Type.NUMBER,
+            value == null ? Double.NaN : (Double) value);
+      } else if (ast instanceof Column column) {
+        if (!df.getColumnsIndex().contains(column.name)) {
+          throw new IllegalArgumentException("No such column: " + column.name);
+        }
+        return column(df.getColumn(column.name));
+      }
+
+      Call call = (Call) ast;
+      Operand[] args = new Operand[call.args.length];
+      for (int i = 0; i < args.length; i++) {
+        args[i] = bind(call.args[i]);
+      }
+      Node node = call(call, args);
+      if (node instanceof Constant) {
+        return node;
+      }
+      for (Operand arg : args) {
+        if (!(arg instanceof Constant)) {
+          return node;
+        }
+      }
+      double[][] scratch = new double[slots][BLOCK_ROWS];
+      return new Constant(node.type, node.eval(scratch, 0, 1)[0]);
+    }
+
+    private Operand column(Series<?> series) {
+      if (series instanceof DoubleSeries || series instanceof IntSeries || series instanceof LongSeries) {
+        return new Values(Type.NUMBER, series, slots++);
+      } else if (series instanceof BooleanSeries) {
+        return new Values(Type.BOOLEAN, series, slots++);
+      }
+      for (int i = 0; i < series.size(); i++) {
+        Object value = series.get(i);
+        if (value instanceof Number) {
+          return new Values(Type.NUMBER, series, slots++);
+        } else if (value instanceof Boolean) {
+          return new Values(Type.BOOLEAN, series, slots++);
+        } else if (value != null) {
+          break;
+        }
+      }
+      return new Text(series, null);
+    }
+
+    private Node call(Call call, Operand[] args) {
+      switch (call.name) {
+        case "==", "!=":
+          arity(call, 2);
+          if (args[0] instanceof Text || args[1] instanceof Text) {
+            if (!(args[0] instanceof Text left) || !(args[1] instanceof Text right)) {
+              throw new IllegalArgumentException("Text compared with a non-text value: " + call);
+            }
+            return textEquals(left, right, call.name.equals("=="));
+          }
+          return binary(call, call.name.equals("==") ? Binary.EQ : Binary.NE, args, Type.BOOLEAN);
+        case "<":
+          return binary(call, Binary.LT, args, Type.BOOLEAN);
+        case "<=":
+          return binary(call, Binary.LE, args, Type.BOOLEAN);
+        case ">":
+          return binary(call, Binary.GT, args, Type.BOOLEAN);
+        case ">=":
+          return binary(call, Binary.GE, args, Type.BOOLEAN);
+        case "+":
+          return binary(call, Binary.ADD, args, Type.NUMBER);
+        case "-":
+          return binary(call, Binary.SUB, args, Type.NUMBER);
+        case "*":
+          return binary(call, Binary.MUL, args, Type.NUMBER);
+        case "/":
+          return binary(call, Binary.DIV, args, Type.NUMBER);
+        case "%":
+          return binary(call, Binary.MOD, args, Type.NUMBER);
+        case "pow":
+          return binary(call, Binary.POW, args, Type.NUMBER);
+        case "min":
+          return binary(call, Binary.MIN, args, Type.NUMBER);
+        case "max":
+          return binary(call, Binary.MAX, args, Type.NUMBER);
+        case "and":
+          return logical(call, Binary.AND, args);
+        case "or":
+          return logical(call, Binary.OR, args);
+        case "coalesce": {
+          arity(call, 2);
+          Node[] nodes = numeric(call, args);
+          Type type = nodes[0].type == Type.BOOLEAN && nodes[1].type == Type.BOOLEAN ? Type.BOOLEAN : Type.NUMBER;
+          return new BinaryNode(type, Binary.COALESCE, nodes[0], nodes[1]);
+        }
+        case "not":
+          arity(call, 1);
+          return new UnaryNode(Type.BOOLEAN, Unary.NOT, condition(call, args, 0));
+        case "isnull":
+          arity(call, 1);
+          return switch (args[0]) {
+            case Text text -> isNull(text);
+            case Node node -> new UnaryNode(Type.BOOLEAN, Unary.ISNULL, node);
+          };
+        case "if": {
+          arity(call, 3);
+          condition(call, args, 0);
+          Node[] nodes = numeric(call, args);
+          if (nodes[0] instanceof Constant c) {
+            return c.value != c.value ? new Constant(Type.NUMBER, Double.NaN) : c.value != 0 ? nodes[1] : nodes[2];
+          }
+          return new If(nodes[1].type == Type.BOOLEAN && nodes[2].type == Type.BOOLEAN ? Type.BOOLEAN : Type.NUMBER,
+              nodes[0], nodes[1], nodes[2]);
+        }
+        default:
+      }
+
+      Unary op;
+      try {
+        op = Unary.valueOf(call.name.toUpperCase());
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unknown function: " + call.name);
+      }
+      if (op == Unary.NOT || op == Unary.ISNULL) {
+        throw new IllegalArgumentException("Unknown function: " + call.name);
+      }
+      arity(call, 1);
+      return new UnaryNode(Type.NUMBER, op, numeric(call, args)[0]);
+    }
+
+    private static Node binary(Call call, Binary op, Operand[] args, Type type) {
+      arity(call, 2);
+      Node[] nodes = numeric(call, args);
+      return new BinaryNode(type, op, nodes[0], nodes[1]);
+    }
+
+    private static Node logical(Call call, Binary op, Operand[] args) {
+      arity(call, 2);
+      return new BinaryNode(Type.BOOLEAN, op, condition(call, args, 0), condition(call, args, 1));
+    }
+
+    private Node textEquals(Text left, Text right, boolean equal) {
+      if (left.series == null && right.series == null) {
+        return new Constant(Type.BOOLEAN, left.value.equals(right.value) == equal ? 1 : 0);
+      }
+      return left.series == null ? new TextEquals(right, left, equal, slots++) : new TextEquals(left, right, equal,
+          slots++);
+    }
+
+    private Node isNull(Text text) {
+      return text.series == null ? new Constant(Type.BOOLEAN, 0) : new TextEquals(text, null, true, slots++);
+    }
+
+    /**
+     * The arguments of a call that does not take text
+     */
+    private static Node[] numeric(Call call, Operand[] args) {
+      Node[] nodes = new Node[args.length];
+      for (int i = 0; i < args.length; i++) {
+        if (!(args[i] instanceof Node node)) {
+          throw new IllegalArgumentException("Not a number: " + call.args[i] + " in " + call);
+        }
+        nodes[i] = node;
+      }
+      return nodes;
+    }
+
+    private static Node condition(Call call, Operand[] args, int i) {
+      if (!(args[i] instanceof Node node) || node.type != Type.BOOLEAN) {
+        throw new IllegalArgumentException("Not a condition: " + call.args[i]);
+      }
+      return node;
+    }
+
+    private static void arity(Call call, int count) {
+      if (call.args.length != count) {
+        throw new IllegalArgumentException(call.name + " takes " + count + " argument(s): " + call);
+      }
+    }
+  }
+
+  /**
+   * A bound operand: a node, or text, which only comparisons and isnull accept
+   */
+  private sealed interface Operand permits Node, Text {
+  }
+
+  /**
+   * A node of a bound expression, computing its values for a block of rows. The result is either a scratch block of
+   * the node or of one of its operands, which operators overwrite in place, or the shared block of a constant.
+   */
+  private abstract static non-sealed class Node implements Operand {
+
+    final Type type;
+
+    Node(Type type) {
+      this.type = type;
+    }
+
+    abstract double[] eval(double[][] scratch, int from, int count);
+  }
+
+  private static final class Constant extends Node {
+
+    final double value;
+    private final double[] block;
+
+    Constant(Type type, double value) {
+      super(type);
+      this.value = value;
+      this.block = new double[BLOCK_ROWS];
+      Arrays.fill(block, value);
+    }
+
+    @Override
+    double[] eval(double[][] scratch, int from, int count) {
+      return block;
+    }
+  }
+
+  /**
+   * Numbers or booleans of a column, as doubles with NaN for null
+   */
+  private static final class Values extends Node {
+
+    private final Series<?> series;
+    private final int slot;
+
+    Values(Type type, Series<?> series, int slot) {
+      super(type);
+      this.series = series;
+      this.slot = slot;
+    }
+
+    @Override
+    double[] eval(double[][] scratch, int from, int count) {
+      double[] out = scratch[slot];
+      if (series instanceof DoubleSeries ds) {
+        ds.copyToDouble(out, from, 0, count);
+      } else if (series instanceof IntSeries is) {
+        for (int i = 0; i < count; i++) {
+          out[i] = is.getInt(from + i);
+        }
+      } else if (series instanceof LongSeries ls) {
+        for (int i = 0; i < count; i++) {
+          out[i] = ls.getLong(from + i);
+        }
+      } else if (series instanceof BooleanSeries bs) {
+        for (int i = 0; i < count; i++) {
+          out[i] = bs.getBool(from + i) ? 1 : 0;
+        }
+      } else {
+        for (int i = 0; i < count; i++) {
+          Object value = series.get(from + i);
+          out[i] = value instanceof Number n ? n.doubleValue()
+              : value instanceof Boolean b ? (b ? 1 : 0)
+              : Double.NaN;
+        }
+      }
+      return out;
+    }
+  }
+
+  /**
+   * A text column, or a constant if series is null. Text is not a node: the binder turns the comparisons that take
+   * it into {@link TextEquals} nodes.
+   */
+  private record Text(Series<?> series, String value) implements Operand {
+  }
+
+  /**
+   * A text column compared with a text constant or column, or with null to test for nulls
+   */
+  private static final class TextEquals extends Node {
+
+    private final Series<?> left;
+    private final Text right;
+    private final double equal;
+    private final int slot;
+    private final int code;
+
+    TextEquals(Text left, Text right, boolean equal, int slot) {
+      super(Type.BOOLEAN);
+      this.left = left.series;
+      this.right = right;
+      this.equal = equal ? 1 : 0;
+      this.slot = slot;
+      // Categories compare codes with the code of the constant, or -2 if it is not a category
+      int code = -2;
+      if (left.series instanceof CategorySeries<?> categories && right != null && right.series == null) {
+        for (int c = 0; c < categories.getCategoryCount(); c++) {
+          if (right.value.equals(String.valueOf(categories.getCategory(c)))) {
+            code = c;
+          }
+        }
+      }
+      this.code = code;
+    }
+
+    @Override
+    double[] eval(double[][] scratch, int from, int count) {
+      double[] out = scratch[slot];
+      if (right == null) {
+        for (int i = 0; i < count; i++) {
+          out[i] = left.get(from + i) == null ? 1 : 0;
+        }
+      } else if (left instanceof CategorySeries<?> categories && right.series == null) {
+        for (int i = 0; i < count; i++) {
+          int c = categories.getCode(from + i);
+          out[i] = c < 0 ? Double.NaN : c == code ? equal : 1 - equal;
+        }
+      } else {
+        for (int i = 0; i < count; i++) {
+          Object a = left.get(from + i);
+          Object b = right.series == null ? right.value : right.series.get(from + i);
+          out[i] = a == null || b == null ? Double.NaN
+              : String.valueOf(a).equals(String.valueOf(b)) ? equal
+              : 1 - equal;
+        }
+      }
+      return out;
+    }
+  }
+
+  private enum Unary {
+    NEG {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = -a[i];
+        }
+      }
+    },
+    NOT {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = 1 - a[i];
+        }
+      }
+    },
+    ISNULL {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = a[i] != a[i] ? 1 : 0;
+        }
+      }
+    },
+    ABS {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.abs(a[i]);
+        }
+      }
+    },
+    SQRT {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.sqrt(a[i]);
+        }
+      }
+    },
+    EXP {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.exp(a[i]);
+        }
+      }
+    },
+    LOG {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.log(a[i]);
+        }
+      }
+    },
+    LOG10 {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.log10(a[i]);
+        }
+      }
+    },
+    SIN {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.sin(a[i]);
+        }
+      }
+    },
+    COS {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.cos(a[i]);
+        }
+      }
+    },
+    TAN {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.tan(a[i]);
+        }
+      }
+    },
+    FLOOR {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.floor(a[i]);
+        }
+      }
+    },
+    CEIL {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.ceil(a[i]);
+        }
+      }
+    },
+    ROUND {
+      @Override
+      void apply(double[] a, double[] out, int n) {
+        // Halves round to even, as in numpy and pandas
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.rint(a[i]);
+        }
+      }
+    };
+
+    abstract void apply(double[] a, double[] out, int n);
+  }
+
+  /**
+   * Binary operators. Conditions are 1, 0 or NaN for null; comparisons with NaN are null.
+   * <p>
+   * Conditions are computed on the bits of the doubles rather than with branches, which would be mispredicted on
+   * about half of the rows of unordered data: of 0, 1 and NaN, bit {@value #TRUE_BIT} is set only in 1 and NaN, and
+   * bit {@value #NULL_BIT} only in NaN.
+   */
+  private enum Binary {
+    ADD {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = a[i] + b[i];
+        }
+      }
+    },
+    SUB {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = a[i] - b[i];
+        }
+      }
+    },
+    MUL {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = a[i] * b[i];
+        }
+      }
+    },
+    DIV {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = a[i] / b[i];
+        }
+      }
+    },
+    MOD {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = a[i] % b[i];
+        }
+      }
+    },
+    POW {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.pow(a[i], b[i]);
+        }
+      }
+    },
+    MIN {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.min(a[i], b[i]);
+        }
+      }
+    },
+    MAX {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = Math.max(a[i], b[i]);
+        }
+      }
+    },
+    EQ {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          long value = a[i] == b[i] ? TRUE : 0;
+          long nulls = a[i] != a[i] | b[i] != b[i] ? NULL : 0;
+          out[i] = Double.longBitsToDouble(value | nulls);
+        }
+      }
+    },
+    NE {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          long value = a[i] != b[i] ? TRUE : 0;
+          long nulls = a[i] != a[i] | b[i] != b[i] ? NULL : 0;
+          out[i] = Double.longBitsToDouble(value | nulls);
+        }
+      }
+    },
+    LT {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          long value = a[i] < b[i] ? TRUE : 0;
+          long nulls = a[i] != a[i] | b[i] != b[i] ? NULL : 0;
+          out[i] = Double.longBitsToDouble(value | nulls);
+        }
+      }
+    },
+    LE {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          long value = a[i] <= b[i] ? TRUE : 0;
+          long nulls = a[i] != a[i] | b[i] != b[i] ? NULL : 0;
+          out[i] = Double.longBitsToDouble(value | nulls);
+        }
+      }
+    },
+    GT {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          long value = a[i] > b[i] ? TRUE : 0;
+          long nulls = a[i] != a[i] | b[i] != b[i] ? NULL : 0;
+          out[i] = Double.longBitsToDouble(value | nulls);
+        }
+      }
+    },
+    GE {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          long value = a[i] >= b[i] ? TRUE : 0;
+          long nulls = a[i] != a[i] | b[i] != b[i] ? NULL : 0;
+          out[i] = Double.longBitsToDouble(value | nulls);
+        }
+      }
+    },
+    AND {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        // false and anything is false; otherwise null if either is null
+        for (int i = 0; i < n; i++) {
+          long x = Double.doubleToRawLongBits(a[i]);
+          long y = Double.doubleToRawLongBits(b[i]);
+          long value = (x >>> TRUE_BIT) & (y >>> TRUE_BIT) & 1;
+          long nulls = ((x | y) >>> NULL_BIT) & value;
+          out[i] = Double.longBitsToDouble((-value & TRUE) | (-nulls & NULL));
+        }
+      }
+    },
+    OR {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        // true or anything is true; otherwise null if either is null
+        for (int i = 0; i < n; i++) {
+          long x = Double.doubleToRawLongBits(a[i]);
+          long y = Double.doubleToRawLongBits(b[i]);
+          long value = ((x >>> TRUE_BIT) & ~(x >>> NULL_BIT) | (y >>> TRUE_BIT) & ~(y >>> NULL_BIT)) & 1;
+          long nulls = ((x | y) >>> NULL_BIT) & ~value & 1;
+          out[i] = Double.longBitsToDouble((-value & TRUE) | (-nulls & NULL));
+        }
+      }
+    },
+    COALESCE {
+      @Override
+      void apply(double[] a, double[] b, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+          out[i] = a[i] != a[i] ? b[i] : a[i];
+        }
+      }
+    };
+
+    abstract void apply(double[] a, double[] b, double[] out, int n);
+  }
+
+  private static final class UnaryNode extends Node {
+
+    private final Unary op;
+    private final Node arg;
+
+    UnaryNode(Type type, Unary op, Node arg) {
+      super(type);
+      this.op = op;
+      this.arg = arg;
+    }
+
+    @Override
+    double[] eval(double[][] scratch, int from, int count) {
+      double[] a = arg.eval(scratch, from, count);
+      double[] out = arg instanceof Constant ? new double[count] : a;
+      op.apply(a, out, count);
+      return out;
+    }
+  }
+
+  private static final class BinaryNode extends Node {
+
+    private final Binary op;
+    private final Node left;
+    private final Node right;
+
+    BinaryNode(Type type, Binary op, Node left, Node right) {
+      super(type);
+      this.op = op;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    double[] eval(double[][] scratch, int from, int count) {
+      double[] a = left.eval(scratch, from, count);
+      double[] b = right.eval(scratch, from, count);
+      double[] out = !(left instanceof Constant) ? a : !(right instanceof Constant) ? b : new double[count];
+      op.apply(a, b, out, count);
+      return out;
+    }
+  }
+
+  private static final class If extends Node {
+
+    private final Node condition;
+    private final Node then;
+    private final Node otherwise;
+
+    If(Type type, Node condition, Node then, Node otherwise) {
+      super(type);
+      this.condition = condition;
+      this.then = then;
+      this.otherwise = otherwise;
+    }
+
+    @Override
+    double[] eval(double[][] scratch, int from, int count) {
+      double[] c = condition.eval(scratch, from, count);
+      double[] a = then.eval(scratch, from, count);
+      double[] b = otherwise.eval(scratch, from, count);
+      // The condition is never a constant, which would have been folded. Select without branches, as in Binary.
+      for (int i = 0; i < count; i++) {
+        long condition = Double.doubleToRawLongBits(c[i]);
+        long select = -((condition >>> TRUE_BIT) & 1);
+        long nulls = -((condition >>> NULL_BIT) & 1);
+        c[i] = Double.longBitsToDouble((Double.doubleToRawLongBits(a[i]) & select)
+            | (Double.doubleToRawLongBits(b[i]) & ~select) | (nulls & NULL));
+      }
+      return c;
+    }
+  }
+}
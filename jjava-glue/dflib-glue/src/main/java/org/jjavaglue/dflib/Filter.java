@@ -0,0 +1,202 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.BooleanSeries;
+import org.dflib.DoubleSeries;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * A comparison of a column with a constant, e.g. {@code Filter.gt("price", 100)}. Filters are simple enough to be
+ * evaluated by the readers on the raw values of a row, so that rows that fail them are never loaded (see
+ * {@link CsvLoader#filter(Filter...)} and {@link LazyFrame}).
+ * <p>
+ * Numbers compare by value whatever their type; text, dates and booleans compare with values of the same type.
+ * Nulls, NaNs and values of another type never pass, whatever the comparison. The same rule holds for a filter
+ * tested by a reader and one tested on a loaded column: a CSV field is only compared when the type of its column
+ * (sampled, or from the schema) is that of the filter value, so that e.g. "07" in an int column never equals the
+ * text "07", and "00123" in a text column never equals the number 123.
+ */
+public class Filter {
+
+  enum Op {
+    EQ("=="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">=");
+
+    private final String symbol;
+
+    Op(String symbol) {
+      this.symbol = symbol;
+    }
+
+    boolean accept(int comparison) {
+      return switch (this) {
+        case EQ -> comparison == 0;
+        case NE -> comparison != 0;
+        case LT -> comparison < 0;
+        case LE -> comparison <= 0;
+        case GT -> comparison > 0;
+        case GE -> comparison >= 0;
+      };
+    }
+  }
+
+  private final String column;
+  private final Op op;
+  private final Object value;
+  private final double number;
+  private final byte[] utf8;
+
+  private Filter(String column, Op op, Object value) {
+    if (!(value instanceof Number || value instanceof String || value instanceof LocalDate
+        || value instanceof Boolean)) {
+      throw new IllegalArgumentException("Can't filter on a value of type "
+          + (value == null ? "null" : value.getClass().getSimpleName()));
+    }
+    this.column = column;
+    this.op = op;
+    this.value = value;
+    this.number = value instanceof Number n ? n.doubleValue() : Double.NaN;
+    this.utf8 = value instanceof String s ? s.getBytes(StandardCharsets.UTF_8) : null;
+  }
+
+  public static Filter eq(String column, Object value) {
+    return new Filter(column, Op.EQ, value);
+  }
+
+  public static Filter ne(String column, Object value) {
+    return new Filter(column, Op.NE, value);
+  }
+
+  public static Filter lt(String column, Object value) {
+    return new Filter(column, Op.LT, value);
+  }
+
+  public static Filter le(String column, Object value) {
+    return new Filter(column, Op.LE, value);
+  }
+
+  public static Filter gt(String column, Object value) {
+    return new Filter(column, Op.GT, value);
+  }
+
+  public static Filter ge(String column, Object value) {
+    return new Filter(column, Op.GE, value);
+  }
+
+  public String getColumn() {
+    return column;
+  }
+
+  /**
+   * Whether values of a column of the given type can pass: numbers for numeric columns, text for text and
+   * category columns, and dates and booleans for columns of their type
+   */
+  boolean accepts(ColumnType type) {
+    if (value instanceof Number) {
+      return type.isNumeric();
+    } else if (value instanceof String) {
+      return type == ColumnType.STRING || type == ColumnType.CATEGORY;
+    } else if (value instanceof LocalDate) {
+      return type == ColumnType.DATE;
+    }
+    return type == ColumnType.BOOLEAN;
+  }
+
+  /**
+   * Test a CSV field of a column of the given type, given by its bytes in [start, end) of the buffer, without
+   * loading it
+   */
+  boolean test(ColumnType type, ByteBuffer buf, int start, int end, boolean escaped) {
+    if (start == end || !accepts(type)) {
+      return false;
+    }
+    try {
+      if (value instanceof Number) {
+        return testNumber(ColumnBuffer.parseDouble(buf, start, end));
+      } else if (value instanceof String s) {
+        if (!escaped && (op == Op.EQ || op == Op.NE)) {
+          return op.accept(sameBytes(buf, start, end) ? 0 : 1);
+        }
+        return op.accept(ColumnBuffer.text(buf, start, end, escaped).compareTo(s));
+      } else if (value instanceof LocalDate date) {
+        return op.accept(ColumnBuffer.parseDate(buf, start, end).compareTo(date));
+      }
+      return op.accept(Boolean.compare(ColumnBuffer.parseBoolean(buf, start, end), (Boolean) value));
+    } catch (ColumnBuffer.ParseFailure e) {
+      return false;
+    }
+  }
+
+  private boolean sameBytes(ByteBuffer buf, int start, int end) {
+    if (end - start != utf8.length) {
+      return false;
+    }
+    for (int i = 0; i < utf8.length; i++) {
+      if (buf.get(start + i) != utf8[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Test the value of a loaded column at a row
+   */
+  boolean test(Series<?> series, int row) {
+    if (value instanceof Number) {
+      if (series instanceof DoubleSeries ds) {
+        return testNumber(ds.getDouble(row));
+      } else if (series instanceof IntSeries is) {
+        return testNumber(is.getInt(row));
+      } else if (series instanceof LongSeries ls) {
+        return testNumber(ls.getLong(row));
+      }
+    } else if (value instanceof Boolean b && series instanceof BooleanSeries bs) {
+      return op.accept(Boolean.compare(bs.getBool(row), b));
+    }
+    return test(series.get(row));
+  }
+
+  /**
+   * Test a number stored as an int, long or double
+   */
+  boolean testDouble(double x) {
+    return value instanceof Number && testNumber(x);
+  }
+
+  /**
+   * Test a non-null date stored as its epoch day
+   */
+  boolean testEpochDay(long day) {
+    return value instanceof LocalDate date && op.accept(Long.compare(day, date.toEpochDay()));
+  }
+
+  /**
+   * Test a loaded value
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  boolean test(Object x) {
+    if (x == null) {
+      return false;
+    } else if (value instanceof Number) {
+      return x instanceof Number n && testNumber(n.doubleValue());
+    } else if (x.getClass() != value.getClass()) {
+      return false;
+    }
+    return op.accept(((Comparable) x).compareTo(value));
+  }
+
+  private boolean testNumber(double x) {
+    return !Double.isNaN(x) && op.accept(x < number ? -1 : x > number ? 1 : 0);
+  }
+
+  @Override
+  public String toString() {
+    String shown = value instanceof String || value instanceof LocalDate ? "'" + value + "'" : value.toString();
+    return column + " " + op.symbol + " " + shown;
+  }
+}
@@ -0,0 +1,453 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.BooleanSeries;
+import org.dflib.DataFrame;
+import org.dflib.DoubleSeries;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+import org.dflib.series.ArrayRangeSeries;
+import org.dflib.series.BooleanBitsetSeries;
+import org.dflib.series.BooleanIndexedSeries;
+import org.dflib.series.DoubleArrayRangeSeries;
+import org.dflib.series.DoubleIndexedSeries;
+import org.dflib.series.IndexedSeries;
+import org.dflib.series.IntArrayRangeSeries;
+import org.dflib.series.IntIndexedSeries;
+import org.dflib.series.LongArrayRangeSeries;
+import org.dflib.series.LongIndexedSeries;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Heap footprint of the columns of a DataFrame, and compaction into cheaper column types.
+ * <p>
+ * Sizes are estimates for a 64-bit JVM with compressed references: 12-byte object headers, 4-byte references and
+ * objects aligned to 8 bytes. Boxed values from the JDK caches (booleans and small integers) are free; other
+ * objects count once per row that refers to them, as rows sharing an instance cannot be told apart cheaply. A
+ * series used by several columns, and a dictionary shared by several categorical columns, count once.
+ * <p>
+ * Range and index views of another series (e.g. from {@code head} or row selections) count only the rows they
+ * show, but may keep a much larger array of their source alive; compaction copies them into arrays of their own.
+ * Memory-mapped columns take no heap; their size in the file is noted instead, and compaction leaves them alone.
+ */
+final class Footprint {
+
+  private static final int HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+
+  private Footprint() {
+  }
+
+  static DataFrame report(DataFrame df) {
+    int width = df.width();
+    String[] types = new String[width];
+    String[] storage = new String[width];
+    int[] rows = new int[width];
+    long[] bytes = new long[width];
+    String[] notes = new String[width];
+
+    Map<Object, String> owners = new IdentityHashMap<>();
+    List<CategorySeries<?>> dictionaries = new ArrayList<>();
+    List<String> dictionaryOwners = new ArrayList<>();
+    for (int c = 0; c < width; c++) {
+      String name = df.getColumnsIndex().get(c);
+      Series<?> series = df.getColumn(c);
+      types[c] = typeName(series);
+      storage[c] = storage(series);
+      rows[c] = series.size();
+      notes[c] = isView(series) ? "view of another series, may retain a larger array"
+          : isMapped(series) ? "memory-mapped, " + format(mappedBytes(series)) + " off heap"
+          : "";
+
+      String owner = owners.putIfAbsent(series, name);
+      if (owner != null) {
+        notes[c] = "same series as " + owner;
+        continue;
+      }
+      if (series instanceof CategorySeries<?> cs) {
+        String shared = null;
+        for (int d = 0; d < dictionaries.size() && shared == null; d++) {
+          shared = dictionaries.get(d).sharesCategories(cs) ? dictionaryOwners.get(d) : null;
+        }
+        long dictionary = dictionaryBytes(cs);
+        bytes[c] = ARRAY_HEADER + align((long) cs.codeBytes() * cs.size()) + (shared == null ? dictionary : 0);
+        notes[c] = cs.getCategoryCount() + " categories, " + (shared == null
+            ? "dictionary of " + format(dictionary)
+            : "dictionary shared with " + shared);
+        if (shared == null) {
+          dictionaries.add(cs);
+          dictionaryOwners.add(name);
+        }
+      } else {
+        bytes[c] = bytes(series);
+      }
+    }
+
+    return DataFrame.byColumn("column", "type", "storage", "rows", "bytes", "note").of(
+        Series.of(df.getColumnsIndex().toArray()),
+        Series.of(types),
+        Series.of(storage),
+        Series.ofInt(rows),
+        Series.ofLong(bytes),
+        Series.of(notes));
+  }
+
+  /**
+   * Estimated heap bytes retained by a series on its own
+   */
+  static long bytes(Series<?> series) {
+    int n = series.size();
+    if (isMapped(series)) {
+      return 0;
+    } else if (series instanceof DoubleSeries || series instanceof LongSeries) {
+      return ARRAY_HEADER + 8L * n;
+    } else if (series instanceof IntSeries) {
+      return ARRAY_HEADER + 4L * n;
+    } else if (series instanceof BooleanBitsetSeries) {
+      return ARRAY_HEADER + 8L * ((n + 63) / 64);
+    } else if (series instanceof BooleanSeries) {
+      return ARRAY_HEADER + align(n);
+    } else if (series instanceof CategorySeries<?> cs) {
+      return ARRAY_HEADER + align((long) cs.codeBytes() * n) + dictionaryBytes(cs);
+    }
+    long bytes = ARRAY_HEADER + align((long) REFERENCE * n);
+    for (int i = 0; i < n; i++) {
+      bytes += objectBytes(series.get(i));
+    }
+    return bytes;
+  }
+
+  private static long mappedBytes(Series<?> series) {
+    return (series instanceof MappedIntSeries ? 4L : 8L) * series.size();
+  }
+
+  private static long dictionaryBytes(CategorySeries<?> series) {
+    long bytes = ARRAY_HEADER + align((long) REFERENCE * series.getCategoryCount());
+    for (int c = 0; c < series.getCategoryCount(); c++) {
+      bytes += objectBytes(series.getCategory(c));
+    }
+    return bytes;
+  }
+
+  private static long objectBytes(Object value) {
+    if (value == null || value instanceof Boolean) {
+      return 0;
+    } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+        || value instanceof Byte) {
+      long v = ((Number) value).longValue();
+      return v >= -128 && v <= 127 ? 0 : value instanceof Long ? 24 : 16;
+    } else if (value instanceof Double) {
+      return 24;
+    } else if (value instanceof String s) {
+      boolean latin1 = true;
+      for (int i = 0; i < s.length() && latin1; i++) {
+        latin1 = s.charAt(i) < 256;
+      }
+      return 24 + ARRAY_HEADER + align((long) s.length() * (latin1 ? 1 : 2));
+    } else if (value instanceof LocalDate || value instanceof LocalTime || value instanceof Instant) {
+      return 24;
+    } else if (value instanceof LocalDateTime) {
+      return 72;
+    } else if (value instanceof BigDecimal d) {
+      return 40 + (d.precision() > 18 ? ARRAY_HEADER + align(d.unscaledValue().bitLength() / 8 + 1) : 0);
+    }
+    return align(HEADER + 8);
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  /**
+   * A compacted copy of the DataFrame. The total saved and a line per changed column are appended to the report,
+   * unless it is null.
+   */
+  static DataFrame compact(DataFrame df, StringBuilder report) {
+    int width = df.width();
+    Series<?>[] columns = new Series<?>[width];
+    long before = 0;
+    long after = 0;
+    StringBuilder changes = new StringBuilder();
+    int changed = 0;
+    // A series used by several columns is compacted and counted once
+    Map<Series<?>, Series<?>> done = new IdentityHashMap<>();
+    for (int c = 0; c < width; c++) {
+      Series<?> series = df.getColumn(c);
+      if (done.containsKey(series)) {
+        columns[c] = done.get(series);
+        continue;
+      }
+      columns[c] = compact(series);
+      done.put(series, columns[c]);
+      long size = bytes(series);
+      long compacted = columns[c] == series ? size : bytes(columns[c]);
+      before += size;
+      after += compacted;
+      if (columns[c] != series) {
+        changed++;
+        changes.append(String.format(Locale.ROOT, "  %-20s %s %s -> %s %s, %s -> %s%s%n", df.getColumnsIndex().get(c),
+            storage(series), typeName(series), storage(columns[c]), typeName(columns[c]), format(size),
+            format(compacted), isView(series) ? ", copied from a view" : ""));
+      }
+    }
+    if (report != null) {
+      report.append(String.format(Locale.ROOT, "Compacted %d of %d columns: %s -> %s, saved %s%n%s", changed, width,
+          format(before), format(after), format(before - after), changes));
+    }
+    return DataFrame.byColumn(df.getColumnsIndex()).of(columns);
+  }
+
+  /**
+   * The cheapest series with the same values, or the series itself. Boxed numbers and numeric text become primitive
+   * when every value survives (see {@link #numbers(Series)}), longs that fit become ints, and repetitive values
+   * become categories. Views are copied into arrays of their own; memory-mapped series are kept.
+   */
+  static Series<?> compact(Series<?> series) {
+    int n = series.size();
+    if (isMapped(series)) {
+      return series;
+    } else if (series instanceof LongSeries ls) {
+      long[] values = ls.toLongArray();
+      int[] ints = new int[n];
+      for (int i = 0; i < n; i++) {
+        if (values[i] != (int) values[i]) {
+          return isView(series) ? Series.ofLong(values) : series;
+        }
+        ints[i] = (int) values[i];
+      }
+      return Series.ofInt(ints);
+    } else if (series instanceof DoubleSeries ds) {
+      return isView(series) ? Series.ofDouble(ds.toDoubleArray()) : series;
+    } else if (series instanceof IntSeries is) {
+      return isView(series) ? Series.ofInt(is.toIntArray()) : series;
+    } else if (series instanceof BooleanSeries bs) {
+      return isView(series) ? Series.ofBool(bs.toBoolArray()) : series;
+    } else if (series instanceof CategorySeries) {
+      return series;
+    }
+
+    Series<?> numbers = numbers(series);
+    if (numbers != null) {
+      return numbers;
+    }
+    Series<?> booleans = booleans(series);
+    if (booleans != null) {
+      return booleans;
+    }
+
+    // Dictionary-encode values that repeat on average, as DS.read does for text
+    Set<Object> distinct = new HashSet<>();
+    for (int i = 0; i < n && distinct.size() * 2 <= n; i++) {
+      Object value = series.get(i);
+      if (value != null) {
+        distinct.add(value);
+      }
+    }
+    if (!distinct.isEmpty() && distinct.size() * 2 <= n) {
+      return CategorySeries.of(series);
+    }
+    if (isView(series)) {
+      Object[] values = new Object[n];
+      series.copyTo(values, 0, 0, n);
+      return Series.of(values);
+    }
+    return series;
+  }
+
+  /**
+   * Boxed numbers or numeric text as a primitive series, or null if some value is not a number or would change.
+   * Integers become ints or longs, and are left alone with nulls, which only doubles can hold (as NaN). Other numbers
+   * become doubles, unless an integer among them is too large for a double to hold exactly.
+   */
+  private static Series<?> numbers(Series<?> series) {
+    int n = series.size();
+    long[] longs = new long[n];
+    double[] doubles = new double[n];
+    boolean integral = true;
+    boolean nulls = false;
+    boolean any = false;
+    for (int i = 0; i < n; i++) {
+      Object value = series.get(i);
+      if (value == null) {
+        nulls = true;
+        doubles[i] = Double.NaN;
+      } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+          || value instanceof Byte) {
+        longs[i] = ((Number) value).longValue();
+        doubles[i] = longs[i];
+      } else if (value instanceof Double || value instanceof Float) {
+        integral = false;
+        doubles[i] = ((Number) value).doubleValue();
+      } else if (value instanceof String s && isInteger(s)) {
+        longs[i] = Long.parseLong(s);
+        doubles[i] = longs[i];
+      } else if (value instanceof String s && isDecimal(s)) {
+        integral = false;
+        doubles[i] = Double.parseDouble(s);
+      } else {
+        return null;
+      }
+      any |= value != null;
+    }
+    if (!any) {
+      return null;
+    } else if (!integral) {
+      for (int i = 0; i < n; i++) {
+        if (Math.abs(longs[i]) > 1L << 53) {
+          return null;
+        }
+      }
+      return Series.ofDouble(doubles);
+    } else if (nulls) {
+      return null;
+    }
+    for (int i = 0; i < n; i++) {
+      if (longs[i] != (int) longs[i]) {
+        return Series.ofLong(longs);
+      }
+    }
+    int[] ints = new int[n];
+    for (int i = 0; i < n; i++) {
+      ints[i] = (int) longs[i];
+    }
+    return Series.ofInt(ints);
+  }
+
+  /**
+   * Booleans without nulls as a primitive series, or null
+   */
+  private static Series<?> booleans(Series<?> series) {
+    boolean[] values = new boolean[series.size()];
+    for (int i = 0; i < values.length; i++) {
+      if (!(series.get(i) instanceof Boolean b)) {
+        return null;
+      }
+      values[i] = b;
+    }
+    return values.length > 0 ? Series.ofBool(values) : null;
+  }
+
+  /**
+   * Whether text is a long that reads back the same, so that e.g. codes with leading zeros stay text
+   */
+  private static boolean isInteger(String s) {
+    int start = s.startsWith("-") ? 1 : 0;
+    if (s.length() == start || s.length() - start > 19 || (s.charAt(start) == '0' && s.length() > start + 1)) {
+      return false;
+    }
+    for (int i = start; i < s.length(); i++) {
+      if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+        return false;
+      }
+    }
+    if (s.equals("-0")) {
+      return false;
+    }
+    try {
+      Long.parseLong(s);
+      return true;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Whether text is a number that a double holds exactly, as far as its digits go: the shortest text of the double
+   * has the same value, so that e.g. 1.50 qualifies but an integer of 20 digits does not
+   */
+  private static boolean isDecimal(String s) {
+    boolean digits = false;
+    for (int i = 0; i < s.length(); i++) {
+      char ch = s.charAt(i);
+      if (ch >= '0' && ch <= '9') {
+        digits = true;
+      } else if ("+-.eE".indexOf(ch) < 0) {
+        return false;
+      }
+    }
+    if (!digits || (s.charAt(0) == '0' && s.length() > 1 && s.charAt(1) != '.')) {
+      return false;
+    }
+    try {
+      double value = Double.parseDouble(s);
+      return Double.isFinite(value) && new BigDecimal(s).compareTo(new BigDecimal(Double.toString(value))) == 0;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private static boolean isMapped(Series<?> series) {
+    return series instanceof MappedDoubleSeries || series instanceof MappedIntSeries
+        || series instanceof MappedLongSeries;
+  }
+
+  private static boolean isView(Series<?> series) {
+    return series instanceof DoubleArrayRangeSeries || series instanceof IntArrayRangeSeries
+        || series instanceof LongArrayRangeSeries || series instanceof ArrayRangeSeries
+        || series instanceof DoubleIndexedSeries || series instanceof IntIndexedSeries
+        || series instanceof LongIndexedSeries || series instanceof BooleanIndexedSeries
+        || series instanceof IndexedSeries;
+  }
+
+  private static String storage(Series<?> series) {
+    if (isMapped(series)) {
+      return "mapped";
+    } else if (series instanceof DoubleSeries || series instanceof IntSeries || series instanceof LongSeries
+        || series instanceof BooleanSeries) {
+      return "primitive";
+    } else if (series instanceof CategorySeries) {
+      return "dictionary";
+    }
+    for (int i = 0; i < series.size(); i++) {
+      Object value = series.get(i);
+      if (value != null) {
+        return value instanceof Number || value instanceof Boolean ? "boxed" : "objects";
+      }
+    }
+    return "objects";
+  }
+
+  private static String typeName(Series<?> series) {
+    if (series instanceof DoubleSeries) {
+      return "double";
+    } else if (series instanceof IntSeries) {
+      return "int";
+    } else if (series instanceof LongSeries) {
+      return "long";
+    } else if (series instanceof BooleanSeries) {
+      return "boolean";
+    }
+    Class<?> type = null;
+    for (int i = 0; i < series.size(); i++) {
+      Object value = series.get(i);
+      if (value != null) {
+        if (type != null && type != value.getClass()) {
+          return "mixed";
+        }
+        type = value.getClass();
+      }
+    }
+    return type == null ? "null" : type.getSimpleName();
+  }
+
+  static String format(long bytes) {
+    if (bytes < 1024) {
+      return bytes + " B";
+    }
+    int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+    return String.format(Locale.ROOT, "%.1f %sB", bytes / Math.pow(1024, unit), " KMGTPE".charAt(unit));
+  }
+}
@@ -0,0 +1,277 @@
+package org.jjavaglue.dflib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Count-Min sketch (Cormode &amp; Muthukrishnan) estimating how often each value occurs in a stream, with a heap of
+ * the most frequent values seen so far (heavy hitters). Counts are kept in "depth" rows of "width" counters; a
+ * value increments one counter per row, and its estimate is the smallest of them. With conservative updates,
+ * only the smallest counters are incremented. An estimate is never below the true count, and exceeds it by at
+ * most e / width of all values added with probability 1 - e^-depth: 0.13% at the default width of 2048.
+ * <p>
+ * Values are only boxed when they enter the heap, or already are in it. A value occurring well over 1 / capacity
+ * of the time stays in the heap, since only a value with a higher estimate can evict it. Sketches of different
+ * parts of the data can be merged.
+ */
+public class FrequencySketch {
+
+  private static final int DEPTH = 4;
+
+  private final int mask;
+  private final long[] counts;
+  private long total;
+
+  // Min-heap of candidate values by estimate, and an open addressing table from hash to heap position
+  private final int capacity;
+  private final long[] heapHashes;
+  private final long[] heapEstimates;
+  private final Object[] heapValues;
+  private int heapSize;
+  private final long[] tableHashes;
+  private final int[] tablePositions;
+
+  public FrequencySketch() {
+    this(2048, 64);
+  }
+
+  /**
+   * @param width counters per row, rounded up to a power of two; higher is more accurate and larger
+   * @param capacity number of most frequent values kept
+   */
+  public FrequencySketch(int width, int capacity) {
+    if (width < 16 || width > 1 << 24) {
+      throw new IllegalArgumentException("Width must be between 16 and 2^24: " + width);
+    }
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    int w = Integer.highestOneBit(width - 1) << 1;
+    this.mask = w - 1;
+    this.counts = new long[DEPTH * w];
+    this.capacity = capacity;
+    this.heapHashes = new long[capacity];
+    this.heapEstimates = new long[capacity];
+    this.heapValues = new Object[capacity];
+    this.tableHashes = new long[Integer.highestOneBit(capacity * 4 - 1) << 1];
+    this.tablePositions = new int[tableHashes.length];
+    Arrays.fill(tablePositions, -1);
+  }
+
+  /**
+   * Add a value; nulls are ignored
+   */
+  public FrequencySketch add(Object value) {
+    if (value != null) {
+      long hash = Hashing.hash(value);
+      if (increment(hash)) {
+        offer(hash, value);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Count a value by its 64-bit hash, which must be well mixed. Returns whether the value may belong in the heap,
+   * in which case the caller must {@link #offer(long, Object)} it.
+   */
+  boolean increment(long hash) {
+    return increment(hash, 1);
+  }
+
+  /**
+   * Count a value as occurring "weight" times, e.g. for a sample standing for more rows
+   */
+  boolean increment(long hash, long weight) {
+    total += weight;
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32) | 1;
+    long min = Long.MAX_VALUE;
+    for (int r = 0; r < DEPTH; r++) {
+      min = Math.min(min, counts[(r * (mask + 1)) + ((h1 + r * h2) & mask)]);
+    }
+    // Conservative update: raise the smallest counters, branch-free as the others are above min
+    for (int r = 0; r < DEPTH; r++) {
+      int i = (r * (mask + 1)) + ((h1 + r * h2) & mask);
+      counts[i] = Math.max(counts[i], min + weight);
+    }
+    // A value in the heap has an estimate above the heap minimum, as has a value that should enter it
+    return heapSize < capacity || min + weight > heapEstimates[0];
+  }
+
+  /**
+   * Update the heap with a value just counted by {@link #increment(long, long)}
+   */
+  void offer(long hash, Object value) {
+    long estimate = estimate(hash);
+    int slot = find(hash);
+    if (tablePositions[slot] >= 0) {
+      int position = tablePositions[slot];
+      heapEstimates[position] = estimate;
+      siftDown(position);
+    } else if (heapSize < capacity) {
+      int position = heapSize++;
+      heapHashes[position] = hash;
+      heapEstimates[position] = estimate;
+      heapValues[position] = value;
+      tableHashes[slot] = hash;
+      tablePositions[slot] = position;
+      siftUp(position);
+    } else if (estimate > heapEstimates[0]) {
+      remove(find(heapHashes[0]));
+      slot = find(hash);
+      heapHashes[0] = hash;
+      heapEstimates[0] = estimate;
+      heapValues[0] = value;
+      tableHashes[slot] = hash;
+      tablePositions[slot] = 0;
+      siftDown(0);
+    }
+  }
+
+  /**
+   * Estimated number of occurrences of a value, never below the true number
+   */
+  public long estimate(Object value) {
+    return value != null ? estimate(Hashing.hash(value)) : 0;
+  }
+
+  long estimate(long hash) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32) | 1;
+    long min = Long.MAX_VALUE;
+    for (int r = 0; r < DEPTH; r++) {
+      min = Math.min(min, counts[(r * (mask + 1)) + ((h1 + r * h2) & mask)]);
+    }
+    return min;
+  }
+
+  /**
+   * Number of values added
+   */
+  public long size() {
+    return total;
+  }
+
+  /**
+   * Up to k of the most frequent values, most frequent first
+   */
+  public List<Object> top(int k) {
+    Integer[] order = new Integer[heapSize];
+    for (int i = 0; i < heapSize; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Long.compare(heapEstimates[b], heapEstimates[a]));
+    List<Object> top = new ArrayList<>();
+    for (int i = 0; i < Math.min(k, heapSize); i++) {
+      top.add(heapValues[order[i]]);
+    }
+    return top;
+  }
+
+  /**
+   * Add the counts of another sketch of the same width to this one, keeping the values with the highest
+   * combined estimates from both heaps
+   */
+  public FrequencySketch merge(FrequencySketch other) {
+    if (other.counts.length != counts.length) {
+      throw new IllegalArgumentException("Cannot merge sketches of width " + (mask + 1) + " and " + (other.mask + 1));
+    }
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += other.counts[i];
+    }
+    total += other.total;
+
+    long[] hashes = Arrays.copyOf(heapHashes, heapSize + other.heapSize);
+    Object[] values = Arrays.copyOf(heapValues, heapSize + other.heapSize);
+    int n = heapSize;
+    for (int i = 0; i < other.heapSize; i++) {
+      if (tablePositions[find(other.heapHashes[i])] < 0) {
+        hashes[n] = other.heapHashes[i];
+        values[n++] = other.heapValues[i];
+      }
+    }
+
+    Arrays.fill(tablePositions, -1);
+    heapSize = 0;
+    for (int i = 0; i < n; i++) {
+      offer(hashes[i], values[i]);
+    }
+    return this;
+  }
+
+  /**
+   * Slot of a hash in the table, or the empty slot where it would go
+   */
+  private int find(long hash) {
+    int tableMask = tableHashes.length - 1;
+    int slot = (int) (hash >>> 40) & tableMask;
+    while (tablePositions[slot] >= 0 && tableHashes[slot] != hash) {
+      slot = (slot + 1) & tableMask;
+    }
+    return slot;
+  }
+
+  /**
+   * Empty a slot, moving later entries of its probe sequence back so that they stay reachable
+   */
+  private void remove(int slot) {
+    int tableMask = tableHashes.length - 1;
+    tablePositions[slot] = -1;
+    int next = (slot + 1) & tableMask;
+    while (tablePositions[next] >= 0) {
+      int home = (int) (tableHashes[next] >>> 40) & tableMask;
+      // Move the entry back if its home is not between the empty slot and its current slot
+      if (((next - home) & tableMask) >= ((next - slot) & tableMask)) {
+        tableHashes[slot] = tableHashes[next];
+        tablePositions[slot] = tablePositions[next];
+        tablePositions[next] = -1;
+        slot = next;
+      }
+      next = (next + 1) & tableMask;
+    }
+  }
+
+  private void siftUp(int position) {
+    while (position > 0) {
+      int parent = (position - 1) / 2;
+      if (heapEstimates[parent] <= heapEstimates[position]) {
+        return;
+      }
+      swap(position, parent);
+      position = parent;
+    }
+  }
+
+  private void siftDown(int position) {
+    while (true) {
+      int child = 2 * position + 1;
+      if (child >= heapSize) {
+        return;
+      }
+      if (child + 1 < heapSize && heapEstimates[child + 1] < heapEstimates[child]) {
+        child++;
+      }
+      if (heapEstimates[position] <= heapEstimates[child]) {
+        return;
+      }
+      swap(position, child);
+      position = child;
+    }
+  }
+
+  private void swap(int i, int j) {
+    long hash = heapHashes[i];
+    heapHashes[i] = heapHashes[j];
+    heapHashes[j] = hash;
+    long estimate = heapEstimates[i];
+    heapEstimates[i] = heapEstimates[j];
+    heapEstimates[j] = estimate;
+    Object value = heapValues[i];
+    heapValues[i] = heapValues[j];
+    heapValues[j] = value;
+    tablePositions[find(heapHashes[i])] = i;
+    tablePositions[find(heapHashes[j])] = j;
+  }
+}
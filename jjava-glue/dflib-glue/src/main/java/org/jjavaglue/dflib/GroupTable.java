@@ -0,0 +1,152 @@
+package org.jjavaglue.dflib;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table assigning dense group ids, in order of first appearance, to keys made of a fixed
+ * number of longs. Key parts are stored flat in one array, so there is no per-group object; the slots hold group
+ * ids and are probed linearly.
+ */
+final class GroupTable {
+
+  private final int width;
+  private long[] keys;
+  private long[] hashes;
+  private int[] slots;
+  private int mask;
+  private int size;
+
+  GroupTable(int width) {
+    this(width, 16);
+  }
+
+  GroupTable(int width, int expected) {
+    this.width = width;
+    int capacity = Integer.highestOneBit(Math.max(16, expected) * 2 - 1) * 2;
+    this.slots = new int[capacity];
+    this.mask = capacity - 1;
+    this.keys = new long[(capacity / 2) * width];
+    this.hashes = new long[capacity / 2];
+  }
+
+  int size() {
+    return size;
+  }
+
+  int width() {
+    return width;
+  }
+
+  /**
+   * Part k of the key of a group
+   */
+  long key(int group, int k) {
+    return keys[group * width + k];
+  }
+
+  /**
+   * Group id of a single-long key, adding a group if the key is new. Only for tables of width 1.
+   */
+  int add(long key) {
+    long hash = Hashing.mix(key);
+    int slot = (int) hash & mask;
+    while (true) {
+      int group = slots[slot] - 1;
+      if (group < 0) {
+        return insert(slot, hash, key, null);
+      } else if (keys[group] == key) {
+        return group;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Group id of a key of {@link #width()} longs, adding a group if the key is new
+   */
+  int add(long[] key) {
+    long hash = hash(key);
+    int slot = (int) hash & mask;
+    while (true) {
+      int group = slots[slot] - 1;
+      if (group < 0) {
+        return insert(slot, hash, 0, key);
+      } else if (hashes[group] == hash && equals(group, key)) {
+        return group;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Group id of a key of {@link #width()} longs, or -1 if there is no such group. Safe to call from several
+   * threads once the table is filled.
+   */
+  int find(long[] key) {
+    long hash = hash(key);
+    int slot = (int) hash & mask;
+    while (true) {
+      int group = slots[slot] - 1;
+      if (group < 0) {
+        return -1;
+      } else if (hashes[group] == hash && equals(group, key)) {
+        return group;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Hash of a key, as used to place it in the table
+   */
+  static long hash(long[] key) {
+    long hash = 0;
+    for (long part : key) {
+      hash = Hashing.mix(hash ^ part);
+    }
+    return hash;
+  }
+
+  private boolean equals(int group, long[] key) {
+    int base = group * width;
+    for (int k = 0; k < width; k++) {
+      if (keys[base + k] != key[k]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int insert(int slot, long hash, long single, long[] key) {
+    int group = size++;
+    if (group == hashes.length) {
+      keys = Arrays.copyOf(keys, keys.length * 2);
+      hashes = Arrays.copyOf(hashes, hashes.length * 2);
+    }
+    if (key == null) {
+      keys[group] = single;
+    } else {
+      System.arraycopy(key, 0, keys, group * width, width);
+    }
+    hashes[group] = hash;
+    slots[slot] = group + 1;
+
+    // Keep the load factor at or below 1/2
+    if (size * 2 > slots.length) {
+      rehash();
+    }
+    return group;
+  }
+
+  private void rehash() {
+    slots = new int[slots.length * 2];
+    mask = slots.length - 1;
+    for (int group = 0; group < size; group++) {
+      int slot = (int) hashes[group] & mask;
+      while (slots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = group + 1;
+    }
+  }
+}
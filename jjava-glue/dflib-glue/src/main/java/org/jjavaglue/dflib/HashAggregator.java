@@ -0,0 +1,741 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.BooleanSeries;
+import org.dflib.DataFrame;
+import org.dflib.DoubleSeries;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Group-by aggregation without per-group DataFrames. Rows are split into one partition per core; each partition
+ * encodes its keys as longs (int and long values as is, doubles by their bits, other values by their index in a
+ * partition-local dictionary), assigns group ids with a {@link GroupTable} and aggregates every column into
+ * primitive arrays indexed by group. The partial results are then merged in partition order, so groups come out in
+ * order of first appearance.
+ */
+final class HashAggregator {
+
+  private static final int MIN_PARTITION_ROWS = 1 << 16;
+
+  private final String[] keyNames;
+  private final Agg[] aggs;
+  private final Series<?>[] keyColumns;
+  private final Series<?>[] aggColumns;
+
+  private HashAggregator(DataFrame df, String[] keys, Agg[] aggs) {
+    if (keys.length == 0) {
+      throw new IllegalArgumentException("At least one key column is required");
+    }
+    this.keyNames = keys;
+    this.aggs = aggs;
+    this.keyColumns = new Series<?>[keys.length];
+    for (int k = 0; k < keys.length; k++) {
+      keyColumns[k] = df.getColumn(keys[k]);
+    }
+    this.aggColumns = new Series<?>[aggs.length];
+    for (int a = 0; a < aggs.length; a++) {
+      aggColumns[a] = aggs[a].column != null ? df.getColumn(aggs[a].column) : null;
+    }
+  }
+
+  static DataFrame aggregate(DataFrame df, String[] keys, Agg[] aggs) {
+    return aggregate(df, keys, aggs, partitions(df.height()));
+  }
+
+  /**
+   * Aggregate in the given number of partitions
+   */
+  static DataFrame aggregate(DataFrame df, String[] keys, Agg[] aggs, int partitions) {
+    return new HashAggregator(df, keys, aggs).run(df.height(), Math.max(1, partitions)).toDataFrame();
+  }
+
+  /**
+   * Aggregate a stream of DataFrames, merging the groups of every chunk into those of the chunks before. Key
+   * columns must have the same type in every chunk, as keys are merged by their encoding; categorical keys are not
+   * supported, as their codes differ between chunks. Returns null for an empty stream.
+   */
+  static DataFrame aggregate(Stream<DataFrame> chunks, String[] keys, Agg[] aggs) {
+    Partition[] result = new Partition[1];
+    String[] keyTypes = new String[keys.length];
+    chunks.forEach(chunk -> {
+      HashAggregator aggregator = new HashAggregator(chunk, keys, aggs);
+      for (int k = 0; k < keys.length; k++) {
+        Series<?> key = aggregator.keyColumns[k];
+        if (key instanceof CategorySeries) {
+          throw new IllegalArgumentException("Categorical keys are not supported in streams");
+        }
+        String type = keyType(key);
+        if (keyTypes[k] == null) {
+          keyTypes[k] = type;
+        } else if (!keyTypes[k].equals(type)) {
+          throw new IllegalArgumentException("Key column '" + keys[k] + "' has " + type
+              + " values in a later chunk, but " + keyTypes[k] + " values in the first");
+        }
+      }
+      Partition partial = aggregator.run(chunk.height(), partitions(chunk.height()));
+      if (result[0] == null) {
+        result[0] = partial;
+      } else {
+        result[0].merge(partial);
+      }
+    });
+    return result[0] != null ? result[0].toDataFrame() : null;
+  }
+
+  private static int partitions(int height) {
+    return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), height / MIN_PARTITION_ROWS));
+  }
+
+  private Partition run(int height, int count) {
+    int step = (height + count - 1) / count;
+
+    Partition[] partitions = new Partition[count];
+    Arrays.parallelSetAll(partitions, p -> new Partition(p * step, Math.min(height, (p + 1) * step)).run());
+
+    Partition result = partitions[0];
+    if (count > 1) {
+      result = new Partition(0, 0);
+      for (Partition p : partitions) {
+        result.merge(p);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Groups and aggregates of the rows [from, to)
+   */
+  private final class Partition {
+
+    private final int from;
+    private final int to;
+    private final GroupTable table;
+    private final ValueDictionary[] dictionaries;
+    private final State[] states;
+
+    Partition(int from, int to) {
+      this.from = from;
+      this.to = to;
+      this.table = new GroupTable(keyColumns.length);
+      this.dictionaries = new ValueDictionary[keyColumns.length];
+      for (int k = 0; k < keyColumns.length; k++) {
+        if (!isEncoded(keyColumns[k])) {
+          dictionaries[k] = new ValueDictionary();
+        }
+      }
+      this.states = new State[aggs.length];
+      for (int a = 0; a < aggs.length; a++) {
+        states[a] = State.of(aggs[a]);
+      }
+    }
+
+    Partition run() {
+      int[] groupOf = new int[to - from];
+      if (keyColumns.length == 1) {
+        Series<?> keys = keyColumns[0];
+        ValueDictionary dictionary = dictionaries[0];
+        if (keys instanceof IntSeries is) {
+          for (int i = from; i < to; i++) {
+            groupOf[i - from] = table.add(is.getInt(i));
+          }
+        } else if (keys instanceof LongSeries ls) {
+          for (int i = from; i < to; i++) {
+            groupOf[i - from] = table.add(ls.getLong(i));
+          }
+        } else if (keys instanceof DoubleSeries ds) {
+          for (int i = from; i < to; i++) {
+            groupOf[i - from] = table.add(Hashing.bits(ds.getDouble(i)));
+          }
+        } else if (keys instanceof CategorySeries<?> cs) {
+          for (int i = from; i < to; i++) {
+            groupOf[i - from] = table.add(cs.getCode(i));
+          }
+        } else {
+          for (int i = from; i < to; i++) {
+            groupOf[i - from] = table.add(dictionary.code(keys.get(i)));
+          }
+        }
+      } else {
+        long[] key = new long[keyColumns.length];
+        for (int i = from; i < to; i++) {
+          for (int k = 0; k < key.length; k++) {
+            key[k] = code(k, i);
+          }
+          groupOf[i - from] = table.add(key);
+        }
+      }
+
+      int groups = table.size();
+      Map<String, double[]> values = new HashMap<>();
+      for (int a = 0; a < aggs.length; a++) {
+        Series<?> column = aggColumns[a];
+        states[a].resize(groups);
+        switch (states[a]) {
+          case Count count -> count.add(groupOf, column, from);
+          case ObjectState state -> state.add(groupOf, column, from);
+          case NumericState state -> state.add(groupOf,
+              values.computeIfAbsent(aggs[a].column, c -> Columns.toDoubleArray(column, from, to)));
+        }
+      }
+      return this;
+    }
+
+    private long code(int k, int row) {
+      Series<?> keys = keyColumns[k];
+      if (keys instanceof IntSeries is) {
+        return is.getInt(row);
+      } else if (keys instanceof LongSeries ls) {
+        return ls.getLong(row);
+      } else if (keys instanceof DoubleSeries ds) {
+        return Hashing.bits(ds.getDouble(row));
+      } else if (keys instanceof CategorySeries<?> cs) {
+        return cs.getCode(row);
+      }
+      return dictionaries[k].code(keys.get(row));
+    }
+
+    /**
+     * Add the groups of another partition to this one, translating its dictionary codes to ours
+     */
+    void merge(Partition other) {
+      int width = keyColumns.length;
+      int[][] translate = new int[width][];
+      for (int k = 0; k < width; k++) {
+        if (dictionaries[k] != null) {
+          List<Object> values = other.dictionaries[k].values();
+          translate[k] = new int[values.size()];
+          for (int c = 0; c < translate[k].length; c++) {
+            translate[k][c] = dictionaries[k].code(values.get(c));
+          }
+        }
+      }
+
+      int groups = other.table.size();
+      int[] groupOf = new int[groups];
+      long[] key = new long[width];
+      for (int g = 0; g < groups; g++) {
+        for (int k = 0; k < width; k++) {
+          long part = other.table.key(g, k);
+          key[k] = translate[k] != null ? translate[k][(int) part] : part;
+        }
+        groupOf[g] = table.add(key);
+      }
+
+      for (int a = 0; a < states.length; a++) {
+        states[a].resize(table.size());
+        states[a].merge(groupOf, other.states[a]);
+      }
+    }
+
+    DataFrame toDataFrame() {
+      int groups = table.size();
+      String[] names = new String[keyNames.length + aggs.length];
+      Series<?>[] columns = new Series<?>[names.length];
+
+      for (int k = 0; k < keyNames.length; k++) {
+        names[k] = keyNames[k];
+        columns[k] = keyColumn(k, groups);
+      }
+      for (int a = 0; a < aggs.length; a++) {
+        names[keyNames.length + a] = aggs[a].name;
+        columns[keyNames.length + a] = states[a].result(groups);
+      }
+      return DataFrame.byColumn(names).of(columns);
+    }
+
+    private Series<?> keyColumn(int k, int groups) {
+      Series<?> keys = keyColumns[k];
+      if (keys instanceof IntSeries) {
+        int[] values = new int[groups];
+        for (int g = 0; g < groups; g++) {
+          values[g] = (int) table.key(g, k);
+        }
+        return Series.ofInt(values);
+      } else if (keys instanceof LongSeries) {
+        long[] values = new long[groups];
+        for (int g = 0; g < groups; g++) {
+          values[g] = table.key(g, k);
+        }
+        return Series.ofLong(values);
+      } else if (keys instanceof DoubleSeries) {
+        double[] values = new double[groups];
+        for (int g = 0; g < groups; g++) {
+          values[g] = Double.longBitsToDouble(table.key(g, k));
+        }
+        return Series.ofDouble(values);
+      } else if (keys instanceof CategorySeries<?> cs) {
+        return categoryKeys(cs, k, groups);
+      }
+
+      List<Object> dictionary = dictionaries[k].values();
+      Object[] values = new Object[groups];
+      for (int g = 0; g < groups; g++) {
+        values[g] = dictionary.get((int) table.key(g, k));
+      }
+      return Columns.toSeries(values);
+    }
+
+    /**
+     * Group keys of a categorical column, sharing its dictionary
+     */
+    private <T> Series<T> categoryKeys(CategorySeries<T> keys, int k, int groups) {
+      int[] codes = new int[groups];
+      for (int g = 0; g < groups; g++) {
+        codes[g] = (int) table.key(g, k);
+      }
+      return keys.withCodes(codes);
+    }
+  }
+
+  /**
+   * The type of the key codes of a column: int, long, double or object values
+   */
+  private static String keyType(Series<?> series) {
+    if (series instanceof IntSeries) {
+      return "int";
+    } else if (series instanceof LongSeries) {
+      return "long";
+    } else if (series instanceof DoubleSeries) {
+      return "double";
+    }
+    return "object";
+  }
+
+  /**
+   * Whether the values of a column can be used as group keys as they are, without a dictionary. Categorical
+   * columns already have codes shared by all partitions.
+   */
+  private static boolean isEncoded(Series<?> series) {
+    return series instanceof IntSeries || series instanceof LongSeries || series instanceof DoubleSeries
+        || series instanceof CategorySeries;
+  }
+
+  /**
+   * Per-group state of one aggregation, in arrays indexed by group id. Each kind of state declares the one update
+   * it supports: numeric states take the values of a column as doubles, object states take the column itself.
+   */
+  private abstract static sealed class State permits Count, NumericState, ObjectState {
+
+    static State of(Agg agg) {
+      return switch (agg.kind) {
+        case COUNT -> new Count();
+        case SUM -> new Sum();
+        case MEAN -> new Mean();
+        case MIN -> new Extreme(true);
+        case MAX -> new Extreme(false);
+        case VARIANCE -> new Variance();
+        case DISTINCT -> new Distinct();
+        case QUANTILE -> new Quantile(agg.quantile);
+        case TOP -> new Top();
+      };
+    }
+
+    abstract void resize(int groups);
+
+    /**
+     * Merge the group g of another state into the group groupOf[g] of this one
+     */
+    abstract void merge(int[] groupOf, State other);
+
+    abstract Series<?> result(int groups);
+  }
+
+  private abstract static non-sealed class NumericState extends State {
+
+    /**
+     * Add the values of a partition, skipping NaNs
+     */
+    abstract void add(int[] groupOf, double[] values);
+  }
+
+  private abstract static non-sealed class ObjectState extends State {
+
+    /**
+     * Add the values of the rows [from, from + groupOf.length) of a column
+     */
+    abstract void add(int[] groupOf, Series<?> column, int from);
+  }
+
+  /**
+   * Rows per group, or non-null values of a column per group. NaN is null only in double columns.
+   */
+  private static final class Count extends State {
+
+    long[] counts = new long[0];
+
+    @Override
+    void resize(int groups) {
+      counts = Arrays.copyOf(counts, groups);
+    }
+
+    /**
+     * Count the rows [from, from + groupOf.length), or the non-null values of a column in them
+     */
+    void add(int[] groupOf, Series<?> column, int from) {
+      if (column == null || column instanceof IntSeries || column instanceof LongSeries
+          || column instanceof BooleanSeries) {
+        for (int g : groupOf) {
+          counts[g]++;
+        }
+      } else if (column instanceof DoubleSeries ds) {
+        for (int i = 0; i < groupOf.length; i++) {
+          if (!Double.isNaN(ds.getDouble(from + i))) {
+            counts[groupOf[i]]++;
+          }
+        }
+      } else {
+        for (int i = 0; i < groupOf.length; i++) {
+          if (column.get(from + i) != null) {
+            counts[groupOf[i]]++;
+          }
+        }
+      }
+    }
+
+    @Override
+    void merge(int[] groupOf, State other) {
+      long[] o = ((Count) other).counts;
+      for (int g = 0; g < groupOf.length; g++) {
+        counts[groupOf[g]] += o[g];
+      }
+    }
+
+    @Override
+    Series<?> result(int groups) {
+      return Series.ofLong(Arrays.copyOf(counts, groups));
+    }
+  }
+
+  private static class Sum extends NumericState {
+
+    double[] sums = new double[0];
+    long[] counts = new long[0];
+
+    @Override
+    void resize(int groups) {
+      sums = Arrays.copyOf(sums, groups);
+      counts = Arrays.copyOf(counts, groups);
+    }
+
+    @Override
+    void add(int[] groupOf, double[] values) {
+      for (int i = 0; i < groupOf.length; i++) {
+        double x = values[i];
+        if (!Double.isNaN(x)) {
+          sums[groupOf[i]] += x;
+          counts[groupOf[i]]++;
+        }
+      }
+    }
+
+    @Override
+    void merge(int[] groupOf, State other) {
+      Sum o = (Sum) other;
+      for (int g = 0; g < groupOf.length; g++) {
+        sums[groupOf[g]] += o.sums[g];
+        counts[groupOf[g]] += o.counts[g];
+      }
+    }
+
+    @Override
+    Series<?> result(int groups) {
+      return Series.ofDouble(Arrays.copyOf(sums, groups));
+    }
+  }
+
+  private static final class Mean extends Sum {
+
+    @Override
+    Series<?> result(int groups) {
+      double[] means = new double[groups];
+      for (int g = 0; g < groups; g++) {
+        means[g] = counts[g] > 0 ? sums[g] / counts[g] : Double.NaN;
+      }
+      return Series.ofDouble(means);
+    }
+  }
+
+  private static final class Extreme extends NumericState {
+
+    private final boolean min;
+    double[] values = new double[0];
+
+    Extreme(boolean min) {
+      this.min = min;
+    }
+
+    @Override
+    void resize(int groups) {
+      int size = values.length;
+      values = Arrays.copyOf(values, groups);
+      // NaN marks a group without values yet
+      Arrays.fill(values, size, groups, Double.NaN);
+    }
+
+    @Override
+    void add(int[] groupOf, double[] x) {
+      for (int i = 0; i < groupOf.length; i++) {
+        accept(groupOf[i], x[i]);
+      }
+    }
+
+    private void accept(int g, double x) {
+      double current = values[g];
+      if (Double.isNaN(current) || (min ? x < current : x > current)) {
+        if (!Double.isNaN(x)) {
+          values[g] = x;
+        }
+      }
+    }
+
+    @Override
+    void merge(int[] groupOf, State other) {
+      double[] o = ((Extreme) other).values;
+      for (int g = 0; g < groupOf.length; g++) {
+        accept(groupOf[g], o[g]);
+      }
+    }
+
+    @Override
+    Series<?> result(int groups) {
+      return Series.ofDouble(Arrays.copyOf(values, groups));
+    }
+  }
+
+  /**
+   * Welford's running mean and sum of squared differences per group, merged with Chan's formula
+   */
+  private static final class Variance extends NumericState {
+
+    long[] counts = new long[0];
+    double[] means = new double[0];
+    double[] m2 = new double[0];
+
+    @Override
+    void resize(int groups) {
+      counts = Arrays.copyOf(counts, groups);
+      means = Arrays.copyOf(means, groups);
+      m2 = Arrays.copyOf(m2, groups);
+    }
+
+    @Override
+    void add(int[] groupOf, double[] values) {
+      for (int i = 0; i < groupOf.length; i++) {
+        double x = values[i];
+        if (!Double.isNaN(x)) {
+          int g = groupOf[i];
+          long n = ++counts[g];
+          double delta = x - means[g];
+          means[g] += delta / n;
+          m2[g] += delta * (x - means[g]);
+        }
+      }
+    }
+
+    @Override
+    void merge(int[] groupOf, State other) {
+      Variance o = (Variance) other;
+      for (int g = 0; g < groupOf.length; g++) {
+        long n = o.counts[g];
+        if (n == 0) {
+          continue;
+        }
+        int t = groupOf[g];
+        long total = counts[t] + n;
+        double delta = o.means[g] - means[t];
+        means[t] += delta * n / total;
+        m2[t] += o.m2[g] + delta * delta * ((double) counts[t] * n / total);
+        counts[t] = total;
+      }
+    }
+
+    @Override
+    Series<?> result(int groups) {
+      double[] variance = new double[groups];
+      for (int g = 0; g < groups; g++) {
+        variance[g] = counts[g] > 1 ? m2[g] / (counts[g] - 1) : Double.NaN;
+      }
+      return Series.ofDouble(variance);
+    }
+  }
+
+  /**
+   * A {@link HyperLogLog} per group, created on the first value. Precision 10 keeps each sketch at 1 KB.
+   */
+  private static final class Distinct extends ObjectState {
+
+    private static final int PRECISION = 10;
+
+    HyperLogLog[] sketches = new HyperLogLog[0];
+    private ColumnHasher hasher;
+
+    @Override
+    void resize(int groups) {
+      sketches = Arrays.copyOf(sketches, groups);
+    }
+
+    @Override
+    void add(int[] groupOf, Series<?> column, int from) {
+      if (hasher == null || hasher.column() != column) {
+        hasher = new ColumnHasher(column);
+      }
+      long[] hashes = new long[groupOf.length];
+      int[] rows = new int[groupOf.length];
+      int n = hasher.hash(from, from + groupOf.length, hashes, rows);
+      for (int i = 0; i < n; i++) {
+        sketch(groupOf[rows[i]]).addHash(hashes[i]);
+      }
+    }
+
+    private HyperLogLog sketch(int g) {
+      HyperLogLog sketch = sketches[g];
+      if (sketch == null) {
+        sketch = sketches[g] = new HyperLogLog(PRECISION);
+      }
+      return sketch;
+    }
+
+    @Override
+    void merge(int[] groupOf, State other) {
+      HyperLogLog[] o = ((Distinct) other).sketches;
+      for (int g = 0; g < groupOf.length; g++) {
+        if (o[g] != null) {
+          sketch(groupOf[g]).merge(o[g]);
+        }
+      }
+    }
+
+    @Override
+    Series<?> result(int groups) {
+      long[] estimates = new long[groups];
+      for (int g = 0; g < groups; g++) {
+        estimates[g] = sketches[g] != null ? sketches[g].estimate() : 0;
+      }
+      return Series.ofLong(estimates);
+    }
+  }
+
+  /**
+   * A {@link TDigest} per group, created on the first value
+   */
+  private static final class Quantile extends NumericState {
+
+    private final double q;
+    TDigest[] digests = new TDigest[0];
+
+    Quantile(double q) {
+      this.q = q;
+    }
+
+    @Override
+    void resize(int groups) {
+      digests = Arrays.copyOf(digests, groups);
+    }
+
+    @Override
+    void add(int[] groupOf, double[] values) {
+      for (int i = 0; i < groupOf.length; i++) {
+        if (!Double.isNaN(values[i])) {
+          digest(groupOf[i]).add(values[i]);
+        }
+      }
+    }
+
+    private TDigest digest(int g) {
+      TDigest digest = digests[g];
+      if (digest == null) {
+        digest = digests[g] = new TDigest();
+      }
+      return digest;
+    }
+
+    @Override
+    void merge(int[] groupOf, State other) {
+      TDigest[] o = ((Quantile) other).digests;
+      for (int g = 0; g < groupOf.length; g++) {
+        if (o[g] != null) {
+          digest(groupOf[g]).merge(o[g]);
+        }
+      }
+    }
+
+    @Override
+    Series<?> result(int groups) {
+      double[] quantiles = new double[groups];
+      for (int g = 0; g < groups; g++) {
+        quantiles[g] = digests[g] != null ? digests[g].quantile(q) : Double.NaN;
+      }
+      return Series.ofDouble(quantiles);
+    }
+  }
+
+  /**
+   * A small {@link FrequencySketch} per group, created on the first value. Width 256 keeps each sketch at 8 KB,
+   * and estimates within 1% of the group size.
+   */
+  private static final class Top extends ObjectState {
+
+    private static final int WIDTH = 256;
+    private static final int CAPACITY = 8;
+
+    FrequencySketch[] sketches = new FrequencySketch[0];
+    private ColumnHasher hasher;
+
+    @Override
+    void resize(int groups) {
+      sketches = Arrays.copyOf(sketches, groups);
+    }
+
+    @Override
+    void add(int[] groupOf, Series<?> column, int from) {
+      if (hasher == null || hasher.column() != column) {
+        hasher = new ColumnHasher(column);
+      }
+      long[] hashes = new long[groupOf.length];
+      int[] rows = new int[groupOf.length];
+      int n = hasher.hash(from, from + groupOf.length, hashes, rows);
+      for (int i = 0; i < n; i++) {
+        FrequencySketch sketch = sketch(groupOf[rows[i]]);
+        if (sketch.increment(hashes[i])) {
+          sketch.offer(hashes[i], column.get(from + rows[i]));
+        }
+      }
+    }
+
+    private FrequencySketch sketch(int g) {
+      FrequencySketch sketch = sketches[g];
+      if (sketch == null) {
+        sketch = sketches[g] = new FrequencySketch(WIDTH, CAPACITY);
+      }
+      return sketch;
+    }
+
+    @Override
+    void merge(int[] groupOf, State other) {
+      FrequencySketch[] o = ((Top) other).sketches;
+      for (int g = 0; g < groupOf.length; g++) {
+        if (o[g] != null) {
+          sketch(groupOf[g]).merge(o[g]);
+        }
+      }
+    }
+
+    @Override
+    Series<?> result(int groups) {
+      Object[] top = new Object[groups];
+      for (int g = 0; g < groups; g++) {
+        List<Object> values = sketches[g] != null ? sketches[g].top(1) : List.of();
+        top[g] = values.isEmpty() ? null : values.get(0);
+      }
+      return Columns.toSeries(top);
+    }
+  }
+
+}
@@ -0,0 +1,511 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+import org.dflib.DoubleSeries;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Equi-join of two DataFrames on primitive-keyed hash tables. Keys are encoded as longs, like in
+ * {@link HashAggregator}: integers as is, doubles by their bits, other values by their code in a dictionary of the
+ * build side. The table is built on the smaller side and probed in parallel partitions of the other side. A build
+ * side of more than {@value #MAX_BUILD_ROWS} rows is radix-partitioned together with the probe side by key hash
+ * (grace hash join), so that every partition is joined with a small table of its own, in parallel.
+ * <p>
+ * Only row indices are collected during the join; the result columns are then selected by index, with -1 giving
+ * the nulls of unmatched left rows.
+ */
+final class HashJoin {
+
+  static final int MAX_BUILD_ROWS = 1 << 20;
+
+  private static final int MIN_PROBE_ROWS = 1 << 16;
+  private static final int MAX_PARTITION_BITS = 12;
+
+  private static final int LONG = 0;
+  private static final int DOUBLE = 1;
+  private static final int OBJECT = 2;
+
+  private final DataFrame left;
+  private final DataFrame right;
+  private final String[] on;
+  private final JoinKind how;
+  private final boolean buildLeft;
+  private final Keys buildKeys;
+  private final Keys probeKeys;
+
+  private HashJoin(DataFrame left, DataFrame right, String[] on, JoinKind how) {
+    if (on.length == 0) {
+      throw new IllegalArgumentException("At least one key column is required");
+    }
+    this.left = left;
+    this.right = right;
+    this.on = on;
+    this.how = how;
+    this.buildLeft = left.height() < right.height();
+
+    int[] modes = new int[on.length];
+    ValueDictionary[] dictionaries = new ValueDictionary[on.length];
+    for (int k = 0; k < on.length; k++) {
+      modes[k] = mode(left.getColumn(on[k]), right.getColumn(on[k]));
+      dictionaries[k] = modes[k] == OBJECT ? new ValueDictionary() : null;
+    }
+    this.buildKeys = new Keys(buildLeft ? left : right, on, modes, dictionaries);
+    this.probeKeys = new Keys(buildLeft ? right : left, on, modes, dictionaries);
+  }
+
+  static DataFrame join(DataFrame left, DataFrame right, String[] on, JoinKind how) {
+    return join(left, right, on, how, MAX_BUILD_ROWS);
+  }
+
+  /**
+   * Join, using grace hashing if the build side has more than maxBuildRows rows
+   */
+  static DataFrame join(DataFrame left, DataFrame right, String[] on, JoinKind how, int maxBuildRows) {
+    return new HashJoin(left, right, on, how).run(maxBuildRows);
+  }
+
+  /**
+   * Integer keys on both sides compare as longs, numbers of mixed types as doubles, anything else as objects
+   */
+  private static int mode(Series<?> a, Series<?> b) {
+    boolean integral = (a instanceof IntSeries || a instanceof LongSeries)
+        && (b instanceof IntSeries || b instanceof LongSeries);
+    if (integral) {
+      return LONG;
+    }
+    boolean numeric = (a instanceof IntSeries || a instanceof LongSeries || a instanceof DoubleSeries)
+        && (b instanceof IntSeries || b instanceof LongSeries || b instanceof DoubleSeries);
+    return numeric ? DOUBLE : OBJECT;
+  }
+
+  private DataFrame run(int maxBuildRows) {
+    int buildRows = buildKeys.rows;
+    buildKeys.fillDictionaries();
+    buildKeys.translateCategories();
+    probeKeys.translateCategories();
+
+    Pairs pairs;
+    if (buildRows <= maxBuildRows) {
+      pairs = joinInMemory();
+    } else {
+      int per = Math.max(1, maxBuildRows / 16);
+      int bits = 64 - Long.numberOfLeadingZeros((buildRows + per - 1) / per - 1);
+      pairs = joinPartitioned(Math.min(bits, MAX_PARTITION_BITS));
+    }
+    return select(pairs);
+  }
+
+  /**
+   * Build one table on the whole build side and probe it with contiguous ranges of the probe side
+   */
+  private Pairs joinInMemory() {
+    Table table = new Table(buildKeys, null, buildKeys.rows);
+
+    int probeRows = probeKeys.rows;
+    int cores = Runtime.getRuntime().availableProcessors();
+    int count = Math.max(1, Math.min(cores, probeRows / MIN_PROBE_ROWS));
+    int step = (probeRows + count - 1) / count;
+
+    Pairs[] parts = new Pairs[count];
+    Arrays.parallelSetAll(parts, p -> {
+      int from = p * step;
+      int to = Math.min(probeRows, from + step);
+      return probe(table, null, from, to);
+    });
+
+    // Probing the left side in order gives the pairs in left order, with unmatched rows in place
+    return buildLeft ? order(Pairs.concat(parts)) : Pairs.concat(parts);
+  }
+
+  /**
+   * Radix-partition both sides by the top bits of the key hash and join every pair of partitions on its own
+   */
+  private Pairs joinPartitioned(int bits) {
+    int[][] buildParts = buildKeys.partition(bits);
+    int[][] probeParts = probeKeys.partition(bits);
+
+    Pairs[] parts = new Pairs[1 << bits];
+    Arrays.parallelSetAll(parts, p -> {
+      Table table = new Table(buildKeys, buildParts[p], buildParts[p].length);
+      return probe(table, probeParts[p], 0, probeParts[p].length);
+    });
+
+    // Rows with null keys are in no partition, so unmatched left rows are added while ordering
+    return order(Pairs.concat(parts));
+  }
+
+  /**
+   * Probe the table with the probe rows at positions [from, to) of "rows" (or the rows [from, to) if null). Pairs
+   * are (left, right) rows. When the left side probes, a left join adds unmatched rows and a semi join only the
+   * first match.
+   */
+  private Pairs probe(Table table, int[] rows, int from, int to) {
+    Pairs pairs = new Pairs(to - from);
+    long[] key = new long[on.length];
+    boolean unmatched = !buildLeft && how == JoinKind.LEFT && rows == null;
+    boolean first = !buildLeft && how == JoinKind.SEMI;
+
+    for (int i = from; i < to; i++) {
+      int row = rows == null ? i : rows[i];
+      int match = probeKeys.encode(row, key) ? table.first(key) : -1;
+      if (match < 0) {
+        if (unmatched) {
+          pairs.add(row, -1);
+        }
+        continue;
+      }
+
+      for (; match >= 0; match = table.next(match)) {
+        int other = table.row(match);
+        if (buildLeft) {
+          pairs.add(other, row);
+        } else {
+          pairs.add(row, other);
+          if (first) {
+            break;
+          }
+        }
+      }
+    }
+    return pairs;
+  }
+
+  /**
+   * Stable counting sort of the pairs by left row, which keeps right rows ascending per left row. A left join adds
+   * unmatched left rows, and a semi join keeps one pair per left row.
+   */
+  private Pairs order(Pairs pairs) {
+    int leftRows = left.height();
+    int[] start = new int[leftRows + 1];
+    for (int i = 0; i < pairs.size; i++) {
+      start[pairs.left[i] + 1]++;
+    }
+
+    for (int r = 0; r < leftRows; r++) {
+      int count = start[r + 1];
+      if (how == JoinKind.LEFT && count == 0) {
+        count = 1;
+      } else if (how == JoinKind.SEMI && count > 1) {
+        count = 1;
+      }
+      start[r + 1] = start[r] + count;
+    }
+
+    int size = start[leftRows];
+    Pairs sorted = new Pairs(size);
+    sorted.size = size;
+    Arrays.fill(sorted.right, -1);
+    int[] next = Arrays.copyOf(start, leftRows);
+    for (int i = 0; i < pairs.size; i++) {
+      int l = pairs.left[i];
+      int at = next[l];
+      if (at < start[l + 1]) {
+        sorted.left[at] = l;
+        sorted.right[at] = pairs.right[i];
+        next[l]++;
+      }
+    }
+    for (int r = 0; r < leftRows; r++) {
+      if (next[r] < start[r + 1]) {
+        sorted.left[next[r]] = r;
+      }
+    }
+    return sorted;
+  }
+
+  private DataFrame select(Pairs pairs) {
+    IntSeries leftIndex = Series.ofInt(Arrays.copyOf(pairs.left, pairs.size));
+    String[] leftNames = left.getColumnsIndex().toArray();
+    if (how == JoinKind.SEMI) {
+      return left.rows(leftIndex).select();
+    }
+
+    IntSeries rightIndex = Series.ofInt(Arrays.copyOf(pairs.right, pairs.size));
+    Set<String> keys = new HashSet<>(Arrays.asList(on));
+    Set<String> names = new HashSet<>(Arrays.asList(leftNames));
+    String[] rightNames = Arrays.stream(right.getColumnsIndex().toArray())
+        .filter(name -> !keys.contains(name))
+        .toArray(String[]::new);
+
+    String[] resultNames = new String[leftNames.length + rightNames.length];
+    Series<?>[] columns = new Series<?>[resultNames.length];
+    for (int c = 0; c < leftNames.length; c++) {
+      resultNames[c] = leftNames[c];
+      columns[c] = left.getColumn(c).select(leftIndex);
+    }
+    for (int c = 0; c < rightNames.length; c++) {
+      String name = rightNames[c];
+      while (names.contains(name)) {
+        name = name + "_";
+      }
+      names.add(name);
+      resultNames[leftNames.length + c] = name;
+      columns[leftNames.length + c] = right.getColumn(rightNames[c]).select(rightIndex);
+    }
+    return DataFrame.byColumn(resultNames).of(columns);
+  }
+
+  /**
+   * Key columns of one side, encoded as longs in the mode shared with the other side
+   */
+  private static final class Keys {
+
+    final int rows;
+    private final Series<?>[] columns;
+    private final int[] modes;
+    private final ValueDictionary[] dictionaries;
+
+    // Dictionary code of every category of categorical key columns, so rows are encoded without hashing
+    private final int[][] categoryCodes;
+
+    Keys(DataFrame df, String[] on, int[] modes, ValueDictionary[] dictionaries) {
+      this.rows = df.height();
+      this.columns = new Series<?>[on.length];
+      for (int k = 0; k < on.length; k++) {
+        columns[k] = df.getColumn(on[k]);
+      }
+      this.modes = modes;
+      this.dictionaries = dictionaries;
+      this.categoryCodes = new int[on.length][];
+    }
+
+    /**
+     * Add all object keys to the dictionaries, so that both sides can be encoded in parallel
+     */
+    void fillDictionaries() {
+      for (int k = 0; k < columns.length; k++) {
+        if (dictionaries[k] != null && columns[k] instanceof CategorySeries<?> cs) {
+          for (int c = 0; c < cs.getCategoryCount(); c++) {
+            dictionaries[k].code(normalize(cs.getCategory(c)));
+          }
+        } else if (dictionaries[k] != null) {
+          for (int row = 0; row < rows; row++) {
+            Object value = columns[k].get(row);
+            if (value != null) {
+              dictionaries[k].code(normalize(value));
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Look up the dictionary codes of the categories of categorical key columns, once the dictionaries are filled
+     */
+    void translateCategories() {
+      for (int k = 0; k < columns.length; k++) {
+        if (dictionaries[k] != null && columns[k] instanceof CategorySeries<?> cs) {
+          categoryCodes[k] = new int[cs.getCategoryCount()];
+          for (int c = 0; c < categoryCodes[k].length; c++) {
+            categoryCodes[k][c] = dictionaries[k].find(normalize(cs.getCategory(c)));
+          }
+        }
+      }
+    }
+
+    /**
+     * Encode the key of a row, returning false if it cannot match: a null or NaN, or a value that is not in the
+     * dictionary of the build side
+     */
+    boolean encode(int row, long[] key) {
+      for (int k = 0; k < key.length; k++) {
+        Series<?> column = columns[k];
+        switch (modes[k]) {
+          case LONG -> key[k] = column instanceof IntSeries is ? is.getInt(row) : ((LongSeries) column).getLong(row);
+          case DOUBLE -> {
+            double x = column instanceof DoubleSeries ds ? ds.getDouble(row)
+                : column instanceof IntSeries is ? is.getInt(row) : ((LongSeries) column).getLong(row);
+            if (Double.isNaN(x)) {
+              return false;
+            }
+            key[k] = Hashing.bits(x);
+          }
+          default -> {
+            if (categoryCodes[k] != null) {
+              int category = ((CategorySeries<?>) column).getCode(row);
+              int code = category >= 0 ? categoryCodes[k][category] : -1;
+              if (code < 0) {
+                return false;
+              }
+              key[k] = code;
+              continue;
+            }
+            Object value = column.get(row);
+            int code = value != null ? dictionaries[k].find(normalize(value)) : -1;
+            if (code < 0) {
+              return false;
+            }
+            key[k] = code;
+          }
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Row ids of every partition, by the top bits of the key hash. Rows whose key cannot match are left out.
+     */
+    int[][] partition(int bits) {
+      int count = 1 << bits;
+      int cores = Runtime.getRuntime().availableProcessors();
+      int chunks = Math.max(1, Math.min(cores, rows / MIN_PROBE_ROWS));
+      int step = (rows + chunks - 1) / chunks;
+
+      // Histogram per chunk in parallel, then every chunk scatters its rows into its own slice of each partition
+      int[][] histograms = new int[chunks][];
+      Arrays.parallelSetAll(histograms, c -> {
+        int[] histogram = new int[count];
+        long[] key = new long[columns.length];
+        for (int row = c * step, to = Math.min(rows, row + step); row < to; row++) {
+          if (encode(row, key)) {
+            histogram[partitionOf(key, bits)]++;
+          }
+        }
+        return histogram;
+      });
+
+      int[][] partitions = new int[count][];
+      int[][] offsets = new int[chunks][count];
+      for (int p = 0; p < count; p++) {
+        int size = 0;
+        for (int c = 0; c < chunks; c++) {
+          offsets[c][p] = size;
+          size += histograms[c][p];
+        }
+        partitions[p] = new int[size];
+      }
+
+      IntStream.range(0, chunks).parallel().forEach(c -> {
+        int[] at = offsets[c];
+        long[] key = new long[columns.length];
+        for (int row = c * step, to = Math.min(rows, row + step); row < to; row++) {
+          if (encode(row, key)) {
+            int p = partitionOf(key, bits);
+            partitions[p][at[p]++] = row;
+          }
+        }
+      });
+      return partitions;
+    }
+
+    private static int partitionOf(long[] key, int bits) {
+      return bits == 0 ? 0 : (int) (GroupTable.hash(key) >>> (64 - bits));
+    }
+
+    /**
+     * Numbers in object columns compare by value, whatever their boxed type
+     */
+    private static Object normalize(Object value) {
+      if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+        return ((Number) value).longValue();
+      } else if (value instanceof Float f) {
+        return f.doubleValue();
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Hash table from keys to the build rows holding them, as a chain per key in ascending row order
+   */
+  private static final class Table {
+
+    private final GroupTable groups;
+    private final int[] rows;
+    private final int[] next;
+    // Position + 1 of the first row of every group
+    private int[] first;
+
+    /**
+     * @param rows build rows to add, or null for the rows [0, size)
+     */
+    Table(Keys keys, int[] rows, int size) {
+      this.groups = new GroupTable(keys.columns.length, Math.min(size, 1 << 16));
+      this.rows = rows;
+      this.next = new int[size];
+      this.first = new int[16];
+
+      // Adding rows last to first leaves every chain in ascending order
+      long[] key = new long[keys.columns.length];
+      for (int i = size - 1; i >= 0; i--) {
+        int row = rows == null ? i : rows[i];
+        if (!keys.encode(row, key)) {
+          continue;
+        }
+        int group = groups.add(key);
+        if (group == first.length) {
+          first = Arrays.copyOf(first, first.length * 2);
+        }
+        next[i] = first[group] - 1;
+        first[group] = i + 1;
+      }
+    }
+
+    /**
+     * Position of the first build row with the key, or -1
+     */
+    int first(long[] key) {
+      int group = groups.find(key);
+      return group < 0 ? -1 : first[group] - 1;
+    }
+
+    /**
+     * Position of the next build row with the same key, or -1
+     */
+    int next(int position) {
+      return next[position];
+    }
+
+    int row(int position) {
+      return rows == null ? position : rows[position];
+    }
+  }
+
+  /**
+   * Growable pairs of (left, right) row indices
+   */
+  private static final class Pairs {
+
+    int[] left;
+    int[] right;
+    int size;
+
+    Pairs(int capacity) {
+      this.left = new int[Math.max(16, capacity)];
+      this.right = new int[left.length];
+    }
+
+    void add(int l, int r) {
+      if (size == left.length) {
+        left = Arrays.copyOf(left, size * 2);
+        right = Arrays.copyOf(right, size * 2);
+      }
+      left[size] = l;
+      right[size++] = r;
+    }
+
+    static Pairs concat(Pairs[] parts) {
+      if (parts.length == 1) {
+        return parts[0];
+      }
+      int size = 0;
+      for (Pairs p : parts) {
+        size += p.size;
+      }
+      Pairs all = new Pairs(size);
+      for (Pairs p : parts) {
+        System.arraycopy(p.left, 0, all.left, all.size, p.size);
+        System.arraycopy(p.right, 0, all.right, all.size, p.size);
+        all.size += p.size;
+      }
+      return all;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package org.jjavaglue.dflib;
+
+/**
+ * 64-bit hashing of column values, for hash tables and sketches that need well-mixed bits (a plain
+ * {@link Object#hashCode()} has only 32 bits and maps many common keys to nearby values).
+ */
+final class Hashing {
+
+  private Hashing() {
+  }
+
+  /**
+   * SplitMix64 finalizer: a bijective mix of all 64 bits
+   */
+  static long mix(long x) {
+    x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+    x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+    return x ^ (x >>> 31);
+  }
+
+  static long hash(long value) {
+    return mix(value);
+  }
+
+  /**
+   * Hash of a double. All NaNs hash alike, and so do 0.0 and -0.0, as they compare equal.
+   */
+  static long hash(double value) {
+    return mix(bits(value));
+  }
+
+  /**
+   * Canonical bits of a double for use as a key
+   */
+  static long bits(double value) {
+    return value == 0 ? 0 : Double.doubleToLongBits(value);
+  }
+
+  /**
+   * Hash of any value. Numbers hash by value, so an Integer and a Long that are equal hash alike; strings hash
+   * by their characters with FNV-1a, which is stable across JVM runs.
+   */
+  static long hash(Object value) {
+    if (value == null) {
+      return 0;
+    } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+        || value instanceof Byte) {
+      return mix(((Number) value).longValue());
+    } else if (value instanceof Double || value instanceof Float) {
+      return hash(((Number) value).doubleValue());
+    } else if (value instanceof CharSequence text) {
+      long h = 0xcbf29ce484222325L;
+      for (int i = 0; i < text.length(); i++) {
+        h = (h ^ text.charAt(i)) * 0x100000001b3L;
+      }
+      return mix(h);
+    }
+    return mix(value.hashCode());
+  }
+}
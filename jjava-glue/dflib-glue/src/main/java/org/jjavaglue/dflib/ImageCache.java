@@ -0,0 +1,144 @@
+package org.jjavaglue.dflib;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Base64 payloads of image files, streamed from disk without decoding the images, and kept in a least recently used
+ * cache within a budget of bytes. The MIME type of a file is sniffed from its header by the ImageIO reader that
+ * recognizes it. An entry is keyed by path and only reused while the file has the same modification time and size,
+ * so a lookup costs one stat of the file.
+ */
+final class ImageCache {
+
+  static final long DEFAULT_BUDGET = 64L << 20;
+
+  private final Map<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long budget;
+  private long bytes;
+
+  ImageCache(long budget) {
+    setBudget(budget);
+  }
+
+  /**
+   * MIME type and base64 of the contents of a file, from the cache if the file is unchanged, or null if the file
+   * is not an image that ImageIO can read
+   */
+  Image get(Path file) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    long modified = attributes.lastModifiedTime().toMillis();
+    long size = attributes.size();
+    synchronized (this) {
+      Entry entry = entries.get(file);
+      if (entry != null && entry.modified == modified && entry.size == size) {
+        return entry.image;
+      }
+    }
+
+    String mimeType = mimeType(file);
+    if (mimeType == null) {
+      return null;
+    }
+    Image image = new Image(mimeType, encode(file, size));
+    synchronized (this) {
+      Entry previous = entries.remove(file);
+      if (previous != null) {
+        bytes -= previous.bytes();
+      }
+      Entry entry = new Entry(modified, size, image);
+      if (entry.bytes() <= budget) {
+        entries.put(file, entry);
+        bytes += entry.bytes();
+        evict();
+      }
+    }
+    return image;
+  }
+
+  /**
+   * MIME type of the first ImageIO reader that recognizes the header of a file
+   */
+  private static String mimeType(Path file) throws IOException {
+    try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+      Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+      if (readers == null || !readers.hasNext()) {
+        return null;
+      }
+      String[] types = readers.next().getOriginatingProvider().getMIMETypes();
+      return types != null && types.length > 0 ? types[0] : null;
+    }
+  }
+
+  /**
+   * Stream a file through a Base64 encoder into a buffer of the exact encoded size
+   */
+  private static String encode(Path file, long size) throws IOException {
+    if (size > Integer.MAX_VALUE / 4 * 3) {
+      throw new IOException("Image file too large to display: " + file);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream((int) ((size + 2) / 3 * 4));
+    try (OutputStream encoder = Base64.getEncoder().wrap(out)) {
+      Files.copy(file, encoder);
+    }
+    // Base64 is ASCII, which Java strings store one byte per character
+    return out.toString(StandardCharsets.ISO_8859_1);
+  }
+
+  synchronized void setBudget(long budget) {
+    if (budget < 0) {
+      throw new IllegalArgumentException("Cache budget must not be negative: " + budget);
+    }
+    this.budget = budget;
+    evict();
+  }
+
+  synchronized long bytes() {
+    return bytes;
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  synchronized void clear() {
+    entries.clear();
+    bytes = 0;
+  }
+
+  /**
+   * Drop the least recently used entries until the cache fits its budget
+   */
+  private void evict() {
+    Iterator<Entry> it = entries.values().iterator();
+    while (bytes > budget && it.hasNext()) {
+      bytes -= it.next().bytes();
+      it.remove();
+    }
+  }
+
+  /**
+   * An image file as displayed in a notebook
+   */
+  record Image(String mimeType, String base64) {
+  }
+
+  private record Entry(long modified, long size, Image image) {
+
+    long bytes() {
+      return image.base64.length();
+    }
+  }
+}
@@ -0,0 +1,466 @@
+package org.jjavaglue.dflib;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.IntStream;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Image resizing over packed ARGB int[] pixels, of any image type. Large reductions are first halved with 2x2 box
+ * averages, four channels at a time in an int, until within 4x of the target size. A separable Lanczos filter with
+ * 3 lobes then resamples rows and columns of each channel plane, with 14-bit fixed point weights. Pixels with
+ * alpha are filtered premultiplied, so that transparent colors do not bleed. Each pass runs over parallel bands of
+ * rows.
+ * <p>
+ * Pixel buffers and channel planes, including the pixels of resized images, come from a small pool:
+ * {@link #release(BufferedImage)} returns the buffer of an image that is no longer used, e.g. once encoded.
+ */
+final class ImageResizer {
+
+  private static final int LOBES = 3;
+  private static final int WEIGHT_BITS = 14;
+  private static final int BAND_ROWS = 32;
+
+  // Pooled pixel buffers, up to 64 MB in all
+  private static final long POOL_INTS = 1 << 24;
+  private static final ArrayDeque<int[]> POOL = new ArrayDeque<>();
+  private static long pooled;
+
+  // Pooled channel planes, as arrays of rows, up to 64 MB in all
+  private static final ArrayDeque<int[][]> PLANES = new ArrayDeque<>();
+  private static long pooledPlanes;
+
+  private ImageResizer() {
+  }
+
+  /**
+   * Resize an image to width x height pixels. The result is TYPE_INT_ARGB if the image has alpha, and
+   * TYPE_INT_RGB otherwise.
+   */
+  static BufferedImage resize(BufferedImage image, int width, int height) {
+    return image(resizePixels(image, width, height), width, height, image.getColorModel().hasAlpha());
+  }
+
+  /**
+   * Resize an image to width x height ARGB pixels, in a pooled buffer that may be longer. The buffer can be
+   * returned to the pool by {@link #release(int[])} once used.
+   */
+  static int[] resizePixels(BufferedImage image, int width, int height) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Image size must be positive: " + width + "x" + height);
+    }
+    boolean alpha = image.getColorModel().hasAlpha();
+    int w = image.getWidth();
+    int h = image.getHeight();
+    int[] pixels = pixels(image, alpha);
+    while (w >= 4 * width && h >= 4 * height) {
+      int[] half = halve(pixels, w, h);
+      release(pixels);
+      pixels = half;
+      w /= 2;
+      h /= 2;
+    }
+
+    int[] resized;
+    if (w == width && h == height) {
+      resized = pixels;
+    } else {
+      resized = lanczos(pixels, w, h, width, height, alpha);
+      release(pixels);
+    }
+    if (alpha) {
+      unpremultiply(resized, width * height);
+    }
+    return resized;
+  }
+
+  /**
+   * Read an image file with source subsampling: every n-th pixel of every n-th row, where n is given by the width
+   * and height of the image, so that full resolution pixels are never held. Returns null if no ImageIO reader
+   * recognizes the file.
+   */
+  static BufferedImage read(Path file, IntBinaryOperator subsampling) throws IOException {
+    try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+      Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+      if (readers == null || !readers.hasNext()) {
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(in, true, true);
+        int step = Math.max(1, subsampling.applyAsInt(reader.getWidth(0), reader.getHeight(0)));
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(step, step, 0, 0);
+        return reader.read(0, param);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * Return the pixel buffer of an image made by {@link #resize} to the pool. The image must no longer be used.
+   */
+  static void release(BufferedImage image) {
+    if (image.getRaster().getDataBuffer() instanceof DataBufferInt buffer) {
+      release(buffer.getData());
+    }
+  }
+
+  /**
+   * Pixels of an image as ARGB, premultiplied if "alpha", read directly from the rasters of common image types
+   */
+  private static int[] pixels(BufferedImage image, boolean alpha) {
+    int w = image.getWidth();
+    int h = image.getHeight();
+    int[] pixels = borrow(w * h);
+    Raster raster = image.getRaster();
+    int type = image.getType();
+    boolean whole = raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0
+        && raster.getDataBuffer().getOffset() == 0;
+
+    if (whole && (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+        && ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride() == w) {
+      int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+      int opaque = type == BufferedImage.TYPE_INT_RGB ? 0xFF000000 : 0;
+      bands(h).forEach(b -> {
+        for (int i = b * BAND_ROWS * w, to = Math.min(h, (b + 1) * BAND_ROWS) * w; i < to; i++) {
+          pixels[i] = data[i] | opaque;
+        }
+      });
+    } else if (whole && (type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_4BYTE_ABGR)
+        && ((ComponentSampleModel) raster.getSampleModel()).getScanlineStride() == w * raster.getNumBands()) {
+      byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+      boolean abgr = type == BufferedImage.TYPE_4BYTE_ABGR;
+      bands(h).forEach(b -> {
+        int stride = abgr ? 4 : 3;
+        for (int i = b * BAND_ROWS * w, to = Math.min(h, (b + 1) * BAND_ROWS) * w; i < to; i++) {
+          int j = i * stride;
+          int a = abgr ? data[j++] & 0xFF : 0xFF;
+          pixels[i] = a << 24 | (data[j + 2] & 0xFF) << 16 | (data[j + 1] & 0xFF) << 8 | data[j] & 0xFF;
+        }
+      });
+    } else {
+      // Other types, including TYPE_CUSTOM, are converted by their color model
+      bands(h).forEach(b -> {
+        int from = b * BAND_ROWS;
+        image.getRGB(0, from, w, Math.min(h, from + BAND_ROWS) - from, pixels, from * w, w);
+      });
+    }
+    if (alpha) {
+      bands(h).forEach(b -> premultiply(pixels, b * BAND_ROWS * w, Math.min(h, (b + 1) * BAND_ROWS) * w));
+    }
+    return pixels;
+  }
+
+  private static void premultiply(int[] pixels, int from, int to) {
+    for (int i = from; i < to; i++) {
+      int p = pixels[i];
+      int a = p >>> 24;
+      pixels[i] = a << 24 | scale(p >>> 16 & 0xFF, a) << 16 | scale(p >>> 8 & 0xFF, a) << 8 | scale(p & 0xFF, a);
+    }
+  }
+
+  /**
+   * c * a / 255, rounded
+   */
+  private static int scale(int c, int a) {
+    int x = c * a + 128;
+    return (x + (x >>> 8)) >>> 8;
+  }
+
+  private static void unpremultiply(int[] pixels, int n) {
+    IntStream.range(0, (n + BAND_ROWS * 1024 - 1) / (BAND_ROWS * 1024)).parallel().forEach(b -> {
+      for (int i = b * BAND_ROWS * 1024, to = Math.min(n, (b + 1) * BAND_ROWS * 1024); i < to; i++) {
+        int p = pixels[i];
+        int a = p >>> 24;
+        if (a != 0 && a != 0xFF) {
+          int half = a / 2;
+          int r = Math.min(255, ((p >>> 16 & 0xFF) * 255 + half) / a);
+          int g = Math.min(255, ((p >>> 8 & 0xFF) * 255 + half) / a);
+          int bl = Math.min(255, ((p & 0xFF) * 255 + half) / a);
+          pixels[i] = a << 24 | r << 16 | g << 8 | bl;
+        }
+      }
+    });
+  }
+
+  /**
+   * Average 2x2 blocks of pixels into an image of half the width and height. Channels are summed in parallel
+   * within an int, two at a time in 16-bit lanes.
+   */
+  private static int[] halve(int[] pixels, int w, int h) {
+    int hw = w / 2;
+    int hh = h / 2;
+    int[] half = borrow(hw * hh);
+    bands(hh).forEach(b -> {
+      for (int y = b * BAND_ROWS, to = Math.min(hh, (b + 1) * BAND_ROWS); y < to; y++) {
+        int top = 2 * y * w;
+        int bottom = top + w;
+        int out = y * hw;
+        for (int x = 0; x < hw; x++) {
+          int p0 = pixels[top + 2 * x];
+          int p1 = pixels[top + 2 * x + 1];
+          int p2 = pixels[bottom + 2 * x];
+          int p3 = pixels[bottom + 2 * x + 1];
+          int rb = (p0 & 0xFF00FF) + (p1 & 0xFF00FF) + (p2 & 0xFF00FF) + (p3 & 0xFF00FF) + 0x20002;
+          int ag = (p0 >>> 8 & 0xFF00FF) + (p1 >>> 8 & 0xFF00FF) + (p2 >>> 8 & 0xFF00FF) + (p3 >>> 8 & 0xFF00FF)
+              + 0x20002;
+          half[out + x] = (ag << 6 & 0xFF00FF00) | (rb >>> 2 & 0xFF00FF);
+        }
+      }
+    });
+    return half;
+  }
+
+  /**
+   * Resample w x h pixels to width x height, one channel at a time, alpha first. Both passes resample the rows of a
+   * plane, as whole rows weighted and summed, and the plane is transposed between them. Planes are pooled arrays of
+   * rows, at most two of them in use at a time, so that summing rows indexes both alike, which the JIT compiler
+   * vectorizes. The first pass keeps 6 more bits than the 8 of a channel.
+   */
+  private static int[] lanczos(int[] pixels, int w, int h, int width, int height, boolean alpha) {
+    Kernel rows = new Kernel(h, height);
+    Kernel columns = new Kernel(w, width);
+    int[] shifts = alpha ? new int[]{24, 16, 8, 0} : new int[]{16, 8, 0};
+    int[] out = borrow(width * height);
+    for (int c = 0; c < shifts.length; c++) {
+      int shift = shifts[c];
+      boolean first = c == 0;
+      int[][] plane = borrowPlane(h, w);
+      bands(h).forEach(b -> {
+        for (int y = b * BAND_ROWS, to = Math.min(h, (b + 1) * BAND_ROWS); y < to; y++) {
+          int[] row = plane[y];
+          for (int x = 0, i = y * w; x < w; x++, i++) {
+            row[x] = pixels[i] >>> shift & 0xFF;
+          }
+        }
+      });
+      int[][] resampled = resampleRows(plane, height, rows);
+      release(plane);
+      int[][] tall = transpose(resampled, WEIGHT_BITS - 6);
+      release(resampled);
+      resampled = resampleRows(tall, width, columns);
+      release(tall);
+      int[][] channel = transpose(resampled, WEIGHT_BITS + 6);
+      release(resampled);
+
+      bands(height).forEach(b -> {
+        for (int y = b * BAND_ROWS, to = Math.min(height, (b + 1) * BAND_ROWS); y < to; y++) {
+          int[] row = channel[y];
+          for (int x = 0, i = y * width; x < width; x++, i++) {
+            // Clamp the overshoot of negative lobes, and keep premultiplied colors within alpha
+            if (shift == 24) {
+              out[i] = Math.min(255, Math.max(0, row[x])) << 24;
+            } else {
+              int p = first ? 0xFF000000 : out[i];
+              out[i] = p | Math.min(p >>> 24, Math.max(0, row[x])) << shift;
+            }
+          }
+        }
+      });
+      release(channel);
+    }
+    return out;
+  }
+
+  /**
+   * Resample the rows of a plane to "height" rows, by the weights of a kernel, into a pooled plane
+   */
+  private static int[][] resampleRows(int[][] plane, int height, Kernel kernel) {
+    int width = plane[0].length;
+    int[][] out = borrowPlane(height, width);
+    bands(height).forEach(b -> {
+      int[] starts = kernel.starts;
+      int[] weights = kernel.weights;
+      int taps = kernel.taps;
+      for (int y = b * BAND_ROWS, to = Math.min(height, (b + 1) * BAND_ROWS); y < to; y++) {
+        int[] row = out[y];
+        Arrays.fill(row, 0);
+        for (int t = 0; t < taps; t++) {
+          int weight = weights[y * taps + t];
+          if (weight != 0) {
+            int[] source = plane[starts[y] + t];
+            for (int x = 0; x < width; x++) {
+              row[x] += source[x] * weight;
+            }
+          }
+        }
+      }
+    });
+    return out;
+  }
+
+  /**
+   * Transpose a plane into a pooled plane, dividing its values by 2^shift, rounded. Copies square tiles, so that
+   * both planes are accessed a few cache lines at a time.
+   */
+  private static int[][] transpose(int[][] plane, int shift) {
+    int h = plane.length;
+    int w = plane[0].length;
+    int[][] out = borrowPlane(w, h);
+    int round = 1 << (shift - 1);
+    int tile = 16;
+    IntStream.range(0, (h + tile - 1) / tile).parallel().forEach(ty -> {
+      int y0 = ty * tile;
+      int y1 = Math.min(h, y0 + tile);
+      for (int x0 = 0; x0 < w; x0 += tile) {
+        int x1 = Math.min(w, x0 + tile);
+        for (int y = y0; y < y1; y++) {
+          int[] row = plane[y];
+          for (int x = x0; x < x1; x++) {
+            out[x][y] = (row[x] + round) >> shift;
+          }
+        }
+      }
+    });
+    return out;
+  }
+
+  private static IntStream bands(int rows) {
+    return IntStream.range(0, (rows + BAND_ROWS - 1) / BAND_ROWS).parallel();
+  }
+
+  private static BufferedImage image(int[] pixels, int width, int height, boolean alpha) {
+    DataBufferInt buffer = new DataBufferInt(pixels, width * height);
+    int[] masks = alpha
+        ? new int[]{0xFF0000, 0xFF00, 0xFF, 0xFF000000}
+        : new int[]{0xFF0000, 0xFF00, 0xFF};
+    WritableRaster raster = Raster.createPackedRaster(buffer, width, height, width, masks, null);
+    ColorModel model = alpha ? ColorModel.getRGBdefault() : new DirectColorModel(24, 0xFF0000, 0xFF00, 0xFF);
+    return new BufferedImage(model, raster, false, null);
+  }
+
+  /**
+   * A pooled buffer of at least n ints, with arbitrary contents
+   */
+  private static int[] borrow(int n) {
+    synchronized (POOL) {
+      Iterator<int[]> it = POOL.iterator();
+      while (it.hasNext()) {
+        int[] buffer = it.next();
+        // Only reuse a buffer that is not much larger than needed
+        if (buffer.length >= n && buffer.length / 2 <= n) {
+          it.remove();
+          pooled -= buffer.length;
+          return buffer;
+        }
+      }
+    }
+    return new int[n];
+  }
+
+  static void release(int[] buffer) {
+    synchronized (POOL) {
+      if (buffer.length > POOL_INTS) {
+        return;
+      }
+      POOL.addLast(buffer);
+      pooled += buffer.length;
+      while (pooled > POOL_INTS) {
+        pooled -= POOL.removeFirst().length;
+      }
+    }
+  }
+
+  /**
+   * A pooled plane of exactly "rows" rows of "width" ints, with arbitrary contents. Planes are reused only at the
+   * same size, which is what the passes over images of one size need.
+   */
+  private static int[][] borrowPlane(int rows, int width) {
+    synchronized (PLANES) {
+      Iterator<int[][]> it = PLANES.iterator();
+      while (it.hasNext()) {
+        int[][] plane = it.next();
+        if (plane.length == rows && plane[0].length == width) {
+          it.remove();
+          pooledPlanes -= (long) rows * width;
+          return plane;
+        }
+      }
+    }
+    return new int[rows][width];
+  }
+
+  private static void release(int[][] plane) {
+    long size = (long) plane.length * plane[0].length;
+    synchronized (PLANES) {
+      if (size > POOL_INTS) {
+        return;
+      }
+      PLANES.addLast(plane);
+      pooledPlanes += size;
+      while (pooledPlanes > POOL_INTS) {
+        int[][] evicted = PLANES.removeFirst();
+        pooledPlanes -= (long) evicted.length * evicted[0].length;
+      }
+    }
+  }
+
+  /**
+   * Lanczos weights of the source pixels of every target pixel: "taps" weights from "starts", summing to 1 in
+   * fixed point. Source pixels beyond the edges are dropped, and the weights of the others renormalized.
+   */
+  private static final class Kernel {
+
+    final int taps;
+    final int[] starts;
+    final int[] weights;
+
+    Kernel(int source, int target) {
+      double scale = source / (double) target;
+      // Widen the filter when reducing, so that it averages all source pixels under a target pixel
+      double stretch = Math.max(1, scale);
+      double support = LOBES * stretch;
+      taps = Math.min(source, (int) Math.ceil(2 * support) + 1);
+      starts = new int[target];
+      weights = new int[target * taps];
+      double[] w = new double[taps];
+      for (int x = 0; x < target; x++) {
+        double center = (x + 0.5) * scale - 0.5;
+        int start = Math.max(0, Math.min(source - taps, (int) Math.ceil(center - support)));
+        starts[x] = start;
+        double sum = 0;
+        for (int t = 0; t < taps; t++) {
+          double d = (start + t - center) / stretch;
+          w[t] = Math.abs(d) < LOBES ? lanczos(d) : 0;
+          sum += w[t];
+        }
+        int total = 0;
+        int largest = 0;
+        for (int t = 0; t < taps; t++) {
+          int weight = (int) Math.round(w[t] / sum * (1 << WEIGHT_BITS));
+          weights[x * taps + t] = weight;
+          total += weight;
+          largest = weight > weights[x * taps + largest] ? t : largest;
+        }
+        // Fold the rounding error into the largest weight, so that flat areas stay exactly flat
+        weights[x * taps + largest] += (1 << WEIGHT_BITS) - total;
+      }
+    }
+
+    private static double lanczos(double d) {
+      if (d == 0) {
+        return 1;
+      }
+      double x = Math.PI * d;
+      return LOBES * Math.sin(x) * Math.sin(x / LOBES) / (x * x);
+    }
+  }
+}
@@ -4,61 +4,44 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 import javax.imageio.ImageIO;
 import org.dflib.jjava.jupyter.kernel.display.DisplayData;
 
 /**
- * Utility class for displaying images in Jupyter notebooks with JJava kernel.
+ * Utility class for displaying images in Jupyter notebooks with JJava kernel, and for preparing them for models.
  */
 public class ImageUtil {
 
+  private static final ImageCache CACHE = new ImageCache(ImageCache.DEFAULT_BUDGET);
+
   /**
-   * Display an image file directly in the notebook.
+   * Display an image file directly in the notebook. The file is not decoded: its bytes are streamed into the
+   * base64 payload as they are, so animated GIFs keep their frames. Payloads are cached by path while the file keeps
+   * its modification time and size, so displaying the same images again only costs a lookup.
    *
    * @param path Path to the image file
    * @return DisplayData object that can be returned from a notebook cell
    */
   public static DisplayData displayImage(String path) {
     try {
-      // Resolve file path
-      File file = new File(path);
-      if (!file.isAbsolute()) {
-        file = new File(System.getProperty("user.dir"), path);
-      }
-
+      File file = resolve(path);
       if (!file.exists()) {
         System.err.println("Image file not found: " + file.getAbsolutePath());
         return new DisplayData("Image not found: " + path);
       }
 
-      // Determine image format from file extension
-      String fileName = file.getName();
-      String format = "png"; // Default format
-      int lastDotIndex = fileName.lastIndexOf('.');
-      if (lastDotIndex >= 0 && lastDotIndex < fileName.length() - 1) {
-        format = fileName.substring(lastDotIndex + 1).toLowerCase();
-        // Handle jpg vs jpeg
-        if (format.equals("jpg")) format = "jpeg";
-      }
-
-      // Load the image
-      BufferedImage image = ImageIO.read(file);
+      ImageCache.Image image = CACHE.get(file.toPath());
       if (image == null) {
         System.err.println("Failed to read image: " + file.getAbsolutePath());
         return new DisplayData("Failed to read image: " + path);
       }
 
-      // Convert to base64
-      ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-      ImageIO.write(image, format, byteStream);
-      byte[] imageBytes = byteStream.toByteArray();
-      String base64 = Base64.getEncoder().encodeToString(imageBytes);
-
-      // Create DisplayData with the image
       DisplayData displayData = new DisplayData();
-      displayData.putData("image/" + format, base64);
-
+      displayData.putData(image.mimeType(), image.base64());
       return displayData;
     } catch (IOException e) {
       System.err.println("Error displaying image: " + e.getMessage());
@@ -68,7 +51,30 @@ public class ImageUtil {
   }
 
   /**
-   * Display an image file with custom dimensions.
+   * Set the number of bytes of base64 payloads kept for displaying images again, 64 MB by default. The least
+   * recently displayed images are dropped first; 0 disables the cache.
+   *
+   * @param bytes Cache budget in bytes
+   */
+  public static void setImageCacheBudget(long bytes) {
+    CACHE.setBudget(bytes);
+  }
+
+  /**
+   * Drop all cached image payloads
+   */
+  public static void clearImageCache() {
+    CACHE.clear();
+  }
+
+  private static File resolve(String path) {
+    File file = new File(path);
+    return file.isAbsolute() ? file : new File(System.getProperty("user.dir"), path);
+  }
+
+  /**
+   * Display an image file with custom dimensions. Images other than GIFs are resized with a Lanczos filter,
+   * whatever their type.
    *
    * @param path Path to the image file
    * @param width Width in pixels (use -1 to maintain aspect ratio)
@@ -77,11 +83,7 @@ public class ImageUtil {
    */
   public static DisplayData displayImage(String path, int width, int height) {
     try {
-      // Resolve file path
-      File file = new File(path);
-      if (!file.isAbsolute()) {
-        file = new File(System.getProperty("user.dir"), path);
-      }
+      File file = resolve(path);
 
       if (!file.exists()) {
         System.err.println("Image file not found: " + file.getAbsolutePath());
@@ -111,10 +113,10 @@ public class ImageUtil {
 
       if (width == -1 && height != -1) {
         // Calculate width based on height to maintain aspect ratio
-        width = (int) (originalWidth * (height / (double) originalHeight));
+        width = Math.max(1, (int) (originalWidth * (height / (double) originalHeight)));
       } else if (height == -1 && width != -1) {
         // Calculate height based on width to maintain aspect ratio
-        height = (int) (originalHeight * (width / (double) originalWidth));
+        height = Math.max(1, (int) (originalHeight * (width / (double) originalWidth)));
       } else if (width == -1 && height == -1) {
         // Use original dimensions
         width = originalWidth;
@@ -124,28 +126,22 @@ public class ImageUtil {
       // Create a HTML representation with the specified dimensions
       DisplayData displayData = new DisplayData();
 
-      // For GIFs, we'll use an HTML approach to preserve animation
+      // For GIFs, we'll use an HTML approach to preserve animation, with the file bytes as they are
       if (format.equals("gif")) {
-        // Convert to base64
-        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-        ImageIO.write(originalImage, format, byteStream);
-        byte[] imageBytes = byteStream.toByteArray();
-        String base64 = Base64.getEncoder().encodeToString(imageBytes);
-
+        ImageCache.Image image = CACHE.get(file.toPath());
         String html = String.format(
             "<img src=\"data:image/gif;base64,%s\" width=\"%d\" height=\"%d\" />",
-            base64, width, height
+            image.base64(), width, height
         );
         displayData.putHTML(html);
       } else {
         // For non-GIFs, resize the image
-        java.awt.Image scaledImage = originalImage.getScaledInstance(width, height, java.awt.Image.SCALE_SMOOTH);
-        BufferedImage resizedImage = new BufferedImage(width, height, originalImage.getType());
-        resizedImage.getGraphics().drawImage(scaledImage, 0, 0, null);
+        BufferedImage resizedImage = ImageResizer.resize(originalImage, width, height);
 
         // Convert to base64
         ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
         ImageIO.write(resizedImage, format, byteStream);
+        ImageResizer.release(resizedImage);
         byte[] imageBytes = byteStream.toByteArray();
         String base64 = Base64.getEncoder().encodeToString(imageBytes);
 
@@ -161,6 +157,94 @@ public class ImageUtil {
     }
   }
 
+  /**
+   * Display the image files of a directory as one contact sheet: a grid of thumbnails with their file names, e.g.
+   * {@code ImageUtil.contactSheet("detections", "*.{jpg,png}", 128, 8)}. Thumbnails are made in parallel, reading
+   * images with subsampling so that full resolution pixels are never held, and files that are not readable images
+   * are shown as gray cells.
+   *
+   * @param dir Path to the directory
+   * @param glob Glob of the file names to show, e.g. "*.jpg"
+   * @param thumbSize Width and height in pixels that thumbnails fit in
+   * @param columns Number of thumbnails per row
+   * @return DisplayData object that renders as a single JPEG image when returned from a cell
+   */
+  public static DisplayData contactSheet(String dir, String glob, int thumbSize, int columns) {
+    return contactSheet(dir, glob, thumbSize, columns, null);
+  }
+
+  /**
+   * Display the image files of a directory as one contact sheet, as {@link #contactSheet(String, String, int, int)},
+   * caching thumbnails as PNG files in a directory. A cached thumbnail is used while its image file keeps the same
+   * modification time and size, so that showing a sheet again decodes no full images.
+   *
+   * @param dir Path to the directory
+   * @param glob Glob of the file names to show, e.g. "*.jpg"
+   * @param thumbSize Width and height in pixels that thumbnails fit in
+   * @param columns Number of thumbnails per row
+   * @param cacheDir Path to the directory of cached thumbnails, created if needed; null for no cache
+   * @return DisplayData object that renders as a single JPEG image when returned from a cell
+   */
+  public static DisplayData contactSheet(String dir, String glob, int thumbSize, int columns, String cacheDir) {
+    try {
+      File directory = resolve(dir);
+      if (!directory.isDirectory()) {
+        System.err.println("Directory not found: " + directory.getAbsolutePath());
+        return new DisplayData("Directory not found: " + dir);
+      }
+
+      BufferedImage sheet = ContactSheet.render(directory.toPath(), glob, thumbSize, columns,
+          cacheDir != null ? resolve(cacheDir).toPath() : null);
+      ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+      ImageIO.write(sheet, "jpeg", byteStream);
+      String base64 = Base64.getEncoder().encodeToString(byteStream.toByteArray());
+
+      DisplayData displayData = new DisplayData();
+      displayData.putData("image/jpeg", base64);
+      return displayData;
+    } catch (IOException e) {
+      System.err.println("Error displaying contact sheet: " + e.getMessage());
+      e.printStackTrace();
+      return new DisplayData("Error: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Decode, resize and normalize image files, in parallel, into one batch tensor of floats for model inference, of
+   * shape (images, 3, height, width), e.g. with ImageNet statistics:
+   * {@code ImageUtil.toTensorBatch(paths, 224, 224, new float[]{0.485f, 0.456f, 0.406f},
+   * new float[]{0.229f, 0.224f, 0.225f})}. Images are stretched to the given size.
+   *
+   * @param paths Paths to the image files
+   * @param width Width of the tensor images in pixels
+   * @param height Height of the tensor images in pixels
+   * @param mean Mean of the red, green and blue values, between 0 and 1
+   * @param std Standard deviation of the red, green and blue values
+   * @return The batch, with its floats in a float[]
+   */
+  public static TensorBatch toTensorBatch(List<String> paths, int width, int height, float[] mean, float[] std) {
+    return toTensorBatch(paths, mean, std, new TensorBatch(Math.max(1, paths.size()), width, height));
+  }
+
+  /**
+   * Decode, resize and normalize image files into an existing batch, replacing its images, as
+   * {@link #toTensorBatch(List, int, int, float[], float[])}. Filling the same batch for every group of images of a
+   * stream allocates no more tensor memory.
+   *
+   * @param paths Paths to the image files, at most the capacity of the batch
+   * @param mean Mean of the red, green and blue values, between 0 and 1
+   * @param std Standard deviation of the red, green and blue values
+   * @param batch The batch to fill, with the width and height of its images
+   * @return The batch
+   */
+  public static TensorBatch toTensorBatch(List<String> paths, float[] mean, float[] std, TensorBatch batch) {
+    List<Path> files = new ArrayList<>(paths.size());
+    for (String path : paths) {
+      files.add(resolve(path).toPath());
+    }
+    return batch.fill(files, mean, std);
+  }
+
   /**
    * Display an image in the notebook.
    * This method returns a DisplayData object that will render the image.
@@ -0,0 +1,14 @@
+package org.jjavaglue.dflib;
+
+/**
+ * How {@link DS#join(org.dflib.DataFrame, org.dflib.DataFrame, String, JoinKind)} combines rows.
+ * <ul>
+ * <li>INNER - a row for every pair of left and right rows with equal keys</li>
+ * <li>LEFT - like INNER, plus every left row without a match, with nulls in the right columns</li>
+ * <li>SEMI - the left rows that have at least one match, each once, with the left columns only</li>
+ * </ul>
+ * Null and NaN keys never match.
+ */
+public enum JoinKind {
+  INNER, LEFT, SEMI
+}
@@ -0,0 +1,328 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.Condition;
+import org.dflib.DataFrame;
+import org.dflib.Series;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A lazy query over a CSV or binary file, built with {@link DS#scan(String)}. Each call adds a step to a logical
+ * plan and returns a new LazyFrame; nothing is read until {@link #collect()}. Before reading, the plan is optimized:
+ * <ul>
+ * <li>{@link Filter}s that come before any aggregation or limit are pushed into the reader, which tests them on the
+ * raw values, so that rejected rows are never loaded</li>
+ * <li>only the columns that later steps use are read, so other columns are never parsed</li>
+ * <li>a limit that comes before any other filtering is pushed into the reader</li>
+ * </ul>
+ * {@link #explain()} shows the optimized plan.
+ */
+public class LazyFrame {
+
+  private final Path path;
+  private final List<Step> steps;
+
+  LazyFrame(Path path) {
+    this(path, List.of());
+  }
+
+  private LazyFrame(Path path, List<Step> steps) {
+    this.path = path;
+    this.steps = steps;
+  }
+
+  private LazyFrame add(Step step) {
+    List<Step> next = new ArrayList<>(steps);
+    next.add(step);
+    return new LazyFrame(path, List.copyOf(next));
+  }
+
+  /**
+   * Keep the rows that pass a filter. Filters can be pushed down into the reader.
+   */
+  public LazyFrame filter(Filter filter) {
+    return add(new FilterStep(filter));
+  }
+
+  /**
+   * Keep the rows that match a DFLib condition. Conditions are arbitrary expressions, so they are applied after
+   * loading, and all columns available at that point are loaded.
+   */
+  public LazyFrame filter(Condition condition) {
+    return add(new ConditionStep(condition));
+  }
+
+  /**
+   * Keep only the given columns, in the given order
+   */
+  public LazyFrame select(String... columns) {
+    return add(new SelectStep(columns));
+  }
+
+  /**
+   * Group by a column and aggregate, see {@link DS#aggregate(DataFrame, String, Agg...)}
+   */
+  public LazyFrame groupBy(String key, Agg... aggs) {
+    return groupBy(new String[] { key }, aggs);
+  }
+
+  /**
+   * Group by columns and aggregate, see {@link DS#aggregate(DataFrame, String[], Agg...)}
+   */
+  public LazyFrame groupBy(String[] keys, Agg... aggs) {
+    return add(new AggregateStep(keys, aggs));
+  }
+
+  /**
+   * Keep the first rows
+   */
+  public LazyFrame limit(int rows) {
+    if (rows < 0) {
+      throw new IllegalArgumentException("Row count must not be negative: " + rows);
+    }
+    return add(new LimitStep(rows));
+  }
+
+  /**
+   * Run the optimized plan
+   */
+  public DataFrame collect() {
+    Plan plan = optimize();
+    DataFrame df = plan.scan();
+    for (Step step : plan.steps) {
+      df = step.apply(df);
+    }
+    return df;
+  }
+
+  /**
+   * The optimized plan, one step per line from the last step down to the scan, e.g.
+   * <pre>
+   * Aggregate by [country]: count, sum(amount)
+   *   Scan CSV data.csv columns=[country, amount] filters=[amount &gt; 100]
+   * </pre>
+   */
+  public String explain() {
+    Plan plan = optimize();
+    StringBuilder out = new StringBuilder();
+    String indent = "";
+    for (int i = plan.steps.size() - 1; i >= 0; i--) {
+      out.append(indent).append(plan.steps.get(i)).append('\n');
+      indent += "  ";
+    }
+    out.append(indent).append("Scan ").append(plan.binary ? "binary " : "CSV ").append(path.getFileName())
+        .append(" columns=").append(plan.columns == null ? "*" : Arrays.toString(plan.columns));
+    if (!plan.filters.isEmpty()) {
+      out.append(" filters=").append(plan.filters);
+    }
+    if (plan.limit >= 0) {
+      out.append(" limit=").append(plan.limit);
+    }
+    return out.append('\n').toString();
+  }
+
+  @Override
+  public String toString() {
+    return explain();
+  }
+
+  private Plan optimize() {
+    List<Filter> pushed = new ArrayList<>();
+    List<Step> residual = new ArrayList<>();
+    int limit = -1;
+    boolean pushFilters = true;
+    boolean pushLimit = true;
+
+    // Selects don't change rows, so filters and limits can move below them
+    for (Step step : steps) {
+      if (step instanceof FilterStep f && pushFilters) {
+        pushed.add(f.filter);
+      } else if (step instanceof LimitStep l && pushLimit) {
+        limit = limit < 0 ? l.rows : Math.min(limit, l.rows);
+        pushFilters = false;
+      } else {
+        residual.add(step);
+        if (!(step instanceof SelectStep)) {
+          pushFilters = false;
+          pushLimit = false;
+        }
+      }
+    }
+
+    // Columns each step needs from the one before, from the last step back to the scan; null means all
+    // A select only keeps the columns used after it, so that the others are not read at all
+    Set<String> required = null;
+    for (int i = residual.size() - 1; i >= 0; i--) {
+      if (residual.get(i) instanceof SelectStep s && required != null) {
+        Set<String> used = required;
+        residual.set(i, new SelectStep(Arrays.stream(s.columns).filter(used::contains).toArray(String[]::new)));
+      }
+      required = residual.get(i).required(required);
+    }
+    for (Filter filter : pushed) {
+      // Pushed filters read their columns in the reader, but must refer to columns the query can see
+      checkSelected(filter.getColumn());
+    }
+
+    boolean binary = BinaryFormat.isBinary(path);
+    return new Plan(path, binary, required == null ? null : required.toArray(new String[0]), pushed, limit, residual);
+  }
+
+  /**
+   * Fail on a pushed filter that refers to a column dropped by a select before it
+   */
+  private void checkSelected(String column) {
+    Set<String> available = null;
+    for (Step step : steps) {
+      if (step instanceof SelectStep s) {
+        available = new LinkedHashSet<>(Arrays.asList(s.columns));
+      } else if (step instanceof FilterStep f && f.filter.getColumn().equals(column)
+          && available != null && !available.contains(column)) {
+        throw new IllegalArgumentException("Column '" + column + "' is filtered on after it was dropped");
+      }
+    }
+  }
+
+  private record Plan(Path path, boolean binary, String[] columns, List<Filter> filters, int limit, List<Step> steps) {
+
+    DataFrame scan() {
+      if (binary) {
+        return BinaryFormat.load(path, columns, filters, limit);
+      }
+      CsvLoader loader = DS.csvLoader().filter(filters.toArray(new Filter[0]));
+      if (columns != null) {
+        loader.select(columns);
+      }
+      if (limit >= 0) {
+        loader.limit(limit);
+      }
+      return loader.load(path);
+    }
+  }
+
+  private interface Step {
+
+    DataFrame apply(DataFrame df);
+
+    /**
+     * Columns needed from the input, given those needed from the output (null for all)
+     */
+    Set<String> required(Set<String> downstream);
+  }
+
+  private record FilterStep(Filter filter) implements Step {
+
+    @Override
+    public DataFrame apply(DataFrame df) {
+      Series<?> column = df.getColumn(filter.getColumn());
+      int[] index = new int[df.height()];
+      int size = 0;
+      for (int row = 0; row < index.length; row++) {
+        if (filter.test(column, row)) {
+          index[size++] = row;
+        }
+      }
+      return Sorter.select(df, Arrays.copyOf(index, size));
+    }
+
+    @Override
+    public Set<String> required(Set<String> downstream) {
+      if (downstream == null) {
+        return null;
+      }
+      Set<String> columns = new LinkedHashSet<>(downstream);
+      columns.add(filter.getColumn());
+      return columns;
+    }
+
+    @Override
+    public String toString() {
+      return "Filter " + filter;
+    }
+  }
+
+  private record ConditionStep(Condition condition) implements Step {
+
+    @Override
+    public DataFrame apply(DataFrame df) {
+      return df.rows(condition).select();
+    }
+
+    @Override
+    public Set<String> required(Set<String> downstream) {
+      return null;
+    }
+
+    @Override
+    public String toString() {
+      return "Filter " + condition;
+    }
+  }
+
+  private record SelectStep(String[] columns) implements Step {
+
+    @Override
+    public DataFrame apply(DataFrame df) {
+      return df.cols(columns).select();
+    }
+
+    @Override
+    public Set<String> required(Set<String> downstream) {
+      return new LinkedHashSet<>(Arrays.asList(columns));
+    }
+
+    @Override
+    public String toString() {
+      return "Select " + Arrays.toString(columns);
+    }
+  }
+
+  private record AggregateStep(String[] keys, Agg[] aggs) implements Step {
+
+    @Override
+    public DataFrame apply(DataFrame df) {
+      return HashAggregator.aggregate(df, keys, aggs);
+    }
+
+    @Override
+    public Set<String> required(Set<String> downstream) {
+      Set<String> columns = new LinkedHashSet<>(Arrays.asList(keys));
+      for (Agg agg : aggs) {
+        if (agg.column != null) {
+          columns.add(agg.column);
+        }
+      }
+      return columns;
+    }
+
+    @Override
+    public String toString() {
+      return "Aggregate by " + Arrays.toString(keys) + ": "
+          + Arrays.stream(aggs).map(Agg::getName).collect(Collectors.joining(", "));
+    }
+  }
+
+  private record LimitStep(int rows) implements Step {
+
+    @Override
+    public DataFrame apply(DataFrame df) {
+      return df.head(rows);
+    }
+
+    @Override
+    public Set<String> required(Set<String> downstream) {
+      return downstream;
+    }
+
+    @Override
+    public String toString() {
+      return "Limit " + rows;
+    }
+  }
+}
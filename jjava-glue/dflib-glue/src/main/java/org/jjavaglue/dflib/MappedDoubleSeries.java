@@ -0,0 +1,104 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DoubleSeries;
+import org.dflib.series.DoubleArraySeries;
+import org.dflib.series.DoubleBaseSeries;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * DoubleSeries over a memory-mapped DoubleBuffer. Values are read straight from the mapping; operations that need the
+ * values in order or modified work on a heap copy (see {@link #materialize()}).
+ */
+final class MappedDoubleSeries extends DoubleBaseSeries {
+
+  private final DoubleBuffer data;
+
+  MappedDoubleSeries(DoubleBuffer data) {
+    this.data = data;
+  }
+
+  @Override
+  public int size() {
+    return data.limit();
+  }
+
+  @Override
+  public double getDouble(int index) {
+    return data.get(index);
+  }
+
+  @Override
+  public void copyToDouble(double[] to, int fromOffset, int toOffset, int len) {
+    data.get(fromOffset, to, toOffset, len);
+  }
+
+  @Override
+  public DoubleSeries rangeDouble(int fromInclusive, int toExclusive) {
+    return new MappedDoubleSeries(data.slice(fromInclusive, toExclusive - fromInclusive));
+  }
+
+  @Override
+  public DoubleSeries materialize() {
+    double[] values = new double[size()];
+    data.get(0, values);
+    return new DoubleArraySeries(values);
+  }
+
+  @Override
+  public double max() {
+    int size = size();
+    if (size == 0) {
+      return 0;
+    }
+    double max = -Double.MAX_VALUE;
+    for (int i = 0; i < size; i++) {
+      double value = data.get(i);
+      if (value > max) {
+        max = value;
+      }
+    }
+    return max;
+  }
+
+  @Override
+  public double min() {
+    int size = size();
+    if (size == 0) {
+      return 0;
+    }
+    double min = Double.MAX_VALUE;
+    for (int i = 0; i < size; i++) {
+      double value = data.get(i);
+      if (value < min) {
+        min = value;
+      }
+    }
+    return min;
+  }
+
+  @Override
+  public double sum() {
+    double sum = 0;
+    int size = size();
+    for (int i = 0; i < size; i++) {
+      sum += data.get(i);
+    }
+    return sum;
+  }
+
+  @Override
+  public double avg() {
+    return sum() / size();
+  }
+
+  @Override
+  public double quantile(double q) {
+    return materialize().quantile(q);
+  }
+
+  @Override
+  public DoubleSeries cumSum() {
+    return materialize().cumSum();
+  }
+}
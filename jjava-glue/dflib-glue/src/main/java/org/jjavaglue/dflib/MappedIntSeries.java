@@ -0,0 +1,105 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.series.IntArraySeries;
+import org.dflib.series.IntBaseSeries;
+
+import java.nio.IntBuffer;
+
+/**
+ * IntSeries over a memory-mapped IntBuffer. Values are read straight from the mapping; operations that need the
+ * values in order or modified work on a heap copy (see {@link #materialize()}).
+ */
+final class MappedIntSeries extends IntBaseSeries {
+
+  private final IntBuffer data;
+
+  MappedIntSeries(IntBuffer data) {
+    this.data = data;
+  }
+
+  @Override
+  public int size() {
+    return data.limit();
+  }
+
+  @Override
+  public int getInt(int index) {
+    return data.get(index);
+  }
+
+  @Override
+  public void copyToInt(int[] to, int fromOffset, int toOffset, int len) {
+    data.get(fromOffset, to, toOffset, len);
+  }
+
+  @Override
+  public IntSeries rangeInt(int fromInclusive, int toExclusive) {
+    return new MappedIntSeries(data.slice(fromInclusive, toExclusive - fromInclusive));
+  }
+
+  @Override
+  public IntSeries materialize() {
+    int[] values = new int[size()];
+    data.get(0, values);
+    return new IntArraySeries(values);
+  }
+
+  @Override
+  public int max() {
+    int size = size();
+    if (size == 0) {
+      return 0;
+    }
+    int max = Integer.MIN_VALUE;
+    for (int i = 0; i < size; i++) {
+      int value = data.get(i);
+      if (value > max) {
+        max = value;
+      }
+    }
+    return max;
+  }
+
+  @Override
+  public int min() {
+    int size = size();
+    if (size == 0) {
+      return 0;
+    }
+    int min = Integer.MAX_VALUE;
+    for (int i = 0; i < size; i++) {
+      int value = data.get(i);
+      if (value < min) {
+        min = value;
+      }
+    }
+    return min;
+  }
+
+  @Override
+  public long sum() {
+    long sum = 0;
+    int size = size();
+    for (int i = 0; i < size; i++) {
+      sum += data.get(i);
+    }
+    return sum;
+  }
+
+  @Override
+  public double avg() {
+    return (double) sum() / size();
+  }
+
+  @Override
+  public double quantile(double q) {
+    return materialize().quantile(q);
+  }
+
+  @Override
+  public LongSeries cumSum() {
+    return materialize().cumSum();
+  }
+}
@@ -0,0 +1,104 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.LongSeries;
+import org.dflib.series.LongArraySeries;
+import org.dflib.series.LongBaseSeries;
+
+import java.nio.LongBuffer;
+
+/**
+ * LongSeries over a memory-mapped LongBuffer. Values are read straight from the mapping; operations that need the
+ * values in order or modified work on a heap copy (see {@link #materialize()}).
+ */
+final class MappedLongSeries extends LongBaseSeries {
+
+  private final LongBuffer data;
+
+  MappedLongSeries(LongBuffer data) {
+    this.data = data;
+  }
+
+  @Override
+  public int size() {
+    return data.limit();
+  }
+
+  @Override
+  public long getLong(int index) {
+    return data.get(index);
+  }
+
+  @Override
+  public void copyToLong(long[] to, int fromOffset, int toOffset, int len) {
+    data.get(fromOffset, to, toOffset, len);
+  }
+
+  @Override
+  public LongSeries rangeLong(int fromInclusive, int toExclusive) {
+    return new MappedLongSeries(data.slice(fromInclusive, toExclusive - fromInclusive));
+  }
+
+  @Override
+  public LongSeries materialize() {
+    long[] values = new long[size()];
+    data.get(0, values);
+    return new LongArraySeries(values);
+  }
+
+  @Override
+  public long max() {
+    int size = size();
+    if (size == 0) {
+      return 0;
+    }
+    long max = Long.MIN_VALUE;
+    for (int i = 0; i < size; i++) {
+      long value = data.get(i);
+      if (value > max) {
+        max = value;
+      }
+    }
+    return max;
+  }
+
+  @Override
+  public long min() {
+    int size = size();
+    if (size == 0) {
+      return 0;
+    }
+    long min = Long.MAX_VALUE;
+    for (int i = 0; i < size; i++) {
+      long value = data.get(i);
+      if (value < min) {
+        min = value;
+      }
+    }
+    return min;
+  }
+
+  @Override
+  public long sum() {
+    long sum = 0;
+    int size = size();
+    for (int i = 0; i < size; i++) {
+      sum += data.get(i);
+    }
+    return sum;
+  }
+
+  @Override
+  public double avg() {
+    return (double) sum() / size();
+  }
+
+  @Override
+  public double quantile(double q) {
+    return materialize().quantile(q);
+  }
+
+  @Override
+  public LongSeries cumSum() {
+    return materialize().cumSum();
+  }
+}
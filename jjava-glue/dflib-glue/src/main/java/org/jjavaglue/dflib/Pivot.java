@@ -0,0 +1,327 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.BooleanSeries;
+import org.dflib.DataFrame;
+import org.dflib.DoubleSeries;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Pivot tables: one output row per value of a row key, one double column per value of a column key, and in each
+ * cell an aggregation of the rows with that pair of keys. Keys are encoded as dense codes (with a {@link GroupTable}
+ * for numbers and a {@link ValueDictionary} for other values), so every cell has a slot in primitive arrays, one per
+ * output column. Input rows are then bucketed by output row, and ranges of output rows are filled in parallel: each
+ * range owns its cells, so there is nothing to merge and no object per cell.
+ * <p>
+ * Keys are sorted when their values are comparable, and otherwise kept in order of first appearance. Rows with a
+ * null key are skipped. Cells without values are NaN, except for counts, which are 0. This includes sums, which are
+ * 0 for groups without values in {@link HashAggregator}: a pivot table marks missing pairs of keys instead.
+ */
+final class Pivot {
+
+  private static final int MIN_RANGE_ROWS = 1 << 16;
+
+  /**
+   * The distinct values of a key column in output order, and the output position of each input row, or -1
+   */
+  private static final class Keys {
+
+    final Object[] values;
+    final int[] positions;
+
+    Keys(Object[] values, int[] positions) {
+      this.values = values;
+      this.positions = positions;
+    }
+  }
+
+  private Pivot() {
+  }
+
+  static DataFrame pivot(DataFrame df, String rowKey, String columnKey, Agg agg) {
+    return pivot(df, rowKey, columnKey, agg, Math.min(Runtime.getRuntime().availableProcessors(),
+        df.height() / MIN_RANGE_ROWS));
+  }
+
+  /**
+   * A pivot table filled in the given number of ranges of output rows
+   */
+  static DataFrame pivot(DataFrame df, String rowKey, String columnKey, Agg agg, int ranges) {
+    if (agg.kind == Agg.Kind.DISTINCT || agg.kind == Agg.Kind.QUANTILE || agg.kind == Agg.Kind.TOP) {
+      throw new IllegalArgumentException("Not supported in a pivot table: " + agg.name);
+    }
+    Keys rows = keys(column(df, rowKey));
+    Keys columns = keys(column(df, columnKey));
+    double[] values = agg.column == null ? null
+        : agg.kind == Agg.Kind.COUNT ? presence(column(df, agg.column))
+        : Columns.toDoubleArray(column(df, agg.column), 0, df.height());
+
+    int height = rows.values.length;
+    int width = columns.values.length;
+    int n = df.height();
+
+    // Input rows with both keys, bucketed by output row
+    int[] offsets = new int[height + 1];
+    for (int i = 0; i < n; i++) {
+      if (rows.positions[i] >= 0 && columns.positions[i] >= 0) {
+        offsets[rows.positions[i] + 1]++;
+      }
+    }
+    for (int r = 0; r < height; r++) {
+      offsets[r + 1] += offsets[r];
+    }
+    int[] bucketed = new int[offsets[height]];
+    int[] next = Arrays.copyOf(offsets, height);
+    for (int i = 0; i < n; i++) {
+      if (rows.positions[i] >= 0 && columns.positions[i] >= 0) {
+        bucketed[next[rows.positions[i]]++] = i;
+      }
+    }
+
+    Cells cells = new Cells(agg.kind, width, height);
+    int count = Math.max(1, ranges);
+    int[] bounds = new int[count + 1];
+    for (int p = 1; p <= count; p++) {
+      bounds[p] = p == count ? height : firstRow(offsets, (long) bucketed.length * p / count);
+    }
+    IntStream.range(0, count).parallel().forEach(p -> cells.fill(bounds[p], bounds[p + 1], offsets, bucketed,
+        columns.positions, values));
+
+    String[] names = new String[width + 1];
+    Series<?>[] series = new Series<?>[width + 1];
+    names[0] = rowKey;
+    series[0] = Columns.toSeries(rows.values);
+    double[][] results = cells.results();
+    for (int c = 0; c < width; c++) {
+      names[c + 1] = String.valueOf(columns.values[c]);
+      series[c + 1] = Series.ofDouble(results[c]);
+    }
+    return DataFrame.byColumn(names).of(series);
+  }
+
+  private static Series<?> column(DataFrame df, String name) {
+    if (!df.getColumnsIndex().contains(name)) {
+      throw new IllegalArgumentException("No such column: " + name);
+    }
+    return df.getColumn(name);
+  }
+
+  /**
+   * The values a count sees for a column: NaN where it is null and 0 elsewhere, or null if no value is missing. As in
+   * {@link HashAggregator}, only object values can be null, and NaN in double columns.
+   */
+  private static double[] presence(Series<?> column) {
+    if (column instanceof IntSeries || column instanceof LongSeries || column instanceof BooleanSeries) {
+      return null;
+    } else if (column instanceof DoubleSeries ds) {
+      return ds.toDoubleArray();
+    }
+    double[] values = new double[column.size()];
+    for (int i = 0; i < values.length; i++) {
+      if (column.get(i) == null) {
+        values[i] = Double.NaN;
+      }
+    }
+    return values;
+  }
+
+  /**
+   * The first output row whose input rows start at or after the given bucketed position
+   */
+  private static int firstRow(int[] offsets, long position) {
+    int low = 0;
+    int high = offsets.length - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (offsets[middle] < position) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static Keys keys(Series<?> series) {
+    int n = series.size();
+    int[] codes = new int[n];
+    Object[] values;
+
+    if (series instanceof CategorySeries<?> cs) {
+      for (int i = 0; i < n; i++) {
+        codes[i] = cs.getCode(i);
+      }
+      values = new Object[cs.getCategoryCount()];
+      for (int c = 0; c < values.length; c++) {
+        values[c] = cs.getCategory(c);
+      }
+    } else if (series instanceof IntSeries || series instanceof LongSeries || series instanceof DoubleSeries) {
+      GroupTable table = new GroupTable(1);
+      if (series instanceof IntSeries is) {
+        for (int i = 0; i < n; i++) {
+          codes[i] = table.add(is.getInt(i));
+        }
+      } else if (series instanceof LongSeries ls) {
+        for (int i = 0; i < n; i++) {
+          codes[i] = table.add(ls.getLong(i));
+        }
+      } else {
+        DoubleSeries ds = (DoubleSeries) series;
+        for (int i = 0; i < n; i++) {
+          double value = ds.getDouble(i);
+          codes[i] = Double.isNaN(value) ? -1 : table.add(Hashing.bits(value));
+        }
+      }
+      values = new Object[table.size()];
+      for (int c = 0; c < values.length; c++) {
+        long key = table.key(c, 0);
+        values[c] = series instanceof IntSeries ? (Object) (int) key
+            : series instanceof LongSeries ? (Object) key
+            : (Object) Double.longBitsToDouble(key);
+      }
+    } else {
+      ValueDictionary dictionary = new ValueDictionary();
+      for (int i = 0; i < n; i++) {
+        Object value = series.get(i);
+        codes[i] = value == null ? -1 : dictionary.code(value);
+      }
+      values = dictionary.values().toArray();
+    }
+
+    // Drop categories no row refers to, and sort
+    boolean[] used = new boolean[values.length];
+    for (int code : codes) {
+      if (code >= 0) {
+        used[code] = true;
+      }
+    }
+    Integer[] order = IntStream.range(0, values.length).filter(c -> used[c]).boxed().toArray(Integer[]::new);
+    if (isComparable(values)) {
+      @SuppressWarnings("unchecked")
+      Comparator<Integer> byValue = Comparator.comparing(c -> (Comparable<Object>) values[c]);
+      Arrays.sort(order, byValue);
+    }
+
+    int[] positionOf = new int[values.length];
+    Object[] sorted = new Object[order.length];
+    for (int p = 0; p < order.length; p++) {
+      positionOf[order[p]] = p;
+      sorted[p] = values[order[p]];
+    }
+    for (int i = 0; i < n; i++) {
+      codes[i] = codes[i] >= 0 ? positionOf[codes[i]] : -1;
+    }
+    return new Keys(sorted, codes);
+  }
+
+  private static boolean isComparable(Object[] values) {
+    for (Object value : values) {
+      if (!(value instanceof Comparable) || value.getClass() != values[0].getClass()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Aggregation state of every cell, in one array per output column indexed by output row
+   */
+  private static final class Cells {
+
+    private final Agg.Kind kind;
+    private final double[][] cells;
+    private final int[][] counts;
+    private final double[][] m2;
+
+    Cells(Agg.Kind kind, int width, int height) {
+      this.kind = kind;
+      this.cells = new double[width][height];
+      this.counts = kind == Agg.Kind.SUM || kind == Agg.Kind.MEAN || kind == Agg.Kind.VARIANCE
+          ? new int[width][height]
+          : null;
+      this.m2 = kind == Agg.Kind.VARIANCE ? new double[width][height] : null;
+      if (kind == Agg.Kind.MIN || kind == Agg.Kind.MAX) {
+        for (double[] column : cells) {
+          Arrays.fill(column, Double.NaN);
+        }
+      }
+    }
+
+    /**
+     * Aggregate the input rows of the output rows [from, to), skipping NaN values. Without values every row counts.
+     */
+    void fill(int from, int to, int[] offsets, int[] bucketed, int[] columnOf, double[] values) {
+      for (int r = from; r < to; r++) {
+        int end = offsets[r + 1];
+        switch (kind) {
+          case COUNT -> {
+            for (int k = offsets[r]; k < end; k++) {
+              int row = bucketed[k];
+              if (values == null || !Double.isNaN(values[row])) {
+                cells[columnOf[row]][r]++;
+              }
+            }
+          }
+          case SUM, MEAN -> {
+            for (int k = offsets[r]; k < end; k++) {
+              int row = bucketed[k];
+              double x = values[row];
+              if (!Double.isNaN(x)) {
+                cells[columnOf[row]][r] += x;
+                counts[columnOf[row]][r]++;
+              }
+            }
+          }
+          case MIN, MAX -> {
+            boolean min = kind == Agg.Kind.MIN;
+            for (int k = offsets[r]; k < end; k++) {
+              int row = bucketed[k];
+              double x = values[row];
+              double[] column = cells[columnOf[row]];
+              // NaN marks a cell without values yet
+              if (!Double.isNaN(x) && (Double.isNaN(column[r]) || (min ? x < column[r] : x > column[r]))) {
+                column[r] = x;
+              }
+            }
+          }
+          case VARIANCE -> {
+            // Welford's running mean and sum of squared differences, as in HashAggregator
+            for (int k = offsets[r]; k < end; k++) {
+              int row = bucketed[k];
+              double x = values[row];
+              if (!Double.isNaN(x)) {
+                int c = columnOf[row];
+                int count = ++counts[c][r];
+                double delta = x - cells[c][r];
+                cells[c][r] += delta / count;
+                m2[c][r] += delta * (x - cells[c][r]);
+              }
+            }
+          }
+          default -> throw new IllegalStateException(kind.name());
+        }
+      }
+    }
+
+    double[][] results() {
+      for (int c = 0; c < cells.length; c++) {
+        double[] column = cells[c];
+        for (int r = 0; r < column.length; r++) {
+          switch (kind) {
+            case SUM -> column[r] = counts[c][r] > 0 ? column[r] : Double.NaN;
+            case MEAN -> column[r] = counts[c][r] > 0 ? column[r] / counts[c][r] : Double.NaN;
+            case VARIANCE -> column[r] = counts[c][r] > 1 ? m2[c][r] / (counts[c][r] - 1) : Double.NaN;
+            default -> {
+            }
+          }
+        }
+      }
+      return cells;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package org.jjavaglue.dflib;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Iterator that pulls elements from a source iterator on a background thread, keeping at most "depth" elements
+ * ready ahead of the consumer. The producer blocks when the queue is full, so memory stays bounded.
+ */
+final class Prefetcher<T> implements Iterator<T>, AutoCloseable {
+
+  private static final Object END = new Object();
+
+  private final BlockingQueue<Object> queue;
+  private final Thread thread;
+  private final AutoCloseable resource;
+  private Object next;
+
+  Prefetcher(Iterator<T> source, int depth, AutoCloseable resource) {
+    this.queue = new ArrayBlockingQueue<>(depth);
+    this.resource = resource;
+    this.thread = new Thread(() -> produce(source), "DS-prefetch");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  private void produce(Iterator<T> source) {
+    try {
+      try {
+        while (source.hasNext()) {
+          queue.put(source.next());
+        }
+      } catch (RuntimeException | Error e) {
+        queue.put(new Failure(e));
+        return;
+      }
+      queue.put(END);
+    } catch (InterruptedException e) {
+      // closed by the consumer
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      try {
+        next = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for the next chunk", e);
+      }
+    }
+    if (next instanceof Failure failure) {
+      if (failure.error instanceof Error error) {
+        throw error;
+      }
+      throw (RuntimeException) failure.error;
+    }
+    return next != END;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    T element = (T) next;
+    next = null;
+    return element;
+  }
+
+  /**
+   * Stop the background thread and release the source
+   */
+  @Override
+  public void close() {
+    thread.interrupt();
+    try {
+      thread.join();
+      resource.close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      throw new IllegalStateException("Error closing " + resource, e);
+    }
+  }
+
+  private record Failure(Throwable error) {
+  }
+}
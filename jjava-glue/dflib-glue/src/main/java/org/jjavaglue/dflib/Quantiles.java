@@ -0,0 +1,476 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+import org.dflib.DoubleSeries;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Exact and approximate quantiles of a numeric column, interpolating linearly between the closest ranks like pandas
+ * and numpy. Nulls and NaNs are skipped.
+ * <p>
+ * Exact quantiles of large columns avoid sorting or even copying the column. A random sample of values gives a
+ * narrow interval around each wanted rank (Floyd &amp; Rivest), and ranges of rows are then scanned in parallel,
+ * counting the values below each interval and collecting the few inside it. The wanted ranks are selected among
+ * those with introselect. If a rank falls outside its interval, which a margin of five standard deviations makes
+ * very unlikely, the values are copied and selected directly.
+ * <p>
+ * Approximate quantiles of a stream of chunks merge a {@link TDigest} of every chunk.
+ */
+final class Quantiles {
+
+  // Columns up to this size are copied and selected directly
+  private static final int SMALL = 1 << 20;
+  private static final int RANGE_ROWS = 1 << 20;
+  private static final int SAMPLE = 1 << 16;
+  private static final long SEED = 0x9E3779B97F4A7C15L;
+
+  // Ranges below this size are sorted by insertion
+  private static final int INSERTION = 16;
+
+  private Quantiles() {
+  }
+
+  static double[] exact(DataFrame df, String column, double[] qs) {
+    return exact(column(df, column), qs);
+  }
+
+  static double[] exact(Series<?> series, double[] qs) {
+    check(qs);
+    if (series.size() <= SMALL) {
+      return direct(series, qs);
+    }
+    double[] result = sampled(series, qs);
+    return result != null ? result : direct(series, qs);
+  }
+
+  static double[] approximate(Stream<DataFrame> chunks, String column, double[] qs) {
+    check(qs);
+    // TDigest.merge adds to the digest it is called on, so each one merged into must be owned by one reduction
+    TDigest digest = chunks.map(chunk -> digest(column(chunk, column))).reduce(TDigest::merge)
+        .orElseGet(TDigest::new);
+    double[] result = new double[qs.length];
+    for (int i = 0; i < qs.length; i++) {
+      result[i] = digest.quantile(qs[i]);
+    }
+    return result;
+  }
+
+  /**
+   * A digest of all values of a column, built from ranges of rows in parallel
+   */
+  static TDigest digest(Series<?> series) {
+    int ranges = Math.max(1, (series.size() + RANGE_ROWS - 1) / RANGE_ROWS);
+    return IntStream.range(0, ranges).parallel().mapToObj(r -> {
+      TDigest digest = new TDigest();
+      for (double x : values(series, r * RANGE_ROWS, Math.min(series.size(), (r + 1) * RANGE_ROWS))) {
+        digest.add(x);
+      }
+      return digest;
+    }).reduce(TDigest::merge).orElseGet(TDigest::new);
+  }
+
+  private static Series<?> column(DataFrame df, String name) {
+    if (!df.getColumnsIndex().contains(name)) {
+      throw new IllegalArgumentException("No such column: " + name);
+    }
+    return df.getColumn(name);
+  }
+
+  private static void check(double[] qs) {
+    for (double q : qs) {
+      if (!(q >= 0 && q <= 1)) {
+        throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+      }
+    }
+  }
+
+  /**
+   * Copy the non-NaN values and select every rank in the copy
+   */
+  private static double[] direct(Series<?> series, double[] qs) {
+    double[] values = values(series, 0, series.size());
+    int n = 0;
+    for (double x : values) {
+      if (!Double.isNaN(x)) {
+        values[n++] = x;
+      }
+    }
+
+    long[] ranks = ranks(qs, n);
+    double[] selected = new double[ranks.length];
+    int from = 0;
+    for (int r = 0; r < ranks.length; r++) {
+      int k = (int) ranks[r];
+      select(values, from, n, k);
+      selected[r] = values[k];
+      from = k;
+    }
+    return interpolate(qs, n, ranks, selected);
+  }
+
+  /**
+   * Quantiles from the values of the sampled intervals around their ranks, or null if a rank is not in its interval
+   */
+  private static double[] sampled(Series<?> series, double[] qs) {
+    int size = series.size();
+
+    // A sample of the non-NaN values, drawn with replacement
+    SplittableRandom random = new SplittableRandom(SEED);
+    double[] sample = new double[SAMPLE];
+    int s = 0;
+    for (int i = 0; i < SAMPLE; i++) {
+      double x = value(series, random.nextInt(size));
+      if (!Double.isNaN(x)) {
+        sample[s++] = x;
+      }
+    }
+    if (s < SAMPLE / 4) {
+      return null;
+    }
+    Arrays.sort(sample, 0, s);
+
+    // An interval of values around every quantile, merging overlapping ones
+    double[] low = new double[qs.length];
+    double[] high = new double[qs.length];
+    int intervals = 0;
+    double[] sorted = qs.clone();
+    Arrays.sort(sorted);
+    for (double q : sorted) {
+      // Intervals reaching the ends of the sample extend to infinity, as the extremes are rarely sampled
+      double margin = 5 * Math.sqrt(s * q * (1 - q)) + 2;
+      double first = Math.floor(q * (s - 1) - margin);
+      double last = Math.ceil(q * (s - 1) + margin);
+      double lo = first > 0 ? sample[(int) first] : Double.NEGATIVE_INFINITY;
+      double hi = last < s - 1 ? sample[(int) last] : Double.POSITIVE_INFINITY;
+      if (intervals > 0 && lo <= high[intervals - 1]) {
+        high[intervals - 1] = Math.max(high[intervals - 1], hi);
+      } else {
+        low[intervals] = lo;
+        high[intervals] = hi;
+        intervals++;
+      }
+    }
+
+    int ranges = (size + RANGE_ROWS - 1) / RANGE_ROWS;
+    Scan[] scans = new Scan[ranges];
+    int count = intervals;
+    Arrays.parallelSetAll(scans, r -> new Scan(low, high, count)
+        .scan(series, r * RANGE_ROWS, Math.min(size, (r + 1) * RANGE_ROWS)));
+    Scan scan = Scan.merge(scans);
+
+    long n = size - scan.nans;
+    long[] ranks = ranks(qs, n);
+    double[] selected = new double[ranks.length];
+    int interval = 0;
+    int from = 0;
+    long start = 0;
+    for (int r = 0; r < ranks.length; r++) {
+      long k = ranks[r];
+      while (interval < count && k >= start + scan.size(interval)) {
+        start += scan.size(interval);
+        interval++;
+        from = 0;
+      }
+      if (interval == count) {
+        return null;
+      }
+      double[] inside = scan.inside[interval];
+      long offset = k - start - scan.below[interval];
+      if (offset < 0) {
+        return null;
+      } else if (offset < scan.equalLow[interval]) {
+        selected[r] = low[interval];
+      } else if (offset < scan.equalLow[interval] + inside.length) {
+        int i = (int) (offset - scan.equalLow[interval]);
+        select(inside, Math.min(from, i), inside.length, i);
+        selected[r] = inside[i];
+        from = i;
+      } else {
+        selected[r] = high[interval];
+      }
+    }
+    return interpolate(qs, n, ranks, selected);
+  }
+
+  /**
+   * Counts of the values of a range of rows below and at the bounds of each of a list of intervals, and copies of
+   * the values strictly within them. Values equal to a bound are only counted, so that an interval of a frequent
+   * value stays small.
+   * <p>
+   * Values are compared as longs ordered like the doubles, so that counting the values below an interval is
+   * branch-free and checking if a value is within it takes a single unsigned comparison, rarely true. Branching on
+   * comparisons of doubles near the median would be mispredicted half of the time.
+   */
+  private static final class Scan {
+
+    private static final int BLOCK_ROWS = 4096;
+
+    // Bounds of the intervals as ordered longs, and their widths
+    final long[] low;
+    final long[] width;
+    long nans;
+    // Values below each interval and above the previous one
+    final long[] below;
+    final long[] equalLow;
+    final long[] equalHigh;
+    double[][] inside;
+
+    Scan(double[] low, double[] high, int intervals) {
+      this.low = new long[intervals];
+      this.width = new long[intervals];
+      for (int j = 0; j < intervals; j++) {
+        this.low[j] = ordered(low[j]);
+        this.width[j] = ordered(high[j]) - this.low[j];
+      }
+      this.below = new long[intervals];
+      this.equalLow = new long[intervals];
+      this.equalHigh = new long[intervals];
+      this.inside = new double[intervals][16];
+    }
+
+    Scan scan(Series<?> series, int from, int to) {
+      int intervals = low.length;
+      long[] lessThanLow = new long[intervals];
+      int[] sizes = new int[intervals];
+      long nanCount = 0;
+      double[] block = new double[BLOCK_ROWS];
+      for (int start = from; start < to; start += BLOCK_ROWS) {
+        int length = Math.min(BLOCK_ROWS, to - start);
+        values(series, start, length, block);
+        nanCount += scan(block, length, lessThanLow, sizes);
+      }
+
+      nans = nanCount;
+      for (int j = 0; j < intervals; j++) {
+        inside[j] = Arrays.copyOf(inside[j], sizes[j]);
+        long previous = j > 0 ? lessThanLow[j - 1] + equalLow[j - 1] + sizes[j - 1] + equalHigh[j - 1] : 0;
+        below[j] = lessThanLow[j] - previous;
+      }
+      return this;
+    }
+
+    /**
+     * Count and collect the values of a block, returning the number of NaNs
+     */
+    private long scan(double[] block, int length, long[] lessThanLow, int[] sizes) {
+      long[] low = this.low;
+      long[] width = this.width;
+      int intervals = low.length;
+      long nanCount = 0;
+      for (int i = 0; i < length; i++) {
+        double x = block[i];
+        if (x != x) {
+          nanCount++;
+          continue;
+        }
+        long key = ordered(x);
+        for (int j = 0; j < intervals; j++) {
+          // Sign of key - low[j] without overflow (Hacker's Delight 2-12)
+          long difference = key - low[j];
+          lessThanLow[j] += (difference ^ ((key ^ low[j]) & (difference ^ key))) >>> 63;
+          if (difference + Long.MIN_VALUE <= width[j] + Long.MIN_VALUE) {
+            if (difference == 0) {
+              equalLow[j]++;
+            } else if (difference == width[j]) {
+              equalHigh[j]++;
+            } else {
+              if (sizes[j] == inside[j].length) {
+                inside[j] = Arrays.copyOf(inside[j], sizes[j] * 2);
+              }
+              inside[j][sizes[j]++] = x;
+            }
+          }
+        }
+      }
+      return nanCount;
+    }
+
+    /**
+     * A long with the same order as the double, flipping the other bits of negative values. -0.0 is ordered before
+     * 0.0, which does not change the value at any rank.
+     */
+    private static long ordered(double x) {
+      long bits = Double.doubleToRawLongBits(x);
+      return bits ^ ((bits >> 63) >>> 1);
+    }
+
+    /**
+     * Number of values below and within an interval
+     */
+    long size(int j) {
+      return below[j] + equalLow[j] + inside[j].length + equalHigh[j];
+    }
+
+    /**
+     * Add the counts and values of the other scans to the first one, copying the values once
+     */
+    static Scan merge(Scan[] scans) {
+      Scan scan = scans[0];
+      for (int j = 0; j < scan.below.length; j++) {
+        int size = 0;
+        for (Scan other : scans) {
+          size += other.inside[j].length;
+        }
+        double[] merged = Arrays.copyOf(scan.inside[j], size);
+        size = scan.inside[j].length;
+        for (int r = 1; r < scans.length; r++) {
+          Scan other = scans[r];
+          scan.below[j] += other.below[j];
+          scan.equalLow[j] += other.equalLow[j];
+          scan.equalHigh[j] += other.equalHigh[j];
+          System.arraycopy(other.inside[j], 0, merged, size, other.inside[j].length);
+          size += other.inside[j].length;
+        }
+        scan.inside[j] = merged;
+      }
+      for (int r = 1; r < scans.length; r++) {
+        scan.nans += scans[r].nans;
+      }
+      return scan;
+    }
+  }
+
+  /**
+   * The ranks (from 0) of the values needed for every quantile, sorted and without duplicates: the closest rank
+   * below q·(n - 1), and the one above it
+   */
+  private static long[] ranks(double[] qs, long n) {
+    if (n == 0) {
+      return new long[0];
+    }
+    long[] ranks = new long[qs.length * 2];
+    for (int i = 0; i < qs.length; i++) {
+      long k = (long) Math.floor(qs[i] * (n - 1));
+      ranks[2 * i] = k;
+      ranks[2 * i + 1] = Math.min(n - 1, k + 1);
+    }
+    return Arrays.stream(ranks).sorted().distinct().toArray();
+  }
+
+  private static double[] interpolate(double[] qs, long n, long[] ranks, double[] selected) {
+    double[] result = new double[qs.length];
+    for (int i = 0; i < qs.length; i++) {
+      if (n == 0) {
+        result[i] = Double.NaN;
+        continue;
+      }
+      double h = qs[i] * (n - 1);
+      long k = (long) Math.floor(h);
+      double lower = selected[Arrays.binarySearch(ranks, k)];
+      double upper = selected[Arrays.binarySearch(ranks, Math.min(n - 1, k + 1))];
+      result[i] = h == k ? lower : lower + (h - k) * (upper - lower);
+    }
+    return result;
+  }
+
+  private static double[] values(Series<?> series, int from, int to) {
+    double[] values = new double[to - from];
+    values(series, from, to - from, values);
+    return values;
+  }
+
+  /**
+   * Copy the values of rows [from, from + length) of a column into the start of a buffer
+   */
+  private static void values(Series<?> series, int from, int length, double[] buffer) {
+    if (series instanceof DoubleSeries ds) {
+      ds.copyToDouble(buffer, from, 0, length);
+    } else if (series instanceof IntSeries is) {
+      for (int i = 0; i < length; i++) {
+        buffer[i] = is.getInt(from + i);
+      }
+    } else if (series instanceof LongSeries ls) {
+      for (int i = 0; i < length; i++) {
+        buffer[i] = ls.getLong(from + i);
+      }
+    } else {
+      System.arraycopy(Columns.toDoubleArray(series, from, from + length), 0, buffer, 0, length);
+    }
+  }
+
+  private static double value(Series<?> series, int row) {
+    if (series instanceof DoubleSeries ds) {
+      return ds.getDouble(row);
+    } else if (series instanceof IntSeries is) {
+      return is.getInt(row);
+    } else if (series instanceof LongSeries ls) {
+      return ls.getLong(row);
+    }
+    return Columns.toDoubleArray(series, row, row + 1)[0];
+  }
+
+  /**
+   * Introselect: rearrange a[from, to) so that a[k] is the value of rank k - from, with smaller or equal values
+   * before it and greater or equal values after it. Quickselect with a median-of-3 pivot, falling back to sorting
+   * the range when partitions shrink too slowly, so the worst case is O(n log n).
+   */
+  static void select(double[] a, int from, int to, int k) {
+    int budget = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+    while (to - from > INSERTION) {
+      if (budget-- == 0) {
+        Arrays.sort(a, from, to);
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      sort3(a, from, middle, to - 1);
+      double pivot = a[middle];
+
+      // Hoare partition: a[from, j] <= pivot <= a[i, to) with a[from] and a[to - 1] as sentinels
+      int i = from;
+      int j = to - 1;
+      while (true) {
+        do {
+          i++;
+        } while (a[i] < pivot);
+        do {
+          j--;
+        } while (a[j] > pivot);
+        if (i >= j) {
+          break;
+        }
+        double t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+      }
+      if (k <= j) {
+        to = j + 1;
+      } else {
+        from = j + 1;
+      }
+    }
+    for (int i = from + 1; i < to; i++) {
+      double x = a[i];
+      int j = i - 1;
+      while (j >= from && a[j] > x) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = x;
+    }
+  }
+
+  private static void sort3(double[] a, int i, int j, int k) {
+    if (a[j] < a[i]) {
+      swap(a, i, j);
+    }
+    if (a[k] < a[j]) {
+      swap(a, j, k);
+      if (a[j] < a[i]) {
+        swap(a, i, j);
+      }
+    }
+  }
+
+  private static void swap(double[] a, int i, int j) {
+    double t = a[i];
+    a[i] = a[j];
+    a[j] = t;
+  }
+}
@@ -0,0 +1,144 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Aggregations per time bucket. Every timestamp is truncated to the start of its bucket, counting buckets from the
+ * epoch in UTC, and rows are aggregated by bucket start with a {@link HashAggregator}. Chunks of a stream are
+ * aggregated one at a time and merged, so buckets may span chunks and rows need not be in time order.
+ * <p>
+ * Times may be {@link LocalDate}, {@link LocalDateTime} or {@link Instant} values, or int or long epoch
+ * milliseconds. Bucket starts have the type of the first time value; rows without a time are skipped.
+ */
+final class Resample {
+
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+
+  private final String timeColumn;
+  private final long bucketMillis;
+  private Class<?> timeType;
+
+  private Resample(String timeColumn, Duration bucket) {
+    if (bucket.toMillis() < 1) {
+      throw new IllegalArgumentException("Bucket must be at least one millisecond: " + bucket);
+    }
+    this.timeColumn = timeColumn;
+    this.bucketMillis = bucket.toMillis();
+  }
+
+  static DataFrame resample(Stream<DataFrame> chunks, String timeColumn, Duration bucket, Agg[] aggs) {
+    Resample resample = new Resample(timeColumn, bucket);
+    DataFrame buckets = HashAggregator.aggregate(chunks.map(resample::bucketed), new String[] { timeColumn }, aggs);
+    if (buckets == null) {
+      String[] names = new String[aggs.length + 1];
+      names[0] = timeColumn;
+      for (int a = 0; a < aggs.length; a++) {
+        names[a + 1] = aggs[a].name;
+      }
+      return DataFrame.empty(names);
+    }
+
+    buckets = Sorter.sort(buckets, new String[] { timeColumn }, new boolean[] { true });
+    Series<?>[] columns = new Series<?>[buckets.width()];
+    for (int c = 0; c < columns.length; c++) {
+      columns[c] = c == 0 ? resample.times(buckets.getColumn(c).castAsLong()) : buckets.getColumn(c);
+    }
+    return DataFrame.byColumn(buckets.getColumnsIndex()).of(columns);
+  }
+
+  /**
+   * The chunk with bucket starts in epoch milliseconds in place of the times, without rows that have no time
+   */
+  private DataFrame bucketed(DataFrame chunk) {
+    if (!chunk.getColumnsIndex().contains(timeColumn)) {
+      throw new IllegalArgumentException("No such column: " + timeColumn);
+    }
+    Series<?> times = chunk.getColumn(timeColumn);
+    int height = chunk.height();
+    long[] starts = new long[height];
+    int[] timed = new int[height];
+    int count = 0;
+
+    if (times instanceof LongSeries ls) {
+      timeType = timeType != null ? timeType : Long.class;
+      for (int i = 0; i < height; i++) {
+        starts[count] = start(ls.getLong(i));
+        timed[count++] = i;
+      }
+    } else if (times instanceof IntSeries is) {
+      timeType = timeType != null ? timeType : Long.class;
+      for (int i = 0; i < height; i++) {
+        starts[count] = start(is.getInt(i));
+        timed[count++] = i;
+      }
+    } else {
+      for (int i = 0; i < height; i++) {
+        Object value = times.get(i);
+        if (value != null) {
+          // Boxed epoch milliseconds come back as longs, like int and long columns
+          timeType = timeType != null ? timeType : value instanceof Integer ? Long.class : value.getClass();
+          starts[count] = start(millis(value));
+          timed[count++] = i;
+        }
+      }
+    }
+
+    DataFrame rows = count == height ? chunk : Sorter.select(chunk, Arrays.copyOf(timed, count));
+    Series<?>[] columns = new Series<?>[rows.width()];
+    for (int c = 0; c < columns.length; c++) {
+      columns[c] = rows.getColumnsIndex().get(c).equals(timeColumn)
+          ? Series.ofLong(Arrays.copyOf(starts, count))
+          : rows.getColumn(c);
+    }
+    return DataFrame.byColumn(rows.getColumnsIndex()).of(columns);
+  }
+
+  private long start(long millis) {
+    return Math.floorDiv(millis, bucketMillis) * bucketMillis;
+  }
+
+  private static long millis(Object value) {
+    if (value instanceof LocalDate date) {
+      return date.toEpochDay() * MILLIS_PER_DAY;
+    } else if (value instanceof LocalDateTime time) {
+      return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    } else if (value instanceof Instant instant) {
+      return instant.toEpochMilli();
+    } else if (value instanceof Long || value instanceof Integer) {
+      return ((Number) value).longValue();
+    }
+    throw new IllegalArgumentException("Not a time: " + value);
+  }
+
+  /**
+   * Bucket starts as values of the time type of the input
+   */
+  private Series<?> times(LongSeries starts) {
+    if (timeType == Long.class) {
+      return starts;
+    }
+    Object[] times = new Object[starts.size()];
+    for (int i = 0; i < times.length; i++) {
+      long millis = starts.getLong(i);
+      if (timeType == LocalDate.class) {
+        times[i] = LocalDate.ofEpochDay(Math.floorDiv(millis, MILLIS_PER_DAY));
+      } else if (timeType == LocalDateTime.class) {
+        times[i] = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+      } else {
+        times[i] = Instant.ofEpochMilli(millis);
+      }
+    }
+    return Series.of(times);
+  }
+}
@@ -0,0 +1,457 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+import org.dflib.Series;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Aggregations over a sliding window of the last rows, optionally within partitions of rows with the same value of
+ * a column (e.g. one window per sensor). Every window is updated in constant time per row: counts and sums are
+ * running totals with Neumaier's compensation, variance uses sums shifted by a recent mean of the window, and min
+ * and max keep a monotonic deque of the values that can still become the extreme.
+ * <p>
+ * Rows of a DataFrame are split into ranges that are computed in parallel, each starting with the window before
+ * it; partitions are computed in parallel instead. For streams the windows are kept from one chunk to the next.
+ */
+final class Rolling {
+
+  private static final int RANGE_ROWS = 1 << 16;
+  private static final int BLOCK_ROWS = 4096;
+
+  // Key of the single window of a stream without partitions
+  private static final Object ALL_ROWS = new Object();
+
+  private final String partitionBy;
+  private final int window;
+  private final Agg[] aggs;
+
+  // Windows of a stream, by partition value
+  private final Map<Object, Window> windows = new HashMap<>();
+
+  private Rolling(String partitionBy, int window, Agg[] aggs) {
+    if (window < 1) {
+      throw new IllegalArgumentException("Window must have at least one row: " + window);
+    }
+    for (Agg agg : aggs) {
+      if (agg.kind == Agg.Kind.DISTINCT || agg.kind == Agg.Kind.QUANTILE || agg.kind == Agg.Kind.TOP) {
+        throw new IllegalArgumentException("Not supported in a rolling window: " + agg.name);
+      }
+    }
+    this.partitionBy = partitionBy;
+    this.window = window;
+    this.aggs = aggs;
+  }
+
+  static DataFrame rolling(DataFrame df, String partitionBy, int window, Agg[] aggs) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    return rolling(df, partitionBy, window, aggs, Math.min(cores, df.height() / Math.max(RANGE_ROWS, 4 * window)));
+  }
+
+  /**
+   * Rolling aggregations, computing a DataFrame without partitions in the given number of ranges
+   */
+  static DataFrame rolling(DataFrame df, String partitionBy, int window, Agg[] aggs, int ranges) {
+    Rolling rolling = new Rolling(partitionBy, window, aggs);
+    int height = df.height();
+    double[][] values = rolling.values(df);
+    double[][] out = new double[aggs.length][height];
+
+    if (partitionBy == null) {
+      int count = Math.max(1, ranges);
+      int step = (height + count - 1) / count;
+      IntStream.range(0, count).parallel().forEach(r -> {
+        int from = r * step;
+        int to = Math.min(height, from + step);
+        Window w = rolling.new Window();
+        // Start with the rows of the window before the range, without output
+        w.addRange(values, Math.max(0, from - window + 1), from, null);
+        w.addRange(values, from, to, out);
+      });
+    } else {
+      int[][] partitions = partitions(column(df, partitionBy)).values().toArray(new int[0][]);
+      Arrays.stream(partitions).parallel().forEach(rows -> {
+        rolling.new Window().add(values, rows, rows.length, out);
+      });
+    }
+    return rolling.append(df, out);
+  }
+
+  /**
+   * Rolling aggregations of a sequential stream of chunks, each returned with the aggregate columns added, where
+   * windows continue from one chunk to the next
+   */
+  static Stream<DataFrame> rolling(Stream<DataFrame> chunks, String partitionBy, int window, Agg[] aggs) {
+    Rolling rolling = new Rolling(partitionBy, window, aggs);
+    return chunks.sequential().map(rolling::next);
+  }
+
+  private DataFrame next(DataFrame chunk) {
+    double[][] values = values(chunk);
+    double[][] out = new double[aggs.length][chunk.height()];
+    if (partitionBy == null) {
+      windows.computeIfAbsent(ALL_ROWS, k -> new Window()).addRange(values, 0, chunk.height(), out);
+    } else {
+      Map<Object, int[]> partitions = partitions(column(chunk, partitionBy));
+      for (Object key : partitions.keySet()) {
+        windows.computeIfAbsent(key, k -> new Window());
+      }
+      partitions.entrySet().parallelStream().forEach(p -> {
+        windows.get(p.getKey()).add(values, p.getValue(), p.getValue().length, out);
+      });
+    }
+    return append(chunk, out);
+  }
+
+  private static Series<?> column(DataFrame df, String name) {
+    if (!df.getColumnsIndex().contains(name)) {
+      throw new IllegalArgumentException("No such column: " + name);
+    }
+    return df.getColumn(name);
+  }
+
+  /**
+   * Rows of every partition, in order; nulls form a partition of their own
+   */
+  private static Map<Object, int[]> partitions(Series<?> keys) {
+    CategorySeries<?> codes = CategorySeries.of(keys);
+    int categories = codes.getCategoryCount();
+    int[] offsets = new int[categories + 2];
+    for (int i = 0; i < codes.size(); i++) {
+      offsets[codes.getCode(i) + 2]++;
+    }
+    for (int c = 1; c < offsets.length; c++) {
+      offsets[c] += offsets[c - 1];
+    }
+    int[] rows = new int[codes.size()];
+    for (int i = 0; i < rows.length; i++) {
+      rows[offsets[codes.getCode(i) + 1]++] = i;
+    }
+
+    Map<Object, int[]> partitions = new HashMap<>();
+    for (int c = -1, start = 0; c < categories; c++) {
+      int end = offsets[c + 1];
+      if (end > start) {
+        partitions.put(c < 0 ? null : codes.getCategory(c), Arrays.copyOfRange(rows, start, end));
+      }
+      start = end;
+    }
+    return partitions;
+  }
+
+  private double[][] values(DataFrame df) {
+    double[][] values = new double[aggs.length][];
+    for (int a = 0; a < aggs.length; a++) {
+      if (aggs[a].column != null) {
+        values[a] = Columns.toDoubleArray(column(df, aggs[a].column), 0, df.height());
+      }
+    }
+    return values;
+  }
+
+  private DataFrame append(DataFrame df, double[][] out) {
+    int width = df.width();
+    String[] names = Arrays.copyOf(df.getColumnsIndex().toArray(), width + aggs.length);
+    Series<?>[] columns = new Series<?>[names.length];
+    for (int c = 0; c < width; c++) {
+      columns[c] = df.getColumn(c);
+    }
+    for (int a = 0; a < aggs.length; a++) {
+      names[width + a] = aggs[a].name;
+      columns[width + a] = Series.ofDouble(out[a]);
+    }
+    return DataFrame.byColumn(names).of(columns);
+  }
+
+  /**
+   * The window of one partition, with the state of every aggregation
+   */
+  private final class Window {
+
+    private final Acc[] accs = new Acc[aggs.length];
+    private long seen;
+
+    Window() {
+      for (int a = 0; a < aggs.length; a++) {
+        accs[a] = switch (aggs[a].kind) {
+          case MIN -> new Extreme(window, true);
+          case MAX -> new Extreme(window, false);
+          case VARIANCE -> new Variance(window);
+          case COUNT, SUM, MEAN -> aggs[a].column == null ? new Rows(window) : new Sum(window, aggs[a].kind);
+          case DISTINCT, QUANTILE, TOP -> throw new IllegalStateException();
+        };
+      }
+    }
+
+    /**
+     * Add rows, writing the aggregates of the window ending with each of them to out (unless it is null), or NaN
+     * while the window is not full
+     */
+    void add(double[][] values, int[] rows, int count, double[][] out) {
+      int notFull = (int) Math.min(count, Math.max(0, window - 1 - seen));
+      for (int a = 0; a < accs.length; a++) {
+        double[] results = out != null ? out[a] : null;
+        accs[a].add(values[a], rows, count, results);
+        for (int i = 0; i < notFull && results != null; i++) {
+          results[rows[i]] = Double.NaN;
+        }
+      }
+      seen += count;
+    }
+
+    /**
+     * Add the rows [from, to) in blocks
+     */
+    void addRange(double[][] values, int from, int to, double[][] out) {
+      int[] block = new int[Math.min(BLOCK_ROWS, Math.max(0, to - from))];
+      for (int start = from; start < to; start += block.length) {
+        int count = Math.min(block.length, to - start);
+        for (int i = 0; i < count; i++) {
+          block[i] = start + i;
+        }
+        add(values, block, count, out);
+      }
+    }
+  }
+
+  /**
+   * State of one aggregation over the window. Rows are added in blocks, keeping the state in local variables
+   * within a block.
+   */
+  private abstract static class Acc {
+
+    /**
+     * Add the values of the given rows, removing the ones that leave the window, and write the aggregate of the
+     * window ending with every row to results, unless it is null
+     */
+    abstract void add(double[] values, int[] rows, int count, double[] results);
+  }
+
+  /**
+   * Row count of the window, for a count without a column
+   */
+  private static final class Rows extends Acc {
+
+    private final int window;
+
+    Rows(int window) {
+      this.window = window;
+    }
+
+    @Override
+    void add(double[] values, int[] rows, int count, double[] results) {
+      for (int i = 0; i < count && results != null; i++) {
+        results[rows[i]] = window;
+      }
+    }
+  }
+
+  /**
+   * Values of the window in a ring buffer, to remove each one when it leaves
+   */
+  private abstract static class Ring extends Acc {
+
+    final double[] ring;
+    int slot;
+    boolean full;
+
+    Ring(int window) {
+      this.ring = new double[window];
+    }
+  }
+
+  /**
+   * Count, sum or mean of the window from a running sum with Neumaier's compensation
+   */
+  private static final class Sum extends Ring {
+
+    private final Agg.Kind kind;
+    private long count;
+    private double sum;
+    private double compensation;
+
+    Sum(int window, Agg.Kind kind) {
+      super(window);
+      this.kind = kind;
+    }
+
+    @Override
+    void add(double[] values, int[] rows, int rowCount, double[] results) {
+      int slot = this.slot;
+      boolean full = this.full;
+      long count = this.count;
+      double sum = this.sum;
+      double compensation = this.compensation;
+      for (int i = 0; i < rowCount; i++) {
+        double x = values[rows[i]];
+        double old = full ? ring[slot] : Double.NaN;
+        ring[slot] = x;
+        if (++slot == ring.length) {
+          slot = 0;
+          full = true;
+        }
+        if (!Double.isNaN(old)) {
+          double t = sum - old;
+          compensation += Math.abs(sum) >= Math.abs(old) ? (sum - t) - old : (-old - t) + sum;
+          sum = t;
+          count--;
+        }
+        if (!Double.isNaN(x)) {
+          double t = sum + x;
+          compensation += Math.abs(sum) >= Math.abs(x) ? (sum - t) + x : (x - t) + sum;
+          sum = t;
+          count++;
+        }
+        if (results != null) {
+          results[rows[i]] = switch (kind) {
+            case COUNT -> count;
+            case SUM -> sum + compensation;
+            default -> count > 0 ? (sum + compensation) / count : Double.NaN;
+          };
+        }
+      }
+      this.slot = slot;
+      this.full = full;
+      this.count = count;
+      this.sum = sum;
+      this.compensation = compensation;
+    }
+  }
+
+  /**
+   * Sample variance of the window from the sums of the values and their squares, shifted by an earlier mean of the
+   * window to avoid cancellation. Every time the ring wraps around, the sums are recomputed from the ring with the
+   * current mean as the shift, so rounding errors do not build up and the shift follows the data; that costs one
+   * more pass over the values.
+   */
+  private static final class Variance extends Ring {
+
+    private long count;
+    private double shift;
+    private double sum;
+    private double squares;
+
+    Variance(int window) {
+      super(window);
+    }
+
+    @Override
+    void add(double[] values, int[] rows, int rowCount, double[] results) {
+      int slot = this.slot;
+      boolean full = this.full;
+      long count = this.count;
+      double shift = this.shift;
+      double sum = this.sum;
+      double squares = this.squares;
+      for (int i = 0; i < rowCount; i++) {
+        double x = values[rows[i]];
+        double old = full ? ring[slot] : Double.NaN;
+        ring[slot] = x;
+        if (!Double.isNaN(old)) {
+          double d = old - shift;
+          sum -= d;
+          squares -= d * d;
+          count--;
+        }
+        if (!Double.isNaN(x)) {
+          double d = x - shift;
+          sum += d;
+          squares += d * d;
+          count++;
+        }
+        if (++slot == ring.length) {
+          slot = 0;
+          full = true;
+          shift = count > 0 ? shift + sum / count : 0;
+          sum = sum(shift);
+          squares = squares(shift);
+        }
+        if (results != null) {
+          results[rows[i]] = count > 1 ? Math.max(0, (squares - sum * sum / count) / (count - 1)) : Double.NaN;
+        }
+      }
+      this.slot = slot;
+      this.full = full;
+      this.count = count;
+      this.shift = shift;
+      this.sum = sum;
+      this.squares = squares;
+    }
+
+    private double sum(double shift) {
+      double sum = 0;
+      for (double v : ring) {
+        sum += Double.isNaN(v) ? 0 : v - shift;
+      }
+      return sum;
+    }
+
+    private double squares(double shift) {
+      double squares = 0;
+      for (double v : ring) {
+        double d = Double.isNaN(v) ? 0 : v - shift;
+        squares += d * d;
+      }
+      return squares;
+    }
+  }
+
+  /**
+   * Min or max of the window from a deque of values in order of position, each of which is smaller (or larger)
+   * than all values before it in the deque. The deque is the ring from head to tail, with the extreme at the head.
+   */
+  private static final class Extreme extends Acc {
+
+    private final boolean min;
+    private final double[] values;
+    private final long[] positions;
+    private long position;
+    private int head;
+    private int size;
+
+    Extreme(int window, boolean min) {
+      this.min = min;
+      this.values = new double[window];
+      this.positions = new long[window];
+    }
+
+    @Override
+    void add(double[] x, int[] rows, int count, double[] results) {
+      int window = values.length;
+      long position = this.position;
+      int head = this.head;
+      int size = this.size;
+      for (int i = 0; i < count; i++, position++) {
+        if (size > 0 && positions[head] <= position - window) {
+          head = head + 1 == window ? 0 : head + 1;
+          size--;
+        }
+        double value = x[rows[i]];
+        if (!Double.isNaN(value)) {
+          int tail = head + size >= window ? head + size - window : head + size;
+          while (size > 0) {
+            int last = tail == 0 ? window - 1 : tail - 1;
+            if (min ? values[last] < value : values[last] > value) {
+              break;
+            }
+            tail = last;
+            size--;
+          }
+          values[tail] = value;
+          positions[tail] = position;
+          size++;
+        }
+        if (results != null) {
+          results[rows[i]] = size > 0 ? values[head] : Double.NaN;
+        }
+      }
+      this.position = position;
+      this.head = head;
+      this.size = size;
+    }
+  }
+}
@@ -0,0 +1,447 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+import org.dflib.Series;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Random samples of rows without replacement, in a single pass. Every row gets a random key in [0, 1) computed from
+ * the seed and its row number by SplitMix64, the generator behind {@link java.util.SplittableRandom}, and a sample of
+ * n rows is the n rows with the smallest keys (reservoir sampling by random keys). The key of a row does not depend
+ * on which thread or chunk sees it, so ranges of rows are sampled in parallel, and a stream of chunks gives the same
+ * sample as the DataFrame they came from. Sampled rows keep their original order.
+ * <p>
+ * A stratified sample takes the rows with the smallest keys within each stratum. While the strata are counted, only
+ * rows whose key is below a bound that shrinks as their stratum grows are kept, which is a little more than the
+ * sample; the bound is chosen so that it misses a row of the sample with a probability below 1e-9.
+ */
+final class Sampler {
+
+  private static final int RANGE_ROWS = 1 << 16;
+
+  private Sampler() {
+  }
+
+  static DataFrame sample(DataFrame df, int n, long seed) {
+    checkSize(n);
+    int height = df.height();
+    if (n >= height) {
+      return df;
+    }
+
+    int ranges = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), height / RANGE_ROWS));
+    int step = (height + ranges - 1) / ranges;
+    Reservoir[] parts = new Reservoir[ranges];
+    Arrays.parallelSetAll(parts, r -> {
+      Reservoir reservoir = new Reservoir(n);
+      for (int row = r * step, to = Math.min(height, row + step); row < to; row++) {
+        reservoir.offer(key(seed, row), row);
+      }
+      return reservoir;
+    });
+
+    Reservoir all = parts[0];
+    for (int r = 1; r < ranges; r++) {
+      for (int i = 0; i < parts[r].size; i++) {
+        all.offer(parts[r].keys[i], parts[r].rows[i]);
+      }
+    }
+    return Sorter.select(df, positions(all.sortedRows()));
+  }
+
+  static DataFrame sample(Stream<DataFrame> chunks, int n, long seed) {
+    checkSize(n);
+    Reservoir reservoir = new Reservoir(n);
+    Pieces pieces = new Pieces();
+    chunks.forEach(chunk -> {
+      int height = chunk.height();
+      long offset = pieces.rows;
+      double[] keys = keys(seed, offset, height);
+
+      // Later rows of the chunk may push out earlier ones; the pieces are trimmed to the reservoir when compacted
+      int[] accepted = new int[height];
+      int count = 0;
+      for (int i = 0; i < height; i++) {
+        if (reservoir.offer(keys[i], offset + i)) {
+          accepted[count++] = i;
+        }
+      }
+      pieces.add(chunk, Arrays.copyOf(accepted, count));
+      if (pieces.isFull()) {
+        pieces.keep(reservoir.sortedRows());
+      }
+    });
+    return pieces.keep(reservoir.sortedRows());
+  }
+
+  static DataFrame stratified(DataFrame df, String column, double fraction, long seed) {
+    return stratified(Stream.of(df), column, fraction, seed);
+  }
+
+  static DataFrame stratified(Stream<DataFrame> chunks, String column, double fraction, long seed) {
+    if (!(fraction >= 0 && fraction <= 1)) {
+      throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+    }
+    Strata strata = new Strata(fraction);
+    Pieces pieces = new Pieces();
+    chunks.forEach(chunk -> {
+      if (!chunk.getColumnsIndex().contains(column)) {
+        throw new IllegalArgumentException("No such column: " + column);
+      }
+      int height = chunk.height();
+      long offset = pieces.rows;
+      int[] stratum = strata.count(chunk.getColumn(column));
+      double[] keys = keys(seed, offset, height);
+
+      int[] accepted = new int[height];
+      int count = 0;
+      for (int i = 0; i < height; i++) {
+        if (strata.accept(stratum[i], keys[i], offset + i)) {
+          accepted[count++] = i;
+        }
+      }
+      pieces.add(chunk, Arrays.copyOf(accepted, count));
+      if (pieces.isFull()) {
+        pieces.keep(strata.prune());
+      }
+    });
+    return pieces.keep(strata.sample());
+  }
+
+  /**
+   * Random key of a row in [0, 1), the SplitMix64 output for the row-th step from the seed
+   */
+  static double key(long seed, long row) {
+    long z = seed + (row + 1) * 0x9e3779b97f4a7c15L;
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return ((z ^ (z >>> 31)) >>> 11) * 0x1.0p-53;
+  }
+
+  private static double[] keys(long seed, long offset, int rows) {
+    double[] keys = new double[rows];
+    if (rows < RANGE_ROWS) {
+      for (int i = 0; i < rows; i++) {
+        keys[i] = key(seed, offset + i);
+      }
+    } else {
+      Arrays.parallelSetAll(keys, i -> key(seed, offset + i));
+    }
+    return keys;
+  }
+
+  private static void checkSize(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("Sample size must not be negative: " + n);
+    }
+  }
+
+  private static int[] positions(long[] rows) {
+    int[] positions = new int[rows.length];
+    for (int i = 0; i < rows.length; i++) {
+      positions[i] = (int) rows[i];
+    }
+    return positions;
+  }
+
+  /**
+   * The rows with the n smallest keys seen so far. Rows below the current threshold are appended to a buffer of 2n
+   * rows; when it is full, the n smallest are moved to its front by a quickselect and the threshold drops to the
+   * largest of them, so every row costs constant time on average.
+   */
+  private static final class Reservoir {
+
+    final int capacity;
+    double[] keys;
+    long[] rows;
+    int size;
+
+    // Rows must order before this key and row to be offered
+    private double thresholdKey = Double.POSITIVE_INFINITY;
+    private long thresholdRow;
+
+    Reservoir(int capacity) {
+      this.capacity = capacity;
+      this.keys = new double[Math.min(capacity * 2, 1024)];
+      this.rows = new long[keys.length];
+    }
+
+    boolean offer(double key, long row) {
+      if (key > thresholdKey || key == thresholdKey && row >= thresholdRow || capacity == 0) {
+        return false;
+      }
+      if (size == keys.length) {
+        if (size < capacity * 2) {
+          keys = Arrays.copyOf(keys, Math.min(size * 2, capacity * 2));
+          rows = Arrays.copyOf(rows, keys.length);
+        } else {
+          compact();
+        }
+      }
+      keys[size] = key;
+      rows[size++] = row;
+      return true;
+    }
+
+    long[] sortedRows() {
+      if (size > capacity) {
+        compact();
+      }
+      long[] sorted = Arrays.copyOf(rows, size);
+      Arrays.sort(sorted);
+      return sorted;
+    }
+
+    private void compact() {
+      int from = 0;
+      int to = size - 1;
+      int k = capacity - 1;
+      while (from < to) {
+        int middle = (from + to) >>> 1;
+        double pivotKey = keys[middle];
+        long pivotRow = rows[middle];
+        int i = from;
+        int j = to;
+        while (i <= j) {
+          while (less(i, pivotKey, pivotRow)) {
+            i++;
+          }
+          while (less(pivotKey, pivotRow, j)) {
+            j--;
+          }
+          if (i <= j) {
+            swap(i++, j--);
+          }
+        }
+        if (k <= j) {
+          to = j;
+        } else if (k >= i) {
+          from = i;
+        } else {
+          break;
+        }
+      }
+      size = capacity;
+      // The largest of the kept rows is the new threshold
+      int largest = 0;
+      for (int i = 1; i < size; i++) {
+        if (less(largest, keys[i], rows[i])) {
+          largest = i;
+        }
+      }
+      thresholdKey = keys[largest];
+      thresholdRow = rows[largest];
+    }
+
+    private boolean less(int i, double key, long row) {
+      return keys[i] < key || keys[i] == key && rows[i] < row;
+    }
+
+    private boolean less(double key, long row, int i) {
+      return key < keys[i] || key == keys[i] && row < rows[i];
+    }
+
+    private void swap(int i, int j) {
+      double key = keys[i];
+      keys[i] = keys[j];
+      keys[j] = key;
+      long row = rows[i];
+      rows[i] = rows[j];
+      rows[j] = row;
+    }
+  }
+
+  /**
+   * Per-stratum row counts and the candidate rows for a stratified sample
+   */
+  private static final class Strata {
+
+    private final double fraction;
+    private final Map<Object, Integer> ids = new HashMap<>();
+    private long[] counts = new long[16];
+
+    // Candidate rows, in row order
+    private int[] stratum = new int[1024];
+    private double[] keys = new double[1024];
+    private long[] rows = new long[1024];
+    private int candidates;
+
+    Strata(double fraction) {
+      this.fraction = fraction;
+    }
+
+    /**
+     * Count the rows of a chunk per stratum, returning the stratum of every row. Nulls form a stratum of their own.
+     */
+    int[] count(Series<?> values) {
+      CategorySeries<?> categories = CategorySeries.of(values);
+      int[] byCode = new int[categories.getCategoryCount() + 1];
+      for (int code = -1; code < categories.getCategoryCount(); code++) {
+        Integer id = ids.get(code < 0 ? null : categories.getCategory(code));
+        if (id == null) {
+          id = ids.size();
+          ids.put(code < 0 ? null : categories.getCategory(code), id);
+          if (id == counts.length) {
+            counts = Arrays.copyOf(counts, id * 2);
+          }
+        }
+        byCode[code + 1] = id;
+      }
+
+      int[] strata = new int[values.size()];
+      for (int i = 0; i < strata.length; i++) {
+        strata[i] = byCode[categories.getCode(i) + 1];
+        counts[strata[i]]++;
+      }
+      return strata;
+    }
+
+    boolean accept(int s, double key, long row) {
+      if (key >= bound(counts[s])) {
+        return false;
+      }
+      if (candidates == rows.length) {
+        stratum = Arrays.copyOf(stratum, candidates * 2);
+        keys = Arrays.copyOf(keys, candidates * 2);
+        rows = Arrays.copyOf(rows, candidates * 2);
+      }
+      stratum[candidates] = s;
+      keys[candidates] = key;
+      rows[candidates++] = row;
+      return true;
+    }
+
+    /**
+     * Drop candidates above the bound of their stratum, returning the rows left
+     */
+    long[] prune() {
+      int kept = 0;
+      for (int i = 0; i < candidates; i++) {
+        if (keys[i] < bound(counts[stratum[i]])) {
+          stratum[kept] = stratum[i];
+          keys[kept] = keys[i];
+          rows[kept++] = rows[i];
+        }
+      }
+      candidates = kept;
+      return Arrays.copyOf(rows, kept);
+    }
+
+    /**
+     * Rows of the sample: the rows with the smallest keys in every stratum, in row order
+     */
+    long[] sample() {
+      prune();
+      // Order candidates by stratum and key, then take the first rows of every stratum
+      Integer[] order = new Integer[candidates];
+      Arrays.setAll(order, i -> i);
+      Arrays.sort(order, (a, b) -> stratum[a] != stratum[b] ? Integer.compare(stratum[a], stratum[b])
+          : keys[a] != keys[b] ? Double.compare(keys[a], keys[b]) : Long.compare(rows[a], rows[b]));
+
+      long[] sample = new long[candidates];
+      int size = 0;
+      for (int i = 0, taken = 0; i < order.length; i++) {
+        int s = stratum[order[i]];
+        taken = i > 0 && stratum[order[i - 1]] == s ? taken + 1 : 0;
+        if (taken < sampleSize(counts[s])) {
+          sample[size++] = rows[order[i]];
+        }
+      }
+      sample = Arrays.copyOf(sample, size);
+      Arrays.sort(sample);
+      return sample;
+    }
+
+    /**
+     * Rows to sample from a stratum: the fraction of its rows, rounded, but at least one
+     */
+    private long sampleSize(long count) {
+      return Math.max(1, Math.round(fraction * count));
+    }
+
+    /**
+     * Key below which the rows of the sample of a stratum are, but for a probability below 1e-9. The sample is the
+     * rows up to the k-th smallest of count uniform keys, which is about fraction with a standard deviation of
+     * sqrt(fraction * (1 - fraction) / count); the last term covers rounding and strata of a few rows.
+     */
+    private double bound(long count) {
+      return fraction == 0 ? 21.0 / count
+          : fraction + 6 * Math.sqrt(fraction * (1 - fraction) / count) + 21.0 / count;
+    }
+  }
+
+  /**
+   * Selected rows of the chunks of a stream, with their row numbers
+   */
+  private static final class Pieces {
+
+    private final List<DataFrame> frames = new ArrayList<>();
+    private final List<long[]> frameRows = new ArrayList<>();
+    long rows;
+
+    // Rows held, and rows held after the last compaction
+    private long held;
+    private long kept;
+
+    void add(DataFrame chunk, int[] positions) {
+      if (frames.isEmpty() || positions.length > 0) {
+        long[] numbers = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+          numbers[i] = rows + positions[i];
+        }
+        frames.add(Sorter.select(chunk, positions));
+        frameRows.add(numbers);
+        held += positions.length;
+      }
+      rows += chunk.height();
+    }
+
+    /**
+     * Whether the rows held have grown enough since the last compaction to compact them again
+     */
+    boolean isFull() {
+      return held > 2 * Math.max(kept, RANGE_ROWS);
+    }
+
+    /**
+     * Keep only the given rows, in row order, and return them as one DataFrame
+     */
+    DataFrame keep(long[] keep) {
+      if (frames.isEmpty()) {
+        return DataFrame.empty();
+      }
+      DataFrame[] selected = new DataFrame[frames.size()];
+      int k = 0;
+      for (int f = 0; f < selected.length; f++) {
+        long[] numbers = frameRows.get(f);
+        int[] positions = new int[numbers.length];
+        int count = 0;
+        for (int i = 0; i < numbers.length; i++) {
+          while (k < keep.length && keep[k] < numbers[i]) {
+            k++;
+          }
+          if (k < keep.length && keep[k] == numbers[i]) {
+            positions[count++] = i;
+          }
+        }
+        selected[f] = count == numbers.length ? frames.get(f)
+            : Sorter.select(frames.get(f), Arrays.copyOf(positions, count));
+      }
+
+      DataFrame all = selected.length == 1 ? selected[0]
+          : selected[0].vConcat(Arrays.copyOfRange(selected, 1, selected.length));
+      frames.clear();
+      frameRows.clear();
+      frames.add(all);
+      frameRows.add(keep);
+      held = kept = keep.length;
+      return all;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+import org.dflib.Series;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Approximate distinct counts and most frequent values of a column, from a {@link HyperLogLog} or a
+ * {@link FrequencySketch} per range of rows, built in parallel and merged. Values are hashed by a
+ * {@link ColumnHasher} in blocks, without boxing.
+ */
+final class Sketches {
+
+  private static final int RANGE_ROWS = 1 << 20;
+  private static final int BLOCK_ROWS = 4096;
+
+  private Sketches() {
+  }
+
+  static long approxDistinct(DataFrame df, String column) {
+    return distinct(column(df, column)).estimate();
+  }
+
+  static long approxDistinct(Stream<DataFrame> chunks, String column) {
+    return chunks.map(chunk -> distinct(column(chunk, column))).reduce(HyperLogLog::merge)
+        .map(HyperLogLog::estimate).orElse(0L);
+  }
+
+  static DataFrame topK(DataFrame df, String column, int k) {
+    checkK(k);
+    return top(frequencies(column(df, column), () -> new FrequencySketch(2048, sketchCapacity(k))), column, k);
+  }
+
+  static DataFrame topK(Stream<DataFrame> chunks, String column, int k) {
+    checkK(k);
+    FrequencySketch sketch = chunks
+        .map(chunk -> frequencies(column(chunk, column), () -> new FrequencySketch(2048, sketchCapacity(k))))
+        .reduce(FrequencySketch::merge)
+        .orElseGet(FrequencySketch::new);
+    return top(sketch, column, k);
+  }
+
+  /**
+   * Heap capacity for the top k values: a margin of candidates keeps values ranked near k from being evicted by
+   * a burst of others
+   */
+  private static int sketchCapacity(int k) {
+    return Math.max(64, 4 * k);
+  }
+
+  private static void checkK(int k) {
+    if (k < 1) {
+      throw new IllegalArgumentException("k must be positive: " + k);
+    }
+  }
+
+  static HyperLogLog distinct(Series<?> series) {
+    ColumnHasher hasher = new ColumnHasher(series);
+    return ranges(series).mapToObj(r -> {
+      HyperLogLog sketch = new HyperLogLog();
+      long[] hashes = new long[BLOCK_ROWS];
+      int[] rows = new int[BLOCK_ROWS];
+      int to = Math.min(series.size(), (r + 1) * RANGE_ROWS);
+      for (int from = r * RANGE_ROWS; from < to; from += BLOCK_ROWS) {
+        int n = hasher.hash(from, Math.min(to, from + BLOCK_ROWS), hashes, rows);
+        for (int i = 0; i < n; i++) {
+          sketch.addHash(hashes[i]);
+        }
+      }
+      return sketch;
+    }).reduce(HyperLogLog::merge).orElseGet(HyperLogLog::new);
+  }
+
+  static FrequencySketch frequencies(Series<?> series, Supplier<FrequencySketch> sketches) {
+    ColumnHasher hasher = new ColumnHasher(series);
+    return ranges(series).mapToObj(r -> {
+      FrequencySketch sketch = sketches.get();
+      long[] hashes = new long[BLOCK_ROWS];
+      int[] rows = new int[BLOCK_ROWS];
+      int to = Math.min(series.size(), (r + 1) * RANGE_ROWS);
+      for (int from = r * RANGE_ROWS; from < to; from += BLOCK_ROWS) {
+        int n = hasher.hash(from, Math.min(to, from + BLOCK_ROWS), hashes, rows);
+        for (int i = 0; i < n; i++) {
+          if (sketch.increment(hashes[i])) {
+            sketch.offer(hashes[i], series.get(from + rows[i]));
+          }
+        }
+      }
+      return sketch;
+    }).reduce(FrequencySketch::merge).orElseGet(sketches);
+  }
+
+  private static IntStream ranges(Series<?> series) {
+    return IntStream.range(0, Math.max(1, (series.size() + RANGE_ROWS - 1) / RANGE_ROWS)).parallel();
+  }
+
+  /**
+   * The k most frequent values with their estimated counts
+   */
+  private static DataFrame top(FrequencySketch sketch, String column, int k) {
+    List<Object> values = sketch.top(k);
+    long[] counts = new long[values.size()];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = sketch.estimate(values.get(i));
+    }
+    return DataFrame.byColumn(column, "count").of(Columns.toSeries(values.toArray()), Series.ofLong(counts));
+  }
+
+  private static Series<?> column(DataFrame df, String name) {
+    if (!df.getColumnsIndex().contains(name)) {
+      throw new IllegalArgumentException("No such column: " + name);
+    }
+    return df.getColumn(name);
+  }
+}
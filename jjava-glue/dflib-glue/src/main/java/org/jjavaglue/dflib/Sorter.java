@@ -0,0 +1,481 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.BooleanSeries;
+import org.dflib.DataFrame;
+import org.dflib.DoubleSeries;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Multi-column sort by a least-significant-digit radix sort of the row indices. Every key column is encoded as an
+ * unsigned long that sorts like the values: integers by value, doubles by their bits, booleans as 0 and 1 and any
+ * other values (e.g. strings) by their rank among the distinct values. Keys are offset by their minimum, so only the
+ * 11-bit digits that differ between rows get a pass. Nulls and NaNs sort last in either direction, and rows with
+ * equal keys keep their order.
+ * <p>
+ * Large inputs are sorted with parallel passes: every chunk of rows counts its digits, and then scatters its rows
+ * into its own slice of each bucket.
+ */
+final class Sorter {
+
+  static final int PARALLEL_ROWS = 1 << 20;
+
+  private static final int DIGIT_BITS = 11;
+  private static final int DIGITS = 1 << DIGIT_BITS;
+
+  private Sorter() {
+  }
+
+  static DataFrame sort(DataFrame df, String[] columns, boolean[] ascending) {
+    return select(df, permutation(df, columns, ascending));
+  }
+
+  /**
+   * Row indices of the DataFrame in sorted order
+   */
+  static int[] permutation(DataFrame df, String[] columns, boolean[] ascending) {
+    return permutation(keys(df, columns, ascending), df.height());
+  }
+
+  /**
+   * The first n rows of the sorted DataFrame, using a bounded heap instead of sorting all rows
+   */
+  static DataFrame top(DataFrame df, int n, String[] columns, boolean[] ascending) {
+    if (n < 0) {
+      throw new IllegalArgumentException("Row count must not be negative: " + n);
+    }
+    Key[] keys = keys(df, columns, ascending);
+    int rows = df.height();
+    int chunks = chunks(rows);
+    int step = (rows + chunks - 1) / chunks;
+
+    Heap[] heaps = new Heap[chunks];
+    Arrays.parallelSetAll(heaps, c -> {
+      Heap heap = new Heap(Math.min(n, rows), keys);
+      for (int row = c * step, to = Math.min(rows, row + step); row < to; row++) {
+        heap.offer(row);
+      }
+      return heap;
+    });
+
+    Heap all = heaps[0];
+    for (int c = 1; c < chunks; c++) {
+      for (int i = 0; i < heaps[c].size; i++) {
+        all.offer(heaps[c].rows[i]);
+      }
+    }
+    return select(df, all.sorted());
+  }
+
+  private static Key[] keys(DataFrame df, String[] columns, boolean[] ascending) {
+    if (columns.length != ascending.length) {
+      throw new IllegalArgumentException("Got " + columns.length + " columns but " + ascending.length
+          + " directions");
+    }
+    Key[] keys = new Key[columns.length];
+    for (int k = 0; k < columns.length; k++) {
+      keys[k] = new Key(df.getColumn(columns[k]), ascending[k]);
+    }
+    return keys;
+  }
+
+  /**
+   * Sorted order of the rows: a stable sort by the last key, then by each key before it. Adjacent keys are packed
+   * into one word when their bits fit in 64, e.g. a 20-bit id and a 34-bit timestamp sort in one 54-bit key.
+   */
+  private static int[] permutation(Key[] keys, int rows) {
+    for (Key key : keys) {
+      key.scan();
+    }
+
+    int[] perm = new int[rows];
+    Arrays.setAll(perm, i -> i);
+    long[] values = new long[rows];
+    int[] permBuffer = new int[rows];
+    long[] valueBuffer = new long[rows];
+    int chunks = chunks(rows);
+
+    for (int end = keys.length; end > 0; ) {
+      int start = end - 1;
+      int bits = keys[start].bits();
+      while (start > 0 && bits + keys[start - 1].bits() <= 64) {
+        bits += keys[--start].bits();
+      }
+      Key[] word = Arrays.copyOfRange(keys, start, end);
+      int[] order = perm;
+      Arrays.parallelSetAll(values, i -> encode(word, order[i]));
+
+      for (int shift = 0; shift < bits; shift += DIGIT_BITS) {
+        if (pass(values, perm, valueBuffer, permBuffer, shift, chunks)) {
+          long[] v = values;
+          values = valueBuffer;
+          valueBuffer = v;
+          int[] p = perm;
+          perm = permBuffer;
+          permBuffer = p;
+        }
+      }
+      end = start;
+    }
+    return perm;
+  }
+
+  private static long encode(Key[] word, int row) {
+    long value = 0;
+    for (Key key : word) {
+      value = (value << key.bits()) | key.encode(row);
+    }
+    return value;
+  }
+
+  /**
+   * One stable counting-sort pass on the digit of the values at "shift", from (values, perm) into the buffers.
+   * Returns false without moving anything if all rows have the same digit.
+   */
+  private static boolean pass(long[] values, int[] perm, long[] valueOut, int[] permOut, int shift, int chunks) {
+    int rows = values.length;
+    int step = (rows + chunks - 1) / chunks;
+
+    int[][] counts = new int[chunks][];
+    Arrays.parallelSetAll(counts, c -> {
+      int[] count = new int[DIGITS];
+      for (int i = c * step, to = Math.min(rows, i + step); i < to; i++) {
+        count[(int) (values[i] >>> shift) & (DIGITS - 1)]++;
+      }
+      return count;
+    });
+
+    // Offsets of every chunk in every bucket: buckets in order, chunks in order within a bucket
+    int[][] offsets = new int[chunks][DIGITS];
+    int at = 0;
+    for (int d = 0; d < DIGITS; d++) {
+      int bucket = 0;
+      for (int c = 0; c < chunks; c++) {
+        offsets[c][d] = at;
+        at += counts[c][d];
+        bucket += counts[c][d];
+      }
+      if (bucket == rows) {
+        return false;
+      }
+    }
+
+    IntStream.range(0, chunks).parallel().forEach(c -> {
+      int[] next = offsets[c];
+      for (int i = c * step, to = Math.min(rows, i + step); i < to; i++) {
+        long v = values[i];
+        int target = next[(int) (v >>> shift) & (DIGITS - 1)]++;
+        valueOut[target] = v;
+        permOut[target] = perm[i];
+      }
+    });
+    return true;
+  }
+
+  private static int chunks(int rows) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    return rows < PARALLEL_ROWS ? 1 : Math.max(1, Math.min(cores, rows / (PARALLEL_ROWS / 4)));
+  }
+
+  /**
+   * Rows of the DataFrame in the given order, gathering all columns in parallel
+   */
+  static DataFrame select(DataFrame df, int[] index) {
+    Series<?>[] columns = new Series<?>[df.width()];
+    Arrays.parallelSetAll(columns, c -> select(df.getColumn(c), index));
+    return DataFrame.byColumn(df.getColumnsIndex()).of(columns);
+  }
+
+  static Series<?> select(Series<?> series, int[] index) {
+    int n = index.length;
+    if (series instanceof DoubleSeries ds) {
+      double[] values = new double[n];
+      for (int i = 0; i < n; i++) {
+        values[i] = ds.getDouble(index[i]);
+      }
+      return Series.ofDouble(values);
+    } else if (series instanceof IntSeries is) {
+      int[] values = new int[n];
+      for (int i = 0; i < n; i++) {
+        values[i] = is.getInt(index[i]);
+      }
+      return Series.ofInt(values);
+    } else if (series instanceof LongSeries ls) {
+      long[] values = new long[n];
+      for (int i = 0; i < n; i++) {
+        values[i] = ls.getLong(index[i]);
+      }
+      return Series.ofLong(values);
+    } else if (series instanceof BooleanSeries bs) {
+      boolean[] values = new boolean[n];
+      for (int i = 0; i < n; i++) {
+        values[i] = bs.getBool(index[i]);
+      }
+      return Series.ofBool(values);
+    } else if (series instanceof CategorySeries<?> cs) {
+      return cs.select(Series.ofInt(index));
+    }
+
+    Object[] values = new Object[n];
+    for (int i = 0; i < n; i++) {
+      values[i] = series.get(index[i]);
+    }
+    return Series.of(values);
+  }
+
+  /**
+   * One sort column, encoded as unsigned longs in sort order: offset by the minimum (or from the maximum when
+   * descending), with nulls after every value. Only doubles and ranked values can be null, and neither uses the full
+   * 64-bit range, so there is always a code left for nulls.
+   */
+  private static final class Key {
+
+    private static final int INT = 0;
+    private static final int LONG = 1;
+    private static final int DOUBLE = 2;
+    private static final int BOOLEAN = 3;
+    private static final int RANK = 4;
+
+    private final int kind;
+    private final Series<?> series;
+    private final boolean ascending;
+    private final int[] ranks;
+    private long min = -1;
+    private long max;
+    private boolean nulls;
+
+    Key(Series<?> series, boolean ascending) {
+      this.series = series;
+      this.ascending = ascending;
+      this.kind = series instanceof IntSeries ? INT
+          : series instanceof LongSeries ? LONG
+          : series instanceof DoubleSeries ? DOUBLE
+          : series instanceof BooleanSeries ? BOOLEAN
+          : RANK;
+      this.ranks = kind == RANK ? ranks(series) : null;
+    }
+
+    /**
+     * Find the range of the values and whether there are nulls, which {@link #encode(int)} needs
+     */
+    Key scan() {
+      for (int row = 0; row < series.size(); row++) {
+        if (isNull(row)) {
+          nulls = true;
+        } else {
+          long u = unsigned(row);
+          if (Long.compareUnsigned(u, min) < 0) {
+            min = u;
+          }
+          if (Long.compareUnsigned(u, max) > 0) {
+            max = u;
+          }
+        }
+      }
+      return this;
+    }
+
+    /**
+     * Rank of every value among the distinct values in their natural order, or -1 for nulls
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int[] ranks(Series<?> series) {
+      if (series instanceof CategorySeries<?> cs) {
+        return ranks(cs);
+      }
+
+      int n = series.size();
+      int[] codes = new int[n];
+      ValueDictionary dictionary = new ValueDictionary();
+      for (int row = 0; row < n; row++) {
+        Object value = series.get(row);
+        codes[row] = value != null ? dictionary.code(value) : -1;
+      }
+
+      List<Object> values = dictionary.values();
+      Integer[] byValue = new Integer[values.size()];
+      Arrays.setAll(byValue, i -> i);
+      Arrays.sort(byValue, Comparator.comparing(i -> (Comparable) values.get(i)));
+      int[] rankOfCode = new int[byValue.length];
+      for (int r = 0; r < byValue.length; r++) {
+        rankOfCode[byValue[r]] = r;
+      }
+
+      for (int row = 0; row < n; row++) {
+        if (codes[row] >= 0) {
+          codes[row] = rankOfCode[codes[row]];
+        }
+      }
+      return codes;
+    }
+
+    /**
+     * Ranks of a categorical column: only the categories are sorted, then every row takes the rank of its code
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int[] ranks(CategorySeries<?> series) {
+      Integer[] byValue = new Integer[series.getCategoryCount()];
+      Arrays.setAll(byValue, i -> i);
+      Arrays.sort(byValue, Comparator.comparing(i -> (Comparable) series.getCategory(i)));
+      int[] rankOfCode = new int[byValue.length];
+      for (int r = 0; r < byValue.length; r++) {
+        rankOfCode[byValue[r]] = r;
+      }
+
+      int[] ranks = new int[series.size()];
+      for (int row = 0; row < ranks.length; row++) {
+        int code = series.getCode(row);
+        ranks[row] = code < 0 ? -1 : rankOfCode[code];
+      }
+      return ranks;
+    }
+
+    boolean isNull(int row) {
+      return switch (kind) {
+        case RANK -> ranks[row] < 0;
+        case DOUBLE -> Double.isNaN(((DoubleSeries) series).getDouble(row));
+        default -> false;
+      };
+    }
+
+    /**
+     * Value of a non-null row as an unsigned long in ascending order
+     */
+    private long unsigned(int row) {
+      switch (kind) {
+        case INT:
+          return ((IntSeries) series).getInt(row) ^ Long.MIN_VALUE;
+        case LONG:
+          return ((LongSeries) series).getLong(row) ^ Long.MIN_VALUE;
+        case DOUBLE:
+          long bits = Hashing.bits(((DoubleSeries) series).getDouble(row));
+          return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+        case BOOLEAN:
+          return ((BooleanSeries) series).getBool(row) ? 1 : 0;
+        default:
+          return ranks[row];
+      }
+    }
+
+    private long range() {
+      return min == -1 && max == 0 ? 0 : max - min;
+    }
+
+    long encode(int row) {
+      if (isNull(row)) {
+        return range() + 1;
+      }
+      long u = unsigned(row);
+      return ascending ? u - min : max - u;
+    }
+
+    /**
+     * Number of low bits in which encoded values can differ
+     */
+    int bits() {
+      long top = nulls ? range() + 1 : range();
+      return 64 - Long.numberOfLeadingZeros(top);
+    }
+
+    int compare(int a, int b) {
+      boolean nullA = isNull(a);
+      boolean nullB = isNull(b);
+      if (nullA || nullB) {
+        return Boolean.compare(nullA, nullB);
+      }
+      int c = Long.compareUnsigned(unsigned(a), unsigned(b));
+      return ascending ? c : -c;
+    }
+  }
+
+  /**
+   * Max-heap of the best n rows seen so far, with the worst of them on top
+   */
+  private static final class Heap {
+
+    final int[] rows;
+    final int capacity;
+    final Key[] keys;
+    int size;
+
+    Heap(int capacity, Key[] keys) {
+      this.rows = new int[capacity];
+      this.capacity = capacity;
+      this.keys = keys;
+    }
+
+    /**
+     * Order of two rows: by keys, then by row for a stable result
+     */
+    int compare(int a, int b) {
+      for (Key key : keys) {
+        int c = key.compare(a, b);
+        if (c != 0) {
+          return c;
+        }
+      }
+      return Integer.compare(a, b);
+    }
+
+    void offer(int row) {
+      if (size < capacity) {
+        rows[size] = row;
+        up(size++);
+      } else if (capacity > 0 && compare(row, rows[0]) < 0) {
+        rows[0] = row;
+        down(0);
+      }
+    }
+
+    private void up(int i) {
+      while (i > 0) {
+        int parent = (i - 1) / 2;
+        if (compare(rows[i], rows[parent]) <= 0) {
+          return;
+        }
+        swap(i, parent);
+        i = parent;
+      }
+    }
+
+    private void down(int i) {
+      while (true) {
+        int largest = i;
+        for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+          if (compare(rows[child], rows[largest]) > 0) {
+            largest = child;
+          }
+        }
+        if (largest == i) {
+          return;
+        }
+        swap(i, largest);
+        i = largest;
+      }
+    }
+
+    private void swap(int i, int j) {
+      int t = rows[i];
+      rows[i] = rows[j];
+      rows[j] = t;
+    }
+
+    /**
+     * The rows in sorted order
+     */
+    int[] sorted() {
+      Integer[] boxed = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        boxed[i] = rows[i];
+      }
+      Arrays.sort(boxed, this::compare);
+      return Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+    }
+  }
+}
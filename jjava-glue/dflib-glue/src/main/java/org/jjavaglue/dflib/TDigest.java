@@ -0,0 +1,239 @@
+package org.jjavaglue.dflib;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest (Dunning &amp; Ertl) for approximate quantiles of a stream of doubles. Values are summarized as
+ * a sorted list of weighted centroids that are small near the tails and larger around the median, so extreme
+ * quantiles stay accurate with a bounded number of centroids. Digests of different parts of the data can be merged.
+ * NaNs are ignored.
+ */
+public class TDigest {
+
+  private final double compression;
+
+  // Sorted centroids
+  private double[] means;
+  private double[] weights;
+  private int centroids;
+
+  // Unit-weight values not merged into the centroids yet, in a buffer that grows up to pendingLimit, so that
+  // digests of few values (e.g. one per group) stay small
+  private double[] pending = new double[16];
+  private final int pendingLimit;
+  private int pendingCount;
+
+  private double totalWeight;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+
+  public TDigest() {
+    this(100);
+  }
+
+  /**
+   * @param compression upper bound on the number of centroids, roughly; higher is more accurate and larger
+   */
+  public TDigest(double compression) {
+    if (compression < 10) {
+      throw new IllegalArgumentException("Compression must be at least 10: " + compression);
+    }
+    this.compression = compression;
+    this.means = new double[0];
+    this.weights = new double[0];
+    this.pendingLimit = ((int) Math.ceil(compression) + 10) * 8;
+  }
+
+  public TDigest add(double value) {
+    if (Double.isNaN(value)) {
+      return this;
+    }
+    if (pendingCount == pending.length) {
+      if (pending.length < pendingLimit) {
+        pending = Arrays.copyOf(pending, Math.min(pendingLimit, pending.length * 2));
+      } else {
+        flush();
+      }
+    }
+    pending[pendingCount++] = value;
+    totalWeight++;
+    if (value < min) {
+      min = value;
+    }
+    if (value > max) {
+      max = value;
+    }
+    return this;
+  }
+
+  /**
+   * Add all values summarized by another digest to this one
+   */
+  public TDigest merge(TDigest other) {
+    other.flush();
+    flush();
+    if (other.centroids == 0) {
+      return this;
+    }
+
+    totalWeight += other.totalWeight;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+    compress(means, weights, centroids, other.means, other.weights, other.centroids);
+    return this;
+  }
+
+  /**
+   * Multiply the weight of every value by the given factor, e.g. to let a sample stand for a larger population
+   */
+  TDigest scale(double factor) {
+    flush();
+    for (int i = 0; i < centroids; i++) {
+      weights[i] *= factor;
+    }
+    totalWeight *= factor;
+    return this;
+  }
+
+  /**
+   * Number of values added
+   */
+  public long size() {
+    return Math.round(totalWeight);
+  }
+
+  public double min() {
+    return totalWeight > 0 ? min : Double.NaN;
+  }
+
+  public double max() {
+    return totalWeight > 0 ? max : Double.NaN;
+  }
+
+  /**
+   * Approximate value at quantile q (0 to 1), interpolating between centroids. NaN if no values were added.
+   */
+  public double quantile(double q) {
+    if (q < 0 || q > 1) {
+      throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+    }
+    flush();
+    if (centroids == 0) {
+      return Double.NaN;
+    } else if (centroids == 1) {
+      return means[0];
+    }
+
+    double index = q * totalWeight;
+    if (index <= 1) {
+      return min;
+    } else if (index >= totalWeight - 1) {
+      return max;
+    }
+
+    // Between the minimum and the center of the first centroid
+    double firstCenter = weights[0] / 2;
+    if (index < firstCenter) {
+      return min + (means[0] - min) * (index - 1) / (firstCenter - 1);
+    }
+
+    // Between the centers of two adjacent centroids
+    double center = firstCenter;
+    for (int i = 0; i < centroids - 1; i++) {
+      double step = (weights[i] + weights[i + 1]) / 2;
+      if (center + step > index) {
+        double t = (index - center) / step;
+        return means[i] + (means[i + 1] - means[i]) * t;
+      }
+      center += step;
+    }
+
+    // Between the center of the last centroid and the maximum
+    double lastWeight = weights[centroids - 1] / 2;
+    double t = Math.min(1, (index - center) / Math.max(1, lastWeight - 1));
+    return means[centroids - 1] + (max - means[centroids - 1]) * t;
+  }
+
+  private void flush() {
+    if (pendingCount > 0) {
+      Arrays.sort(pending, 0, pendingCount);
+      compress(means, weights, centroids, pending, null, pendingCount);
+      pendingCount = 0;
+    }
+  }
+
+  /**
+   * Merge two sorted centroid lists (null weights meaning 1) into a new compressed list, in one pass. A centroid
+   * absorbs its neighbours while it stays within one unit of the k1 scale function k(q) = δ / 2π · asin(2q - 1).
+   */
+  private void compress(double[] m1, double[] w1, int n1, double[] m2, double[] w2, int n2) {
+    int capacity = Math.max(means.length, (int) Math.ceil(compression) + 10);
+    double[] outMeans = new double[capacity];
+    double[] outWeights = new double[capacity];
+    int out = 0;
+
+    double total = totalWeight;
+    double weightSoFar = 0;
+    double qLimit = qOfK(kOfQ(0) + 1);
+    double mean = 0;
+    double weight = 0;
+
+    int i = 0;
+    int j = 0;
+    while (i < n1 || j < n2) {
+      double m;
+      double w;
+      if (j >= n2 || (i < n1 && m1[i] <= m2[j])) {
+        m = m1[i];
+        w = w1[i++];
+      } else {
+        m = m2[j];
+        w = w2 != null ? w2[j] : 1;
+        j++;
+      }
+
+      if (weight == 0) {
+        mean = m;
+        weight = w;
+      } else if ((weightSoFar + weight + w) / total <= qLimit) {
+        weight += w;
+        mean += (m - mean) * w / weight;
+      } else {
+        if (out == outMeans.length) {
+          outMeans = Arrays.copyOf(outMeans, out * 2);
+          outWeights = Arrays.copyOf(outWeights, out * 2);
+        }
+        outMeans[out] = mean;
+        outWeights[out++] = weight;
+        weightSoFar += weight;
+        qLimit = qOfK(kOfQ(weightSoFar / total) + 1);
+        mean = m;
+        weight = w;
+      }
+    }
+
+    if (weight > 0) {
+      if (out == outMeans.length) {
+        outMeans = Arrays.copyOf(outMeans, out + 1);
+        outWeights = Arrays.copyOf(outWeights, out + 1);
+      }
+      outMeans[out] = mean;
+      outWeights[out++] = weight;
+    }
+
+    means = outMeans;
+    weights = outWeights;
+    centroids = out;
+  }
+
+  private double kOfQ(double q) {
+    return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+  }
+
+  private double qOfK(double k) {
+    if (k >= compression / 4) {
+      return 1;
+    }
+    return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+  }
+}
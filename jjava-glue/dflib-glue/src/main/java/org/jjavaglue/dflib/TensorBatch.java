@@ -0,0 +1,187 @@
+package org.jjavaglue.dflib;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * A batch of RGB images as one contiguous tensor of floats, of shape (images, 3, height, width): each image is a
+ * plane of red, then green, then blue values, row by row (NCHW), normalized as (value / 255 - mean) / std per
+ * channel. The floats are in a float[] on the heap, or in a direct buffer for engines that read native memory.
+ * A batch can be filled again with other images of the same size, reusing its memory.
+ * <p>
+ * Images are decoded, resized and normalized in parallel, from ARGB int[] pixels without a BufferedImage per
+ * operation: each file is read with source subsampling to about twice the tensor size, and resized by
+ * {@link ImageResizer}.
+ */
+public class TensorBatch {
+
+  private static final int CHANNELS = 3;
+
+  private final int capacity;
+  private final int width;
+  private final int height;
+  private final float[] array;
+  private final FloatBuffer buffer;
+  private int size;
+
+  /**
+   * A batch of up to "capacity" images of width x height pixels, in a float[]
+   */
+  public TensorBatch(int capacity, int width, int height) {
+    this(capacity, width, height, false);
+  }
+
+  private TensorBatch(int capacity, int width, int height, boolean direct) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Image size must be positive: " + width + "x" + height);
+    }
+    long floats = (long) capacity * CHANNELS * width * height;
+    if (floats > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Batch too large: " + floats + " floats");
+    }
+    this.capacity = capacity;
+    this.width = width;
+    this.height = height;
+    if (direct) {
+      this.array = null;
+      this.buffer = ByteBuffer.allocateDirect((int) floats * Float.BYTES).order(ByteOrder.nativeOrder())
+          .asFloatBuffer();
+    } else {
+      this.array = new float[(int) floats];
+      this.buffer = FloatBuffer.wrap(array);
+    }
+  }
+
+  /**
+   * A batch of up to "capacity" images of width x height pixels, in direct memory in the native byte order
+   */
+  public static TensorBatch direct(int capacity, int width, int height) {
+    return new TensorBatch(capacity, width, height, true);
+  }
+
+  /**
+   * Number of images in the batch
+   */
+  public int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public int width() {
+    return width;
+  }
+
+  public int height() {
+    return height;
+  }
+
+  /**
+   * Shape of the tensor of the images in the batch: {size, 3, height, width}
+   */
+  public long[] shape() {
+    return new long[]{size, CHANNELS, height, width};
+  }
+
+  /**
+   * Whether the floats are in direct memory rather than in {@link #array()}
+   */
+  public boolean isDirect() {
+    return array == null;
+  }
+
+  /**
+   * The floats of a heap batch. Only the first size * 3 * height * width are those of the images in the batch.
+   */
+  public float[] array() {
+    if (array == null) {
+      throw new UnsupportedOperationException("A direct batch has no array; use buffer()");
+    }
+    return array;
+  }
+
+  /**
+   * The floats of the images in the batch, from position 0 to a limit of size * 3 * height * width
+   */
+  public FloatBuffer buffer() {
+    return buffer.duplicate().position(0).limit(size * CHANNELS * width * height);
+  }
+
+  /**
+   * Decode, resize and normalize image files into the batch, replacing the images in it
+   */
+  TensorBatch fill(List<Path> files, float[] mean, float[] std) {
+    if (files.size() > capacity) {
+      throw new IllegalArgumentException("Batch of capacity " + capacity + " cannot hold " + files.size()
+          + " images");
+    }
+    float[][] values = values(mean, std);
+    IntStream.range(0, files.size()).parallel().forEach(i -> {
+      Path file = files.get(i);
+      BufferedImage image;
+      try {
+        image = ImageResizer.read(file, (w, h) -> Math.min(w / (2 * width), h / (2 * height)));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read image: " + file, e);
+      }
+      if (image == null) {
+        throw new IllegalArgumentException("Not a readable image: " + file);
+      }
+      int[] pixels = ImageResizer.resizePixels(image, width, height);
+      write(i, pixels, values);
+      ImageResizer.release(pixels);
+    });
+    size = files.size();
+    return this;
+  }
+
+  /**
+   * Normalized float of every 8-bit value of every channel, so that converting a pixel takes three lookups
+   */
+  private static float[][] values(float[] mean, float[] std) {
+    if (mean.length != CHANNELS || std.length != CHANNELS) {
+      throw new IllegalArgumentException("Mean and std must have one value per channel (RGB): "
+          + mean.length + ", " + std.length);
+    }
+    float[][] values = new float[CHANNELS][256];
+    for (int c = 0; c < CHANNELS; c++) {
+      if (!(std[c] > 0)) {
+        throw new IllegalArgumentException("Std must be positive: " + std[c]);
+      }
+      for (int v = 0; v < 256; v++) {
+        values[c][v] = (v / 255f - mean[c]) / std[c];
+      }
+    }
+    return values;
+  }
+
+  private void write(int image, int[] pixels, float[][] values) {
+    int plane = width * height;
+    float[] red = values[0];
+    float[] green = values[1];
+    float[] blue = values[2];
+    float[] to = array != null ? array : new float[CHANNELS * plane];
+    int offset = array != null ? image * CHANNELS * plane : 0;
+    for (int i = 0; i < plane; i++) {
+      int p = pixels[i];
+      to[offset + i] = red[p >>> 16 & 0xFF];
+      to[offset + plane + i] = green[p >>> 8 & 0xFF];
+      to[offset + 2 * plane + i] = blue[p & 0xFF];
+    }
+    if (array == null) {
+      buffer.put(image * CHANNELS * plane, to);
+    }
+  }
+}
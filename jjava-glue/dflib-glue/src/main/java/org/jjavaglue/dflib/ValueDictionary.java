@@ -0,0 +1,48 @@
+package org.jjavaglue.dflib;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense int codes for the distinct values of an object column, in order of first appearance. Null is a value like
+ * any other. Once filled, a dictionary can be read by several threads with {@link #find(Object)}.
+ */
+final class ValueDictionary {
+
+  private final Map<Object, Integer> codes = new HashMap<>();
+  private final List<Object> values = new ArrayList<>();
+
+  /**
+   * Code of a value, adding it if it is new
+   */
+  int code(Object value) {
+    Integer code = codes.get(value);
+    if (code == null) {
+      code = values.size();
+      codes.put(value, code);
+      values.add(value);
+    }
+    return code;
+  }
+
+  /**
+   * Code of a value, or -1 if it is not in the dictionary
+   */
+  int find(Object value) {
+    Integer code = codes.get(value);
+    return code != null ? code : -1;
+  }
+
+  int size() {
+    return values.size();
+  }
+
+  /**
+   * Values by code
+   */
+  List<Object> values() {
+    return values;
+  }
+}
@@ -0,0 +1,199 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.BooleanSeries;
+import org.dflib.DataFrame;
+import org.dflib.DoubleSeries;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
+import org.dflib.Series;
+import org.dflib.csv.Csv;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CsvLoaderTest {
+
+  private static Path iris() throws URISyntaxException {
+    return Path.of(CsvLoaderTest.class.getResource("/Iris.csv").toURI());
+  }
+
+  @Test
+  public void testMatchesCsvLoadOnIris() throws URISyntaxException {
+    Path path = iris();
+    DataFrame expected = Csv.load(path.toString());
+    DataFrame actual = new CsvLoader().parallelism(4).load(path);
+
+    assertThat(actual.getColumnsIndex()).isEqualTo(expected.getColumnsIndex());
+    assertThat(actual.height()).isEqualTo(expected.height());
+
+    for (String col : expected.getColumnsIndex()) {
+      Series<?> e = expected.getColumn(col);
+      Series<?> a = actual.getColumn(col);
+      for (int i = 0; i < e.size(); i++) {
+        // Numeric columns are typed by the loader, Csv.load keeps them as text
+        if (a.get(i) instanceof Number n) {
+          assertThat(n.doubleValue()).isEqualTo(Double.parseDouble(e.get(i).toString()));
+        } else {
+          assertThat(a.get(i)).isEqualTo(e.get(i));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testIrisColumnTypes() throws URISyntaxException {
+    DataFrame df = DS.read(iris().toString());
+
+    assertThat(df.height()).isEqualTo(150);
+    assertThat(df.getColumn("Id")).isInstanceOf(IntSeries.class);
+    assertThat(df.getColumn("SepalLengthCm")).isInstanceOf(DoubleSeries.class);
+    assertThat(df.getColumn("Species").get(0)).isEqualTo("Iris-setosa");
+    assertThat(df.getColumn("Species")).isInstanceOf(CategorySeries.class);
+    assertThat(((CategorySeries<?>) df.getColumn("Species")).getCategoryCount()).isEqualTo(3);
+  }
+
+  @Test
+  public void testCategoryChunksShareOneDictionary() throws IOException {
+    Path file = Files.createTempFile("loader", ".csv");
+    try {
+      String[] colors = { "red", "green", "blue", "cyan" };
+      StringBuilder csv = new StringBuilder("id,color,label\n");
+      for (int i = 0; i < 70_000; i++) {
+        // Later chunks see the colors in another order; the label column has too many values past the sample
+        String color = i % 13 == 0 ? "" : colors[(i / 17_500 + i) % colors.length];
+        String label = i < 1000 ? "x" + (i % 2) : "y" + i;
+        csv.append(i).append(',').append(color).append(',').append(label).append('\n');
+      }
+      Files.writeString(file, csv);
+
+      DataFrame df = new CsvLoader().parallelism(4).sampleRows(1000).load(file);
+
+      CategorySeries<?> color = (CategorySeries<?>) df.getColumn("color");
+      // Empty cells of text columns are empty strings
+      assertThat(color.getCategoryCount()).isEqualTo(5);
+      for (int i = 0; i < df.height(); i++) {
+        assertThat(color.get(i)).isEqualTo(i % 13 == 0 ? "" : colors[(i / 17_500 + i) % colors.length]);
+      }
+
+      Series<?> label = df.getColumn("label");
+      assertThat(label.get(1)).isEqualTo("x1");
+      assertThat(label.get(69_999)).isEqualTo("y69999");
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testSelectAndLimit() throws URISyntaxException {
+    DataFrame df = DS.csvLoader().select("Species", "Id").limit(10).load(iris());
+
+    assertThat(df.getColumnsIndex().toArray()).containsExactly("Species", "Id");
+    assertThat(df.height()).isEqualTo(10);
+    assertThat(df.getColumn("Id").get(9)).isEqualTo(10);
+  }
+
+  @Test
+  public void testUnknownColumn() {
+    assertThatThrownBy(() -> DS.csvLoader().select("nope").load(iris()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testQuotedFieldsAndWidening() throws IOException {
+    Path file = Files.createTempFile("loader", ".csv");
+    try {
+      StringBuilder csv = new StringBuilder("id,text,amount\n");
+      for (int i = 0; i < 5000; i++) {
+        csv.append(i).append(',');
+        csv.append(i % 3 == 0 ? "\"multi\nline, \"\"quoted\"\"\"" : "plain").append(',');
+        // The sampled rows hold ints; a long and an empty value only appear near the end
+        csv.append(i == 4990 ? "" : i == 4995 ? "10000000000" : String.valueOf(i)).append('\n');
+      }
+      Files.writeString(file, csv);
+
+      DataFrame df = new CsvLoader().parallelism(3).load(file);
+
+      assertThat(df.height()).isEqualTo(5000);
+      assertThat(df.getColumn("id")).isInstanceOf(IntSeries.class);
+      assertThat(df.getColumn("text").get(0)).isEqualTo("multi\nline, \"quoted\"");
+      assertThat(df.getColumn("text").get(1)).isEqualTo("plain");
+      assertThat(df.getColumn("amount")).isInstanceOf(DoubleSeries.class);
+      assertThat(df.getColumn("amount").castAsDouble().getDouble(4990)).isNaN();
+      assertThat(df.getColumn("amount").castAsDouble().getDouble(4995)).isEqualTo(1e10);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testInferredTypes() throws IOException {
+    Path file = Files.createTempFile("loader", ".csv");
+    try {
+      StringBuilder csv = new StringBuilder("flag,day,color,note,count,maybe\n");
+      for (int i = 0; i < 100; i++) {
+        csv.append(i % 2 == 0 ? "true" : "FALSE").append(',');
+        csv.append(String.format("2024-01-%02d", i % 28 + 1)).append(',');
+        csv.append(i % 3 == 0 ? "red" : "blue").append(',');
+        csv.append("note ").append(i).append(',');
+        csv.append(i == 7 ? "" : String.valueOf(i)).append(',');
+        csv.append(i == 7 ? "" : "true").append('\n');
+      }
+      Files.writeString(file, csv);
+
+      DataFrame df = DS.read(file.toString());
+
+      assertThat(df.getColumn("flag")).isInstanceOf(BooleanSeries.class);
+      assertThat(df.getColumn("flag").get(1)).isEqualTo(false);
+      assertThat(df.getColumn("day").get(30)).isEqualTo(LocalDate.of(2024, 1, 3));
+      assertThat(df.getColumn("color").get(0)).isEqualTo("red");
+      // Categories share one instance per distinct value
+      assertThat(df.getColumn("color").get(1)).isSameAs(df.getColumn("color").get(2));
+      assertThat(df.getColumn("note").get(5)).isEqualTo("note 5");
+      assertThat(df.getColumn("count")).isInstanceOf(DoubleSeries.class);
+      assertThat(df.getColumn("count").castAsDouble().getDouble(7)).isNaN();
+      assertThat(df.getColumn("maybe").get(7)).isNull();
+      assertThat(df.getColumn("maybe").get(8)).isEqualTo(true);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testSchemaOverride() throws URISyntaxException {
+    DataFrame df = DS.read(iris().toString(), Map.of("Id", ColumnType.LONG, "SepalLengthCm", ColumnType.STRING));
+
+    assertThat(df.getColumn("Id")).isInstanceOf(LongSeries.class);
+    assertThat(df.getColumn("SepalLengthCm").get(0)).isEqualTo("5.1");
+    assertThat(df.getColumn("PetalLengthCm")).isInstanceOf(DoubleSeries.class);
+
+    assertThatThrownBy(() -> DS.csvLoader().columnType("Species", ColumnType.DOUBLE).load(iris()))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Species");
+  }
+
+  @Test
+  public void testSchemaOverrideErrorNamesRow() throws IOException {
+    Path file = Files.createTempFile("loader", ".csv");
+    try {
+      Files.writeString(file, "id,n\n1,10\n2,\n3,x\n");
+      assertThatThrownBy(() -> DS.csvLoader().columnType("n", ColumnType.INT).load(file))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessage("Column 'n' is declared as INT but row 2 is empty");
+
+      Files.writeString(file, "id,n\n1,10\n2,20\n3,x\n");
+      assertThatThrownBy(() -> DS.csvLoader().columnType("n", ColumnType.INT).load(file))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessage("Column 'n' is declared as INT but row 3 holds 'x'");
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
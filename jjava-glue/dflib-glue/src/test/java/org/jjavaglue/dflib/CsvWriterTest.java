@@ -0,0 +1,110 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+import org.dflib.csv.Csv;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CsvWriterTest {
+
+  private static DataFrame mixed() {
+    return DS.categorize(DS.fromColumns(new String[]{"text", "d", "i", "l", "b", "other", "cat"},
+        new Object[]{"a,b", "q\"x", null, " sp", "line\nbreak", "é"},
+        new double[]{1.5, 1e10, Double.NaN, -0.0, 1e-5, 1234567},
+        new int[]{1, -2, 3, Integer.MIN_VALUE, 5, 0},
+        new long[]{Long.MIN_VALUE, Long.MAX_VALUE, 0, -10, 7, 99},
+        new boolean[]{true, false, true, false, true, false},
+        new Object[]{LocalDate.of(2024, 1, 2), 3L, null, "#x", "", 2.5},
+        new Object[]{"x", "y,z", "x", null, "y,z", "x"}), "cat");
+  }
+
+  @Test
+  public void testMatchesCsvSave() throws IOException {
+    Path expected = Files.createTempFile("writer", ".csv");
+    Path actual = Files.createTempFile("writer", ".csv");
+    try {
+      DataFrame df = mixed();
+      Csv.save(df, expected.toString());
+      new CsvWriter().parallelism(3).chunkRows(2).write(df, actual);
+
+      assertThat(Files.readString(actual)).isEqualTo(Files.readString(expected));
+    } finally {
+      Files.deleteIfExists(expected);
+      Files.deleteIfExists(actual);
+    }
+  }
+
+  @Test
+  public void testDoublesMatchToString() throws IOException {
+    double[] values = {0, -0.0, 1, -1, 0.1, 9_999_999, 10_000_000, -12345.0, 1e-3, 1e-4, 123.456, Double.MAX_VALUE,
+        Double.MIN_VALUE, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN};
+    Path file = Files.createTempFile("writer", ".csv");
+    try {
+      new CsvWriter().write(DS.fromColumns(new String[]{"x"}, values), file);
+
+      String[] lines = Files.readString(file).split("\n");
+      for (int i = 0; i < values.length; i++) {
+        assertThat(lines[i + 1]).isEqualTo(Double.toString(values[i]));
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testGzip() throws IOException {
+    Path plain = Files.createTempFile("writer", ".csv");
+    Path gzip = Files.createTempFile("writer", ".csv.gz");
+    try {
+      int n = 10_000;
+      int[] ids = new int[n];
+      double[] values = new double[n];
+      for (int i = 0; i < n; i++) {
+        ids[i] = i;
+        values[i] = i * 0.25;
+      }
+      DataFrame df = DS.fromColumns(new String[]{"id", "value"}, ids, values);
+
+      new CsvWriter().chunkRows(1000).write(df, plain);
+      DS.toCsv(df, gzip.toString());
+
+      // One gzip member per chunk, which a gzip reader decompresses as a whole
+      try (InputStream in = new GZIPInputStream(Files.newInputStream(gzip))) {
+        assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(Files.readString(plain));
+      }
+      assertThat(Files.size(gzip)).isLessThan(Files.size(plain) / 2);
+    } finally {
+      Files.deleteIfExists(plain);
+      Files.deleteIfExists(gzip);
+    }
+  }
+
+  @Test
+  public void testStream() throws IOException {
+    Path file = Files.createTempFile("writer", ".csv");
+    try {
+      DataFrame first = DS.fromColumns(new String[]{"id", "name"}, new int[]{1, 2}, new Object[]{"a", "b"});
+      DataFrame second = DS.fromColumns(new String[]{"id", "name"}, new int[]{3}, new Object[]{"c"});
+      DS.toCsv(Stream.of(first, second), file.toString());
+
+      assertThat(Files.readString(file)).isEqualTo("id,name\n1,a\n2,b\n3,c\n");
+
+      DataFrame other = DS.fromColumns(new String[]{"id"}, new int[]{4});
+      assertThatThrownBy(() -> DS.toCsv(Stream.of(first, other), file.toString()))
+          .isInstanceOf(IllegalArgumentException.class);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
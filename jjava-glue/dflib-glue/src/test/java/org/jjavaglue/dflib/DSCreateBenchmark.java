@@ -0,0 +1,70 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.DataFrame;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for columnar DataFrame construction.
+ * Time per operation should grow linearly with the row count; run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.jjavaglue.dflib.DSCreateBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DSCreateBenchmark {
+
+  @Param({ "250000", "500000", "1000000", "2000000" })
+  public int rows;
+
+  private List<Integer> ids;
+  private List<String> names;
+  private List<Double> values;
+  private double[] doubles;
+  private int[] ints;
+  private long[] longs;
+
+  @Setup
+  public void setup() {
+    ids = new ArrayList<>(rows);
+    names = new ArrayList<>(rows);
+    values = new ArrayList<>(rows);
+    doubles = new double[rows];
+    ints = new int[rows];
+    longs = new long[rows];
+
+    for (int i = 0; i < rows; i++) {
+      ids.add(i);
+      names.add("name" + (i % 100));
+      values.add(i * 0.5);
+      doubles[i] = i * 0.5;
+      ints[i] = i;
+      longs[i] = i * 1000L;
+    }
+  }
+
+  @Benchmark
+  public DataFrame createFromLists() {
+    return DS.create(new String[] { "id", "name", "value" }, ids, names, values);
+  }
+
+  @Benchmark
+  public DataFrame fromPrimitiveColumns() {
+    return DS.fromColumns(new String[] { "d", "i", "l" }, doubles, ints, longs);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder().include(DSCreateBenchmark.class.getSimpleName()).build();
+    new Runner(options).run();
+  }
+}
@@ -1,6 +1,11 @@
 package org.jjavaglue.dflib;
 
+import org.assertj.core.data.Offset;
 import org.dflib.DataFrame;
+import org.dflib.DoubleSeries;
+import org.dflib.Exp;
+import org.dflib.IntSeries;
+import org.dflib.LongSeries;
 import org.dflib.Series;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,13 +13,23 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class DSTest {
 
@@ -56,6 +71,45 @@ public class DSTest {
     assertThat(df.getColumn("col2").get(2)).isEqualTo("c");
   }
 
+  @Test
+  public void testCreateProducesPrimitiveSeries() {
+    String[] columns = { "ints", "doubles", "mixed" };
+    List<Integer> ints = Arrays.asList(1, 2, 3);
+    List<Double> doubles = Arrays.asList(1.5, 2.5, 3.5);
+    List<Object> mixed = Arrays.asList(1, "two", null);
+
+    DataFrame df = DS.create(columns, ints, doubles, mixed);
+
+    assertThat(df.getColumn("ints")).isInstanceOf(IntSeries.class);
+    assertThat(df.getColumn("doubles")).isInstanceOf(DoubleSeries.class);
+    assertThat(df.getColumn("mixed")).isNotInstanceOf(IntSeries.class);
+    assertThat(df.getColumn("mixed").get(1)).isEqualTo("two");
+    assertThat(df.getColumn("mixed").get(2)).isNull();
+  }
+
+  @Test
+  public void testFromColumnsWithPrimitiveArrays() {
+    String[] columns = { "d", "i", "l" };
+    double[] d = { 0.5, 1.5 };
+    int[] i = { 1, 2 };
+    long[] l = { 10L, 20L };
+
+    DataFrame df = DS.fromColumns(columns, d, i, l);
+
+    assertThat(df.height()).isEqualTo(2);
+    assertThat(df.getColumn("d")).isInstanceOf(DoubleSeries.class);
+    assertThat(df.getColumn("i")).isInstanceOf(IntSeries.class);
+    assertThat(df.getColumn("l")).isInstanceOf(LongSeries.class);
+    assertThat(df.getColumn("d").castAsDouble().getDouble(1)).isEqualTo(1.5);
+    assertThat(df.getColumn("l").castAsLong().getLong(0)).isEqualTo(10L);
+  }
+
+  @Test
+  public void testFromColumnsRejectsUnevenColumns() {
+    assertThatThrownBy(() -> DS.fromColumns(new String[] { "a", "b" }, new int[] { 1, 2 }, new int[] { 1 }))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
   @Test
   public void testFromMap() {
     Map<String, List<?>> data = new HashMap<>();
@@ -104,6 +158,52 @@ public class DSTest {
     }
   }
 
+  @Test
+  public void testSortByColumns() {
+    DataFrame df = DS.fromColumns(new String[]{"customer", "time", "amount"},
+        new Object[]{"b", "a", null, "b", "a", "a"},
+        new long[]{5, 7, 1, 9, 7, -3},
+        new double[]{1.5, Double.NaN, -2, 0, -0.5, 3});
+
+    DataFrame byCustomerAndTime = DS.sort(df, new String[]{"customer", "time"}, new boolean[]{true, false});
+    assertThat(byCustomerAndTime.getColumn("customer").toList()).containsExactly("a", "a", "a", "b", "b", null);
+    assertThat(byCustomerAndTime.getColumn("time").toList()).containsExactly(7L, 7L, -3L, 9L, 5L, 1L);
+    // Rows with equal keys keep their order
+    assertThat(byCustomerAndTime.getColumn("amount").castAsDouble().getDouble(1)).isEqualTo(-0.5);
+
+    assertThat(DS.sort(df, "amount").getColumn("amount").toList()).containsExactly(-2.0, -0.5, 0.0, 1.5, 3.0, Double.NaN);
+    assertThat(DS.sort(df, "amount", false).getColumn("time").toList()).containsExactly(-3L, 5L, 9L, 7L, 1L, 7L);
+  }
+
+  @Test
+  public void testSortLargeFrameMatchesComparatorSort() {
+    int n = Sorter.PARALLEL_ROWS + 12_345;
+    int[] groups = new int[n];
+    double[] values = new double[n];
+    java.util.SplittableRandom random = new java.util.SplittableRandom(7);
+    for (int i = 0; i < n; i++) {
+      groups[i] = random.nextInt(-1000, 1000);
+      values[i] = random.nextDouble() * 2e6 - 1e6;
+    }
+    DataFrame df = DS.fromColumns(new String[]{"group", "value"}, groups, values);
+
+    DataFrame sorted = DS.sort(df, new String[]{"group", "value"}, new boolean[]{false, true});
+    DataFrame expected = df.sort(df.getColumnsIndex().toArray(), new boolean[]{false, true});
+    assertThat(sorted.getColumn("group").toList()).isEqualTo(expected.getColumn("group").toList());
+    assertThat(sorted.getColumn("value").toList()).isEqualTo(expected.getColumn("value").toList());
+
+    DataFrame top = DS.top(df, 100, new String[]{"group", "value"}, new boolean[]{false, true});
+    assertThat(top.getColumn("value").toList()).isEqualTo(expected.head(100).getColumn("value").toList());
+  }
+
+  @Test
+  public void testTop() {
+    DataFrame top = DS.top(sampleDataFrame, 2, "popularity", false);
+    assertThat(top.getColumn("name").toList()).containsExactly("Python", "Java");
+    assertThat(DS.top(sampleDataFrame, 10, "popularity", true).height()).isEqualTo(5);
+    assertThat(DS.top(sampleDataFrame, 0, "popularity", true).height()).isZero();
+  }
+
   @Test
   public void testCsvReadWrite() throws IOException {
     // Create a temporary file for testing
@@ -133,11 +233,1158 @@ public class DSTest {
     }
   }
 
+  @Test
+  public void testStreamChunks() throws IOException {
+    Path tempFile = Files.createTempFile("test-stream", ".csv");
+    try {
+      StringBuilder csv = new StringBuilder("id,value\n");
+      for (int i = 0; i < 1000; i++) {
+        csv.append(i).append(',').append(i * 0.5).append('\n');
+      }
+      Files.writeString(tempFile, csv);
+
+      try (Stream<DataFrame> chunks = DS.stream(tempFile.toString(), 300)) {
+        List<DataFrame> list = chunks.toList();
+
+        assertThat(list).extracting(DataFrame::height).containsExactly(300, 300, 300, 100);
+        assertThat(list.get(3).getColumn("id").get(0)).isEqualTo(900);
+        assertThat(list.get(3).getColumn("value").castAsDouble().getDouble(99)).isEqualTo(499.5);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  @Test
+  public void testDescribeStream() {
+    DataFrame chunk1 = DS.fromColumns(new String[]{"x", "name"}, new double[]{1, 2, Double.NaN}, new Object[]{"a", "b", "c"});
+    DataFrame chunk2 = DS.fromColumns(new String[]{"x", "name"}, new double[]{3, 4}, new Object[]{"d", null});
+
+    assertThatCode(() -> DS.describe(Stream.of(chunk1, chunk2))).doesNotThrowAnyException();
+
+    ColumnStats stats = new ColumnStats();
+    stats.add(chunk1.getColumn("x"));
+    ColumnStats other = new ColumnStats();
+    other.add(chunk2.getColumn("x"));
+    stats.merge(other);
+
+    assertThat(stats.count()).isEqualTo(5);
+    assertThat(stats.nulls()).isEqualTo(1);
+    assertThat(stats.mean()).isEqualTo(2.5);
+    assertThat(stats.min()).isEqualTo(1);
+    assertThat(stats.max()).isEqualTo(4);
+    assertThat(stats.variance()).isCloseTo(5.0 / 3, Offset.offset(1e-12));
+  }
+
+  @Test
+  public void testBinaryRoundTrip() throws IOException {
+    Path tempFile = Files.createTempFile("test-df", ".dsb");
+    try {
+      DataFrame df = DS.fromColumns(
+          new String[]{"i", "l", "d", "b", "s", "date", "boxed"},
+          new int[]{1, -2, 3},
+          new long[]{10_000_000_000L, 0, -1},
+          new double[]{1.5, Double.NaN, -0.25},
+          new boolean[]{true, false, true},
+          new Object[]{"x", null, "x"},
+          new Object[]{LocalDate.of(2024, 2, 29), null, LocalDate.of(1970, 1, 1)},
+          new Object[]{1, null, 2.5});
+
+      DS.saveBinary(df, tempFile.toString());
+      DataFrame loaded = DS.loadBinary(tempFile.toString());
+
+      assertThat(loaded.getColumnsIndex()).isEqualTo(df.getColumnsIndex());
+      assertThat(loaded.getColumn("i")).isInstanceOf(IntSeries.class);
+      assertThat(loaded.getColumn("l")).isInstanceOf(LongSeries.class);
+      assertThat(loaded.getColumn("d")).isInstanceOf(DoubleSeries.class);
+      assertThat(loaded.getColumn("i").castAsInt().toIntArray()).containsExactly(1, -2, 3);
+      assertThat(loaded.getColumn("i").castAsInt().sum()).isEqualTo(2);
+      assertThat(loaded.getColumn("l").castAsLong().max()).isEqualTo(10_000_000_000L);
+      assertThat(loaded.getColumn("d").castAsDouble().toDoubleArray()).containsExactly(1.5, Double.NaN, -0.25);
+      assertThat(loaded.getColumn("b").get(1)).isEqualTo(false);
+      assertThat(loaded.getColumn("s").toList()).containsExactly("x", null, "x");
+      assertThat(loaded.getColumn("date").toList()).containsExactly(LocalDate.of(2024, 2, 29), null,
+          LocalDate.of(1970, 1, 1));
+      assertThat(loaded.getColumn("boxed").castAsDouble().getDouble(2)).isEqualTo(2.5);
+      assertThat(loaded.getColumn("boxed").castAsDouble().getDouble(1)).isNaN();
+
+      // Mapped series behave like regular ones in DFLib operations
+      assertThat(loaded.rows(0, 2).select().getColumn("i").castAsInt().toIntArray()).containsExactly(1, 3);
+      assertThat(loaded.sort("i", true).getColumn("i").toList()).containsExactly(-2, 1, 3);
+
+      // Boxed integers stay integers, with their nulls, and 64-bit ids keep every digit
+      long id = (1L << 53) + 1;
+      DataFrame boxed = DS.fromColumns(new String[]{"ids", "ints", "mixed", "counts"},
+          new Object[]{id, null, -id},
+          new Object[]{7, null, Integer.MIN_VALUE},
+          new Object[]{1, 2L, 3},
+          new Object[]{(short) 1, (byte) 2, 3});
+      DS.saveBinary(boxed, tempFile.toString());
+      DataFrame reloaded = DS.loadBinary(tempFile.toString());
+      assertThat(reloaded.getColumn("ids").toList()).containsExactly(id, null, -id);
+      assertThat(reloaded.getColumn("ints").toList()).containsExactly(7, null, Integer.MIN_VALUE);
+      assertThat(reloaded.getColumn("mixed")).isInstanceOf(LongSeries.class);
+      assertThat(reloaded.getColumn("mixed").toList()).containsExactly(1L, 2L, 3L);
+      assertThat(reloaded.getColumn("counts")).isInstanceOf(IntSeries.class);
+      assertThat(DS.scan(tempFile.toString()).filter(Filter.lt("ids", 0)).collect().getColumn("ints").toList())
+          .containsExactly(Integer.MIN_VALUE);
+      assertThat(DS.scan(tempFile.toString()).filter(Filter.ge("ints", 0)).select("ids").collect().getColumn("ids")
+          .toList()).containsExactly(id);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  @Test
+  public void testSaveBinaryPermissions() throws IOException {
+    Path dir = Files.createTempDirectory("test-perms");
+    Path file = dir.resolve("df.dsb");
+    Path plain = dir.resolve("plain");
+    try {
+      assumeTrue(Files.getFileStore(dir).supportsFileAttributeView(PosixFileAttributeView.class));
+      DataFrame df = DS.fromColumns(new String[]{"i"}, new int[]{1, 2, 3});
+
+      // A new file gets the default permissions, not those of a private temp file
+      DS.saveBinary(df, file.toString());
+      Files.createFile(plain);
+      assertThat(Files.getPosixFilePermissions(file)).isEqualTo(Files.getPosixFilePermissions(plain));
+
+      // A replaced file keeps its permissions
+      Set<PosixFilePermission> shared = PosixFilePermissions.fromString("rw-rw-r--");
+      Files.setPosixFilePermissions(file, shared);
+      DS.saveBinary(df, file.toString());
+      assertThat(Files.getPosixFilePermissions(file)).isEqualTo(shared);
+      assertThat(DS.loadBinary(file.toString()).getColumn("i").toList()).containsExactly(1, 2, 3);
+      try (Stream<Path> files = Files.list(dir)) {
+        assertThat(files).hasSize(2);
+      }
+    } finally {
+      Files.deleteIfExists(file);
+      Files.deleteIfExists(plain);
+      Files.deleteIfExists(dir);
+    }
+  }
+
+  @Test
+  public void testScanBinaryPushdown() throws IOException {
+    int n = 40_000;
+    int[] ids = new int[n];
+    double[] amounts = new double[n];
+    Object[] countries = new Object[n];
+    Object[] days = new Object[n];
+    Object[] flags = new Object[n];
+    for (int i = 0; i < n; i++) {
+      ids[i] = i;
+      amounts[i] = i % 7 == 0 ? Double.NaN : (i * 37) % 1000;
+      countries[i] = i % 11 == 0 ? null : "C" + (i % 5);
+      days[i] = i % 13 == 0 ? null : LocalDate.of(2024, 1, 1).plusDays(i % 400);
+      flags[i] = i % 17 == 0 ? null : i % 3 == 0;
+    }
+    DataFrame df = DS.fromColumns(new String[]{"id", "amount", "country", "day", "flag"}, ids, amounts, countries,
+        days, flags);
+    Path tempFile = Files.createTempFile("test-scan", ".dsb");
+    try {
+      DS.saveBinary(df, tempFile.toString());
+      List<Filter> filters = List.of(Filter.ge("amount", 100), Filter.ne("country", "C2"),
+          Filter.lt("day", LocalDate.of(2024, 10, 1)), Filter.eq("flag", false));
+
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < n; i++) {
+        int row = i;
+        if (filters.stream().allMatch(f -> f.test(df.getColumn(f.getColumn()), row))) {
+          expected.add(i);
+        }
+      }
+      assertThat(expected).hasSizeBetween(1000, n / 2);
+
+      LazyFrame scan = DS.scan(tempFile.toString());
+      for (Filter filter : filters) {
+        scan = scan.filter(filter);
+      }
+      DataFrame all = scan.select("id", "country", "day").collect();
+      assertThat(all.getColumn("id").toList()).isEqualTo(expected);
+      assertThat(all.getColumn("country").get(0)).isEqualTo(countries[expected.get(0)]);
+      assertThat(all.getColumn("day").get(expected.size() - 1)).isEqualTo(days[expected.get(expected.size() - 1)]);
+
+      // The limit stops the scan within its last block of rows
+      DataFrame limited = scan.limit(expected.size() - 5).collect();
+      assertThat(limited.width()).isEqualTo(5);
+      assertThat(limited.getColumn("id").toList()).isEqualTo(expected.subList(0, expected.size() - 5));
+
+      assertThat(DS.scan(tempFile.toString()).filter(Filter.eq("country", 1)).collect().height()).isZero();
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  @Test
+  public void testSaveBinaryOverLoadedFile() throws IOException {
+    Path tempFile = Files.createTempFile("test-df", ".dsb");
+    try {
+      DataFrame df = DS.fromColumns(new String[]{"i", "d"}, new int[]{1, 2, 3}, new double[]{0.5, 1.5, 2.5});
+      DS.saveBinary(df, tempFile.toString());
+
+      // The loaded frame maps the file it is saved over
+      DataFrame loaded = DS.loadBinary(tempFile.toString());
+      DS.saveBinary(loaded, tempFile.toString());
+      DS.saveBinary(loaded.rows(0).select(), tempFile.toString());
+
+      assertThat(loaded.getColumn("d").castAsDouble().toDoubleArray()).containsExactly(0.5, 1.5, 2.5);
+      DataFrame reloaded = DS.loadBinary(tempFile.toString());
+      assertThat(reloaded.getColumn("i").toList()).containsExactly(1);
+      assertThat(reloaded.getColumn("d").toList()).containsExactly(0.5);
+      String prefix = tempFile.getFileName().toString();
+      try (Stream<Path> files = Files.list(tempFile.getParent())) {
+        assertThat(files.map(f -> f.getFileName().toString())
+            .filter(name -> name.startsWith(prefix) && name.endsWith(".tmp"))).isEmpty();
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  @Test
+  public void testLoadBinaryRejectsOtherFiles() throws IOException {
+    Path tempFile = Files.createTempFile("test-df", ".csv");
+    try {
+      DS.toCsv(sampleDataFrame, tempFile.toString());
+      assertThatThrownBy(() -> DS.loadBinary(tempFile.toString())).isInstanceOf(IllegalArgumentException.class);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  @Test
+  public void testCsvLoaderFilter() throws IOException {
+    Path tempFile = Files.createTempFile("test-filter", ".csv");
+    try {
+      StringBuilder csv = new StringBuilder("id,country,amount\n");
+      for (int i = 0; i < 1000; i++) {
+        csv.append(i).append(',').append(i % 3 == 0 ? "\"F\"\"R\"" : "US").append(',')
+            .append(i % 10 == 0 ? "" : String.valueOf(i * 1.5)).append('\n');
+      }
+      Files.writeString(tempFile, csv);
+
+      DataFrame df = DS.csvLoader()
+          .filter(Filter.eq("country", "US"), Filter.ge("amount", 1200))
+          .select("id")
+          .load(tempFile);
+      assertThat(df.getColumnsIndex().toArray()).containsExactly("id");
+      assertThat(df.height()).isEqualTo(120);
+      assertThat(df.getColumn("id").get(0)).isEqualTo(802);
+
+      assertThat(DS.csvLoader().filter(Filter.eq("country", "F\"R")).load(tempFile).height()).isEqualTo(334);
+
+      try (Stream<DataFrame> chunks = DS.csvLoader().filter(Filter.lt("id", 250)).stream(tempFile, 100)) {
+        assertThat(chunks.mapToInt(DataFrame::height).sum()).isEqualTo(250);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  @Test
+  public void testScanFiltersMatchTypesWhereverApplied() throws IOException {
+    Path csvFile = Files.createTempFile("test-scan-types", ".csv");
+    try {
+      Files.writeString(csvFile, "code,zip\n07,00123\n7,A1\n12,00124\n");
+      // "code" is read as int and "zip" as text
+      assertThat(DS.read(csvFile.toString()).getColumn("code")).isInstanceOf(IntSeries.class);
+
+      for (Filter filter : List.of(Filter.eq("code", "07"), Filter.eq("code", 7), Filter.eq("zip", 123),
+          Filter.eq("zip", "00123"), Filter.gt("code", 5), Filter.lt("zip", "A"))) {
+        LazyFrame pushed = DS.scan(csvFile.toString()).filter(filter);
+        LazyFrame loaded = DS.scan(csvFile.toString()).limit(100).filter(filter);
+        LazyFrame unselected = DS.scan(csvFile.toString()).filter(filter)
+            .select(filter.getColumn().equals("code") ? "zip" : "code");
+        assertThat(pushed.explain()).contains("filters=[");
+        assertThat(loaded.explain()).startsWith("Filter ");
+        List<Object> rows = pushed.collect().getColumn("zip").toList();
+        assertThat(loaded.collect().getColumn("zip").toList()).as(filter.toString()).isEqualTo(rows);
+        assertThat(unselected.collect().height()).as(filter.toString()).isEqualTo(rows.size());
+      }
+      assertThat(DS.scan(csvFile.toString()).filter(Filter.eq("code", "07")).collect().height()).isZero();
+      assertThat(DS.scan(csvFile.toString()).filter(Filter.eq("code", 7)).collect().height()).isEqualTo(2);
+      assertThat(DS.scan(csvFile.toString()).filter(Filter.eq("zip", 123)).collect().height()).isZero();
+    } finally {
+      Files.deleteIfExists(csvFile);
+    }
+  }
+
+  @Test
+  public void testScan() throws IOException {
+    Path csvFile = Files.createTempFile("test-scan", ".csv");
+    Path binaryFile = Files.createTempFile("test-scan", ".dsb");
+    try {
+      DS.toCsv(sampleDataFrame, csvFile.toString());
+      DS.saveBinary(DS.read(csvFile.toString()), binaryFile.toString());
+
+      for (Path path : List.of(csvFile, binaryFile)) {
+        LazyFrame query = DS.scan(path.toString())
+            .filter(Filter.gt("popularity", 5))
+            .select("name", "year_created")
+            .groupBy("year_created", Agg.count());
+
+        DataFrame result = query.collect();
+        assertThat(result.getColumn("year_created").toList()).containsExactly(1995, 1991, 2000);
+        assertThat(result.getColumn("count").toList()).containsExactly(2L, 1L, 1L);
+        assertThat(query.explain()).contains(
+            "Aggregate by [year_created]: count",
+            "columns=[year_created] filters=[popularity > 5]");
+
+        DataFrame top = DS.scan(path.toString()).filter(Filter.ne("name", "Java")).limit(2).collect();
+        assertThat(top.width()).isEqualTo(4);
+        assertThat(top.getColumn("name").toList()).containsExactly("Python", "JavaScript");
+      }
+
+      // Filters after a limit run on the loaded rows
+      LazyFrame limited = DS.scan(csvFile.toString()).limit(3).filter(Filter.lt("year_created", 1995));
+      assertThat(limited.collect().getColumn("name").toList()).containsExactly("Python");
+      assertThat(limited.explain()).startsWith("Filter year_created < 1995\n  Scan CSV").contains("limit=3");
+
+      assertThatThrownBy(() -> DS.scan(csvFile.toString()).select("name").filter(Filter.gt("id", 1)).collect())
+          .isInstanceOf(IllegalArgumentException.class);
+      // Also when a later condition keeps every column loaded
+      assertThatThrownBy(() -> DS.scan(csvFile.toString()).select("name").filter(Filter.gt("id", 1))
+          .filter(Exp.$col("name").isNotNull()).collect())
+          .isInstanceOf(IllegalArgumentException.class);
+    } finally {
+      Files.deleteIfExists(csvFile);
+      Files.deleteIfExists(binaryFile);
+    }
+  }
+
+  @Test
+  public void testStats() {
+    int n = 3_000_000;
+    double[] values = new double[n];
+    int[] ids = new int[n];
+    for (int i = 0; i < n; i++) {
+      values[i] = i % 1000 == 0 ? Double.NaN : i;
+      ids[i] = i;
+    }
+    Object[] names = { "a", null, "c" };
+    DataFrame df = DS.fromColumns(new String[]{"value", "id"}, values, ids);
+
+    DataFrame stats = DS.stats(df);
+
+    assertThat(stats.getColumn("column").toList()).containsExactly("value", "id");
+    assertThat(stats.getColumn("count").get(0)).isEqualTo(n - 3000L);
+    assertThat(stats.getColumn("nulls").get(0)).isEqualTo(3000L);
+    assertThat(stats.getColumn("min").castAsDouble().getDouble(0)).isEqualTo(1);
+    assertThat(stats.getColumn("max").castAsDouble().getDouble(1)).isEqualTo(n - 1);
+    assertThat(stats.getColumn("mean").castAsDouble().getDouble(1)).isCloseTo((n - 1) / 2.0, Offset.offset(1e-6));
+    assertThat(stats.getColumn("std").castAsDouble().getDouble(1))
+        .isCloseTo(Math.sqrt((double) n * (n + 1) / 12), Offset.offset(1e-3));
+
+    // Quartiles are approximate, within a fraction of a percent of the rank
+    assertThat(stats.getColumn("p25").castAsDouble().getDouble(1)).isCloseTo(n * 0.25, Offset.offset(n * 0.005));
+    assertThat(stats.getColumn("p50").castAsDouble().getDouble(0)).isCloseTo(n * 0.5, Offset.offset(n * 0.005));
+    assertThat(stats.getColumn("p75").castAsDouble().getDouble(1)).isCloseTo(n * 0.75, Offset.offset(n * 0.005));
+
+    DataFrame text = DS.stats(DS.fromColumns(new String[]{"name"}, (Object) names));
+    assertThat(text.getColumn("type").get(0)).isEqualTo("String");
+    assertThat(text.getColumn("count").get(0)).isEqualTo(2L);
+    assertThat(text.getColumn("nulls").get(0)).isEqualTo(1L);
+    assertThat(text.getColumn("mean").castAsDouble().getDouble(0)).isNaN();
+  }
+
+  @Test
+  public void testStatsQuartilesOfSmallColumn() {
+    DataFrame stats = DS.stats(DS.fromColumns(new String[]{"x"}, new int[]{5, 1, 4, 2, 3}));
+
+    assertThat(stats.getColumn("p50").castAsDouble().getDouble(0)).isEqualTo(3);
+    assertThat(stats.getColumn("min").castAsDouble().getDouble(0)).isEqualTo(1);
+    assertThat(stats.getColumn("type").get(0)).isEqualTo("int");
+  }
+
+  @Test
+  public void testAggregate() {
+    DataFrame df = DS.fromColumns(new String[]{"name", "group", "value"},
+        new Object[]{"a", "b", null, "a", "b", "a"},
+        new int[]{1, 2, 1, 1, 2, 2},
+        new double[]{1, 2, 3, 5, Double.NaN, 6});
+
+    DataFrame result = DS.aggregate(df, "name",
+        Agg.count(), Agg.sum("value"), Agg.mean("value"), Agg.min("value"), Agg.max("value"),
+        Agg.variance("value"), Agg.approxDistinct("group").as("groups"));
+
+    assertThat(result.getColumnsIndex().toArray()).containsExactly(
+        "name", "count", "sum(value)", "mean(value)", "min(value)", "max(value)", "variance(value)", "groups");
+    assertThat(result.getColumn("name").toList()).containsExactly("a", "b", null);
+    assertThat(result.getColumn("count").toList()).containsExactly(3L, 2L, 1L);
+    assertThat(result.getColumn("sum(value)").toList()).containsExactly(12.0, 2.0, 3.0);
+    assertThat(result.getColumn("mean(value)").toList()).containsExactly(4.0, 2.0, 3.0);
+    assertThat(result.getColumn("min(value)").toList()).containsExactly(1.0, 2.0, 3.0);
+    assertThat(result.getColumn("max(value)").toList()).containsExactly(6.0, 2.0, 3.0);
+    assertThat(result.getColumn("variance(value)").castAsDouble().getDouble(0)).isCloseTo(7, Offset.offset(1e-9));
+    assertThat(result.getColumn("variance(value)").castAsDouble().getDouble(1)).isNaN();
+    assertThat(result.getColumn("groups").toList()).containsExactly(2L, 1L, 1L);
+
+    DataFrame byTwo = DS.aggregate(df, new String[]{"group", "name"}, Agg.count("value"));
+    assertThat(byTwo.getColumn("group").toList()).containsExactly(1, 2, 1, 2);
+    assertThat(byTwo.getColumn("name").toList()).containsExactly("a", "b", null, "a");
+    assertThat(byTwo.getColumn("count(value)").toList()).containsExactly(2L, 1L, 1L, 1L);
+  }
+
+  @Test
+  public void testAggregateCountsNonNullText() {
+    DataFrame df = DS.fromColumns(new String[]{"key", "text", "day"},
+        new int[]{1, 1, 2, 2, 2},
+        new Object[]{"x", null, "NaN", null, null},
+        new Object[]{LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), null, LocalDate.of(2024, 1, 3), null});
+
+    DataFrame result = DS.aggregate(df, "key", Agg.count("text"), Agg.count("day"));
+    assertThat(result.getColumn("count(text)").toList()).containsExactly(1L, 1L);
+    assertThat(result.getColumn("count(day)").toList()).containsExactly(2L, 1L);
+  }
+
+  @Test
+  public void testAggregateStreamKeyTypes() {
+    DataFrame ints = DS.fromColumns(new String[]{"key", "x"}, new int[]{1, 2}, new double[]{1, 2});
+    DataFrame text = DS.fromColumns(new String[]{"key", "x"}, new Object[]{"a", "1"}, new double[]{3, 4});
+
+    DataFrame merged = HashAggregator.aggregate(Stream.of(ints, ints), new String[]{"key"}, new Agg[]{Agg.count()});
+    assertThat(merged.getColumn("count").toList()).containsExactly(2L, 2L);
+    // Codes of a column widened to text in a later chunk are not those of the int keys before
+    assertThatThrownBy(() -> HashAggregator.aggregate(Stream.of(ints, text), new String[]{"key"},
+        new Agg[]{Agg.count()}))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("'key'");
+  }
+
+  @Test
+  public void testAggregatePartitionsMatchSinglePass() {
+    int n = 200_000;
+    long[] keys = new long[n];
+    String[] labels = new String[n];
+    double[] values = new double[n];
+    int[] ids = new int[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = (i * 7919L) % 1000;
+      labels[i] = "L" + (i % 3);
+      values[i] = Math.sin(i) * 100;
+      ids[i] = i % 7001;
+    }
+    DataFrame df = DS.fromColumns(new String[]{"key", "label", "value", "id"}, keys, labels, values, ids);
+    String[] by = {"key", "label"};
+    Agg[] aggs = {Agg.count(), Agg.sum("value"), Agg.variance("value"), Agg.min("value"), Agg.approxDistinct("id")};
+
+    DataFrame single = HashAggregator.aggregate(df, by, aggs, 1);
+    DataFrame merged = HashAggregator.aggregate(df, by, aggs, 4);
+
+    assertThat(single.height()).isEqualTo(3000);
+    assertThat(merged.getColumn("key").toList()).isEqualTo(single.getColumn("key").toList());
+    assertThat(merged.getColumn("label").toList()).isEqualTo(single.getColumn("label").toList());
+    assertThat(merged.getColumn("count").toList()).isEqualTo(single.getColumn("count").toList());
+    assertThat(merged.getColumn("min(value)").toList()).isEqualTo(single.getColumn("min(value)").toList());
+    assertThat(merged.getColumn("distinct(id)").toList()).isEqualTo(single.getColumn("distinct(id)").toList());
+    for (int g = 0; g < single.height(); g++) {
+      assertThat(merged.getColumn("sum(value)").castAsDouble().getDouble(g))
+          .isCloseTo(single.getColumn("sum(value)").castAsDouble().getDouble(g), Offset.offset(1e-6));
+      assertThat(merged.getColumn("variance(value)").castAsDouble().getDouble(g))
+          .isCloseTo(single.getColumn("variance(value)").castAsDouble().getDouble(g), Offset.offset(1e-6));
+    }
+
+    // Each group has about 67 distinct ids
+    assertThat(single.getColumn("distinct(id)").castAsLong().getLong(0)).isBetween(60L, 74L);
+  }
+
+  @Test
+  public void testMemoryReportAndCompact() {
+    int n = 1000;
+    double[] prices = new double[n];
+    Object[] boxed = new Object[n];
+    Object[] text = new Object[n];
+    Object[] zips = new Object[n];
+    long[] counts = new long[n];
+    Object[] cities = new Object[n];
+    for (int i = 0; i < n; i++) {
+      prices[i] = i * 0.5;
+      boxed[i] = 1000 + i;
+      text[i] = i % 10 == 0 ? null : String.valueOf(i * 1.5);
+      zips[i] = String.format("%05d", i);
+      counts[i] = i;
+      cities[i] = new String[]{"Oslo", "Lima", "Pune"}[i % 3];
+    }
+    Series<?> price = Series.ofDouble(prices);
+    DataFrame df = DataFrame.byColumn("price", "boxed", "text", "zip", "count", "city", "price2").of(
+        price, Series.of(boxed), Series.of(text), Series.of(zips), Series.ofLong(counts), Series.of(cities), price);
+
+    DataFrame report = DS.memoryReport(df);
+    assertThat(report.getColumn("storage").toList())
+        .containsExactly("primitive", "boxed", "objects", "objects", "primitive", "objects", "primitive");
+    assertThat(report.getColumn("type").toList())
+        .containsExactly("double", "Integer", "String", "String", "long", "String", "double");
+    // A double array, and Integers of 16 bytes behind 4-byte references
+    assertThat(report.getColumn("bytes").toList().subList(0, 2)).containsExactly(16L + 8 * n, 16L + 20 * n);
+    assertThat(report.getColumn("bytes").get(6)).isEqualTo(0L);
+    assertThat(report.getColumn("note").get(6)).isEqualTo("same series as price");
+
+    StringBuilder saved = new StringBuilder();
+    DataFrame compact = Footprint.compact(df, saved);
+    assertThat(saved.toString()).startsWith("Compacted 4 of 7 columns: ").contains("  city ");
+    assertThat(compact.getColumn("boxed")).isInstanceOf(IntSeries.class);
+    assertThat(compact.getColumn("text")).isInstanceOf(DoubleSeries.class);
+    assertThat(compact.getColumn("text").toList().subList(0, 3)).containsExactly(Double.NaN, 1.5, 3.0);
+    assertThat(compact.getColumn("count")).isInstanceOf(IntSeries.class);
+    assertThat(compact.getColumn("city")).isInstanceOf(CategorySeries.class);
+    assertThat(compact.getColumn("city").toList()).isEqualTo(df.getColumn("city").toList());
+    // Codes with leading zeros stay text
+    assertThat(compact.getColumn("zip").toList()).isEqualTo(df.getColumn("zip").toList());
+    assertThat(compact.getColumn("price")).isSameAs(price);
+
+    DataFrame compactReport = DS.memoryReport(compact);
+    assertThat(compactReport.getColumn("storage").get(5)).isEqualTo("dictionary");
+    assertThat(compactReport.getColumn("note").get(5).toString()).startsWith("3 categories, dictionary of");
+    long before = report.getColumn("bytes").castAsLong().sum();
+    assertThat(compactReport.getColumn("bytes").castAsLong().sum()).isLessThan(before / 2);
+
+    // Views of a larger series are copied
+    DataFrame head = DataFrame.byColumn("x").of(Series.ofDouble(new double[n])).head(10);
+    assertThat(DS.memoryReport(head).getColumn("note").get(0).toString()).contains("may retain a larger array");
+    assertThat(DS.memoryReport(DS.compact(head)).getColumn("note").get(0)).isEqualTo("");
+  }
+
+  @Test
+  public void testCompactKeepsValues() throws IOException {
+    DataFrame df = DataFrame.byColumn("ids", "big", "huge", "mixed", "decimal").of(
+        Series.of(5_000_000_000L, null, 7L, 8L),
+        Series.of("1234567890123456789", "-9223372036854775808", "1", "2"),
+        Series.of("12345678901234567890", "1", "2", "3"),
+        Series.of("9007199254740993", "0.5", null, "1"),
+        Series.of("0.1", "1.50", null, "2e3"));
+
+    DataFrame compact = DS.compact(df);
+    // Integers with nulls stay boxed rather than becoming doubles
+    assertThat(compact.getColumn("ids").toList()).containsExactly(5_000_000_000L, null, 7L, 8L);
+    assertThat(compact.getColumn("big")).isInstanceOf(LongSeries.class);
+    assertThat(compact.getColumn("big").toList())
+        .containsExactly(1234567890123456789L, Long.MIN_VALUE, 1L, 2L);
+    // Text a double cannot hold exactly stays text
+    assertThat(compact.getColumn("huge").toList()).isEqualTo(df.getColumn("huge").toList());
+    assertThat(compact.getColumn("mixed").toList()).isEqualTo(df.getColumn("mixed").toList());
+    assertThat(compact.getColumn("decimal")).isInstanceOf(DoubleSeries.class);
+    assertThat(compact.getColumn("decimal").toList()).containsExactly(0.1, 1.5, Double.NaN, 2000.0);
+
+    // Memory-mapped columns take no heap and are not copied onto it
+    Path tempFile = Files.createTempFile("test-df", ".dsb");
+    try {
+      DS.saveBinary(DS.fromColumns(new String[]{"n"}, new long[]{1, 2, 3}), tempFile.toString());
+      DataFrame loaded = DS.loadBinary(tempFile.toString());
+      DataFrame report = DS.memoryReport(loaded);
+      assertThat(report.getColumn("storage").get(0)).isEqualTo("mapped");
+      assertThat(report.getColumn("bytes").get(0)).isEqualTo(0L);
+      assertThat(report.getColumn("note").get(0)).isEqualTo("memory-mapped, 24 B off heap");
+      assertThat(DS.compact(loaded).getColumn("n")).isSameAs(loaded.getColumn("n"));
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  @Test
+  public void testPivot() {
+    DataFrame df = DS.fromColumns(new String[]{"region", "month", "amount"},
+        new Object[]{"west", "east", "west", "east", null, "west", "north"},
+        new int[]{2, 1, 2, 3, 1, 1, 3},
+        new double[]{1.0, 2.0, 3.0, Double.NaN, 5.0, 6.0, 7.0});
+
+    DataFrame sums = DS.pivot(df, "region", "month", Agg.sum("amount"));
+    assertThat(sums.getColumnsIndex().toArray()).containsExactly("region", "1", "2", "3");
+    assertThat(sums.getColumn("region").toList()).containsExactly("east", "north", "west");
+    assertThat(sums.getColumn("1").toList()).containsExactly(2.0, Double.NaN, 6.0);
+    assertThat(sums.getColumn("2").toList()).containsExactly(Double.NaN, Double.NaN, 4.0);
+    assertThat(sums.getColumn("3").toList()).containsExactly(Double.NaN, 7.0, Double.NaN);
+    assertThat(sums.getColumn("3")).isInstanceOf(DoubleSeries.class);
+
+    DataFrame counts = DS.pivot(DS.categorize(df, "region"), "month", "region", Agg.count());
+    assertThat(counts.getColumnsIndex().toArray()).containsExactly("month", "east", "north", "west");
+    assertThat(counts.getColumn("month").toList()).containsExactly(1, 2, 3);
+    assertThat(counts.getColumn("east").toList()).containsExactly(1.0, 0.0, 1.0);
+    assertThat(counts.getColumn("west").toList()).containsExactly(1.0, 2.0, 0.0);
+    assertThat(DS.pivot(df, "region", "month", Agg.count("amount")).getColumn("3").toList())
+        .containsExactly(0.0, 1.0, 0.0);
+
+    assertThatThrownBy(() -> DS.pivot(df, "region", "day", Agg.sum("amount")))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("No such column: day");
+
+    // Cells filled in ranges of output rows match aggregation by both keys
+    int n = 200_000;
+    long[] user = new long[n];
+    double[] day = new double[n];
+    double[] value = new double[n];
+    java.util.SplittableRandom random = new java.util.SplittableRandom(11);
+    for (int i = 0; i < n; i++) {
+      user[i] = random.nextInt(500) * 7L;
+      day[i] = random.nextInt(30);
+      value[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextDouble() * 100;
+    }
+    DataFrame large = DS.fromColumns(new String[]{"user", "day", "value"}, user, day, value);
+    for (Agg agg : new Agg[]{Agg.mean("value"), Agg.min("value"), Agg.max("value"), Agg.variance("value")}) {
+      DataFrame single = Pivot.pivot(large, "user", "day", agg, 1);
+      DataFrame ranged = Pivot.pivot(large, "user", "day", agg, 7);
+      assertThat(ranged.getColumn("user").toList()).isEqualTo(single.getColumn("user").toList());
+      DataFrame groups = DS.aggregate(large, new String[]{"user", "day"}, agg);
+      for (int g = 0; g < groups.height(); g += 97) {
+        long u = groups.getColumn("user").castAsLong().getLong(g);
+        double d = groups.getColumn("day").castAsDouble().getDouble(g);
+        int row = (int) (u / 7);
+        String column = String.valueOf(d);
+        assertThat(ranged.getColumn(column).castAsDouble().getDouble(row))
+            .isEqualTo(single.getColumn(column).castAsDouble().getDouble(row))
+            .isCloseTo(groups.getColumn(agg.getName()).castAsDouble().getDouble(g), Offset.offset(1e-9));
+      }
+    }
+  }
+
+  @Test
+  public void testPivotCountsNonNullText() {
+    DataFrame df = DS.fromColumns(new String[]{"region", "month", "note", "day"},
+        new Object[]{"west", "east", "west", "east", "west"},
+        new int[]{1, 1, 1, 2, 2},
+        new Object[]{"a", null, "NaN", "b", null},
+        new Object[]{LocalDate.of(2024, 1, 1), null, null, LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 4)});
+
+    DataFrame notes = DS.pivot(df, "region", "month", Agg.count("note"));
+    assertThat(notes.getColumn("1").toList()).containsExactly(0.0, 2.0);
+    assertThat(notes.getColumn("2").toList()).containsExactly(1.0, 0.0);
+    DataFrame days = DS.pivot(df, "region", "month", Agg.count("day"));
+    assertThat(days.getColumn("1").toList()).containsExactly(0.0, 1.0);
+    assertThat(days.getColumn("2").toList()).containsExactly(1.0, 1.0);
+  }
+
+  @Test
+  public void testQuantiles() {
+    DataFrame df = DS.fromColumns(new String[]{"x", "i", "o"},
+        new double[]{3, 1, Double.NaN, 2, 4},
+        new int[]{30, 10, 50, 20, 40},
+        new Object[]{"3", null, 1, 2.0, 4L});
+    assertThat(DS.quantiles(df, "x", 0, 0.5, 0.25, 1)).containsExactly(1, 2.5, 1.75, 4);
+    assertThat(DS.quantiles(df, "i", 0.5, 0.9)).containsExactly(30, 46);
+    assertThat(DS.quantiles(df, "o", 0.5)).containsExactly(2.5);
+    assertThat(DS.quantiles(df.head(0), "x", 0.5)).containsExactly(Double.NaN);
+    assertThatThrownBy(() -> DS.quantiles(df, "x", 1.5))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("between 0 and 1");
+    assertThatThrownBy(() -> DS.quantiles(df, "y", 0.5))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("No such column: y");
+
+    // Introselect puts the value of rank k at k
+    java.util.SplittableRandom random = new java.util.SplittableRandom(5);
+    for (int t = 0; t < 200; t++) {
+      double scale = t % 2 == 0 ? 10 : 1000;
+      double[] a = random.doubles(random.nextInt(1, 300)).map(x -> Math.floor(x * scale)).toArray();
+      double[] sorted = a.clone();
+      Arrays.sort(sorted);
+      int k = random.nextInt(a.length);
+      Quantiles.select(a, 0, a.length, k);
+      assertThat(a[k]).isEqualTo(sorted[k]);
+    }
+
+    // Large columns are scanned around sampled intervals, also with frequent values at their bounds
+    int n = 3_000_000;
+    double[] values = new double[n];
+    double[] frequent = new double[n];
+    for (int i = 0; i < n; i++) {
+      values[i] = random.nextInt(20) == 0 ? Double.NaN : Math.exp(random.nextGaussian());
+      frequent[i] = random.nextInt(4);
+    }
+    double[] qs = {0, 0.001, 0.25, 0.5, 0.5001, 0.95, 0.99, 1};
+    DataFrame large = DS.fromColumns(new String[]{"values", "frequent"}, values, frequent);
+    for (String column : new String[]{"values", "frequent"}) {
+      double[] sorted = Arrays.stream(large.getColumn(column).castAsDouble().toDoubleArray())
+          .filter(x -> !Double.isNaN(x)).sorted().toArray();
+      double[] expected = new double[qs.length];
+      for (int q = 0; q < qs.length; q++) {
+        double h = qs[q] * (sorted.length - 1);
+        int k = (int) h;
+        expected[q] = k + 1 < sorted.length ? sorted[k] + (h - k) * (sorted[k + 1] - sorted[k]) : sorted[k];
+      }
+      assertThat(DS.quantiles(large, column, qs)).containsExactly(expected, Offset.offset(1e-12));
+
+      // Approximate quantiles of chunks are within the documented bound on ranks
+      double[] approximate = DS.quantiles(Stream.of(large.head(1_000_000), large.tail(n - 1_000_000)), column, qs);
+      for (int q = 1; q < qs.length - 1; q++) {
+        double bound = 2 * Math.PI * Math.sqrt(qs[q] * (1 - qs[q])) / 100;
+        int lower = (int) Math.max(0, Math.floor((qs[q] - bound) * (sorted.length - 1)));
+        int upper = (int) Math.min(sorted.length - 1, Math.ceil((qs[q] + bound) * (sorted.length - 1)));
+        assertThat(approximate[q]).isBetween(sorted[lower], sorted[upper]);
+      }
+    }
+
+    // Digests of many ranges, and of chunks of a parallel stream, merge every value once
+    int m = 6_000_000;
+    Series<?> sequence = Series.ofDouble(IntStream.range(0, m).asDoubleStream().toArray());
+    for (int t = 0; t < 3; t++) {
+      TDigest digest = Quantiles.digest(sequence);
+      assertThat(digest.size()).isEqualTo((long) m);
+      assertThat(digest.quantile(0.5)).isCloseTo(m / 2.0, Offset.offset(m * 0.005));
+    }
+    DataFrame sequenceFrame = DataFrame.byColumn("x").of(sequence);
+    double[] median = DS.quantiles(IntStream.range(0, 6).parallel()
+        .mapToObj(c -> sequenceFrame.rowsRange(c * (m / 6), (c + 1) * (m / 6)).select()), "x", 0.5);
+    assertThat(median[0]).isCloseTo(m / 2.0, Offset.offset(m * 0.005));
+
+    // Approximate quantiles per group
+    assertThat(Agg.quantile("x", 0.999).getName()).isEqualTo("p99.9(x)");
+    DataFrame groups = DS.aggregate(DS.fromColumns(new String[]{"g", "values"},
+            IntStream.range(0, n).map(i -> i % 3).toArray(), values),
+        "g", Agg.quantile("values", 0.5), Agg.quantile("values", 0.95).as("high"));
+    assertThat(groups.getColumnsIndex().toArray()).containsExactly("g", "p50(values)", "high");
+    for (int g = 0; g < 3; g++) {
+      int group = g;
+      DataFrame rows = DS.fromColumns(new String[]{"values"},
+          IntStream.range(0, n).filter(i -> i % 3 == group).mapToDouble(i -> values[i]).toArray());
+      double[] exact = DS.quantiles(rows, "values", 0.49, 0.51, 0.94, 0.96);
+      assertThat(groups.getColumn("p50(values)").castAsDouble().getDouble(g)).isBetween(exact[0], exact[1]);
+      assertThat(groups.getColumn("high").castAsDouble().getDouble(g)).isBetween(exact[2], exact[3]);
+    }
+    assertThatThrownBy(() -> DS.rolling(df, 3, Agg.quantile("x", 0.5)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testSketches() {
+    int n = 500_000;
+    java.util.SplittableRandom random = new java.util.SplittableRandom(3);
+    int[] ids = new int[n];
+    Object[] names = new Object[n];
+    double[] values = new double[n];
+    for (int i = 0; i < n; i++) {
+      // Value v in 1..5 occurs about n / 2^v times, the other 3% are nearly unique
+      int v = Long.numberOfTrailingZeros(random.nextLong() | 1L << 40) + 1;
+      ids[i] = v <= 5 ? v : 1000 + random.nextInt(1_000_000);
+      names[i] = i % 10 == 0 ? null : "name" + ids[i];
+      values[i] = i % 7 == 0 ? Double.NaN : ids[i];
+    }
+    DataFrame df = DS.fromColumns(new String[]{"id", "name", "value"}, ids, names, values);
+    long distinct = Arrays.stream(ids).distinct().count();
+
+    assertThat((double) DS.approxDistinct(df, "id")).isCloseTo(distinct, Offset.offset(distinct * 0.05));
+    assertThat((double) DS.approxDistinct(DS.categorize(df, "name"), "name"))
+        .isCloseTo(DS.approxDistinct(df, "name"), Offset.offset(0.0));
+    assertThat(DS.approxDistinct(Stream.of(df.head(1000), df.tail(n - 1000)), "id"))
+        .isEqualTo(DS.approxDistinct(df, "id"));
+    assertThat(DS.approxDistinct(df.head(0), "id")).isZero();
+
+    Map<Integer, Long> counts = new HashMap<>();
+    for (int id : ids) {
+      counts.merge(id, 1L, Long::sum);
+    }
+    DataFrame top = DS.topK(df, "id", 5);
+    assertThat(top.getColumnsIndex().toArray()).containsExactly("id", "count");
+    assertThat(top.getColumn("id").toList()).containsExactly(1, 2, 3, 4, 5);
+    for (int i = 0; i < 5; i++) {
+      long exact = counts.get(i + 1);
+      assertThat(top.getColumn("count").castAsLong().getLong(i)).isBetween(exact, exact + n / 500);
+    }
+    assertThat(DS.topK(df, "name", 2).getColumn("name").toList()).containsExactly("name1", "name2");
+    assertThat(DS.topK(DS.categorize(df, "name"), "name", 2).getColumn("name").toList())
+        .containsExactly("name1", "name2");
+    assertThat(DS.topK(df, "value", 1).getColumn("value").toList()).containsExactly(1.0);
+    assertThat(DS.topK(Stream.of(df.head(n / 2), df.tail(n / 2)), "id", 3).getColumn("id").toList())
+        .containsExactly(1, 2, 3);
+    assertThatThrownBy(() -> DS.topK(df, "id", 0)).isInstanceOf(IllegalArgumentException.class);
+
+    // Heavy hitters of merged sketches include values frequent in only one of them
+    FrequencySketch left = new FrequencySketch(256, 4);
+    FrequencySketch right = new FrequencySketch(256, 4);
+    for (int i = 0; i < 10_000; i++) {
+      left.add(i % 3 == 0 ? "a" : "l" + i);
+      right.add(i % 2 == 0 ? "b" : "r" + i);
+    }
+    assertThat(left.merge(right).top(2)).containsExactly("b", "a");
+    assertThat(left.size()).isEqualTo(20_000);
+
+    DataFrame stats = DS.stats(df);
+    assertThat(stats.getColumnsIndex().toArray()).contains("distinct", "top", "freq");
+    assertThat(stats.getColumn("top").toList()).containsExactly(1, "name1", 1.0);
+    assertThat((double) stats.getColumn("freq").castAsLong().getLong(0))
+        .isCloseTo(counts.get(1), Offset.offset(counts.get(1) * 0.05));
+    assertThat((double) stats.getColumn("distinct").castAsLong().getLong(0))
+        .isCloseTo(distinct, Offset.offset(distinct * 0.05));
+
+    DataFrame groups = DS.aggregate(df, "name", Agg.approxTop("id"), Agg.approxDistinct("id"));
+    assertThat(groups.getColumnsIndex().toArray()).containsExactly("name", "top(id)", "distinct(id)");
+    DataFrame byParity = DS.aggregate(DS.fromColumns(new String[]{"odd", "id"},
+        Arrays.stream(ids).map(id -> id % 2).toArray(), ids), "odd", Agg.approxTop("id"));
+    Map<Object, Object> topByParity = new HashMap<>();
+    for (int g = 0; g < byParity.height(); g++) {
+      topByParity.put(byParity.getColumn("odd").get(g), byParity.getColumn("top(id)").get(g));
+    }
+    assertThat(topByParity).containsEntry(1, 1).containsEntry(0, 2);
+  }
+
+  @Test
+  public void testDistinct() {
+    DataFrame df = DS.fromColumns(new String[]{"user", "day", "value"},
+        new Object[]{"a", "b", "a", null, "a", null, "b"},
+        new int[]{1, 1, 1, 2, 2, 2, 1},
+        new double[]{1.0, 2.0, 3.0, Double.NaN, 5.0, Double.NaN, 2.0});
+
+    DataFrame all = DS.distinct(df);
+    assertThat(all.getColumn("value").toList()).containsExactly(1.0, 2.0, 3.0, Double.NaN, 5.0);
+    DataFrame first = DS.distinct(df, "user", "day");
+    assertThat(first.getColumn("user").toList()).containsExactly("a", "b", null, "a");
+    assertThat(first.getColumn("value").toList()).containsExactly(1.0, 2.0, Double.NaN, 5.0);
+    DataFrame last = DS.distinct(df, true, "user", "day");
+    assertThat(last.getColumn("value").toList()).containsExactly(3.0, 5.0, Double.NaN, 2.0);
+    assertThat(DS.distinctRows(df, true, "user", "day")).containsExactly(2, 4, 5, 6);
+    assertThat(DS.duplicates(df, "user", "day").getColumn("value").toList()).containsExactly(3.0, Double.NaN, 2.0);
+    assertThat(DS.distinct(DS.categorize(df, "user"), "user").getColumn("user").toList())
+        .containsExactly("a", "b", null);
+    assertThatThrownBy(() -> DS.distinct(df, "month"))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("No such column: month");
+
+    // Rows of many partitions and ranges match a set of row keys
+    int n = 300_000;
+    java.util.SplittableRandom random = new java.util.SplittableRandom(17);
+    long[] a = new long[n];
+    Object[] b = new Object[n];
+    for (int i = 0; i < n; i++) {
+      a[i] = random.nextInt(1000);
+      b[i] = random.nextInt(10) == 0 ? null : "k" + random.nextInt(100);
+    }
+    DataFrame large = DS.fromColumns(new String[]{"a", "b"}, a, b);
+    Map<List<Object>, Integer> firstRows = new HashMap<>();
+    Map<List<Object>, Integer> lastRows = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      List<Object> key = Arrays.asList(a[i], b[i]);
+      firstRows.putIfAbsent(key, i);
+      lastRows.put(key, i);
+    }
+    assertThat(DS.distinctRows(large, false, "a", "b"))
+        .containsExactly(firstRows.values().stream().mapToInt(Integer::intValue).sorted().toArray());
+    assertThat(DS.distinctRows(large, true))
+        .containsExactly(lastRows.values().stream().mapToInt(Integer::intValue).sorted().toArray());
+    assertThat(DS.duplicates(large).height()).isEqualTo(n - firstRows.size());
+  }
+
+  @Test
+  public void testJoin() {
+    DataFrame events = DS.fromColumns(new String[]{"user", "value"},
+        new Object[]{"u1", "u2", "u3", null, "u1"},
+        new int[]{10, 20, 30, 40, 50});
+    DataFrame users = DS.fromColumns(new String[]{"user", "value", "age"},
+        new Object[]{"u1", "u2", "u2"},
+        new int[]{1, 2, 3},
+        new long[]{31, 42, 43});
+
+    DataFrame inner = DS.join(events, users, "user", JoinKind.INNER);
+    assertThat(inner.getColumnsIndex().toArray()).containsExactly("user", "value", "value_", "age");
+    assertThat(inner.getColumn("value").toList()).containsExactly(10, 20, 20, 50);
+    assertThat(inner.getColumn("value_").toList()).containsExactly(1, 2, 3, 1);
+
+    DataFrame left = DS.join(events, users, "user", JoinKind.LEFT);
+    assertThat(left.getColumn("value").toList()).containsExactly(10, 20, 20, 30, 40, 50);
+    assertThat(left.getColumn("age").toList()).containsExactly(31L, 42L, 43L, null, null, 31L);
+
+    DataFrame semi = DS.join(events, users, "user", JoinKind.SEMI);
+    assertThat(semi.getColumnsIndex().toArray()).containsExactly("user", "value");
+    assertThat(semi.getColumn("value").toList()).containsExactly(10, 20, 50);
+
+    // The left side is the smaller one here, so the table is built on it
+    DataFrame reversed = DS.join(users, events, "user", JoinKind.LEFT);
+    assertThat(reversed.getColumn("value").toList()).containsExactly(1, 1, 2, 3);
+    assertThat(reversed.getColumn("value_").toList()).containsExactly(10, 50, 20, 20);
+  }
+
+  @Test
+  public void testJoinNumericKeys() {
+    DataFrame left = DS.fromColumns(new String[]{"k", "x"}, new int[]{1, 2, 3}, new double[]{0.1, 0.2, 0.3});
+    DataFrame byLong = DS.fromColumns(new String[]{"k", "y"}, new long[]{3, 1}, new int[]{30, 10});
+    DataFrame byDouble = DS.fromColumns(new String[]{"k", "y"}, new double[]{2.0, Double.NaN}, new int[]{20, 0});
+
+    assertThat(DS.join(left, byLong, "k", JoinKind.INNER).getColumn("y").toList()).containsExactly(10, 30);
+    assertThat(DS.join(left, byDouble, "k", JoinKind.LEFT).getColumn("y").toList()).containsExactly(null, 20, null);
+  }
+
+  @Test
+  public void testJoinPartitionedMatchesInMemory() {
+    int n = 50_000;
+    long[] keys = new long[n];
+    Object[] labels = new Object[n];
+    int[] values = new int[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = (i * 7919L) % 20_000;
+      labels[i] = i % 10 == 0 ? null : "L" + (i % 4);
+      values[i] = i;
+    }
+    DataFrame facts = DS.fromColumns(new String[]{"key", "label", "value"}, keys, labels, values);
+    // Keys of rows 1, 2 and 3, one of them twice, and two keys that are not in the facts
+    DataFrame dims = DS.fromColumns(new String[]{"key", "label", "dim"},
+        new long[]{keys[1], keys[1], keys[2], keys[3], keys[3], 123_456}, new Object[]{"L1", "L1", "L2", "L3", "L0", "L1"},
+        new int[]{1, 2, 3, 4, 5, 6});
+
+    String[] on = {"key", "label"};
+    for (JoinKind how : JoinKind.values()) {
+      for (DataFrame[] sides : new DataFrame[][]{{facts, dims}, {dims, facts}}) {
+        DataFrame inMemory = HashJoin.join(sides[0], sides[1], on, how, Integer.MAX_VALUE);
+        DataFrame partitioned = HashJoin.join(sides[0], sides[1], on, how, 4);
+        assertThat(inMemory.height()).isPositive();
+        assertThat(partitioned.height()).isEqualTo(inMemory.height());
+        for (String column : inMemory.getColumnsIndex()) {
+          assertThat(partitioned.getColumn(column).toList()).isEqualTo(inMemory.getColumn(column).toList());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCategorical() throws IOException {
+    DataFrame df = DS.categorize(DS.fromColumns(new String[]{"species", "size"},
+        new Object[]{"b", "a", null, "b", "c", "a"},
+        new int[]{1, 2, 3, 4, 5, 6}), "species");
+    @SuppressWarnings("unchecked")
+    CategorySeries<Object> species = (CategorySeries<Object>) df.getColumn("species");
+    assertThat(species.getCodes().toIntArray()).containsExactly(0, 1, -1, 0, 2, 1);
+    assertThat(species.toList()).containsExactly("b", "a", null, "b", "c", "a");
+    assertThat(species.fillNulls("a").toList()).containsExactly("b", "a", "a", "b", "c", "a");
+    assertThat(species.select(Series.ofInt(4, -1, 0)).toList()).containsExactly("c", null, "b");
+
+    DataFrame counts = DS.aggregate(df, "species", Agg.count(), Agg.sum("size"), Agg.approxDistinct("species"));
+    assertThat(counts.getColumn("species")).isInstanceOf(CategorySeries.class);
+    assertThat(counts.getColumn("species").toList()).containsExactly("b", "a", null, "c");
+    assertThat(counts.getColumn("sum(size)").toList()).containsExactly(5.0, 8.0, 3.0, 5.0);
+    assertThat(counts.getColumn("distinct(species)").toList()).containsExactly(1L, 1L, 0L, 1L);
+
+    DataFrame sorted = DS.sort(df, "species");
+    assertThat(sorted.getColumn("species").toList()).containsExactly("a", "a", "b", "b", "c", null);
+    assertThat(sorted.getColumn("size").toList()).containsExactly(2, 6, 1, 4, 5, 3);
+
+    DataFrame names = DS.fromColumns(new String[]{"species", "name"}, new Object[]{"a", "c", "d"},
+        new Object[]{"Alpha", "Gamma", "Delta"});
+    DataFrame joined = DS.join(df, names, "species", JoinKind.INNER);
+    assertThat(joined.getColumn("size").toList()).containsExactly(2, 5, 6);
+    assertThat(joined.getColumn("name").toList()).containsExactly("Alpha", "Gamma", "Alpha");
+
+    DataFrame encoded = DS.oneHot(df, "species");
+    assertThat(encoded.getColumnsIndex().toArray()).containsExactly("species_b", "species_a", "species_c", "size");
+    assertThat(encoded.getColumn("species_a").toList()).containsExactly(0, 1, 0, 0, 0, 1);
+    assertThat(encoded.getColumn("species_c").toList()).containsExactly(0, 0, 0, 0, 1, 0);
+    assertThatThrownBy(() -> DS.oneHot(df, "colour")).isInstanceOf(IllegalArgumentException.class);
+
+    Path tempFile = Files.createTempFile("test-df", ".dsb");
+    try {
+      DS.saveBinary(df, tempFile.toString());
+      Series<?> loaded = DS.loadBinary(tempFile.toString()).getColumn("species");
+      assertThat(loaded).isInstanceOf(CategorySeries.class);
+      assertThat(loaded.toList()).isEqualTo(species.toList());
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  @Test
+  public void testSample() {
+    int n = 200_000;
+    int[] ids = new int[n];
+    Object[] groups = new Object[n];
+    for (int i = 0; i < n; i++) {
+      ids[i] = i;
+      // A large group, a small one, a tiny one and nulls
+      groups[i] = i % 1000 == 0 ? "rare" : i % 10 == 0 ? "small" : i == 7 ? null : "big";
+    }
+    DataFrame df = DS.fromColumns(new String[]{"id", "group"}, ids, groups);
+
+    DataFrame sample = DS.sample(df, 1000, 42);
+    int[] sampled = sample.getColumn("id").castAsInt().toIntArray();
+    assertThat(sampled).hasSize(1000).isSorted().doesNotHaveDuplicates();
+    assertThat(DS.sample(df, 1000, 42).getColumn("id").toList()).isEqualTo(sample.getColumn("id").toList());
+    assertThat(DS.sample(df, 1000, 43).getColumn("id").toList()).isNotEqualTo(sample.getColumn("id").toList());
+    // Roughly uniform: about half of the sample from each half of the rows
+    assertThat(Arrays.stream(sampled).filter(id -> id < n / 2).count()).isBetween(400L, 600L);
+    assertThat(DS.sample(df, n + 1, 42).height()).isEqualTo(n);
+
+    // A stream of chunks gives the same sample as the whole frame
+    Stream<DataFrame> chunks = Stream.iterate(0, from -> from < n, from -> from + 7_000)
+        .map(from -> df.rowsRange(from, Math.min(n, from + 7_000)).select());
+    assertThat(DS.sample(chunks, 1000, 42).getColumn("id").toList()).isEqualTo(sample.getColumn("id").toList());
+
+    DataFrame stratified = DS.sampleStratified(df, "group", 0.01, 7);
+    Map<Object, int[]> strata = Columns.groupRows(stratified.getColumn("group"));
+    assertThat(strata.get("big")).hasSize(1800);
+    assertThat(strata.get("small")).hasSize(198);
+    assertThat(strata.get("rare")).hasSize(2);
+    assertThat(stratified.height()).isEqualTo(1800 + 198 + 2 + 1);
+    assertThat(stratified.getColumn("id").castAsInt().toIntArray()).isSorted().contains(7);
+
+    Stream<DataFrame> stratifiedChunks = Stream.iterate(0, from -> from < n, from -> from + 5_000)
+        .map(from -> df.rowsRange(from, Math.min(n, from + 5_000)).select());
+    assertThat(DS.sampleStratified(stratifiedChunks, "group", 0.01, 7).getColumn("id").toList())
+        .isEqualTo(stratified.getColumn("id").toList());
+    assertThatThrownBy(() -> DS.sampleStratified(df, "group", 1.5, 7)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testRolling() {
+    int n = 5_000;
+    int window = 7;
+    double[] values = new double[n];
+    Object[] sensors = new Object[n];
+    java.util.SplittableRandom random = new java.util.SplittableRandom(3);
+    for (int i = 0; i < n; i++) {
+      values[i] = i % 97 == 0 ? Double.NaN : 1e6 + random.nextDouble() * 100;
+      sensors[i] = i % 3 == 0 ? "a" : "b";
+    }
+    DataFrame df = DS.fromColumns(new String[]{"sensor", "value"}, sensors, values);
+    Agg[] aggs = {Agg.count(), Agg.count("value"), Agg.sum("value"), Agg.mean("value"), Agg.min("value"),
+        Agg.max("value"), Agg.variance("value")};
+
+    DataFrame rolled = Rolling.rolling(df, null, window, aggs, 4);
+    assertThat(rolled.getColumnsIndex().toArray()).containsExactly("sensor", "value", "count", "count(value)",
+        "sum(value)", "mean(value)", "min(value)", "max(value)", "variance(value)");
+    assertRolling(rolled, values, window);
+
+    // A stream of chunks continues the windows across chunk boundaries
+    List<DataFrame> streamed = DS.rolling(Stream.iterate(0, from -> from < n, from -> from + 1_000)
+        .map(from -> df.rowsRange(from, Math.min(n, from + 1_000)).select()), window, aggs).toList();
+    assertThat(streamed).hasSize(5);
+    assertRolling(streamed.get(0).vConcat(streamed.subList(1, 5).toArray(new DataFrame[0])), values, window);
+
+    DataFrame bySensor = DS.rolling(df, "sensor", window, Agg.mean("value"));
+    int[] rowsB = Columns.groupRows(df.getColumn("sensor")).get("b");
+    double[] sensorB = Arrays.stream(rowsB).mapToDouble(r -> values[r]).toArray();
+    DataFrame expectedB = DS.rolling(DS.fromColumns(new String[]{"value"}, sensorB), window, Agg.mean("value"));
+    assertThat(bySensor.getColumn("mean(value)").select(rowsB).toList())
+        .isEqualTo(expectedB.getColumn("mean(value)").toList());
+
+    assertThatThrownBy(() -> DS.rolling(df, 0, Agg.sum("value"))).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> DS.rolling(df, 3, Agg.approxDistinct("value")))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /**
+   * Compare rolling aggregates with a direct computation over every window
+   */
+  private static void assertRolling(DataFrame rolled, double[] values, int window) {
+    for (int i = 0; i < values.length; i++) {
+      if (i < window - 1) {
+        assertThat(rolled.getColumn("sum(value)").get(i)).isEqualTo(Double.NaN);
+        continue;
+      }
+      double[] inWindow = Arrays.stream(values, i - window + 1, i + 1).filter(x -> !Double.isNaN(x)).toArray();
+      double mean = Arrays.stream(inWindow).average().orElse(Double.NaN);
+      double variance = Arrays.stream(inWindow).map(x -> (x - mean) * (x - mean)).sum() / (inWindow.length - 1);
+      assertThat(rolled.getColumn("count").get(i)).isEqualTo((double) window);
+      assertThat(rolled.getColumn("count(value)").get(i)).isEqualTo((double) inWindow.length);
+      assertThat((Double) rolled.getColumn("sum(value)").get(i))
+          .isCloseTo(Arrays.stream(inWindow).sum(), Offset.offset(1e-6));
+      assertThat((Double) rolled.getColumn("mean(value)").get(i)).isCloseTo(mean, Offset.offset(1e-7));
+      assertThat(rolled.getColumn("min(value)").get(i)).isEqualTo(Arrays.stream(inWindow).min().getAsDouble());
+      assertThat(rolled.getColumn("max(value)").get(i)).isEqualTo(Arrays.stream(inWindow).max().getAsDouble());
+      assertThat((Double) rolled.getColumn("variance(value)").get(i))
+          .isCloseTo(variance, Offset.offset(1e-4));
+    }
+  }
+
+  @Test
+  public void testResample() {
+    java.time.LocalDateTime start = java.time.LocalDateTime.of(2024, 3, 1, 10, 0);
+    Object[] times = new Object[10];
+    double[] temps = new double[10];
+    for (int i = 0; i < times.length; i++) {
+      // Every 2 minutes, out of order, with one row without a time
+      times[i] = i == 4 ? null : start.plusMinutes(2L * ((i * 7) % 10));
+      temps[i] = (i * 7) % 10;
+    }
+    DataFrame df = DS.fromColumns(new String[]{"time", "temp"}, times, temps);
+
+    DataFrame buckets = DS.resample(df, "time", java.time.Duration.ofMinutes(5), Agg.count(), Agg.mean("temp"),
+        Agg.max("temp"));
+    assertThat(buckets.getColumnsIndex().toArray()).containsExactly("time", "count", "mean(temp)", "max(temp)");
+    assertThat(buckets.getColumn("time").toList()).containsExactly(start, start.plusMinutes(5),
+        start.plusMinutes(10), start.plusMinutes(15));
+    // Temps 0, 1, 2 at 0, 2, 4 minutes; 3, 4 at 6, 8; 5, 6, 7 at 10, 12, 14; 9 at 18, as 8 has no time
+    assertThat(buckets.getColumn("count").toList()).containsExactly(3L, 2L, 3L, 1L);
+    assertThat(buckets.getColumn("mean(temp)").toList()).containsExactly(1.0, 3.5, 6.0, 9.0);
+
+    Stream<DataFrame> chunks = Stream.of(df.rowsRange(0, 3).select(), df.rowsRange(3, 10).select());
+    DataFrame streamed = DS.resample(chunks, "time", java.time.Duration.ofMinutes(5), Agg.count(),
+        Agg.mean("temp"), Agg.max("temp"));
+    assertThat(streamed.getColumn("mean(temp)").toList()).isEqualTo(buckets.getColumn("mean(temp)").toList());
+
+    DataFrame daily = DS.resample(DS.fromColumns(new String[]{"day", "x"},
+        new Object[]{LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 9)},
+        new int[]{1, 2, 3}), "day", java.time.Duration.ofDays(7), Agg.sum("x"));
+    // Weeks start on Thursdays, counting from the epoch
+    assertThat(daily.getColumn("day").toList()).containsExactly(LocalDate.of(2023, 12, 28), LocalDate.of(2024, 1, 4));
+    assertThat(daily.getColumn("sum(x)").toList()).containsExactly(3.0, 3.0);
+
+    // Boxed int and long epoch milliseconds both come back as long bucket starts
+    for (Object[] millis : new Object[][]{{1_000, null, 61_000}, {1_000L, null, 61_000L}}) {
+      DataFrame boxed = DS.resample(DS.fromColumns(new String[]{"t", "x"}, millis, new int[]{1, 2, 3}), "t",
+          java.time.Duration.ofMinutes(1), Agg.count());
+      assertThat(boxed.getColumn("t")).isInstanceOf(LongSeries.class);
+      assertThat(boxed.getColumn("t").toList()).containsExactly(0L, 60_000L);
+    }
+  }
+
+  @Test
+  public void testEval() {
+    DataFrame df = DS.fromColumns(new String[]{"a", "b", "name"},
+        new Object[]{2.0, null, 4.0, -1.0},
+        new int[]{3, 5, 0, 2},
+        new Object[]{"x", "y", null, "x"});
+
+    DataFrame out = DS.eval(df, "c = a * b + 1; d = -2 ^ 2 * c; a = sqrt(abs(a))");
+    assertThat(out.getColumnsIndex().toArray()).containsExactly("a", "b", "name", "c", "d");
+    assertThat(out.getColumn("c").toList()).containsExactly(7.0, Double.NaN, 1.0, -1.0);
+    assertThat(out.getColumn("d").toList()).containsExactly(-28.0, Double.NaN, -4.0, 4.0);
+    assertThat(out.getColumn("a").toList()).containsExactly(Math.sqrt(2), Double.NaN, 2.0, 1.0);
+
+    // Comparisons with a null are null, and conditions follow three-valued logic
+    assertThat(Expression.compile("a > b").evaluate(df).toList())
+        .isEqualTo(Arrays.asList(false, null, true, false));
+    assertThat(Expression.compile("a > b or b >= 5").evaluate(df).toList())
+        .isEqualTo(Arrays.asList(false, true, true, false));
+    assertThat(Expression.compile("not (a > 0 and b < 3)").evaluate(df).toList())
+        .isEqualTo(Arrays.asList(true, true, false, true));
+    assertThat(Expression.compile("isnull(a) || isnull(name)").evaluate(df).toList())
+        .isEqualTo(Arrays.asList(false, true, true, false));
+    assertThat(Expression.compile("if(a > 0, min(a, b), coalesce(a, 10) % 2)").evaluate(df).toList())
+        .isEqualTo(Arrays.asList(2.0, Double.NaN, 0.0, -1.0));
+
+    // Text compares with text, whether or not it is dictionary-encoded
+    for (DataFrame frame : List.of(df, DS.categorize(df, "name"))) {
+      assertThat(Expression.compile("name == 'x'").evaluate(frame).toList())
+          .isEqualTo(Arrays.asList(true, false, null, true));
+      assertThat(Expression.compile("`name` != \"z\"").evaluate(frame).toList())
+          .isEqualTo(Arrays.asList(true, true, null, true));
+    }
+
+    assertThatThrownBy(() -> DS.eval(df, "c = a * "))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("position 8");
+    assertThatThrownBy(() -> DS.eval(df, "c = name + 1"))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Not a number: name");
+    assertThatThrownBy(() -> DS.eval(df, "c = missing")).hasMessageContaining("No such column: missing");
+    assertThatThrownBy(() -> DS.eval(df, "c = foo(a)")).hasMessageContaining("Unknown function: foo");
+    assertThatThrownBy(() -> DS.eval(df, "a + 1")).hasMessageContaining("assigns no column");
+
+    // A frame of many blocks, evaluated in parallel ranges
+    int n = 300_000;
+    double[] x = new double[n];
+    long[] y = new long[n];
+    for (int i = 0; i < n; i++) {
+      x[i] = i % 97 == 0 ? Double.NaN : i * 0.5;
+      y[i] = i % 11;
+    }
+    DataFrame large = DS.fromColumns(new String[]{"x", "y"}, x, y);
+    DoubleSeries z = DS.eval(large, "z = if(y > 5, x / y, log(1 + x))").getColumn("z").castAsDouble();
+    for (int i = 0; i < n; i++) {
+      double expected = y[i] > 5 ? x[i] / y[i] : Math.log(1 + x[i]);
+      assertThat(Double.compare(z.getDouble(i), expected)).isZero();
+    }
+    List<DataFrame> chunks = DS.eval(Stream.of(large.rowsRange(0, 10).select()), "z = x * 2").toList();
+    assertThat(chunks.get(0).getColumn("z").toList())
+        .isEqualTo(DS.eval(large, "z = x * 2").getColumn("z").head(10).toList());
+  }
+
   @Test
   public void testDescribeDoesNotThrowException() {
     // This test verifies that describe() doesn't throw exceptions
     assertThatCode(() -> {
-      DS.describe(sampleDataFrame);
+      DataFrame stats = DS.describe(sampleDataFrame);
+      assertThat(stats.height()).isEqualTo(sampleDataFrame.width());
     }).doesNotThrowAnyException();
   }
 
@@ -0,0 +1,66 @@
+package org.jjavaglue.dflib;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of image downscaling: ImageResizer against getScaledInstance(SCALE_SMOOTH), as displayImage used to
+ * resize, for a photo-sized image read as TYPE_3BYTE_BGR (as JPEGs are) to thumbnail and preview sizes; run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.jjavaglue.dflib.ImageResizeBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageResizeBenchmark {
+
+  @Param({ "160", "800" })
+  public int width;
+
+  private BufferedImage source;
+  private int height;
+
+  @Setup
+  public void setup() {
+    source = new BufferedImage(4000, 3000, BufferedImage.TYPE_3BYTE_BGR);
+    Random random = new Random(1);
+    Graphics2D g = source.createGraphics();
+    for (int i = 0; i < 2000; i++) {
+      g.setColor(new java.awt.Color(random.nextInt(0x1000000)));
+      g.fillOval(random.nextInt(4000), random.nextInt(3000), 50 + random.nextInt(400), 50 + random.nextInt(400));
+    }
+    g.dispose();
+    height = width * 3 / 4;
+  }
+
+  @Benchmark
+  public BufferedImage scaledInstance() {
+    Image scaled = source.getScaledInstance(width, height, Image.SCALE_SMOOTH);
+    BufferedImage resized = new BufferedImage(width, height, source.getType());
+    resized.getGraphics().drawImage(scaled, 0, 0, null);
+    return resized;
+  }
+
+  @Benchmark
+  public BufferedImage resizer() {
+    BufferedImage resized = ImageResizer.resize(source, width, height);
+    ImageResizer.release(resized);
+    return resized;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder().include(ImageResizeBenchmark.class.getSimpleName()).build();
+    new Runner(options).run();
+  }
+}
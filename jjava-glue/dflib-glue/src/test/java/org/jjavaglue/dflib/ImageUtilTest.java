@@ -0,0 +1,282 @@
+package org.jjavaglue.dflib;
+
+import org.dflib.jjava.jupyter.kernel.display.DisplayData;
+import org.dflib.jjava.jupyter.kernel.display.mime.MIMEType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class ImageUtilTest {
+
+  @TempDir
+  Path dir;
+
+  private Path image(String name, String format, int size) throws IOException {
+    BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        image.setRGB(x, y, (x * 255 / size) << 16 | (y * 255 / size) << 8);
+      }
+    }
+    Path file = dir.resolve(name);
+    ImageIO.write(image, format, file.toFile());
+    return file;
+  }
+
+  @Test
+  public void testDisplayImageStreamsFileBytes() throws Exception {
+    Path png = image("chart.png", "png", 40);
+    // A GIF named .png is displayed by its content
+    Path gif = image("mislabeled.png", "gif", 20);
+    Path text = dir.resolve("notes.png");
+    Files.writeString(text, "not an image");
+
+    DisplayData display = ImageUtil.displayImage(png.toString());
+    assertThat(display.getData(MIMEType.IMAGE_PNG))
+        .isEqualTo(Base64.getEncoder().encodeToString(Files.readAllBytes(png)));
+    assertThat(ImageUtil.displayImage(gif.toString()).getData(MIMEType.IMAGE_GIF))
+        .isEqualTo(Base64.getEncoder().encodeToString(Files.readAllBytes(gif)));
+    assertThat(ImageUtil.displayImage(text.toString()).getData(MIMEType.TEXT_PLAIN))
+        .isEqualTo("Failed to read image: " + text);
+    assertThat(ImageUtil.displayImage(dir.resolve("missing.png").toString()).getData(MIMEType.TEXT_PLAIN))
+        .isEqualTo("Image not found: " + dir.resolve("missing.png"));
+  }
+
+  @Test
+  public void testImageCache() throws Exception {
+    Path a = image("a.png", "png", 64);
+    Path b = image("b.png", "png", 64);
+    ImageCache cache = new ImageCache(ImageCache.DEFAULT_BUDGET);
+
+    ImageCache.Image first = cache.get(a);
+    assertThat(first.mimeType()).isEqualTo("image/png");
+    assertThat(cache.get(a)).isSameAs(first);
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.bytes()).isEqualTo(first.base64().length());
+
+    // A changed file is read again
+    image("a.png", "png", 32);
+    Files.setLastModifiedTime(a, FileTime.fromMillis(Files.getLastModifiedTime(a).toMillis() + 2000));
+    ImageCache.Image changed = cache.get(a);
+    assertThat(changed).isNotSameAs(first);
+    assertThat(changed.base64()).isEqualTo(Base64.getEncoder().encodeToString(Files.readAllBytes(a)));
+    assertThat(cache.bytes()).isEqualTo(changed.base64().length());
+
+    // The least recently used entry is dropped to fit the budget
+    ImageCache.Image other = cache.get(b);
+    cache.get(a);
+    cache.setBudget(changed.base64().length());
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.get(a)).isSameAs(changed);
+    assertThat(cache.get(b)).isNotSameAs(other);
+
+    cache.setBudget(0);
+    assertThat(cache.size()).isZero();
+    assertThat(cache.get(a)).isEqualTo(changed);
+    assertThat(cache.bytes()).isZero();
+  }
+
+  @Test
+  public void testResize() throws Exception {
+    // Flat areas stay exactly flat, reducing through halving or enlarging
+    BufferedImage flat = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+    for (int y = 0; y < 200; y++) {
+      for (int x = 0; x < 300; x++) {
+        flat.setRGB(x, y, 0x336699);
+      }
+    }
+    for (int[] size : new int[][]{{37, 23}, {300, 50}, {640, 480}}) {
+      BufferedImage resized = ImageResizer.resize(flat, size[0], size[1]);
+      assertThat(resized.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+      assertThat(resized.getWidth()).isEqualTo(size[0]);
+      assertThat(resized.getHeight()).isEqualTo(size[1]);
+      for (int y = 0; y < size[1]; y++) {
+        for (int x = 0; x < size[0]; x++) {
+          assertThat(resized.getRGB(x, y)).isEqualTo(0xFF336699);
+        }
+      }
+      ImageResizer.release(resized);
+    }
+
+    // A gradient is averaged, alike for every image type
+    BufferedImage gradient = new BufferedImage(1000, 10, BufferedImage.TYPE_3BYTE_BGR);
+    for (int y = 0; y < 10; y++) {
+      for (int x = 0; x < 1000; x++) {
+        int v = x * 255 / 999;
+        gradient.setRGB(x, y, v << 16 | v << 8 | (255 - v));
+      }
+    }
+    BufferedImage custom = copy(gradient, customRgba(1000, 10));
+    assertThat(custom.getType()).isEqualTo(BufferedImage.TYPE_CUSTOM);
+    BufferedImage expected = ImageResizer.resize(gradient, 100, 5);
+    for (BufferedImage image : new BufferedImage[]{gradient, copy(gradient, new BufferedImage(1000, 10,
+        BufferedImage.TYPE_INT_RGB)), custom}) {
+      BufferedImage resized = ImageResizer.resize(image, 100, 5);
+      for (int x = 0; x < 100; x++) {
+        double v = ((x + 0.5) * 10 - 0.5) * 255 / 999;
+        assertThat(resized.getRGB(x, 2) >>> 16 & 0xFF).isCloseTo((int) Math.round(v), within(2));
+        assertThat(resized.getRGB(x, 2) & 0xFFFFFF).isEqualTo(expected.getRGB(x, 2) & 0xFFFFFF);
+      }
+    }
+
+    // Transparent pixels do not bleed their color
+    BufferedImage half = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+    for (int y = 0; y < 64; y++) {
+      for (int x = 0; x < 64; x++) {
+        half.setRGB(x, y, x < 32 ? 0x00FF0000 : 0xFF0000FF);
+      }
+    }
+    BufferedImage resized = ImageResizer.resize(half, 16, 16);
+    assertThat(resized.getType()).isEqualTo(BufferedImage.TYPE_INT_ARGB);
+    for (int x = 0; x < 16; x++) {
+      int p = resized.getRGB(x, 8);
+      assertThat(p >>> 24 == 0 || (p & 0xFFFFFF) == 0x0000FF).as("pixel %d: %08x", x, p).isTrue();
+    }
+    assertThat(resized.getRGB(0, 8) >>> 24).isZero();
+    assertThat(resized.getRGB(15, 8) >>> 24).isEqualTo(255);
+
+    Path file = image("photo.png", "png", 80);
+    DisplayData display = ImageUtil.displayImage(file.toString(), 20, -1);
+    byte[] png = Base64.getDecoder().decode((String) display.getData(MIMEType.IMAGE_PNG));
+    BufferedImage shown = ImageIO.read(new ByteArrayInputStream(png));
+    assertThat(shown.getWidth()).isEqualTo(20);
+    assertThat(shown.getHeight()).isEqualTo(20);
+  }
+
+  @Test
+  public void testContactSheet() throws Exception {
+    Path photos = Files.createDirectory(dir.resolve("photos"));
+    int[] colors = {0xFF0000, 0x00FF00, 0x0000FF};
+    for (int i = 0; i < colors.length; i++) {
+      // Wide images, large enough to be read subsampled
+      BufferedImage image = new BufferedImage(1200, 600, BufferedImage.TYPE_INT_RGB);
+      Graphics2D g = image.createGraphics();
+      g.setColor(new Color(colors[i]));
+      g.fillRect(0, 0, 1200, 600);
+      g.dispose();
+      ImageIO.write(image, "png", photos.resolve("frame-" + i + ".png").toFile());
+    }
+    Files.writeString(photos.resolve("frame-3.png"), "truncated");
+    Files.writeString(photos.resolve("notes.txt"), "not matched");
+
+    DisplayData display = ImageUtil.contactSheet(photos.toString(), "*.png", 40, 3);
+    byte[] jpeg = Base64.getDecoder().decode((String) display.getData(MIMEType.IMAGE_JPEG));
+    BufferedImage sheet = ImageIO.read(new ByteArrayInputStream(jpeg));
+    // 3 columns and 2 rows of 40 pixel thumbnails with 4 pixels of padding and a label
+    assertThat(sheet.getWidth()).isEqualTo(3 * 48);
+    assertThat(sheet.getHeight()).isEqualTo(2 * (48 + 14));
+    for (int i = 0; i < colors.length; i++) {
+      // The center of each 40x20 thumbnail, and white above it
+      assertColor(sheet.getRGB(i * 48 + 24, 24), colors[i]);
+      assertColor(sheet.getRGB(i * 48 + 24, 8), 0xFFFFFF);
+    }
+    // An unreadable file is a gray cell
+    assertColor(sheet.getRGB(24, 62 + 24), Color.LIGHT_GRAY.getRGB());
+
+    Path cache = dir.resolve("cache");
+    String cached = (String) ImageUtil.contactSheet(photos.toString(), "*.png", 40, 3, cache.toString())
+        .getData(MIMEType.IMAGE_JPEG);
+    try (Stream<Path> files = Files.list(cache)) {
+      assertThat(files.filter(f -> f.toString().endsWith(".png")).count()).isEqualTo(3);
+    }
+    assertThat(ImageUtil.contactSheet(photos.toString(), "*.png", 40, 3, cache.toString())
+        .getData(MIMEType.IMAGE_JPEG)).isEqualTo(cached);
+    BufferedImage thumbnail = ContactSheet.thumbnail(photos.resolve("frame-1.png"), 40, cache);
+    assertThat(thumbnail.getWidth()).isEqualTo(40);
+    assertThat(thumbnail.getHeight()).isEqualTo(20);
+
+    assertThat(ImageUtil.contactSheet(dir.resolve("none").toString(), "*", 40, 3).getData(MIMEType.TEXT_PLAIN))
+        .isEqualTo("Directory not found: " + dir.resolve("none"));
+    assertThatThrownBy(() -> ImageUtil.contactSheet(photos.toString(), "*.png", 40, 0))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Columns must be positive");
+  }
+
+  @Test
+  public void testToTensorBatch() throws Exception {
+    BufferedImage solid = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = solid.createGraphics();
+    g.setColor(new Color(255, 0, 102));
+    g.fillRect(0, 0, 300, 200);
+    g.dispose();
+    Path a = dir.resolve("a.png");
+    ImageIO.write(solid, "png", a.toFile());
+    Path b = image("b.jpg", "jpeg", 120);
+    float[] mean = {0.5f, 0.4f, 0.2f};
+    float[] std = {0.5f, 0.25f, 0.2f};
+
+    TensorBatch batch = ImageUtil.toTensorBatch(List.of(a.toString(), b.toString()), 8, 6, mean, std);
+    assertThat(batch.shape()).containsExactly(2, 3, 6, 8);
+    assertThat(batch.buffer().remaining()).isEqualTo(2 * 3 * 6 * 8);
+    float[] floats = batch.array();
+    for (int i = 0; i < 48; i++) {
+      assertThat(floats[i]).isCloseTo(1f, within(1e-6f));
+      assertThat(floats[48 + i]).isCloseTo(-1.6f, within(1e-6f));
+      assertThat(floats[96 + i]).isCloseTo(1f, within(1e-6f));
+    }
+    // The second image is a gradient of red along x and of green along y, with no blue
+    int second = 3 * 48;
+    assertThat(floats[second + 7]).isGreaterThan(floats[second]);
+    assertThat(floats[second + 48 + 5 * 8]).isGreaterThan(floats[second + 48]);
+    assertThat(floats[second + 96]).isCloseTo(-1f, within(0.05f));
+
+    // A direct batch holds the same floats, and batches are refilled in place
+    TensorBatch direct = ImageUtil.toTensorBatch(List.of(a.toString(), b.toString()), mean, std,
+        TensorBatch.direct(2, 8, 6));
+    float[] copy = new float[2 * 3 * 48];
+    direct.buffer().get(copy);
+    assertThat(copy).containsExactly(java.util.Arrays.copyOf(floats, copy.length));
+    assertThat(ImageUtil.toTensorBatch(List.of(b.toString()), mean, std, batch)).isSameAs(batch);
+    assertThat(batch.size()).isEqualTo(1);
+    assertThat(batch.array()[0]).isEqualTo(floats[second]);
+
+    assertThatThrownBy(() -> ImageUtil.toTensorBatch(List.of(a.toString(), a.toString(), a.toString()), mean, std,
+        direct)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("cannot hold 3 images");
+    Path text = dir.resolve("notes.png");
+    Files.writeString(text, "not an image");
+    assertThatThrownBy(() -> ImageUtil.toTensorBatch(List.of(text.toString()), 8, 6, mean, std))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Not a readable image");
+    assertThatThrownBy(() -> ImageUtil.toTensorBatch(List.of(a.toString()), 8, 6, mean, new float[]{1, 0, 1}))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Std must be positive");
+  }
+
+  private static void assertColor(int rgb, int expected) {
+    for (int shift = 0; shift < 24; shift += 8) {
+      assertThat(rgb >>> shift & 0xFF).as("%06x", rgb & 0xFFFFFF).isCloseTo(expected >>> shift & 0xFF, within(12));
+    }
+  }
+
+  private static BufferedImage customRgba(int width, int height) {
+    ComponentColorModel model = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB), true, false,
+        Transparency.TRANSLUCENT, DataBuffer.TYPE_BYTE);
+    return new BufferedImage(model, model.createCompatibleWritableRaster(width, height), false, null);
+  }
+
+  private static BufferedImage copy(BufferedImage from, BufferedImage to) {
+    for (int y = 0; y < from.getHeight(); y++) {
+      for (int x = 0; x < from.getWidth(); x++) {
+        to.setRGB(x, y, from.getRGB(x, y));
+      }
+    }
+    return to;
+  }
+}
@@ -1,8 +1,6 @@
 package org.jjavaglue.jfreechart;
 
 import org.dflib.DataFrame;
-import org.dflib.GroupBy;
-import org.dflib.Hasher;
 import org.dflib.Series;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -21,6 +19,7 @@ import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.statistics.HistogramDataset;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
+import org.jjavaglue.dflib.Columns;
 import org.jjavaglue.dflib.DS;
 
 import javax.swing.*;
@@ -84,35 +83,26 @@ public class Plots {
     XYSeriesCollection dataset = new XYSeriesCollection();
 
     if (hue != null && !hue.isEmpty()) {
-      // Group by the hue column and create a series for each group
-      GroupBy groupedData = df.group(Hasher.of(hue));
-
-      for (Object category : groupedData.getGroupKeys()) {
-        DataFrame categoryDf = groupedData.getGroup(category);
-        XYSeries series = new XYSeries(category.toString());
-
-        Series<?> xValues = categoryDf.getColumn(x);
-        Series<?> yValues = categoryDf.getColumn(y);
-
-        for (int i = 0; i < categoryDf.height(); i++) {
-          double xVal = Double.parseDouble(xValues.get(i).toString());
-          double yVal = Double.parseDouble(yValues.get(i).toString());
-          series.add(xVal, yVal);
+      // Split the rows by the hue column and create a series for each group
+      double[] xValues = Columns.toDoubleArray(df.getColumn(x));
+      double[] yValues = Columns.toDoubleArray(df.getColumn(y));
+
+      for (Map.Entry<Object, int[]> group : Columns.groupRows(df.getColumn(hue)).entrySet()) {
+        XYSeries series = new XYSeries(group.getKey().toString());
+        for (int row : group.getValue()) {
+          series.add(xValues[row], yValues[row]);
         }
-
         dataset.addSeries(series);
       }
     } else {
       // No grouping, create a single series
       XYSeries series = new XYSeries(y + " vs " + x);
 
-      Series<?> xValues = df.getColumn(x);
-      Series<?> yValues = df.getColumn(y);
+      double[] xValues = Columns.toDoubleArray(df.getColumn(x));
+      double[] yValues = Columns.toDoubleArray(df.getColumn(y));
 
-      for (int i = 0; i < df.height(); i++) {
-        double xVal = Double.parseDouble(xValues.get(i).toString());
-        double yVal = Double.parseDouble(yValues.get(i).toString());
-        series.add(xVal, yVal);
+      for (int i = 0; i < xValues.length; i++) {
+        series.add(xValues[i], yValues[i]);
       }
 
       dataset.addSeries(series);
@@ -140,12 +130,7 @@ public class Plots {
    */
   public static ChartPanel histogram(DataFrame df, String column, int bins) {
     // Extract values from the DataFrame column
-    Series<?> values = df.getColumn(column);
-    double[] data = new double[values.size()];
-
-    for (int i = 0; i < values.size(); i++) {
-      data[i] = Double.parseDouble(values.get(i).toString());
-    }
+    double[] data = Columns.toDoubleArray(df.getColumn(column));
 
     // Create the dataset
     HistogramDataset dataset = new HistogramDataset();
@@ -183,7 +168,7 @@ public class Plots {
     if (columns.length == 0) {
       List<String> numericCols = new ArrayList<>();
       for (String col : df.getColumnsIndex()) {
-        if (!col.equals(hue) && isNumeric(df.getColumn(col))) {
+        if (!col.equals(hue) && Columns.isNumeric(df.getColumn(col))) {
           numericCols.add(col);
         }
       }
@@ -210,14 +195,8 @@ public class Plots {
     // Create a category-to-colorindex mapping from the hue column
     Map<Object, Integer> categoryColorMap = new HashMap<>();
     if (hue != null && !hue.isEmpty()) {
-      Series<?> hueSeries = df.getColumn(hue);
-      Set<Object> uniqueCategories = new LinkedHashSet<>();
-      for (int i = 0; i < hueSeries.size(); i++) {
-        uniqueCategories.add(hueSeries.get(i));
-      }
-
       int colorIdx = 0;
-      for (Object category : uniqueCategories) {
+      for (Object category : Columns.groupRows(df.getColumn(hue)).keySet()) {
         categoryColorMap.put(category, colorIdx);
         colorIdx++;
       }
@@ -276,10 +255,10 @@ public class Plots {
     Series<?> xValues = df.getColumn(x);
     Series<?> yValues = df.getColumn(y);
 
+    double[] values = Columns.toDoubleArray(yValues);
     for (int i = 0; i < df.height(); i++) {
       String category = xValues.get(i).toString();
-      double value = Double.parseDouble(yValues.get(i).toString());
-      dataset.addValue(value, y, category);
+      dataset.addValue(values[i], y, category);
     }
 
     // Create the chart
@@ -309,22 +288,20 @@ public class Plots {
     JFreeChart chart;
 
     if (hue != null && !hue.isEmpty()) {
-      // Group by the hue column and create a series for each group
-      GroupBy groupedData = df.group(Hasher.of(hue));
+      // Split the rows by the hue column and create a series for each group
+      double[] values = Columns.toDoubleArray(df.getColumn(column));
       XYSeriesCollection dataset = new XYSeriesCollection();
 
-      for (Object category : groupedData.getGroupKeys()) {
-        DataFrame categoryDf = groupedData.getGroup(category);
-        Series<?> values = categoryDf.getColumn(column);
-
+      for (Map.Entry<Object, int[]> group : Columns.groupRows(df.getColumn(hue)).entrySet()) {
         // Calculate KDE for this group
-        double[] data = new double[values.size()];
-        for (int i = 0; i < values.size(); i++) {
-          data[i] = Double.parseDouble(values.get(i).toString());
+        int[] rows = group.getValue();
+        double[] data = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+          data[i] = values[rows[i]];
         }
 
         // Create KDE series
-        XYSeries series = createKDESeries(data, category.toString());
+        XYSeries series = createKDESeries(data, group.getKey().toString());
         dataset.addSeries(series);
       }
 
@@ -333,12 +310,7 @@ public class Plots {
 
     } else {
       // No grouping, create a single KDE
-      Series<?> values = df.getColumn(column);
-      double[] data = new double[values.size()];
-
-      for (int i = 0; i < values.size(); i++) {
-        data[i] = Double.parseDouble(values.get(i).toString());
-      }
+      double[] data = Columns.toDoubleArray(df.getColumn(column));
 
       XYSeriesCollection dataset = new XYSeriesCollection();
       XYSeries series = createKDESeries(data, column);
@@ -371,37 +343,16 @@ public class Plots {
    * @return JFreeChart object ready for display
    */
   public static JFreeChart predictionVsActual(Object actual, double[] predicted, String title) {
-    // Convert predictions to List
-    List<Double> predictionsList = new ArrayList<>();
-    for (double p : predicted) {
-      predictionsList.add(p);
-    }
-
-    // Handle different types of actual values
-    List actualsList;
-    if (actual instanceof Series) {
-      Series<?> series = (Series<?>) actual;
-      actualsList = new ArrayList<>();
-      for (int i = 0; i < series.size(); i++) {
-        actualsList.add(series.get(i));
-      }
-    } else if (actual instanceof List) {
-      actualsList = (List<?>) actual;
-    } else if (actual instanceof double[]) {
-      double[] array = (double[]) actual;
-      actualsList = new ArrayList<>();
-      for (double value : array) {
-        actualsList.add(value);
-      }
-    } else {
+    // Series, List and double[] actuals are all accepted as-is by the columnar builder
+    if (!(actual instanceof Series || actual instanceof List || actual instanceof double[])) {
       throw new IllegalArgumentException("Unsupported actual value type");
     }
 
     // Create DataFrame
-    DataFrame df = DS.create(
+    DataFrame df = DS.fromColumns(
         new String[]{"actual", "predicted"},
-        actualsList,
-        predictionsList
+        actual,
+        predicted
     );
 
     // Create scatter plot
@@ -616,38 +567,30 @@ public class Plots {
     Map<Object, XYSeriesCollection> categoryDatasets = new HashMap<>();
 
     if (hue != null && !hue.isEmpty()) {
-      // Group by hue variable
-      GroupBy groupedData = df.group(Hasher.of(hue));
+      // Split the rows by the hue variable
+      double[] xValues = Columns.toDoubleArray(df.getColumn(x));
+      double[] yValues = Columns.toDoubleArray(df.getColumn(y));
 
-      for (Object category : groupedData.getGroupKeys()) {
-        DataFrame categoryDf = groupedData.getGroup(category);
+      for (Map.Entry<Object, int[]> group : Columns.groupRows(df.getColumn(hue)).entrySet()) {
         XYSeriesCollection dataset = new XYSeriesCollection();
-        XYSeries series = new XYSeries(category.toString());
-
-        Series<?> xValues = categoryDf.getColumn(x);
-        Series<?> yValues = categoryDf.getColumn(y);
-
-        for (int i = 0; i < categoryDf.height(); i++) {
-          double xVal = Double.parseDouble(xValues.get(i).toString());
-          double yVal = Double.parseDouble(yValues.get(i).toString());
-          series.add(xVal, yVal);
+        XYSeries series = new XYSeries(group.getKey().toString());
+        for (int row : group.getValue()) {
+          series.add(xValues[row], yValues[row]);
         }
 
         dataset.addSeries(series);
-        categoryDatasets.put(category, dataset);
+        categoryDatasets.put(group.getKey(), dataset);
       }
     } else {
       // No grouping, create a single series
       XYSeriesCollection dataset = new XYSeriesCollection();
       XYSeries series = new XYSeries("Points");
 
-      Series<?> xValues = df.getColumn(x);
-      Series<?> yValues = df.getColumn(y);
+      double[] xValues = Columns.toDoubleArray(df.getColumn(x));
+      double[] yValues = Columns.toDoubleArray(df.getColumn(y));
 
-      for (int i = 0; i < df.height(); i++) {
-        double xVal = Double.parseDouble(xValues.get(i).toString());
-        double yVal = Double.parseDouble(yValues.get(i).toString());
-        series.add(xVal, yVal);
+      for (int i = 0; i < xValues.length; i++) {
+        series.add(xValues[i], yValues[i]);
       }
 
       dataset.addSeries(series);
@@ -855,27 +798,6 @@ public class Plots {
     }
   }
 
-  private static boolean isNumeric(Series<?> series) {
-    if (series.size() == 0) {
-      return false;
-    }
-
-    // Check the first non-null value
-    for (int i = 0; i < series.size(); i++) {
-      Object value = series.get(i);
-      if (value != null) {
-        try {
-          Double.parseDouble(value.toString());
-          return true;
-        } catch (NumberFormatException e) {
-          return false;
-        }
-      }
-    }
-
-    return false;
-  }
-
   private static void adjustAxisLabels(JFreeChart chart, boolean showXLabel, boolean showYLabel, String xAxisLabel,
       String yAxisLabel) {
     XYPlot plot = (XYPlot) chart.getPlot();